@@ -0,0 +1,124 @@
+import java.util.SplittableRandom;
+
+/**
+ * Fixed sets of hands for benchmarks, generated from a seed so every run
+ * measures the same hands
+ * @author Cole Sanders
+ */
+public class HandCorpus {
+
+    /** Number of hands in each corpus */
+    public static final int SIZE = 4096;
+
+    /** Seed the corpora are generated from */
+    public static final long SEED = 20230204;
+
+    /**
+     * Creates hands dealt from a shuffled deck
+     * @return random hands
+     */
+    public static Hand[] random() {
+        SplittableRandom rng = new SplittableRandom(SEED);
+        Hand[] hands = new Hand[SIZE];
+        for (int i = 0; i < SIZE; ++i) {
+            hands[i] = deal(rng, CardSet.FULL_DECK, Hand.CARDS_IN_HAND, 0);
+        }
+        return hands;
+    }
+
+    /**
+     * Creates hands that each hold at least one pair
+     * @return hands with pairs or better
+     */
+    public static Hand[] pairsHeavy() {
+        SplittableRandom rng = new SplittableRandom(SEED + 1);
+        Hand[] hands = new Hand[SIZE];
+        for (int i = 0; i < SIZE; ++i) {
+            int value = Card.LOWEST_VALUE + rng.nextInt(Card.VALUES_IN_SUIT);
+            long pair = pick(rng, CardSet.valueMask(value), 2, 0);
+            hands[i] = deal(rng, CardSet.FULL_DECK & ~pair, Hand.CARDS_IN_HAND - 2, pair);
+        }
+        return hands;
+    }
+
+    /**
+     * Creates hands that are all one suit
+     * @return flushes, straight flushes and royal flushes
+     */
+    public static Hand[] flushHeavy() {
+        SplittableRandom rng = new SplittableRandom(SEED + 2);
+        Hand[] hands = new Hand[SIZE];
+        for (int i = 0; i < SIZE; ++i) {
+            char suit = Card.getSuit(rng.nextInt(CardSet.SUITS));
+            hands[i] = deal(rng, CardSet.suitMask(suit), Hand.CARDS_IN_HAND, 0);
+        }
+        return hands;
+    }
+
+    /**
+     * Creates sets of seven cards dealt from a shuffled deck, as in the two
+     * hole cards and five board cards of Texas Hold'em
+     * @return CardSet bits of seven random cards
+     */
+    public static long[] sevenCards() {
+        SplittableRandom rng = new SplittableRandom(SEED + 3);
+        long[] cards = new long[SIZE];
+        for (int i = 0; i < SIZE; ++i) {
+            cards[i] = pick(rng, CardSet.FULL_DECK, HoldemEvaluator.CARDS, 0);
+        }
+        return cards;
+    }
+
+    /**
+     * Gets the CardSet bits of each hand
+     * @param hands hands to convert
+     * @return bits of each hand
+     */
+    public static long[] toBits(Hand[] hands) {
+        long[] bits = new long[hands.length];
+        for (int i = 0; i < hands.length; ++i) {
+            bits[i] = CardSet.of(hands[i]).getBits();
+        }
+        return bits;
+    }
+
+    /**
+     * Deals a hand with some cards already chosen, shuffling the order of
+     * the cards
+     * @param rng generator to choose cards with
+     * @param from cards that can be chosen
+     * @param count number of cards to choose
+     * @param chosen cards already in the hand
+     * @return hand of five cards
+     */
+    private static Hand deal(SplittableRandom rng, long from, int count, long chosen) {
+        Card[] cards = new CardSet(pick(rng, from, count, chosen)).toCards();
+        for (int i = cards.length - 1; i > 0; --i) {
+            int j = rng.nextInt(i + 1);
+            Card card = cards[i];
+            cards[i] = cards[j];
+            cards[j] = card;
+        }
+        return new Hand(cards);
+    }
+
+    /**
+     * Adds random cards to a set
+     * @param rng generator to choose cards with
+     * @param from cards that can be chosen
+     * @param count number of cards to choose
+     * @param chosen cards already chosen
+     * @return bits of the chosen cards
+     */
+    private static long pick(SplittableRandom rng, long from, int count, long chosen) {
+        while (count > 0) {
+            int index = rng.nextInt(Deck.CARDS_IN_DECK);
+            long bit = CardSet.bit(index);
+            if ((from & bit) != 0 && (chosen & bit) == 0) {
+                chosen |= bit;
+                --count;
+            }
+        }
+        return chosen;
+    }
+}
@@ -0,0 +1,187 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Drives a GameServer with many concurrent connections, each playing
+ * games in its own session, and reports request latency percentiles and
+ * throughput against the latency targets
+ *
+ * @author Cole Sanders
+ */
+public class LoadGenerator {
+
+    /** Requests sent for each game: new game, two replacements and a score */
+    public static final int REQUESTS_PER_GAME = 4;
+
+    /** Median request latency the server should stay within, in microseconds */
+    public static final double TARGET_P50_MICROS = 1000;
+
+    /** 99th percentile request latency the server should stay within, in microseconds */
+    public static final double TARGET_P99_MICROS = 10000;
+
+    /**
+     * Plays games over a number of connections and gathers the latency of
+     * every request
+     * @param port port of a server on the loopback address
+     * @param connections number of concurrent connections
+     * @param games number of games each connection plays
+     * @return latency of each request in nanoseconds, sorted
+     * @throws IOException if a connection fails
+     */
+    public static long[] run(int port, int connections, int games) throws IOException {
+        ExecutorService pool = GameServer.newThreadPerTaskExecutor();
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int i = 0; i < connections; ++i) {
+                results.add(pool.submit(() -> play(port, games)));
+            }
+            long[] latencies = new long[connections * games * REQUESTS_PER_GAME];
+            int count = 0;
+            for (Future<long[]> result : results) {
+                long[] connection = result.get();
+                System.arraycopy(connection, 0, latencies, count, connection.length);
+                count += connection.length;
+            }
+            Arrays.sort(latencies, 0, count);
+            return Arrays.copyOf(latencies, count);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+        catch (ExecutionException e) {
+            throw new IOException("Connection failed", e.getCause());
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays games over one connection, opening a new session whenever the
+     * current one runs out of points
+     * @param port port of the server
+     * @param games number of games to play
+     * @return latency of each request in nanoseconds
+     * @throws IOException if the connection fails
+     */
+    private static long[] play(int port, int games) throws IOException {
+        long[] latencies = new long[games * REQUESTS_PER_GAME];
+        int count = 0;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(
+                     socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true,
+                                               StandardCharsets.UTF_8)) {
+            socket.setTcpNoDelay(true);
+            String id = request(in, out, "OPEN").substring(3);
+            for (int game = 0; game < games; ++game) {
+                long start = System.nanoTime();
+                String response = request(in, out, "NEW " + id);
+                if (response.startsWith("ERROR")) {
+                    id = request(in, out, "OPEN").substring(3);
+                    start = System.nanoTime();
+                    response = request(in, out, "NEW " + id);
+                }
+                latencies[count++] = System.nanoTime() - start;
+                for (int card = 0; card < 2; ++card) {
+                    start = System.nanoTime();
+                    request(in, out, "REPLACE " + id + " " + card);
+                    latencies[count++] = System.nanoTime() - start;
+                }
+                start = System.nanoTime();
+                request(in, out, "SCORE " + id);
+                latencies[count++] = System.nanoTime() - start;
+            }
+            request(in, out, "CLOSE " + id);
+            out.println("QUIT");
+        }
+        return latencies;
+    }
+
+    /**
+     * Sends a request and waits for its response
+     * @param in reader of responses
+     * @param out writer of requests
+     * @param request request line
+     * @return response line
+     * @throws IOException if the connection fails
+     */
+    private static String request(BufferedReader in, PrintWriter out, String request)
+            throws IOException {
+        out.println(request);
+        String response = in.readLine();
+        if (response == null) {
+            throw new IOException("Connection closed");
+        }
+        return response;
+    }
+
+    /**
+     * Gets a percentile of sorted latencies
+     * @param latencies sorted latencies
+     * @param percentile percentile from 0 to 100
+     * @return latency at the percentile
+     */
+    public static long percentile(long[] latencies, double percentile) {
+        int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+        return latencies[Math.max(0, Math.min(latencies.length - 1, index))];
+    }
+
+    /**
+     * Runs a load test against a server, starting one in this process if no
+     * port is given, and prints the latency percentiles and whether they
+     * met the targets, exiting with status 2 if they did not
+     * @param args args[0] number of connections, args[1] games per
+     * connection, optional args[2] port of a running server
+     */
+    public static void main(String[] args) {
+        if (args.length != 2 && args.length != 3) {
+            System.out.println("Usage: java -cp bin LoadGenerator connections games [port]");
+            System.exit(1);
+        }
+        try {
+            int connections = Integer.parseInt(args[0]);
+            int games = Integer.parseInt(args[1]);
+            GameServer server = args.length == 2 
+                                ? new GameServer(0, GameServer.DEFAULT_IDLE_MILLIS) : null;
+            int port = server != null ? server.getPort() : Integer.parseInt(args[2]);
+            long start = System.nanoTime();
+            long[] latencies = run(port, connections, games);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d requests in %.2f s (%.0f requests/s)%n", latencies.length,
+                              seconds, latencies.length / seconds);
+            System.out.printf("p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us%n",
+                              percentile(latencies, 50) / 1e3, percentile(latencies, 99) / 1e3,
+                              percentile(latencies, 99.9) / 1e3, 
+                              latencies[latencies.length - 1] / 1e3);
+            if (server != null) {
+                server.close();
+            }
+            boolean met = percentile(latencies, 50) / 1e3 <= TARGET_P50_MICROS
+                          && percentile(latencies, 99) / 1e3 <= TARGET_P99_MICROS;
+            System.out.printf("Target p50 %.0f us, p99 %.0f us: %s%n", TARGET_P50_MICROS,
+                              TARGET_P99_MICROS, met ? "met" : "missed");
+            if (!met) {
+                System.exit(2);
+            }
+        }
+        catch (NumberFormatException e) {
+            System.out.println("connections, games and port must be integers");
+        }
+        catch (IOException e) {
+            System.out.println("Load test failed: " + e.getMessage());
+        }
+    }
+}
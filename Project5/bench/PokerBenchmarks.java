@@ -0,0 +1,350 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.IntToLongFunction;
+
+import jmh.OperationBenchmark;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarks of the hot paths in Card, Deck, Hand, VideoPoker and the
+ * evaluators, run over the fixed corpora in HandCorpus. Each benchmark is
+ * an operation that takes the number of the call, for picking an input
+ * from a corpus, and returns a result that depends on the work done.
+ *
+ * JMH measures them through jmh.OperationBenchmark, which runs one
+ * operation per forked JVM. JMH will not generate a benchmark in the
+ * default package, and a class in a named package cannot refer to the
+ * default package, so that class looks its operation up here by name.
+ *
+ * @author Cole Sanders
+ */
+public class PokerBenchmarks {
+
+    /** Mask for turning a call number into a corpus position */
+    private static final int CORPUS_MASK = HandCorpus.SIZE - 1;
+
+    /**
+     * Lists every benchmark
+     * @return operation of each benchmark by name, in the order they are run
+     */
+    public static Map<String, IntToLongFunction> all() {
+        Map<String, IntToLongFunction> benchmarks = new LinkedHashMap<>();
+        addDeckBenchmarks(benchmarks);
+        Hand[] random = HandCorpus.random();
+        addPredicateBenchmarks(benchmarks, random);
+        benchmarks.put("Hand.getSortedHand", 
+            i -> random[i & CORPUS_MASK].getSortedHand()[0].getValue());
+        benchmarks.put("Hand.getCounts", 
+            i -> random[i & CORPUS_MASK].getCounts()[Card.HIGHEST_VALUE]);
+        addEvaluatorBenchmarks(benchmarks, "random", random);
+        addEvaluatorBenchmarks(benchmarks, "pairs", HandCorpus.pairsHeavy());
+        addEvaluatorBenchmarks(benchmarks, "flush", HandCorpus.flushHeavy());
+        addTableBenchmarks(benchmarks, random);
+        addBatchBenchmarks(benchmarks, random);
+        addVariantBenchmarks(benchmarks, random);
+        addHoldemBenchmarks(benchmarks);
+        addGameBenchmarks(benchmarks, random);
+        return benchmarks;
+    }
+
+    /**
+     * Adds the benchmarks of shuffling and dealing
+     * @param benchmarks list to add to
+     */
+    private static void addDeckBenchmarks(Map<String, IntToLongFunction> benchmarks) {
+        Deck seeded = new Deck(1);
+        benchmarks.put("Deck.shuffle (seeded)", i -> {
+            seeded.shuffle();
+            return seeded.nextCard().getIndex();
+        });
+        Deck eager = new Deck(new SplittableRandom(1));
+        benchmarks.put("Deck.shuffle (SplittableRandom)", i -> {
+            eager.shuffle();
+            return eager.nextCard().getIndex();
+        });
+        Deck counter = new Deck(new CounterRandom(1));
+        benchmarks.put("Deck.shuffle (CounterRandom)", i -> {
+            counter.shuffle();
+            return counter.nextCard().getIndex();
+        });
+        Deck seeking = new Deck(new CounterRandom(1), true);
+        benchmarks.put("Deck.seekGame + lazy shuffle + deal 10", i -> {
+            seeking.seekGame(i);
+            seeking.shuffle();
+            long result = 0;
+            for (int card = 0; card < 10; ++card) {
+                result += seeking.nextCard().getIndex();
+            }
+            return result;
+        });
+        Deck lazy = new Deck(new SplittableRandom(1), true);
+        benchmarks.put("Deck.shuffle (lazy) + deal 10", i -> {
+            lazy.shuffle();
+            long result = 0;
+            for (int card = 0; card < 10; ++card) {
+                result += lazy.nextCard().getIndex();
+            }
+            return result;
+        });
+        Deck dealing = new Deck(new SplittableRandom(1));
+        benchmarks.put("Deck.nextCard (shuffle every 52)", i -> {
+            if (i % Deck.CARDS_IN_DECK == 0) {
+                dealing.shuffle();
+            }
+            return dealing.nextCard().getIndex();
+        });
+    }
+
+    /**
+     * Adds the benchmarks of each Hand predicate. Replacing a card with
+     * itself clears the cached category, so every call does the work.
+     * @param benchmarks list to add to
+     * @param hands corpus of hands
+     */
+    private static void addPredicateBenchmarks(Map<String, IntToLongFunction> benchmarks, Hand[] hands) {
+        String[] names = {"isRoyalFlush", "isStraightFlush", "hasFourOfAKind", "isFullHouse",
+                          "isFlush", "isStraight", "hasThreeOfAKind", "hasTwoPairs",
+                          "hasOnePair"};
+        for (int p = 0; p < names.length; ++p) {
+            int predicate = p;
+            benchmarks.put("Hand." + names[p] + " (uncached)", i -> {
+                Hand hand = hands[i & CORPUS_MASK];
+                hand.replace(Hand.FIRST_CARD, hand.getCard(Hand.FIRST_CARD));
+                return test(hand, predicate) ? 1 : 0;
+            });
+        }
+    }
+
+    /**
+     * Calls one of the Hand predicates
+     * @param hand hand to test
+     * @param predicate position of the predicate in the list of names
+     * @return result of the predicate
+     */
+    private static boolean test(Hand hand, int predicate) {
+        switch (predicate) {
+            case 0:
+                return hand.isRoyalFlush();
+            case 1:
+                return hand.isStraightFlush();
+            case 2:
+                return hand.hasFourOfAKind();
+            case 3:
+                return hand.isFullHouse();
+            case 4:
+                return hand.isFlush();
+            case 5:
+                return hand.isStraight();
+            case 6:
+                return hand.hasThreeOfAKind();
+            case 7:
+                return hand.hasTwoPairs();
+            default:
+                return hand.hasOnePair();
+        }
+    }
+
+    /**
+     * Adds the benchmarks of the hand evaluators for a corpus
+     * @param benchmarks list to add to
+     * @param corpus name of the corpus
+     * @param hands corpus of hands
+     */
+    private static void addEvaluatorBenchmarks(Map<String, IntToLongFunction> benchmarks, String corpus,
+                                               Hand[] hands) {
+        long[] bits = HandCorpus.toBits(hands);
+        benchmarks.put("Hand.classify (uncached, " + corpus + ")", i -> {
+            Hand hand = hands[i & CORPUS_MASK];
+            hand.replace(Hand.FIRST_CARD, hand.getCard(Hand.FIRST_CARD));
+            return hand.classify().ordinal();
+        });
+        benchmarks.put("HandEvaluator.evaluate(Hand) (" + corpus + ")", 
+            i -> HandEvaluator.evaluate(hands[i & CORPUS_MASK]).ordinal());
+        benchmarks.put("HandEvaluator.evaluate(long) (" + corpus + ")", 
+            i -> HandEvaluator.evaluate(bits[i & CORPUS_MASK]).ordinal());
+    }
+
+    /**
+     * Adds the benchmarks of the evaluation table file against the same
+     * table on the heap
+     * @param benchmarks list to add to
+     * @param hands corpus of hands
+     */
+    private static void addTableBenchmarks(Map<String, IntToLongFunction> benchmarks, Hand[] hands) {
+        EvaluationTables mapped;
+        try {
+            Path file = Files.createTempFile("tables", ".bin");
+            file.toFile().deleteOnExit();
+            EvaluationTables.write(file);
+            mapped = EvaluationTables.load(file);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        EvaluationTables heap = EvaluationTables.onHeap();
+        benchmarks.put("EvaluationTables.evaluate (mapped, random)",
+            i -> mapped.evaluate(hands[i & CORPUS_MASK]).ordinal());
+        benchmarks.put("EvaluationTables.evaluate (heap, random)",
+            i -> heap.evaluate(hands[i & CORPUS_MASK]).ordinal());
+    }
+
+    /**
+     * Adds the benchmarks of scoring with the variant tables
+     * @param benchmarks list to add to
+     * @param hands corpus of hands
+     */
+    private static void addVariantBenchmarks(Map<String, IntToLongFunction> benchmarks, Hand[] hands) {
+        long[] bits = HandCorpus.toBits(hands);
+        benchmarks.put("Variant.getPayout(long) (Classic, random)",
+            i -> Variant.CLASSIC.getPayout(bits[i & CORPUS_MASK]));
+        Variant deuces;
+        try {
+            deuces = Variant.load(Paths.get(Variant.DIRECTORY, "deuces-wild.properties"));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        benchmarks.put("Variant.getPayout(long) (Deuces Wild, random)",
+            i -> deuces.getPayout(bits[i & CORPUS_MASK]));
+    }
+
+    /**
+     * Adds the benchmarks of scoring a whole corpus with BatchScorer
+     * @param benchmarks list to add to
+     * @param hands corpus of hands
+     */
+    private static void addBatchBenchmarks(Map<String, IntToLongFunction> benchmarks, Hand[] hands) {
+        int[][] columns = BatchScorer.pack(hands);
+        long[] bits = HandCorpus.toBits(hands);
+        byte[] ranks = new byte[hands.length];
+        int[] payouts = new int[hands.length];
+        benchmarks.put("BatchScorer.score(int[][]) (4096 hands)", 
+            i -> BatchScorer.score(columns, hands.length, ranks, payouts));
+        benchmarks.put("BatchScorer.score(long[]) (4096 hands)", 
+            i -> BatchScorer.score(bits, hands.length, ranks, payouts));
+    }
+
+    /**
+     * Adds the benchmarks of the seven card evaluator
+     * @param benchmarks list to add to
+     */
+    private static void addHoldemBenchmarks(Map<String, IntToLongFunction> benchmarks) {
+        long[] sevens = HandCorpus.sevenCards();
+        benchmarks.put("HoldemEvaluator.evaluate(long) (random 7)",
+            i -> HoldemEvaluator.evaluate(sevens[i & CORPUS_MASK]));
+        benchmarks.put("HoldemEvaluator.evaluate(long) (4096 x random 7)", i -> {
+            long result = 0;
+            for (long cards : sevens) {
+                result += HoldemEvaluator.evaluate(cards);
+            }
+            return result;
+        });
+        EquityCalculator calculator = new EquityCalculator();
+        long[] headsUp = {EquityCalculator.parseCards("c14,d14"),
+                          EquityCalculator.parseCards("h13,s13")};
+        long flop = EquityCalculator.parseCards("h2,d7,s11");
+        benchmarks.put("EquityCalculator.enumerate (flop, 2 x 990 boards)",
+            i -> calculator.enumerate(headsUp, flop).getWins(0));
+        long[] table = {EquityCalculator.parseCards("c14,d14"), 0, 0, 0, 0, 0};
+        benchmarks.put("EquityCalculator.sample (6 players, 256 deals)",
+            i -> calculator.sample(table, 0, i, 0, 256).getWins(0));
+        CombinationIterator turnsAndRivers = new CombinationIterator(
+            CardSet.FULL_DECK & ~(headsUp[0] | headsUp[1] | flop), 2);
+        benchmarks.put("CombinationIterator.nextLong (990 boards)", i -> {
+            long result = 0;
+            turnsAndRivers.seek(0);
+            while (turnsAndRivers.hasNext()) {
+                result += turnsAndRivers.nextLong();
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Adds the benchmarks of whole games and the hold solver
+     * @param benchmarks list to add to
+     * @param hands corpus of hands
+     */
+    private static void addGameBenchmarks(Map<String, IntToLongFunction> benchmarks, Hand[] hands) {
+        VideoPoker seeded = new VideoPoker(1);
+        benchmarks.put("VideoPoker.newGame+scoreHand (seeded)", i -> {
+            seeded.newGame();
+            return seeded.scoreHand().length();
+        });
+        VideoPoker lazy = new VideoPoker(new Deck(new SplittableRandom(1), true));
+        benchmarks.put("VideoPoker.newGame+scoreHand (lazy)", i -> {
+            lazy.newGame();
+            return lazy.scoreHand().length();
+        });
+        VideoPoker measured = new VideoPoker(1);
+        measured.setMetrics(new GameMetrics());
+        benchmarks.put("VideoPoker.newGame+scoreHand (seeded, metrics)", i -> {
+            measured.newGame();
+            return measured.scoreHand().length();
+        });
+        GameMetrics metrics = new GameMetrics();
+        benchmarks.put("GameMetrics.recordScore", i -> {
+            metrics.recordScore(i & CORPUS_MASK, PayCategory.ONE_PAIR, 10);
+            return i;
+        });
+        benchmarks.put("HoldSolver.bestHold (random)", 
+            i -> HoldSolver.bestHold(hands[i & CORPUS_MASK]));
+        ExpectedPayoutCache cache = new ExpectedPayoutCache(1 << 20);
+        for (Hand hand : hands) {
+            cache.bestHold(hand);
+        }
+        benchmarks.put("ExpectedPayoutCache.bestHold (hit)",
+            i -> cache.bestHold(hands[i & CORPUS_MASK]));
+    }
+
+    /**
+     * Gets the operation of one benchmark
+     * @param name name of the benchmark
+     * @return operation being measured
+     * @throws IllegalArgumentException when no benchmark has the name
+     */
+    public static IntToLongFunction operation(String name) {
+        IntToLongFunction operation = all().get(name);
+        if (operation == null) {
+            throw new IllegalArgumentException("Unknown benchmark");
+        }
+        return operation;
+    }
+
+    /**
+     * Runs the benchmarks whose names contain a filter under JMH with its
+     * GC profiler, which adds the bytes allocated per operation
+     * (gc.alloc.rate.norm) to the time per operation
+     * @param args optional args[0] text benchmark names must contain
+     * @throws RunnerException if JMH fails to run a benchmark
+     */
+    public static void main(String[] args) throws RunnerException {
+        String filter = args.length > 0 ? args[0] : "";
+        List<String> names = new ArrayList<>();
+        for (String name : all().keySet()) {
+            if (name.contains(filter)) {
+                names.add(name);
+            }
+        }
+        if (names.isEmpty()) {
+            System.out.println("No benchmark names contain " + filter);
+            System.exit(1);
+        }
+        new Runner(new OptionsBuilder()
+                       .include(OperationBenchmark.class.getName())
+                       .param("name", names.toArray(new String[0]))
+                       .addProfiler(GCProfiler.class)
+                       .build()).run();
+    }
+}
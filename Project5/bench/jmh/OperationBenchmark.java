@@ -0,0 +1,63 @@
+package jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntToLongFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs one of the operations listed by PokerBenchmarks under JMH, picked
+ * by the name parameter. Each name gets its own forked JVM, so the JIT
+ * only ever sees one operation behind the call.
+ *
+ * @author Cole Sanders
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+public class OperationBenchmark {
+
+    /** Name of the benchmark in PokerBenchmarks, given when JMH is run */
+    @Param({})
+    public String name;
+
+    /** Operation being measured */
+    private IntToLongFunction operation;
+
+    /** Number of the next call */
+    private int call;
+
+    /**
+     * Looks up the operation, building its corpus and state
+     * @throws ReflectiveOperationException if PokerBenchmarks cannot be
+     * found or has no such benchmark
+     */
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        operation = (IntToLongFunction) Class.forName("PokerBenchmarks")
+                                             .getMethod("operation", String.class)
+                                             .invoke(null, name);
+    }
+
+    /**
+     * Runs the operation once
+     * @return a result that depends on the work done, consumed by JMH
+     */
+    @Benchmark
+    public long run() {
+        return operation.applyAsLong(call++);
+    }
+}
@@ -0,0 +1,166 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Totals gathered by ReplayEngine over a journal, along with the events
+ * that did not match what their seeded deck produces
+ * @author Cole Sanders
+ */
+public class AuditReport {
+
+    /** Most mismatches described in a report */
+    public static final int MAX_LISTED = 100;
+
+    /** Number of records read */
+    private long events;
+
+    /** Number of sessions opened */
+    private long sessions;
+
+    /** Number of games dealt and verified */
+    private long games;
+
+    /** Number of sessions with at least one mismatch */
+    private long mismatches;
+
+    /** Descriptions of the first mismatches, by position in the journal */
+    private final TreeMap<Long, String> listed = new TreeMap<>();
+
+    /**
+     * Records that an event was read
+     */
+    void recordEvent() {
+        ++events;
+    }
+
+    /**
+     * Records that a session was opened
+     */
+    void recordSession() {
+        ++sessions;
+    }
+
+    /**
+     * Records that a game was dealt and matched the journal
+     */
+    void recordGame() {
+        ++games;
+    }
+
+    /**
+     * Records an event that does not match the replayed game
+     * @param position position of the record in the journal
+     * @param record record that does not match
+     * @param reason why it does not match
+     */
+    void recordMismatch(long position, JournalRecord record, String reason) {
+        ++mismatches;
+        listed.put(position, "record " + position + ", session " + record.getSessionId()
+                             + ", event " + record.getTypeName() + ": " + reason);
+        trim();
+    }
+
+    /**
+     * Adds the totals of another report to this one
+     * @param other report to add
+     */
+    void add(AuditReport other) {
+        events += other.events;
+        sessions += other.sessions;
+        games += other.games;
+        mismatches += other.mismatches;
+        listed.putAll(other.listed);
+        trim();
+    }
+
+    /**
+     * Drops the descriptions after the first MAX_LISTED
+     */
+    private void trim() {
+        while (listed.size() > MAX_LISTED) {
+            listed.pollLastEntry();
+        }
+    }
+
+    /**
+     * Gets the number of records read
+     * @return number of events
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * Gets the number of sessions opened in the journal
+     * @return number of sessions
+     */
+    public long getSessions() {
+        return sessions;
+    }
+
+    /**
+     * Gets the number of games that were dealt and matched the journal
+     * @return number of games
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Gets the number of sessions whose events did not match their deck
+     * @return number of mismatched sessions
+     */
+    public long getMismatches() {
+        return mismatches;
+    }
+
+    /**
+     * Describes the first mismatches in journal order
+     * @return at most MAX_LISTED descriptions
+     */
+    public List<String> getMismatchDescriptions() {
+        return new ArrayList<>(listed.values());
+    }
+
+    /**
+     * Compares two reports
+     * @param o object of comparison report
+     * @return true if the reports have the same totals and mismatches,
+     * false if not
+     */
+    public boolean equals(Object o) {
+        if (o instanceof AuditReport) {
+            AuditReport other = (AuditReport) o;
+            return events == other.events && sessions == other.sessions
+                   && games == other.games && mismatches == other.mismatches
+                   && listed.equals(other.listed);
+        }
+        else {
+            return false;
+        }
+    }
+
+    /**
+     * Gets a hash code consistent with equals
+     * @return hash code of the report
+     */
+    public int hashCode() {
+        return Long.hashCode(events) * 31 + Long.hashCode(mismatches);
+    }
+
+    /**
+     * Summarizes the report
+     * @return string with the totals and the listed mismatches
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(String.format("Events: %d, sessions: %d, games: %d, mismatched sessions: %d%n",
+                               events, sessions, games, mismatches));
+        for (Map.Entry<Long, String> entry : listed.entrySet()) {
+            s.append(entry.getValue()).append(System.lineSeparator());
+        }
+        return s.toString();
+    }
+}
@@ -0,0 +1,205 @@
+/**
+ * Scores many hands at once from primitive arrays instead of one Hand
+ * object at a time. Hands are stored as struct-of-arrays: five columns of
+ * card indexes (see Card.getIndex()), where column j holds card j of
+ * every hand, or one column of CardSet bits. The results are the HandRank
+ * ordinal and VideoPoker payout of each hand, the same as scoreHand().
+ *
+ * The column loop only does table reads and integer operations on one
+ * hand at a time with no branches on the card data, so the JIT can unroll
+ * it and keep the tables in cache. When VectorBatchKernel was compiled and
+ * the JVM was started with --add-modules jdk.incubator.vector, columns
+ * are scored by that kernel instead, which sums the value keys and ORs
+ * the suit bits of a whole vector of hands at once; otherwise the scalar
+ * loop here is used. The CardSet loop classifies each hand with
+ * HandEvaluator.evaluate(long), whose bit tests branch on the category of
+ * the hand, so it is slower when the categories are mixed.
+ *
+ * @author Cole Sanders
+ */
+public class BatchScorer {
+
+    /** Name of the class scoring columns with the Vector API */
+    static final String VECTOR_KERNEL = "VectorBatchKernel";
+
+    /** Value key of each card, indexed by card index */
+    static final int[] KEYS = new int[Deck.CARDS_IN_DECK];
+
+    /** Bit of each card's suit, indexed by card index */
+    static final int[] SUIT_BITS = new int[Deck.CARDS_IN_DECK];
+
+    /** Payout of each category, indexed by HandRank ordinal */
+    static final int[] PAYOUTS = new int[HandRank.values().length];
+
+    static {
+        for (int i = 0; i < Deck.CARDS_IN_DECK; ++i) {
+            KEYS[i] = HandEvaluator.getKey(Card.LOWEST_VALUE + i % Card.VALUES_IN_SUIT);
+            SUIT_BITS[i] = 1 << (i / Card.VALUES_IN_SUIT);
+        }
+        for (HandRank rank : HandRank.values()) {
+            PAYOUTS[rank.ordinal()] = VideoPoker.getPayout(rank);
+        }
+    }
+
+    /** Kernel scoring columns one hand at a time */
+    static final Kernel SCALAR = BatchScorer::scoreColumns;
+
+    /** Vector API kernel, or null when it or its module is missing */
+    private static final Kernel VECTOR = loadVectorKernel();
+
+    /**
+     * Scores a range of hands stored as five columns of card indexes whose
+     * lengths have been checked
+     */
+    interface Kernel {
+
+        /**
+         * Scores hands from..to - 1
+         * @param columns card indexes, indexed by card position then hand
+         * @param from first hand to score
+         * @param to one past the last hand to score
+         * @param ranks receives the HandRank ordinal of each hand
+         * @param payouts receives the payout of each hand
+         * @return total payout of the hands
+         */
+        long score(int[][] columns, int from, int to, byte[] ranks, int[] payouts);
+    }
+
+    /**
+     * Loads the Vector API kernel if it was compiled and the JVM has the
+     * jdk.incubator.vector module
+     * @return the kernel, or null to use the scalar loop
+     */
+    private static Kernel loadVectorKernel() {
+        try {
+            return (Kernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the kernel scoring columns with the Vector API
+     * @return the kernel, or null when the scalar loop is used
+     */
+    static Kernel getVectorKernel() {
+        return VECTOR;
+    }
+
+    /**
+     * Checks whether columns are scored with the Vector API
+     * @return true if the Vector API kernel is in use
+     */
+    public static boolean isVectorized() {
+        return VECTOR != null;
+    }
+
+    /**
+     * Packs hands into five columns of card indexes
+     * @param hands hands to pack
+     * @return columns of card indexes, indexed by card position then hand
+     */
+    public static int[][] pack(Hand[] hands) {
+        int[][] columns = new int[Hand.CARDS_IN_HAND][hands.length];
+        for (int i = 0; i < hands.length; ++i) {
+            for (int j = 0; j < Hand.CARDS_IN_HAND; ++j) {
+                columns[j][i] = hands[i].getCard(j).getIndex();
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Scores hands stored as five columns of card indexes
+     * @param columns card indexes, indexed by card position then hand
+     * @param count number of hands to score
+     * @param ranks receives the HandRank ordinal of each hand
+     * @param payouts receives the payout of each hand
+     * @return total payout of the hands
+     * @throws IllegalArgumentException when there are not five columns or
+     * an array is shorter than count
+     */
+    public static long score(int[][] columns, int count, byte[] ranks, int[] payouts) {
+        if (columns.length != Hand.CARDS_IN_HAND) {
+            throw new IllegalArgumentException("Invalid column count");
+        }
+        for (int[] column : columns) {
+            checkLength(column.length, count);
+        }
+        checkLength(ranks.length, count);
+        checkLength(payouts.length, count);
+        return (VECTOR == null ? SCALAR : VECTOR).score(columns, 0, count, ranks, payouts);
+    }
+
+    /**
+     * Scores a range of hands stored as five columns of card indexes one
+     * hand at a time
+     * @param columns card indexes, indexed by card position then hand
+     * @param from first hand to score
+     * @param to one past the last hand to score
+     * @param ranks receives the HandRank ordinal of each hand
+     * @param payouts receives the payout of each hand
+     * @return total payout of the hands
+     */
+    private static long scoreColumns(int[][] columns, int from, int to, byte[] ranks,
+                                     int[] payouts) {
+        int[] c0 = columns[Hand.FIRST_CARD];
+        int[] c1 = columns[Hand.SECOND_CARD];
+        int[] c2 = columns[Hand.THIRD_CARD];
+        int[] c3 = columns[Hand.FOURTH_CARD];
+        int[] c4 = columns[Hand.FIFTH_CARD];
+        long total = 0;
+        for (int i = from; i < to; ++i) {
+            int sum = KEYS[c0[i]] + KEYS[c1[i]] + KEYS[c2[i]] + KEYS[c3[i]] + KEYS[c4[i]];
+            int suits = SUIT_BITS[c0[i]] | SUIT_BITS[c1[i]] | SUIT_BITS[c2[i]]
+                        | SUIT_BITS[c3[i]] | SUIT_BITS[c4[i]];
+            int rank = HandEvaluator.evaluate(sum, (suits & (suits - 1)) == 0).ordinal();
+            ranks[i] = (byte) rank;
+            payouts[i] = PAYOUTS[rank];
+            total += PAYOUTS[rank];
+        }
+        return total;
+    }
+
+    /**
+     * Scores hands stored as CardSet bits
+     * @param hands bits of each hand
+     * @param count number of hands to score
+     * @param ranks receives the HandRank ordinal of each hand
+     * @param payouts receives the payout of each hand
+     * @return total payout of the hands
+     * @throws IllegalArgumentException when an array is shorter than count
+     * @throws IllegalArgumentException when a hand is not five cards of the
+     * 52 card deck, leaving the results before it filled in
+     */
+    public static long score(long[] hands, int count, byte[] ranks, int[] payouts) {
+        checkLength(hands.length, count);
+        checkLength(ranks.length, count);
+        checkLength(payouts.length, count);
+        long total = 0;
+        for (int i = 0; i < count; ++i) {
+            if (Long.bitCount(hands[i]) != Hand.CARDS_IN_HAND
+                || (hands[i] & ~CardSet.FULL_DECK) != 0) {
+                throw new IllegalArgumentException("Invalid hand");
+            }
+            int rank = HandEvaluator.evaluate(hands[i]).ordinal();
+            ranks[i] = (byte) rank;
+            payouts[i] = PAYOUTS[rank];
+            total += PAYOUTS[rank];
+        }
+        return total;
+    }
+
+    /**
+     * Checks that an array holds at least count elements
+     * @param length length of the array
+     * @param count number of hands to score
+     * @throws IllegalArgumentException when the array is too short
+     */
+    private static void checkLength(int length, int count) {
+        if (count < 0 || length < count) {
+            throw new IllegalArgumentException("Invalid count");
+        }
+    }
+}
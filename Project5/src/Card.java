@@ -1,6 +1,8 @@
     
 /**
- * A class representing a poker card with a value and suit
+ * A class representing a poker card with a value and suit. Cards are
+ * immutable, and Card.of() and Card.fromIndex() hand out one shared
+ * instance of each of the 52 cards.
  * @author Cole Sanders
  *
  */
@@ -24,14 +26,48 @@ public class Card implements Comparable<Card> {
     /** Highest value a card can have */
     public static final int HIGHEST_VALUE = 14;
     
+    /** Number of different values a card of one suit can have */
+    public static final int VALUES_IN_SUIT = 13;
+    
+    /** A char representing the joker, which has no suit */
+    public static final char JOKER_SUIT = 'j';
+    
+    /** Index of the joker, after the 52 suited cards */
+    public static final int JOKER_INDEX = 52;
+    
+    /** Suits in the order they are numbered by card indexes */
+    private static final char[] SUITS = {CLUBS, DIAMONDS, HEARTS, SPADES};
+    
+    /** Number of cards in a deck */
+    private static final int CARDS_IN_DECK = SUITS.length * VALUES_IN_SUIT;
+    
+    /** The shared instance of every card, indexed by getIndex() */
+    private static final Card[] CARDS = new Card[CARDS_IN_DECK];
+    
+    static {
+        for (int i = 0; i < CARDS_IN_DECK; ++i) {
+            CARDS[i] = new Card(LOWEST_VALUE + i % VALUES_IN_SUIT, SUITS[i / VALUES_IN_SUIT]);
+        }
+    }
+    
+    /** The joker of a 53 card deck, which has value 0 and sorts below every other card */
+    public static final Card JOKER = new Card();
+    
     /** Numeric value of card */
-    private int value;
+    private final int value;
     
     /** Suit of card */
-    private char suit;
+    private final char suit;
+    
+    /** Position of card from 0 to 51 in a new deck */
+    private final int index;
+    
+    /** Suit and value of the card as returned by toString() */
+    private final String name;
     
     /**
-     * Constructor initializing the suit and value of a card
+     * Constructor initializing the suit and value of a card. Card.of()
+     * returns the shared instance instead of a new one.
      *
      * @param value numeric value of a card     
      * @param suit character representing the card's suit
@@ -49,6 +85,72 @@ public class Card implements Comparable<Card> {
         }
         this.value = value;
         this.suit = suit;
+        int suitIndex = 0;
+        while (SUITS[suitIndex] != suit) {
+            ++suitIndex;
+        }
+        this.index = suitIndex * VALUES_IN_SUIT + value - LOWEST_VALUE;
+        this.name = suit + Integer.toString(value);
+    }
+    
+    /**
+     * Constructor initializing the joker
+     */
+    private Card() {
+        this.value = 0;
+        this.suit = JOKER_SUIT;
+        this.index = JOKER_INDEX;
+        this.name = "joker";
+    }
+    
+    /**
+     * Gets the shared instance of a card
+     *
+     * @param value numeric value of a card
+     * @param suit character representing the card's suit
+     * @return the card with that value and suit
+     * @throws IllegalArgumentException when value is less than
+     * two or greater than fourteen
+     * @throws IllegalArgumentException when suit is not clubs,
+     * diamonds, spades, and hearts
+     */
+    public static Card of(int value, char suit) {
+        if (value > HIGHEST_VALUE || value < LOWEST_VALUE) {
+            throw new IllegalArgumentException("Invalid value");
+        }
+        for (int suitIndex = 0; suitIndex < SUITS.length; ++suitIndex) {
+            if (SUITS[suitIndex] == suit) {
+                return CARDS[suitIndex * VALUES_IN_SUIT + value - LOWEST_VALUE];
+            }
+        }
+        throw new IllegalArgumentException("Invalid suit");
+    }
+    
+    /**
+     * Gets the shared instance of the card at a given index. Cards are
+     * numbered from 0 to 51 in the order of a new deck: clubs, diamonds,
+     * hearts and then spades, each from two to ace.
+     * 
+     * @param index index of the card
+     * @return card at the index
+     * @throws IllegalArgumentException when index is less than zero or
+     * greater than 51
+     */
+    public static Card fromIndex(int index) {
+        if (index < 0 || index >= CARDS_IN_DECK) {
+            throw new IllegalArgumentException("Invalid index");
+        }
+        return CARDS[index];
+    }
+    
+    /**
+     * Gets the suit at a given position in the order used by card indexes
+     * 
+     * @param suitIndex position of the suit from 0 to 3
+     * @return character representing the suit
+     */
+    public static char getSuit(int suitIndex) {
+        return SUITS[suitIndex];
     }
     
     /**
@@ -69,6 +171,25 @@ public class Card implements Comparable<Card> {
         return suit;
     }
     
+    /**
+     * Tells whether the card is the joker
+     * 
+     * @return true if the card is the joker, false if not
+     */
+    public boolean isJoker() {
+        return index == JOKER_INDEX;
+    }
+    
+    /**
+     * This method fetches the index of a card, from 0 to 51 in the order
+     * of a new deck, or JOKER_INDEX for the joker
+     * 
+     * @return index the position of the card in a new deck
+     */
+    public int getIndex() {
+        return index;
+    }
+    
     /**
      * Tests if two cards are the same
      * 
@@ -77,9 +198,12 @@ public class Card implements Comparable<Card> {
      *         false if the cards are different
      */
     public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
         if (o instanceof Card) {
             Card other = (Card)o;
-            if(value == other.value && suit == other.suit) {
+            if(index == other.index) {
                 return true;
             }
             else {
@@ -91,6 +215,15 @@ public class Card implements Comparable<Card> {
         }
     }
     
+    /**
+     * Gets a hash code consistent with equals
+     * 
+     * @return the index of the card
+     */
+    public int hashCode() {
+        return index;
+    }
+    
     /**
      * This method outputs a cards suit and value to a string in the
      * format "suitvalue"
@@ -98,9 +231,7 @@ public class Card implements Comparable<Card> {
      * @return a string containg the suit and value of the card
      */
     public String toString() {
-        String s = "";
-        s += value;
-        return suit + s;
+        return name;
     }
     
     /**
@@ -0,0 +1,177 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+/**
+ * The 52 card faces, the joker and the blank card, decoded once and
+ * looked up by card. Images are read from cards.zip in one pass when the
+ * archive is present, and from the individual GIF files otherwise. A
+ * directory without a joker image gets one drawn on the blank card.
+ *
+ * @author Cole Sanders
+ */
+public class CardImages {
+
+    /** Name of the archive holding every card image */
+    public static final String ARCHIVE = "cards.zip";
+
+    /** Name of the blank card image without its extension */
+    public static final String BLANK = "blank";
+
+    /** Letters drawn down a joker face that has no image */
+    private static final String JOKER_LETTERS = "JOKER";
+
+    /** Colour of the letters on a drawn joker face */
+    private static final Color JOKER_COLOR = new Color(0xB0, 0x10, 0x10);
+
+    /** Extension of the card image files */
+    private static final String EXTENSION = ".gif";
+
+    /** Faces indexed by Card.getIndex() */
+    private final ImageIcon[] faces;
+
+    /** Image of the blank card */
+    private final ImageIcon blank;
+
+    /**
+     * Constructor initializing the images
+     * @param faces faces indexed by Card.getIndex()
+     * @param blank image of the blank card
+     */
+    private CardImages(ImageIcon[] faces, ImageIcon blank) {
+        this.faces = faces;
+        this.blank = blank;
+    }
+
+    /**
+     * Loads every card image from a directory such as cards
+     * @param directory directory holding cards.zip or the GIF files
+     * @return the decoded images
+     * @throws IOException if an image is missing or cannot be decoded
+     */
+    public static CardImages load(Path directory) throws IOException {
+        Map<String, byte[]> files = new HashMap<>();
+        Path archive = directory.resolve(ARCHIVE);
+        if (Files.isRegularFile(archive)) {
+            try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive))) {
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    String name = entry.getName();
+                    name = name.substring(name.lastIndexOf('/') + 1);
+                    if (name.endsWith(EXTENSION)) {
+                        files.put(name, zip.readAllBytes());
+                    }
+                }
+            }
+        }
+        ImageIcon[] faces = new ImageIcon[Deck.CARDS_WITH_JOKER];
+        for (int i = 0; i < Deck.CARDS_IN_DECK; ++i) {
+            faces[i] = decode(directory, files, Card.fromIndex(i).toString());
+        }
+        ImageIcon blank = decode(directory, files, BLANK);
+        String joker = Card.JOKER.toString();
+        if (files.containsKey(joker + EXTENSION)
+            || Files.isRegularFile(directory.resolve(joker + EXTENSION))) {
+            faces[Card.JOKER_INDEX] = decode(directory, files, joker);
+        }
+        else {
+            faces[Card.JOKER_INDEX] = drawJoker(blank, joker);
+        }
+        return new CardImages(faces, blank);
+    }
+
+    /**
+     * Draws a joker face by writing JOKER_LETTERS down the blank card
+     * @param blank image of the blank card
+     * @param name description of the face
+     * @return image of the joker
+     */
+    private static ImageIcon drawJoker(ImageIcon blank, String name) {
+        int width = blank.getIconWidth();
+        int height = blank.getIconHeight();
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.drawImage(blank.getImage(), 0, 0, null);
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                                      RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            int lineHeight = height / (JOKER_LETTERS.length() + 1);
+            graphics.setFont(new Font(Font.SERIF, Font.BOLD, lineHeight));
+            graphics.setColor(JOKER_COLOR);
+            FontMetrics metrics = graphics.getFontMetrics();
+            int top = (height - lineHeight * JOKER_LETTERS.length()) / 2 + metrics.getAscent();
+            for (int i = 0; i < JOKER_LETTERS.length(); ++i) {
+                String letter = JOKER_LETTERS.substring(i, i + 1);
+                graphics.drawString(letter, (width - metrics.stringWidth(letter)) / 2,
+                                    top + i * lineHeight);
+            }
+        }
+        finally {
+            graphics.dispose();
+        }
+        return new ImageIcon(image, name);
+    }
+
+    /**
+     * Decodes one card image from the archive, or from its own file when
+     * the archive does not have it
+     * @param directory directory holding the GIF files
+     * @param files contents of the archive by file name
+     * @param name name of the image without its extension
+     * @return the decoded image
+     * @throws IOException if the image is missing or cannot be decoded
+     */
+    private static ImageIcon decode(Path directory, Map<String, byte[]> files, String name)
+            throws IOException {
+        String fileName = name + EXTENSION;
+        byte[] bytes = files.get(fileName);
+        Path file = directory.resolve(fileName);
+        if (bytes == null && !Files.isRegularFile(file)) {
+            throw new IOException("Missing card image: " + fileName);
+        }
+        BufferedImage image;
+        try (InputStream in = bytes != null ? new ByteArrayInputStream(bytes)
+                                            : Files.newInputStream(file)) {
+            image = ImageIO.read(in);
+        }
+        if (image == null) {
+            throw new IOException("Invalid card image: " + fileName);
+        }
+        return new ImageIcon(image, name);
+    }
+
+    /**
+     * Gets the face of a card
+     * @param card card to show
+     * @return image of the card
+     * @throws IllegalArgumentException when card is null
+     */
+    public ImageIcon getIcon(Card card) {
+        if (card == null) {
+            throw new IllegalArgumentException("Null card");
+        }
+        return faces[card.getIndex()];
+    }
+
+    /**
+     * Gets the image of the blank card
+     * @return image of the blank card
+     */
+    public ImageIcon getBlank() {
+        return blank;
+    }
+}
@@ -0,0 +1,352 @@
+/**
+ * An immutable set of cards packed into the bits of a long. Bit i is set
+ * when the card with index i (see Card.getIndex()) is in the set, so each
+ * suit takes up thirteen consecutive bits with two as the lowest.
+ *
+ * The static methods work on the raw long so that hot loops can test for
+ * flushes, straights and pairs with a few bit operations and without
+ * creating any objects.
+ *
+ * @author Cole Sanders
+ */
+public final class CardSet {
+
+    /** Number of suits in a deck */
+    public static final int SUITS = 4;
+
+    /** Bits of the thirteen values of one suit */
+    public static final int SUIT_BITS = (1 << Card.VALUES_IN_SUIT) - 1;
+
+    /** Bits of every card in the deck */
+    public static final long FULL_DECK = (1L << Deck.CARDS_IN_DECK) - 1;
+
+    /** The empty set */
+    public static final CardSet EMPTY = new CardSet(0);
+
+    /** Bits of five cards in a row starting with the lowest value */
+    private static final int STRAIGHT_BITS = (1 << Hand.CARDS_IN_HAND) - 1;
+
+    /** Bits of the cards in the set */
+    private final long bits;
+
+    /**
+     * Constructor initializing the set from the bits of its cards
+     * @param bits bits of the cards in the set
+     * @throws IllegalArgumentException when a bit above the last card is set
+     */
+    public CardSet(long bits) {
+        if ((bits & ~FULL_DECK) != 0) {
+            throw new IllegalArgumentException("Invalid bits");
+        }
+        this.bits = bits;
+    }
+
+    /**
+     * Creates a set from a list of cards
+     * @param cards cards in the set
+     * @return set holding the cards
+     * @throws IllegalArgumentException when the same card appears twice
+     */
+    public static CardSet of(Card... cards) {
+        long bits = 0;
+        for (Card card : cards) {
+            long bit = bit(card.getIndex());
+            if ((bits & bit) != 0) {
+                throw new IllegalArgumentException("Duplicate card");
+            }
+            bits |= bit;
+        }
+        return new CardSet(bits);
+    }
+
+    /**
+     * Creates a set from the cards in a hand
+     * @param hand hand of cards
+     * @return set holding the cards in the hand
+     * @throws IllegalArgumentException when the hand holds the same card twice
+     */
+    public static CardSet of(Hand hand) {
+        Card[] cards = new Card[Hand.CARDS_IN_HAND];
+        for (int i = 0; i < Hand.CARDS_IN_HAND; ++i) {
+            cards[i] = hand.getCard(i);
+        }
+        return of(cards);
+    }
+
+    /**
+     * Creates a set from the cards that have not been dealt from a deck
+     * @param deck deck of cards
+     * @return set holding the cards left in the deck
+     */
+    public static CardSet of(Deck deck) {
+        return new CardSet(deck.getRemainingBits());
+    }
+
+    /**
+     * Gets the bit of the card with a given index
+     * @param index index of the card from 0 to 51
+     * @return long with only the bit of the card set
+     */
+    public static long bit(int index) {
+        return 1L << index;
+    }
+
+    /**
+     * Gets the bits of every card of a suit
+     * @param suit character representing the suit
+     * @return bits of the thirteen cards of the suit
+     */
+    public static long suitMask(char suit) {
+        return (long) SUIT_BITS << (suitIndex(suit) * Card.VALUES_IN_SUIT);
+    }
+
+    /**
+     * Gets the bits of every card with a value
+     * @param value card value from two to fourteen
+     * @return bits of the four cards with the value
+     */
+    public static long valueMask(int value) {
+        long mask = 0;
+        for (int suit = 0; suit < SUITS; ++suit) {
+            mask |= bit(suit * Card.VALUES_IN_SUIT + value - Card.LOWEST_VALUE);
+        }
+        return mask;
+    }
+
+    /**
+     * Gets the values of the cards of one suit as thirteen bits, with two
+     * as the lowest bit
+     * @param cards bits of a set of cards
+     * @param suitIndex position of the suit from 0 to 3
+     * @return value bits of the cards of the suit
+     */
+    public static int valuesInSuit(long cards, int suitIndex) {
+        return (int) (cards >>> (suitIndex * Card.VALUES_IN_SUIT)) & SUIT_BITS;
+    }
+
+    /**
+     * Gets the values present in a set of cards as thirteen bits
+     * @param cards bits of a set of cards
+     * @return bits of the values that appear at least once
+     */
+    public static int values(long cards) {
+        return valuesInSuit(cards, 0) | valuesInSuit(cards, 1) | valuesInSuit(cards, 2)
+               | valuesInSuit(cards, 3);
+    }
+
+    /**
+     * Gets the values that appear exactly a given number of times in a set
+     * of cards, worked out by combining the value bits of the four suits
+     * @param cards bits of a set of cards
+     * @param count number of times the value appears, from 1 to 4
+     * @return bits of the values that appear count times
+     */
+    public static int valuesWithCount(long cards, int count) {
+        int c = valuesInSuit(cards, 0);
+        int d = valuesInSuit(cards, 1);
+        int h = valuesInSuit(cards, 2);
+        int s = valuesInSuit(cards, 3);
+        int four = c & d & h & s;
+        int threeOrMore = (c & d & h) | (c & d & s) | (c & h & s) | (d & h & s);
+        int twoOrMore = (c & d) | (c & h) | (c & s) | (d & h) | (d & s) | (h & s);
+        switch (count) {
+            case 1:
+                return (c | d | h | s) & ~twoOrMore;
+            case 2:
+                return twoOrMore & ~threeOrMore;
+            case Hand.THREE_OF_A_KIND:
+                return threeOrMore & ~four;
+            case Hand.FOUR_OF_A_KIND:
+                return four;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Checks if every card in a non-empty set shares a suit
+     * @param cards bits of a set of cards
+     * @return true if all cards are the same suit, false if not
+     */
+    public static boolean isFlush(long cards) {
+        for (int suit = 0; suit < SUITS; ++suit) {
+            long suitBits = (long) SUIT_BITS << (suit * Card.VALUES_IN_SUIT);
+            if ((cards & ~suitBits) == 0) {
+                return cards != 0;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a set holds exactly five cards with consecutive values.
+     * As in Hand, an ace only counts high.
+     * @param cards bits of a set of cards
+     * @return true if the cards are a straight, false if not
+     */
+    public static boolean isStraight(long cards) {
+        int values = values(cards);
+        return Long.bitCount(cards) == Hand.CARDS_IN_HAND
+               && values == STRAIGHT_BITS << Integer.numberOfTrailingZeros(values);
+    }
+
+    /**
+     * Gets the lowest value in a non-empty set of cards
+     * @param cards bits of a set of cards
+     * @return lowest card value in the set
+     */
+    public static int lowestValue(long cards) {
+        return Card.LOWEST_VALUE + Integer.numberOfTrailingZeros(values(cards));
+    }
+
+    /**
+     * Gets the bits of the cards in the set
+     * @return bits of the cards in the set
+     */
+    public long getBits() {
+        return bits;
+    }
+
+    /**
+     * Gets the number of cards in the set
+     * @return number of cards
+     */
+    public int size() {
+        return Long.bitCount(bits);
+    }
+
+    /**
+     * Checks if the set holds a card
+     * @param card card to look for
+     * @return true if the card is in the set, false if not
+     */
+    public boolean contains(Card card) {
+        return (bits & bit(card.getIndex())) != 0;
+    }
+
+    /**
+     * Checks if the set holds every card of another set
+     * @param other set of cards to look for
+     * @return true if all cards of other are in the set, false if not
+     */
+    public boolean containsAll(CardSet other) {
+        return (other.bits & ~bits) == 0;
+    }
+
+    /**
+     * Creates the set of cards in this set or another set
+     * @param other other set of cards
+     * @return union of the two sets
+     */
+    public CardSet union(CardSet other) {
+        return new CardSet(bits | other.bits);
+    }
+
+    /**
+     * Creates the set of cards in both this set and another set
+     * @param other other set of cards
+     * @return intersection of the two sets
+     */
+    public CardSet intersect(CardSet other) {
+        return new CardSet(bits & other.bits);
+    }
+
+    /**
+     * Creates the set of cards in this set but not in another set
+     * @param other other set of cards
+     * @return difference of the two sets
+     */
+    public CardSet minus(CardSet other) {
+        return new CardSet(bits & ~other.bits);
+    }
+
+    /**
+     * Creates the set of cards in this set of a given suit
+     * @param suit character representing the suit
+     * @return cards of the suit
+     */
+    public CardSet ofSuit(char suit) {
+        return new CardSet(bits & suitMask(suit));
+    }
+
+    /**
+     * Creates the set of cards in this set with a given value
+     * @param value card value from two to fourteen
+     * @return cards with the value
+     */
+    public CardSet ofValue(int value) {
+        return new CardSet(bits & valueMask(value));
+    }
+
+    /**
+     * Lists the cards in the set in index order
+     * @return array of the cards in the set
+     */
+    public Card[] toCards() {
+        Card[] cards = new Card[size()];
+        long remaining = bits;
+        for (int i = 0; i < cards.length; ++i) {
+            cards[i] = Card.fromIndex(Long.numberOfTrailingZeros(remaining));
+            remaining &= remaining - 1;
+        }
+        return cards;
+    }
+
+    /**
+     * Creates a hand from a set of five cards, in index order
+     * @return hand holding the cards in the set
+     * @throws IllegalStateException when the set does not hold five cards
+     */
+    public Hand toHand() {
+        if (size() != Hand.CARDS_IN_HAND) {
+            throw new IllegalStateException("Not a hand");
+        }
+        return new Hand(toCards());
+    }
+
+    /**
+     * Compares two sets of cards
+     * @param o object of comparison set
+     * @return true if the sets hold the same cards, false if not
+     */
+    public boolean equals(Object o) {
+        if (o instanceof CardSet) {
+            return bits == ((CardSet) o).bits;
+        }
+        else {
+            return false;
+        }
+    }
+
+    /**
+     * Gets a hash code consistent with equals
+     * @return hash code of the set
+     */
+    public int hashCode() {
+        return Long.hashCode(bits);
+    }
+
+    /**
+     * Lists the cards in the set
+     * @return string listing the cards in index order
+     */
+    public String toString() {
+        return java.util.Arrays.toString(toCards());
+    }
+
+    /**
+     * Gets the position of a suit in the order used by card indexes
+     * @param suit character representing the suit
+     * @return position of the suit from 0 to 3
+     * @throws IllegalArgumentException when suit is not clubs, diamonds,
+     * hearts or spades
+     */
+    private static int suitIndex(char suit) {
+        for (int i = 0; i < SUITS; ++i) {
+            if (Card.getSuit(i) == suit) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Invalid suit");
+    }
+}
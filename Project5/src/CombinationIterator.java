@@ -0,0 +1,337 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Steps through every way of choosing k cards from a set of cards, such
+ * as the cards not yet dealt from a Deck, giving each combination as the
+ * bits of a CardSet.
+ *
+ * The n available cards are numbered 0 to n - 1 in order of index, and a
+ * combination is first found as a k bit word over those positions by
+ * Gosper's hack, which gives the next larger word with the same number of
+ * bits. That visits the combinations in colexicographic order, where the
+ * rank of positions p1 &lt; p2 &lt; ... &lt; pk is the sum of C(pi, i).
+ * The word is then spread onto the card bits with one table lookup per
+ * byte of positions. nextLong() creates no objects.
+ *
+ * Since the rank of every combination is known, an iterator can cover any
+ * range of ranks, split itself into balanced ranges for parallel workers,
+ * and be restarted from a saved rank.
+ *
+ * @author Cole Sanders
+ */
+public final class CombinationIterator implements PrimitiveIterator.OfLong {
+
+    /** Most cards that can be chosen from */
+    public static final int MAX_CARDS = Long.SIZE - 1;
+
+    /** Number of positions spread by each lookup table */
+    private static final int CHUNK_BITS = Byte.SIZE;
+
+    /** Mask of the positions of one chunk */
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+    /** Binomial coefficients, indexed by n then k */
+    private static final long[][] BINOMIALS = new long[MAX_CARDS + 2][MAX_CARDS + 2];
+
+    static {
+        for (int n = 0; n < BINOMIALS.length; ++n) {
+            BINOMIALS[n][0] = 1;
+            for (int k = 1; k <= n; ++k) {
+                BINOMIALS[n][k] = BINOMIALS[n - 1][k - 1] + BINOMIALS[n - 1][k];
+            }
+        }
+    }
+
+    /** Bits of the cards that can be chosen */
+    private final long cards;
+
+    /** Number of cards in each combination */
+    private final int k;
+
+    /** Rank of the first combination of the range */
+    private final long from;
+
+    /** Rank one past the last combination of the range */
+    private final long to;
+
+    /** Card bits of each chunk of positions, indexed by chunk then position bits */
+    private final long[][] spread;
+
+    /** Rank of the next combination */
+    private long rank;
+
+    /** Positions of the next combination */
+    private long word;
+
+    /**
+     * Constructor covering every combination
+     * @param cards bits of the cards that can be chosen
+     * @param k number of cards in each combination
+     * @throws IllegalArgumentException when cards has the top bit set
+     * @throws IllegalArgumentException when k is negative or more than the
+     * number of cards
+     */
+    public CombinationIterator(long cards, int k) {
+        this(cards, k, 0, count(Long.bitCount(cards), k));
+    }
+
+    /**
+     * Constructor covering a range of ranks
+     * @param cards bits of the cards that can be chosen
+     * @param k number of cards in each combination
+     * @param from rank of the first combination
+     * @param to rank one past the last combination
+     * @throws IllegalArgumentException when cards has the top bit set
+     * @throws IllegalArgumentException when k is negative or more than the
+     * number of cards
+     * @throws IllegalArgumentException when the range is not within the
+     * combinations
+     */
+    public CombinationIterator(long cards, int k, long from, long to) {
+        if (cards < 0) {
+            throw new IllegalArgumentException("Invalid cards");
+        }
+        if (k < 0 || k > Long.bitCount(cards)) {
+            throw new IllegalArgumentException("Invalid combination size");
+        }
+        if (from < 0 || from > to || to > count(Long.bitCount(cards), k)) {
+            throw new IllegalArgumentException("Invalid range");
+        }
+        this.cards = cards;
+        this.k = k;
+        this.from = from;
+        this.to = to;
+        int n = Long.bitCount(cards);
+        spread = new long[(n + CHUNK_BITS - 1) / CHUNK_BITS][1 << CHUNK_BITS];
+        long rest = cards;
+        for (int position = 0; position < n; ++position) {
+            long bit = Long.lowestOneBit(rest);
+            rest ^= bit;
+            long[] chunk = spread[position / CHUNK_BITS];
+            int positionBit = 1 << (position % CHUNK_BITS);
+            for (int bits = positionBit; bits < chunk.length; bits = (bits + 1) | positionBit) {
+                chunk[bits] |= bit;
+            }
+        }
+        seek(from);
+    }
+
+    /**
+     * Constructor covering part of the range of another iterator, sharing
+     * its lookup tables
+     * @param source iterator over the same cards
+     * @param from rank of the first combination
+     * @param to rank one past the last combination
+     */
+    private CombinationIterator(CombinationIterator source, long from, long to) {
+        cards = source.cards;
+        k = source.k;
+        spread = source.spread;
+        this.from = from;
+        this.to = to;
+        seek(from);
+    }
+
+    /**
+     * Makes an iterator over the cards not yet dealt from a deck
+     * @param deck deck of cards
+     * @param k number of cards in each combination
+     * @return iterator over every combination of the undealt cards
+     * @throws IllegalArgumentException when k is negative or more than the
+     * number of undealt cards
+     */
+    public static CombinationIterator ofUndealt(Deck deck, int k) {
+        return new CombinationIterator(deck.getRemainingBits(), k);
+    }
+
+    /**
+     * Works out the number of ways to choose cards
+     * @param n number of cards to choose from, up to MAX_CARDS
+     * @param k number of cards chosen
+     * @return n choose k, or 0 if k is negative or more than n
+     */
+    public static long count(int n, int k) {
+        if (k < 0 || k > n) {
+            return 0;
+        }
+        return BINOMIALS[n][k];
+    }
+
+    /**
+     * Gets the bits of the cards that can be chosen
+     * @return bits of the cards
+     */
+    public long getCards() {
+        return cards;
+    }
+
+    /**
+     * Gets the number of cards in each combination
+     * @return combination size
+     */
+    public int getSize() {
+        return k;
+    }
+
+    /**
+     * Gets the rank of the first combination of the range
+     * @return first rank
+     */
+    public long getFrom() {
+        return from;
+    }
+
+    /**
+     * Gets the rank one past the last combination of the range
+     * @return rank after the range
+     */
+    public long getTo() {
+        return to;
+    }
+
+    /**
+     * Gets the rank of the combination nextLong() returns next, which can
+     * be saved and passed to seek() to carry on later
+     * @return rank of the next combination
+     */
+    public long getRank() {
+        return rank;
+    }
+
+    /**
+     * Gets the number of combinations left in the range
+     * @return number of combinations
+     */
+    public long remaining() {
+        return to - rank;
+    }
+
+    /**
+     * Moves to a combination within the range
+     * @param rank rank of the combination nextLong() returns next
+     * @throws IllegalArgumentException when rank is not within the range
+     */
+    public void seek(long rank) {
+        if (rank < from || rank > to) {
+            throw new IllegalArgumentException("Invalid rank");
+        }
+        this.rank = rank;
+        word = rank < to ? unrankPositions(rank) : 0;
+    }
+
+    /**
+     * Tells whether there is another combination in the range
+     * @return true if nextLong() has a combination to return
+     */
+    public boolean hasNext() {
+        return rank < to;
+    }
+
+    /**
+     * Gets the next combination and moves past it
+     * @return bits of the cards in the combination
+     * @throws NoSuchElementException when there are no more combinations
+     */
+    public long nextLong() {
+        if (rank >= to) {
+            throw new NoSuchElementException("No more combinations");
+        }
+        long positions = word;
+        ++rank;
+        if (positions != 0) {
+            long lowest = Long.numberOfTrailingZeros(positions);
+            long ripple = positions + (1L << lowest);
+            word = ripple | (((positions ^ ripple) >>> 2) >>> lowest);
+        }
+        return spread(positions);
+    }
+
+    /**
+     * Splits the rest of the range into parts of nearly equal size
+     * @param parts number of parts
+     * @return iterators over consecutive ranges covering the rest of this one
+     * @throws IllegalArgumentException when parts is less than one
+     */
+    public CombinationIterator[] split(int parts) {
+        if (parts < 1) {
+            throw new IllegalArgumentException("Invalid part count");
+        }
+        long size = to - rank;
+        CombinationIterator[] iterators = new CombinationIterator[parts];
+        long start = rank;
+        for (int part = 0; part < parts; ++part) {
+            long end = start + size / parts + (part < size % parts ? 1 : 0);
+            iterators[part] = new CombinationIterator(this, start, end);
+            start = end;
+        }
+        return iterators;
+    }
+
+    /**
+     * Gets the colexicographic rank of a combination
+     * @param combination bits of k of the available cards
+     * @return rank from 0 to C(n, k) - 1
+     * @throws IllegalArgumentException when combination is not k of the
+     * available cards
+     */
+    public long rank(long combination) {
+        if ((combination & ~cards) != 0 || Long.bitCount(combination) != k) {
+            throw new IllegalArgumentException("Invalid combination");
+        }
+        long result = 0;
+        int i = 1;
+        for (long rest = combination; rest != 0; rest &= rest - 1) {
+            int position = Long.bitCount(cards & (Long.lowestOneBit(rest) - 1));
+            result += BINOMIALS[position][i];
+            ++i;
+        }
+        return result;
+    }
+
+    /**
+     * Gets the combination of a colexicographic rank
+     * @param rank rank from 0 to C(n, k) - 1
+     * @return bits of the cards in the combination
+     * @throws IllegalArgumentException when rank is out of bounds
+     */
+    public long unrank(long rank) {
+        if (rank < 0 || rank >= count(Long.bitCount(cards), k)) {
+            throw new IllegalArgumentException("Invalid rank");
+        }
+        return spread(unrankPositions(rank));
+    }
+
+    /**
+     * Finds the positions of the combination of a rank by taking the
+     * largest position that fits for each card from the last
+     * @param rank rank of the combination
+     * @return positions as bits of a word
+     */
+    private long unrankPositions(long rank) {
+        long positions = 0;
+        int position = Long.bitCount(cards);
+        for (int i = k; i > 0; --i) {
+            do {
+                --position;
+            } while (BINOMIALS[position][i] > rank);
+            rank -= BINOMIALS[position][i];
+            positions |= 1L << position;
+        }
+        return positions;
+    }
+
+    /**
+     * Spreads positions onto the bits of the cards they stand for
+     * @param positions positions as bits of a word
+     * @return bits of the cards
+     */
+    private long spread(long positions) {
+        long bits = 0;
+        for (int chunk = 0; positions != 0; ++chunk) {
+            bits |= spread[chunk][(int) positions & CHUNK_MASK];
+            positions >>>= CHUNK_BITS;
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,164 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Counter-based random number generator using the Philox4x32-10 bijection
+ * of Salmon et al., "Parallel Random Numbers: As Easy as 1, 2, 3". Each
+ * block of four ints is a pure function of the key (the seed), the game
+ * number and the block's position within the game, so any game's numbers
+ * can be produced directly without generating the games before it, and
+ * threads can share out the games of one seed without coordinating.
+ *
+ * A Deck built on a CounterRandom gives every game its own stream of
+ * numbers; see Deck.seekGame(long).
+ *
+ * @author Cole Sanders
+ */
+public class CounterRandom implements RandomGenerator {
+
+    /** Multiplier of the first and second counter words */
+    private static final long M0 = 0xD2511F53L;
+
+    /** Multiplier of the third and fourth counter words */
+    private static final long M1 = 0xCD9E8D57L;
+
+    /** Weyl increment of the first key word */
+    private static final int W0 = 0x9E3779B9;
+
+    /** Weyl increment of the second key word */
+    private static final int W1 = 0xBB67AE85;
+
+    /** Number of Philox rounds */
+    private static final int ROUNDS = 10;
+
+    /** Number of ints in a block */
+    private static final int BLOCK_INTS = 4;
+
+    /** Mask of the low 32 bits of a long */
+    private static final long INT_MASK = 0xFFFFFFFFL;
+
+    /** Seed the generator is keyed with */
+    private final long seed;
+
+    /** Number of the game whose stream is being read */
+    private long game;
+
+    /** Position of the next block within the game */
+    private long block;
+
+    /** Ints of the current block */
+    private final int[] output = new int[BLOCK_INTS];
+
+    /** Index of the next unused int of the current block */
+    private int used = BLOCK_INTS;
+
+    /**
+     * Constructor keying the generator with a seed and starting at game zero
+     * @param seed seed of the generator
+     */
+    public CounterRandom(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Gets the seed the generator is keyed with
+     * @return seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the number of the game whose stream is being read
+     * @return game number
+     */
+    public long getGame() {
+        return game;
+    }
+
+    /**
+     * Moves to the start of a game's stream
+     * @param game number of the game
+     */
+    public void setGame(long game) {
+        this.game = game;
+        block = 0;
+        used = BLOCK_INTS;
+    }
+
+    /**
+     * Gets the next 32 random bits of the current game's stream
+     * @return random int
+     */
+    public int nextInt() {
+        if (used == BLOCK_INTS) {
+            philox(block, game, seed, output);
+            ++block;
+            used = 0;
+        }
+        return output[used++];
+    }
+
+    /**
+     * Gets a random int from zero up to a bound using Lemire's
+     * multiply-and-shift method, which almost always takes one int of the
+     * stream and no division
+     * @param bound number one past the largest result
+     * @return random int from zero to bound - 1
+     * @throws IllegalArgumentException when bound is not positive
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Invalid bound");
+        }
+        long product = (nextInt() & INT_MASK) * bound;
+        if ((product & INT_MASK) < bound) {
+            long threshold = Integer.remainderUnsigned(-bound, bound);
+            while ((product & INT_MASK) < threshold) {
+                product = (nextInt() & INT_MASK) * bound;
+            }
+        }
+        return (int) (product >>> Integer.SIZE);
+    }
+
+    /**
+     * Gets the next 64 random bits of the current game's stream
+     * @return random long
+     */
+    public long nextLong() {
+        return ((long) nextInt() << Integer.SIZE) | (nextInt() & INT_MASK);
+    }
+
+    /**
+     * Applies Philox4x32-10 to a counter. The counter words are the low and
+     * high halves of the block number followed by those of the game number,
+     * and the key words are the low and high halves of the seed.
+     * @param block position of the block within the game
+     * @param game number of the game
+     * @param key seed of the generator
+     * @param output array the four ints of the block are written to
+     */
+    static void philox(long block, long game, long key, int[] output) {
+        int c0 = (int) block;
+        int c1 = (int) (block >>> Integer.SIZE);
+        int c2 = (int) game;
+        int c3 = (int) (game >>> Integer.SIZE);
+        int k0 = (int) key;
+        int k1 = (int) (key >>> Integer.SIZE);
+        for (int round = 0; round < ROUNDS; ++round) {
+            long product0 = M0 * (c0 & INT_MASK);
+            long product1 = M1 * (c2 & INT_MASK);
+            int next0 = (int) (product1 >>> Integer.SIZE) ^ c1 ^ k0;
+            int next2 = (int) (product0 >>> Integer.SIZE) ^ c3 ^ k1;
+            c1 = (int) product1;
+            c3 = (int) product0;
+            c0 = next0;
+            c2 = next2;
+            k0 += W0;
+            k1 += W1;
+        }
+        output[0] = c0;
+        output[1] = c1;
+        output[2] = c2;
+        output[3] = c3;
+    }
+}
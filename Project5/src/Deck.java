@@ -1,4 +1,5 @@
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 /**
  * A class representing a deck of poker cards
@@ -9,6 +10,9 @@ public class Deck {
     /** Number of cards in a poker deck */
     public static final int CARDS_IN_DECK = 52;
     
+    /** Number of cards in a deck with the joker added */
+    public static final int CARDS_WITH_JOKER = 53;
+    
     /** High cutoff for initializng club cards in constructor */
     public static final int CLUBS_HIGH_CUTOFF = 13;
     
@@ -45,49 +49,239 @@ public class Deck {
      */    
     private int seed;
     
+    /**
+     * Generator used for shuffling
+     */
+    private RandomGenerator rng;
+    
+    /**
+     * Whether the generator is reset to the seed before each shuffle
+     */
+    private boolean reseed;
+    
+    /**
+     * Swap positions of every shuffle of a reseeded deck, which draws the
+     * same numbers from the generator each time
+     */
+    private int[] swaps;
+    
+    /**
+     * Counter-based generator giving each game its own stream, or null
+     */
+    private CounterRandom counter;
+    
+    /**
+     * Cards in new-deck order, which a counter-based deck starts each
+     * game from
+     */
+    private Card[] newDeck;
+    
+    /**
+     * Number of the game the next shuffle of a counter-based deck deals
+     */
+    private long game;
+    
+    /**
+     * Whether shuffling is put off until cards are dealt
+     */
+    private boolean lazy;
+    
+    /**
+     * Whether nextCard() swaps a random undealt card into place
+     */
+    private boolean randomizing;
+    
     /**
      * Constructor initalizing a deck with all the playing cards
      * and a given seed
      * @param seed int for randomizing shuffles
      */
     public Deck(int seed) {
+        fillCards();
+        this.seed = seed;
+        if (seed != -1) {
+            rng = new Random(seed);
+            reseed = true;
+        }
+        else {
+            rng = new Random();
+        }
+    }
+    
+    /**
+     * Constructor initalizing a deck with all the playing cards that
+     * is shuffled by a given random number generator. The generator is
+     * reused for every shuffle, so each game gets a different deal.
+     * @param rng generator used for shuffling
+     * @throws IllegalArgumentException when rng is null
+     */
+    public Deck(RandomGenerator rng) {
+        this(rng, false);
+    }
+    
+    /**
+     * Constructor initalizing a deck with all the playing cards that is
+     * shuffled by a given random number generator, such as a
+     * SplittableRandom or RandomGenerator.of("Xoroshiro128PlusPlus").
+     * 
+     * A lazy deck does no work in shuffle(). Instead nextCard() swaps a
+     * random undealt card into place as each card is dealt, so a game
+     * that deals ten cards only randomizes ten positions. The cards dealt
+     * are just as random, but toString() and equals() only reflect the
+     * positions dealt so far.
+     * 
+     * @param rng generator used for shuffling
+     * @param lazy true to shuffle as cards are dealt
+     * @throws IllegalArgumentException when rng is null
+     */
+    public Deck(RandomGenerator rng, boolean lazy) {
+        this(rng, lazy, false);
+    }
+    
+    /**
+     * Constructor initalizing a deck with all the playing cards, and the
+     * joker if asked for, that is shuffled by a given random number
+     * generator, optionally as cards are dealt as described in
+     * Deck(RandomGenerator, boolean)
+     * @param rng generator used for shuffling
+     * @param lazy true to shuffle as cards are dealt
+     * @param joker true to add the joker as a 53rd card
+     * @throws IllegalArgumentException when rng is null
+     */
+    public Deck(RandomGenerator rng, boolean lazy, boolean joker) {
+        if (rng == null) {
+            throw new IllegalArgumentException("Null generator");
+        }
+        fillCards();
+        if (joker) {
+            cards = Arrays.copyOf(cards, CARDS_WITH_JOKER);
+            cards[CARDS_IN_DECK] = Card.JOKER;
+        }
+        this.seed = -1;
+        this.rng = rng;
+        this.lazy = lazy;
+    }
+    
+    /**
+     * Constructor initalizing a deck with all the playing cards that is
+     * shuffled by a counter-based generator. Every shuffle starts again
+     * from new-deck order and reads the generator's stream for the next
+     * game number, so each game's deal depends only on the seed and the
+     * game number. seekGame() jumps straight to any game.
+     * @param rng counter-based generator used for shuffling
+     * @throws IllegalArgumentException when rng is null
+     */
+    public Deck(CounterRandom rng) {
+        this(rng, false);
+    }
+    
+    /**
+     * Constructor initalizing a deck with all the playing cards that is
+     * shuffled by a counter-based generator, optionally as cards are dealt
+     * as described in Deck(RandomGenerator, boolean)
+     * @param rng counter-based generator used for shuffling
+     * @param lazy true to shuffle as cards are dealt
+     * @throws IllegalArgumentException when rng is null
+     */
+    public Deck(CounterRandom rng, boolean lazy) {
+        this((RandomGenerator) rng, lazy);
+        counter = rng;
+        newDeck = cards.clone();
+        game = rng.getGame();
+    }
+    
+    /**
+     * Fills the deck with every card in order
+     */
+    private void fillCards() {
         cards = new Card[CARDS_IN_DECK];
         for (int i = 0; i < CARDS_IN_DECK; ++i) {
-            if (i < CLUBS_HIGH_CUTOFF) {
-                cards[i] = new Card(Card.LOWEST_VALUE + i, Card.CLUBS);
-            }
-            else if (i < DIAMONDS_HIGH_CUTOFF) {
-                cards[i] = new Card(Card.LOWEST_VALUE + i - DIAMONDS_LOW_CUTOFF, Card.DIAMONDS);
-            }
-            else if (i < HEARTS_HIGH_CUTOFF) {
-                cards[i] = new Card(Card.LOWEST_VALUE + i - HEARTS_LOW_CUTOFF, Card.HEARTS);
-            }
-            else if (i < SPADES_HIGH_CUTOFF) {
-                cards[i] = new Card(Card.LOWEST_VALUE + i - SPADES_LOW_CUTOFF, Card.SPADES);
-            }
+            cards[i] = Card.fromIndex(i);
         }
-        this.seed = seed;
     }
 
     /**
      * Shuffles the deck randomly or according to a given seed
      */    
     public void shuffle() {
-        Random rand;
-        if (seed != -1) {
-            rand = new Random(seed);
+        GameEvents.Shuffle event = new GameEvents.Shuffle();
+        event.begin();
+        long shuffled = counter == null ? -1 : game;
+        shuffleCards();
+        event.end();
+        if (event.shouldCommit()) {
+            event.cards = cards.length;
+            event.lazy = lazy;
+            event.game = shuffled;
+            event.commit();
         }
-        else {
-            rand = new Random();
+    }
+    
+    /**
+     * Puts the cards in a new order, or marks them to be drawn at random
+     * as they are dealt for a lazy deck
+     */
+    private void shuffleCards() {
+        next = 0;
+        if (counter != null) {
+            System.arraycopy(newDeck, 0, cards, 0, cards.length);
+            counter.setGame(game++);
+        }
+        if (reseed) {
+            if (swaps == null) {
+                ((Random) rng).setSeed(seed);
+                swaps = new int[cards.length];
+                for (int i = cards.length - 1; i > 0; --i) {
+                    swaps[i] = rng.nextInt(i + 1);
+                }
+            }
+            for (int i = cards.length - 1; i > 0; --i) {
+                Card placeHolder = cards[i];
+                cards[i] = cards[swaps[i]];
+                cards[swaps[i]] = placeHolder;
+            }
+            return;
+        }
+        if (lazy) {
+            randomizing = true;
+            return;
         }
-        Card placeHolder = new Card(2, 'c');
-        for (int i = CARDS_IN_DECK - 1; i > 0; --i) {
-            int randomInt = rand.nextInt(i + 1);
-            placeHolder = cards[i];
+        for (int i = cards.length - 1; i > 0; --i) {
+            int randomInt = rng.nextInt(i + 1);
+            Card placeHolder = cards[i];
             cards[i] = cards[randomInt];
             cards[randomInt] = placeHolder;
         }
-        next = 0;
+    }
+    
+    /**
+     * Sets the game the next shuffle deals, for a deck built on a
+     * CounterRandom
+     * @param game number of the game, from zero
+     * @throws IllegalStateException if the deck is not counter-based
+     * @throws IllegalArgumentException if game is negative
+     */
+    public void seekGame(long game) {
+        if (counter == null) {
+            throw new IllegalStateException("Not a counter deck");
+        }
+        if (game < 0) {
+            throw new IllegalArgumentException("Invalid game");
+        }
+        this.game = game;
+    }
+    
+    /**
+     * Gets the game the next shuffle deals, for a deck built on a
+     * CounterRandom
+     * @return number of the next game
+     * @throws IllegalStateException if the deck is not counter-based
+     */
+    public long getGame() {
+        if (counter == null) {
+            throw new IllegalStateException("Not a counter deck");
+        }
+        return game;
     }
     
     /**
@@ -96,14 +290,41 @@ public class Deck {
      * @throws IllegalStateException if pointer is past the last card
      */ 
     public Card nextCard() {
-        if (next >= CARDS_IN_DECK) {
+        if (next >= cards.length) {
             throw new IllegalStateException("No more cards");
         }
         int cardLocation = next;
+        if (randomizing) {
+            int randomInt = next + rng.nextInt(cards.length - next);
+            Card placeHolder = cards[randomInt];
+            cards[randomInt] = cards[next];
+            cards[next] = placeHolder;
+        }
         ++next;
         return cards[cardLocation];
     }
     
+    /**
+     * Gets the number of cards in the deck
+     * @return CARDS_IN_DECK, or CARDS_WITH_JOKER if the deck has the joker
+     */
+    public int size() {
+        return cards.length;
+    }
+    
+    /**
+     * Gets the cards that have not been dealt yet as bits of a CardSet,
+     * with bit Card.JOKER_INDEX for the joker
+     * @return bits of the cards left in the deck
+     */
+    public long getRemainingBits() {
+        long bits = 0;
+        for (int i = next; i < cards.length; ++i) {
+            bits |= CardSet.bit(cards[i].getIndex());
+        }
+        return bits;
+    }
+    
     /**
      * Compares two decks of cards
      * @param o object of comparison deck
@@ -130,7 +351,7 @@ public class Deck {
      */     
     public String toString() {
         String s = "";
-        for (int i = 0; i < CARDS_IN_DECK; ++i) {
+        for (int i = 0; i < cards.length; ++i) {
             s += "card " + i + ": " + cards[i].toString() + "\n";
         }
         return s;
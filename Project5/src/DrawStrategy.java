@@ -0,0 +1,19 @@
+/**
+ * Decides which cards of a dealt hand to hold before drawing
+ * @author Cole Sanders
+ */
+public interface DrawStrategy {
+
+    /** Holds the cards with the highest expected payout */
+    DrawStrategy OPTIMAL = HoldSolver::bestHold;
+
+    /** Keeps the dealt hand without drawing */
+    DrawStrategy STAND_PAT = hand -> HoldSolver.HOLD_ALL;
+
+    /**
+     * Chooses the cards to hold
+     * @param hand dealt hand
+     * @return hold mask with bit i set when card i is kept
+     */
+    int chooseHold(Hand hand);
+}
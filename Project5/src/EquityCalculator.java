@@ -0,0 +1,478 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds each player's chance of winning or splitting a Texas Hold'em pot
+ * from their hole cards and the board dealt so far.
+ *
+ * Cards are passed as bits of a long, as in CardSet. A player whose hole
+ * cards are 0 is unknown and gets two random cards from the rest of the
+ * deck. When every player is known and the remaining boards number no
+ * more than the calculator's limit, every board is dealt exactly once and
+ * the result is exact. Otherwise random deals are sampled in rounds until
+ * the 95% confidence interval of every player's equity is within a margin
+ * or a trial limit is reached.
+ *
+ * Work is split into tasks on a fork/join pool. When enumerating, a task
+ * splits its range of CombinationIterator ranks in half until a range
+ * holds at most BOARDS_PER_TASK boards; when sampling, trials are split
+ * into fixed batches. Each batch draws from its own game of a CounterRandom keyed by the seed and
+ * the totals are whole numbers, so a sampled result depends only on the
+ * seed and never on the number of threads.
+ *
+ * @author Cole Sanders
+ */
+public class EquityCalculator {
+
+    /** Fewest players in a deal */
+    public static final int MIN_PLAYERS = 2;
+
+    /** Most players in a deal */
+    public static final int MAX_PLAYERS = 10;
+
+    /** Number of hole cards dealt to each player */
+    public static final int HOLE_CARDS = 2;
+
+    /** Number of cards on a complete board */
+    public static final int BOARD_CARDS = 5;
+
+    /** Most remaining boards enumerated by default; every preflop deal fits */
+    public static final long DEFAULT_MAX_BOARDS = 2_000_000;
+
+    /** Default margin of error of a sampled equity */
+    public static final double DEFAULT_MARGIN = 0.001;
+
+    /** Default most trials sampled */
+    public static final long DEFAULT_MAX_TRIALS = 16_000_000;
+
+    /** Largest number of boards enumerated by a task without splitting */
+    static final int BOARDS_PER_TASK = 2048;
+
+    /** Number of trials in a batch drawn from one random stream */
+    static final int BATCH_TRIALS = 4096;
+
+    /** Number of batches sampled between checks of the margin */
+    static final int ROUND_BATCHES = 64;
+
+    /** Pool the tasks run on */
+    private final ForkJoinPool pool;
+
+    /** Most remaining boards enumerated before sampling instead */
+    private final long maxBoards;
+
+    /**
+     * Constructor using the common fork/join pool and the default limit
+     */
+    public EquityCalculator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_MAX_BOARDS);
+    }
+
+    /**
+     * Constructor initializing the pool and the enumeration limit
+     * @param pool pool to run the tasks on
+     * @param maxBoards most remaining boards to enumerate
+     * @throws IllegalArgumentException when pool is null
+     * @throws IllegalArgumentException when maxBoards is negative
+     */
+    public EquityCalculator(ForkJoinPool pool, long maxBoards) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Null pool");
+        }
+        if (maxBoards < 0) {
+            throw new IllegalArgumentException("Invalid board limit");
+        }
+        this.pool = pool;
+        this.maxBoards = maxBoards;
+    }
+
+    /**
+     * Finds the equities exactly if the deal is small enough, and by
+     * sampling with the default margin and trial limit otherwise
+     * @param hands bits of each player's hole cards, 0 for unknown
+     * @param board bits of the board cards dealt so far
+     * @param seed seed of the random deals, if sampled
+     * @return wins, ties and equity of each player
+     * @throws IllegalArgumentException when the deal is not valid
+     */
+    public EquityResult calculate(long[] hands, long board, long seed) {
+        checkDeal(hands, board);
+        if (isEnumerable(hands, board)) {
+            return enumerate(hands, board);
+        }
+        return sample(hands, board, seed, DEFAULT_MARGIN, DEFAULT_MAX_TRIALS);
+    }
+
+    /**
+     * Tells whether calculate() will enumerate a deal rather than sample it
+     * @param hands bits of each player's hole cards, 0 for unknown
+     * @param board bits of the board cards dealt so far
+     * @return true if every player is known and the remaining boards are
+     * within the limit
+     * @throws IllegalArgumentException when the deal is not valid
+     */
+    public boolean isEnumerable(long[] hands, long board) {
+        long dead = checkDeal(hands, board);
+        for (long hand : hands) {
+            if (hand == 0) {
+                return false;
+            }
+        }
+        return CombinationIterator.count(Deck.CARDS_IN_DECK - Long.bitCount(dead),
+                                         BOARD_CARDS - Long.bitCount(board)) <= maxBoards;
+    }
+
+    /**
+     * Deals every remaining board exactly once
+     * @param hands bits of each player's hole cards
+     * @param board bits of the board cards dealt so far
+     * @return exact wins, ties and equity of each player
+     * @throws IllegalArgumentException when the deal is not valid or a
+     * player is unknown
+     */
+    public EquityResult enumerate(long[] hands, long board) {
+        long dead = checkDeal(hands, board);
+        for (long hand : hands) {
+            if (hand == 0) {
+                throw new IllegalArgumentException("Unknown hole cards");
+            }
+        }
+        CombinationIterator boards = new CombinationIterator(CardSet.FULL_DECK & ~dead,
+                                                             BOARD_CARDS - Long.bitCount(board));
+        return pool.invoke(new EnumerateTask(hands.clone(), board, boards));
+    }
+
+    /**
+     * Samples random deals of the remaining board and unknown hole cards
+     * until every player's margin of error is small enough
+     * @param hands bits of each player's hole cards, 0 for unknown
+     * @param board bits of the board cards dealt so far
+     * @param seed seed of the random deals
+     * @param margin largest acceptable half width of a 95% confidence
+     * interval, or 0 to always sample maxTrials
+     * @param maxTrials most deals to sample
+     * @return estimated wins, ties and equity of each player
+     * @throws IllegalArgumentException when the deal is not valid
+     * @throws IllegalArgumentException when margin is negative
+     * @throws IllegalArgumentException when maxTrials is less than one
+     */
+    public EquityResult sample(long[] hands, long board, long seed, double margin,
+                               long maxTrials) {
+        long dead = checkDeal(hands, board);
+        if (!(margin >= 0)) {
+            throw new IllegalArgumentException("Invalid margin");
+        }
+        if (maxTrials < 1) {
+            throw new IllegalArgumentException("Invalid trial limit");
+        }
+        int[] live = liveCards(dead);
+        long batches = (maxTrials + BATCH_TRIALS - 1) / BATCH_TRIALS;
+        EquityResult result = new EquityResult(hands.length, false);
+        for (long batch = 0; batch < batches; batch += ROUND_BATCHES) {
+            long to = Math.min(batches, batch + ROUND_BATCHES);
+            result.add(pool.invoke(new SampleTask(hands.clone(), board, live, seed, maxTrials,
+                                                  batch, to)));
+            if (isWithinMargin(result, margin)) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Tells whether every player's margin of error is small enough
+     * @param result result so far
+     * @param margin largest acceptable margin
+     * @return true if sampling can stop
+     */
+    private static boolean isWithinMargin(EquityResult result, double margin) {
+        for (int p = 0; p < result.getPlayers(); ++p) {
+            if (result.getMargin(p) > margin) {
+                return false;
+            }
+        }
+        return margin > 0;
+    }
+
+    /**
+     * Checks that a deal is valid and collects its dead cards
+     * @param hands bits of each player's hole cards, 0 for unknown
+     * @param board bits of the board cards dealt so far
+     * @return bits of every card in the hands and on the board
+     * @throws IllegalArgumentException when hands is null
+     * @throws IllegalArgumentException when there are fewer than two or
+     * more than ten players
+     * @throws IllegalArgumentException when a hand is not two cards or 0
+     * @throws IllegalArgumentException when the board has more than five
+     * cards
+     * @throws IllegalArgumentException when a card is dealt twice
+     */
+    private static long checkDeal(long[] hands, long board) {
+        if (hands == null) {
+            throw new IllegalArgumentException("Null hands");
+        }
+        if (hands.length < MIN_PLAYERS || hands.length > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Invalid player count");
+        }
+        if ((board & ~CardSet.FULL_DECK) != 0 || Long.bitCount(board) > BOARD_CARDS) {
+            throw new IllegalArgumentException("Invalid board");
+        }
+        long dead = board;
+        for (long hand : hands) {
+            if ((hand & ~CardSet.FULL_DECK) != 0
+                || (hand != 0 && Long.bitCount(hand) != HOLE_CARDS)) {
+                throw new IllegalArgumentException("Invalid hole cards");
+            }
+            if ((dead & hand) != 0) {
+                throw new IllegalArgumentException("Duplicate card");
+            }
+            dead |= hand;
+        }
+        return dead;
+    }
+
+    /**
+     * Lists the cards that are not dead
+     * @param dead bits of the cards already dealt
+     * @return indexes of the other cards in increasing order
+     */
+    private static int[] liveCards(long dead) {
+        long cards = CardSet.FULL_DECK & ~dead;
+        int[] live = new int[Long.bitCount(cards)];
+        for (int i = 0; i < live.length; ++i) {
+            live[i] = Long.numberOfTrailingZeros(cards);
+            cards &= cards - 1;
+        }
+        return live;
+    }
+
+    /**
+     * Evaluates every player's best hand on a complete board
+     * @param hands bits of each player's hole cards
+     * @param board bits of the five board cards
+     * @param strengths array the strengths are written to
+     * @return strengths
+     */
+    private static int[] strengths(long[] hands, long board, int[] strengths) {
+        for (int p = 0; p < hands.length; ++p) {
+            strengths[p] = HoldemEvaluator.evaluate(hands[p] | board);
+        }
+        return strengths;
+    }
+
+    /**
+     * Adds two results and returns the sum
+     * @param left first result, which is added to
+     * @param right second result
+     * @return left
+     */
+    private static EquityResult merge(EquityResult left, EquityResult right) {
+        left.add(right);
+        return left;
+    }
+
+    /**
+     * Task dealing every board in a range of ranks, split in half until
+     * the range is at most BOARDS_PER_TASK boards
+     */
+    private static class EnumerateTask extends RecursiveTask<EquityResult> {
+
+        /** Serialization version */
+        private static final long serialVersionUID = 1L;
+
+        /** Bits of each player's hole cards */
+        private final long[] hands;
+
+        /** Bits of the board cards dealt so far */
+        private final long board;
+
+        /** Iterator over the range of new board cards */
+        private final CombinationIterator boards;
+
+        /**
+         * Constructor initializing the deal and range of boards
+         * @param hands bits of each player's hole cards
+         * @param board bits of the board cards dealt so far
+         * @param boards iterator over the range of new board cards
+         */
+        EnumerateTask(long[] hands, long board, CombinationIterator boards) {
+            this.hands = hands;
+            this.board = board;
+            this.boards = boards;
+        }
+
+        /**
+         * Deals the boards in the range, splitting it if it is large
+         * @return totals over the boards
+         */
+        protected EquityResult compute() {
+            if (boards.remaining() > BOARDS_PER_TASK) {
+                CombinationIterator[] halves = boards.split(2);
+                EnumerateTask left = new EnumerateTask(hands, board, halves[0]);
+                left.fork();
+                EquityResult right = new EnumerateTask(hands, board, halves[1]).compute();
+                return merge(left.join(), right);
+            }
+            EquityResult result = new EquityResult(hands.length, true);
+            int[] strengths = new int[hands.length];
+            while (boards.hasNext()) {
+                result.recordBoard(strengths(hands, board | boards.nextLong(), strengths));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Task sampling a range of batches of random deals, split in half until
+     * the range is one batch
+     */
+    private static class SampleTask extends RecursiveTask<EquityResult> {
+
+        /** Serialization version */
+        private static final long serialVersionUID = 1L;
+
+        /** Bits of each player's hole cards, 0 for unknown */
+        private final long[] hands;
+
+        /** Bits of the board cards dealt so far */
+        private final long board;
+
+        /** Indexes of the live cards in increasing order */
+        private final int[] live;
+
+        /** Seed of the random deals */
+        private final long seed;
+
+        /** Most trials sampled, which may end the last batch early */
+        private final long maxTrials;
+
+        /** Number of the first batch */
+        private final long from;
+
+        /** Number one past the last batch */
+        private final long to;
+
+        /**
+         * Constructor initializing the deal and range of batches
+         * @param hands bits of each player's hole cards, 0 for unknown
+         * @param board bits of the board cards dealt so far
+         * @param live indexes of the live cards in increasing order
+         * @param seed seed of the random deals
+         * @param maxTrials most trials sampled
+         * @param from number of the first batch
+         * @param to number one past the last batch
+         */
+        SampleTask(long[] hands, long board, int[] live, long seed, long maxTrials, long from,
+                   long to) {
+            this.hands = hands;
+            this.board = board;
+            this.live = live;
+            this.seed = seed;
+            this.maxTrials = maxTrials;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Samples the batches in the range, splitting it if it is large
+         * @return totals over the sampled deals
+         */
+        protected EquityResult compute() {
+            if (to - from > 1) {
+                long middle = (from + to) >>> 1;
+                SampleTask left = new SampleTask(hands, board, live, seed, maxTrials, from,
+                                                 middle);
+                left.fork();
+                EquityResult right = new SampleTask(hands, board, live, seed, maxTrials, middle,
+                                                    to).compute();
+                return merge(left.join(), right);
+            }
+            EquityResult result = new EquityResult(hands.length, false);
+            CounterRandom rng = new CounterRandom(seed);
+            rng.setGame(from);
+            int[] deck = live.clone();
+            long[] dealt = hands.clone();
+            int[] strengths = new int[hands.length];
+            int missing = BOARD_CARDS - Long.bitCount(board);
+            long trials = Math.min(BATCH_TRIALS, maxTrials - from * BATCH_TRIALS);
+            for (long trial = 0; trial < trials; ++trial) {
+                int drawn = 0;
+                long cards = board;
+                for (int i = 0; i < missing; ++i) {
+                    cards |= CardSet.bit(draw(rng, deck, drawn++));
+                }
+                for (int p = 0; p < hands.length; ++p) {
+                    if (hands[p] == 0) {
+                        dealt[p] = CardSet.bit(draw(rng, deck, drawn++))
+                                   | CardSet.bit(draw(rng, deck, drawn++));
+                    }
+                }
+                result.recordBoard(strengths(dealt, cards, strengths));
+            }
+            return result;
+        }
+
+        /**
+         * Draws a random card by a step of a Fisher-Yates shuffle
+         * @param rng generator of the batch
+         * @param deck live cards, with the cards drawn so far at the front
+         * @param drawn number of cards drawn so far this trial
+         * @return index of the drawn card
+         */
+        private static int draw(CounterRandom rng, int[] deck, int drawn) {
+            int pick = drawn + rng.nextInt(deck.length - drawn);
+            int card = deck[pick];
+            deck[pick] = deck[drawn];
+            deck[drawn] = card;
+            return card;
+        }
+    }
+
+    /**
+     * Parses cards written like "h14,s13"
+     * @param cards cards separated by commas, or "-" or "?" for none
+     * @return bits of the cards
+     * @throws IllegalArgumentException when a card is not valid
+     * @throws NumberFormatException when a card value is not a number
+     */
+    static long parseCards(String cards) {
+        if (cards.equals("-") || cards.equals("?")) {
+            return 0;
+        }
+        long bits = 0;
+        for (String card : cards.split(",")) {
+            if (card.length() < 2) {
+                throw new IllegalArgumentException("Invalid card");
+            }
+            bits |= CardSet.bit(Card.of(Integer.parseInt(card.substring(1)), card.charAt(0))
+                                    .getIndex());
+        }
+        return bits;
+    }
+
+    /**
+     * Calculates the equities of a deal and prints them
+     * @param args args[0] board cards like "h10,s11,c2" or "-" for none,
+     * then each player's hole cards like "h14,s13" or "?" for unknown
+     */
+    public static void main(String[] args) {
+        if (args.length < MIN_PLAYERS + 1) {
+            System.out.println("Usage: java -cp bin EquityCalculator board hand hand [hand...]");
+            System.exit(1);
+        }
+        try {
+            long board = parseCards(args[0]);
+            long[] hands = new long[args.length - 1];
+            for (int p = 0; p < hands.length; ++p) {
+                hands[p] = parseCards(args[p + 1]);
+            }
+            long start = System.nanoTime();
+            EquityResult result = new EquityCalculator().calculate(hands, board, 1);
+            long elapsed = System.nanoTime() - start;
+            System.out.print(result);
+            System.out.printf("Calculated in %.1f ms%n", elapsed / 1e6);
+        }
+        catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
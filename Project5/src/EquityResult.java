@@ -0,0 +1,241 @@
+import java.util.Arrays;
+
+/**
+ * Wins, ties and shares of the pot found by EquityCalculator for each
+ * player of a Hold'em deal, over every remaining board or over a sample
+ * of random boards.
+ *
+ * A tied pot is split evenly between its winners. Each player's share is
+ * counted in units of SHARE_UNIT per board, which every split of two to
+ * ten ways divides exactly, so the totals are whole numbers that do not
+ * depend on the order boards were added in.
+ *
+ * @author Cole Sanders
+ */
+public class EquityResult {
+
+    /** Share of one whole pot; the least common multiple of 1 to 10 */
+    public static final int SHARE_UNIT = 2520;
+
+    /** Normal quantile of a two-sided 95% confidence interval */
+    public static final double Z_95 = 1.959964;
+
+    /** True if every remaining board was counted */
+    private final boolean exhaustive;
+
+    /** Number of boards counted */
+    private long trials;
+
+    /** Number of boards each player won alone */
+    private final long[] wins;
+
+    /** Number of boards each player tied for the best hand */
+    private final long[] ties;
+
+    /** Sum of each player's shares, in SHARE_UNIT per pot */
+    private final long[] shares;
+
+    /** Sum of the squares of each player's shares, for the variance */
+    private final long[] squares;
+
+    /**
+     * Constructor initializing an empty result
+     * @param players number of players
+     * @param exhaustive true if every remaining board will be counted
+     */
+    EquityResult(int players, boolean exhaustive) {
+        this.exhaustive = exhaustive;
+        wins = new long[players];
+        ties = new long[players];
+        shares = new long[players];
+        squares = new long[players];
+    }
+
+    /**
+     * Records one board from the strengths of every player's best hand
+     * @param strengths strength of each player's hand, as from
+     * HoldemEvaluator
+     */
+    void recordBoard(int[] strengths) {
+        ++trials;
+        int best = strengths[0];
+        int winners = 1;
+        for (int p = 1; p < strengths.length; ++p) {
+            if (strengths[p] > best) {
+                best = strengths[p];
+                winners = 1;
+            }
+            else if (strengths[p] == best) {
+                ++winners;
+            }
+        }
+        long share = SHARE_UNIT / winners;
+        for (int p = 0; p < strengths.length; ++p) {
+            if (strengths[p] == best) {
+                if (winners == 1) {
+                    wins[p]++;
+                }
+                else {
+                    ties[p]++;
+                }
+                shares[p] += share;
+                squares[p] += share * share;
+            }
+        }
+    }
+
+    /**
+     * Adds the totals of another result to this one
+     * @param other result to add
+     */
+    void add(EquityResult other) {
+        trials += other.trials;
+        for (int p = 0; p < wins.length; ++p) {
+            wins[p] += other.wins[p];
+            ties[p] += other.ties[p];
+            shares[p] += other.shares[p];
+            squares[p] += other.squares[p];
+        }
+    }
+
+    /**
+     * Gets the number of players
+     * @return number of players
+     */
+    public int getPlayers() {
+        return wins.length;
+    }
+
+    /**
+     * Tells whether every remaining board was counted, making the
+     * probabilities exact
+     * @return true if exhaustive, false if sampled
+     */
+    public boolean isExhaustive() {
+        return exhaustive;
+    }
+
+    /**
+     * Gets the number of boards counted
+     * @return number of boards
+     */
+    public long getTrials() {
+        return trials;
+    }
+
+    /**
+     * Gets the number of boards a player won alone
+     * @param player position of the player
+     * @return number of wins
+     */
+    public long getWins(int player) {
+        return wins[player];
+    }
+
+    /**
+     * Gets the number of boards a player tied for the best hand
+     * @param player position of the player
+     * @return number of ties
+     */
+    public long getTies(int player) {
+        return ties[player];
+    }
+
+    /**
+     * Gets the sum of a player's shares of the pot
+     * @param player position of the player
+     * @return shares in SHARE_UNIT per pot
+     */
+    public long getShares(int player) {
+        return shares[player];
+    }
+
+    /**
+     * Gets the probability that a player wins alone
+     * @param player position of the player
+     * @return win probability, or 0 if no boards were counted
+     */
+    public double getWinProbability(int player) {
+        return trials == 0 ? 0 : (double) wins[player] / trials;
+    }
+
+    /**
+     * Gets the probability that a player ties for the best hand
+     * @param player position of the player
+     * @return tie probability, or 0 if no boards were counted
+     */
+    public double getTieProbability(int player) {
+        return trials == 0 ? 0 : (double) ties[player] / trials;
+    }
+
+    /**
+     * Gets a player's expected share of the pot
+     * @param player position of the player
+     * @return equity from 0 to 1, or 0 if no boards were counted
+     */
+    public double getEquity(int player) {
+        return trials == 0 ? 0 : (double) shares[player] / SHARE_UNIT / trials;
+    }
+
+    /**
+     * Gets the half width of the 95% confidence interval of a player's
+     * equity. Exhaustive results are exact and have no margin.
+     * @param player position of the player
+     * @return margin of error of the equity
+     */
+    public double getMargin(int player) {
+        if (exhaustive || trials == 0) {
+            return 0;
+        }
+        double mean = (double) shares[player] / SHARE_UNIT / trials;
+        double meanSquare = (double) squares[player] / SHARE_UNIT / SHARE_UNIT / trials;
+        double variance = Math.max(0, meanSquare - mean * mean);
+        return Z_95 * Math.sqrt(variance / trials);
+    }
+
+    /**
+     * Compares two results
+     * @param o object of comparison result
+     * @return true if the results have the same totals, false if not
+     */
+    public boolean equals(Object o) {
+        if (o instanceof EquityResult) {
+            EquityResult other = (EquityResult) o;
+            return exhaustive == other.exhaustive && trials == other.trials
+                   && Arrays.equals(wins, other.wins) && Arrays.equals(ties, other.ties)
+                   && Arrays.equals(shares, other.shares)
+                   && Arrays.equals(squares, other.squares);
+        }
+        else {
+            return false;
+        }
+    }
+
+    /**
+     * Gets a hash code consistent with equals
+     * @return hash code of the result
+     */
+    public int hashCode() {
+        return Long.hashCode(trials) * 31 + Arrays.hashCode(shares);
+    }
+
+    /**
+     * Summarizes the result
+     * @return string with each player's win, tie and equity percentages
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(String.format("%s over %d boards%n", exhaustive ? "Exhaustive" : "Sampled",
+                               trials));
+        for (int p = 0; p < wins.length; ++p) {
+            s.append(String.format("Player %2d: win %9.5f%% tie %9.5f%% equity %9.5f%%", p + 1,
+                                   100 * getWinProbability(p), 100 * getTieProbability(p),
+                                   100 * getEquity(p)));
+            if (!exhaustive) {
+                s.append(String.format(" +/- %.5f%%", 100 * getMargin(p)));
+            }
+            s.append(String.format("%n"));
+        }
+        return s.toString();
+    }
+}
@@ -0,0 +1,285 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * The five card category table HandEvaluator classifies hands by, read
+ * from a file built ahead of time by main() instead of being computed on
+ * the heap. The file is memory mapped read only, so every JVM on a host
+ * shares one copy of it in the page cache and the garbage collector never
+ * scans it. HandEvaluator opens defaultFile() the first time it
+ * classifies a hand.
+ *
+ * The file starts with a header of six ints: a magic number, the format
+ * version, the largest key sum the table was built for, a fingerprint of
+ * the value keys and HandRank categories, the number of table bytes and
+ * the CRC32 of those bytes. The table follows, holding a HandRank ordinal
+ * for every key sum of a hand without a flush and then for every key sum
+ * of a flush. A file that is missing, was built for other keys or
+ * categories, fails its checksum or holds a table other than the one this
+ * build's HandEvaluator computes is not used: open() falls back to
+ * building the table on the heap.
+ *
+ * @author Cole Sanders
+ */
+public class EvaluationTables {
+
+    /** Number identifying an evaluation table file */
+    public static final int MAGIC = 0x504b4554;
+
+    /** Version of the file format */
+    public static final int VERSION = 2;
+
+    /** System property naming the file HandEvaluator maps */
+    public static final String FILE_PROPERTY = "poker.tables";
+
+    /** File HandEvaluator maps when the system property is not set */
+    public static final String DEFAULT_FILE = "tables.bin";
+
+    /**
+     * CRC32 of HandEvaluator.buildCategories(), stamped by hand whenever
+     * the categorize rules change so that a file written by an older build
+     * is not used. EvaluationTablesTest fails until it is updated.
+     */
+    static final int CATEGORIES_CRC = 0xb923fc5f;
+
+    /** Number of bytes in the file header */
+    private static final int HEADER_BYTES = 6 * Integer.BYTES;
+
+    /** Offset into the table used for hands where all cards share a suit */
+    private static final int FLUSH_OFFSET = HandEvaluator.MAX_KEY_SUM + 1;
+
+    /** Number of bytes in the table */
+    private static final int TABLE_BYTES = 2 * FLUSH_OFFSET;
+
+    /** Categories indexed by ordinal */
+    private static final HandRank[] RANKS = HandRank.values();
+
+    /** Fingerprint of the value keys and categories the table is built for */
+    private static final int FINGERPRINT = fingerprint();
+
+    /** Categories indexed by key sum plus flush offset */
+    private final ByteBuffer table;
+
+    /** Whether the table is mapped from a file */
+    private final boolean mapped;
+
+    /**
+     * Constructor initializing the tables from a buffer
+     * @param table categories indexed by key sum plus flush offset
+     * @param mapped whether the table is mapped from a file
+     */
+    private EvaluationTables(ByteBuffer table, boolean mapped) {
+        this.table = table;
+        this.mapped = mapped;
+    }
+
+    /**
+     * Maps an evaluation table file into memory, checking its header and
+     * checksum
+     * @param file path of the file
+     * @return tables backed by the file
+     * @throws IOException if the file cannot be read or is not a valid
+     * evaluation table file for this version
+     */
+    public static EvaluationTables load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size != HEADER_BYTES + TABLE_BYTES) {
+                throw new IOException("Invalid evaluation table file");
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION
+                || buffer.getInt(2 * Integer.BYTES) != HandEvaluator.MAX_KEY_SUM
+                || buffer.getInt(3 * Integer.BYTES) != FINGERPRINT
+                || buffer.getInt(4 * Integer.BYTES) != TABLE_BYTES) {
+                throw new IOException("Invalid evaluation table file");
+            }
+            ByteBuffer table = buffer.position(HEADER_BYTES).slice();
+            CRC32 crc = new CRC32();
+            crc.update(table.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(5 * Integer.BYTES)) {
+                throw new IOException("Corrupt evaluation table file");
+            }
+            if ((int) crc.getValue() != CATEGORIES_CRC) {
+                throw new IOException("Outdated evaluation table file");
+            }
+            for (int i = 0; i < TABLE_BYTES; ++i) {
+                if (table.get(i) < 0 || table.get(i) >= RANKS.length) {
+                    throw new IOException("Corrupt evaluation table file");
+                }
+            }
+            return new EvaluationTables(table, true);
+        }
+    }
+
+    /**
+     * Maps an evaluation table file into memory, or copies the tables from
+     * HandEvaluator if the file cannot be used
+     * @param file path of the file
+     * @return tables backed by the file if it is valid, otherwise on the heap
+     */
+    public static EvaluationTables open(Path file) {
+        try {
+            return load(file);
+        }
+        catch (IOException e) {
+            return onHeap();
+        }
+    }
+
+    /**
+     * Builds the tables on the heap
+     * @return tables on the heap
+     */
+    public static EvaluationTables onHeap() {
+        return new EvaluationTables(ByteBuffer.wrap(HandEvaluator.buildCategories()), false);
+    }
+
+    /**
+     * Gets the file HandEvaluator maps
+     * @return file named by the poker.tables system property, or
+     * tables.bin in the working directory
+     */
+    public static Path defaultFile() {
+        return Paths.get(System.getProperty(FILE_PROPERTY, DEFAULT_FILE));
+    }
+
+    /**
+     * Tells whether the tables are mapped from a file
+     * @return true if mapped, false if they are on the heap
+     */
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    /**
+     * Classifies a hand
+     * @param hand hand to classify
+     * @return category of the hand
+     * @throws IllegalArgumentException when all five cards have one value,
+     * which only a hand holding a card twice can
+     */
+    public HandRank evaluate(Hand hand) {
+        Card first = hand.getCard(Hand.FIRST_CARD);
+        char suit = first.getSuit();
+        boolean flush = true;
+        boolean oneValue = true;
+        int sum = HandEvaluator.getKey(first.getValue());
+        for (int i = Hand.SECOND_CARD; i < Hand.CARDS_IN_HAND; ++i) {
+            Card card = hand.getCard(i);
+            sum += HandEvaluator.getKey(card.getValue());
+            flush &= card.getSuit() == suit;
+            oneValue &= card.getValue() == first.getValue();
+        }
+        if (oneValue) {
+            throw new IllegalArgumentException("Five cards of one value");
+        }
+        return evaluate(sum, flush);
+    }
+
+    /**
+     * Classifies a hand from the sum of the keys of its values
+     * @param keySum sum of the value keys of the five cards
+     * @param flush true if all five cards share a suit
+     * @return category of the hand
+     * @throws IllegalArgumentException when keySum is not from 0 to
+     * HandEvaluator.MAX_KEY_SUM
+     */
+    public HandRank evaluate(int keySum, boolean flush) {
+        if (keySum < 0 || keySum > HandEvaluator.MAX_KEY_SUM) {
+            throw new IllegalArgumentException("Invalid key sum");
+        }
+        return RANKS[table.get(flush ? keySum + FLUSH_OFFSET : keySum)];
+    }
+
+    /**
+     * Works out the fingerprint of the value keys and categories, so that a
+     * file built for other keys or a reordered HandRank is not used
+     * @return CRC32 of every value key followed by every HandRank ordinal
+     * and name
+     */
+    static int fingerprint() {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+        for (int value = Card.LOWEST_VALUE; value <= Card.HIGHEST_VALUE; ++value) {
+            crc.update(buffer.putInt(0, HandEvaluator.getKey(value)).array());
+        }
+        for (HandRank rank : RANKS) {
+            crc.update(buffer.putInt(0, rank.ordinal()).array());
+            crc.update(rank.name().getBytes(StandardCharsets.US_ASCII));
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Writes the evaluation table file
+     * @param out stream to write the file to
+     * @throws IOException if the file cannot be written
+     */
+    public static void build(OutputStream out) throws IOException {
+        byte[] categories = HandEvaluator.buildCategories();
+        CRC32 crc = new CRC32();
+        crc.update(categories);
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(HandEvaluator.MAX_KEY_SUM);
+        data.writeInt(FINGERPRINT);
+        data.writeInt(TABLE_BYTES);
+        data.writeInt((int) crc.getValue());
+        data.write(categories);
+        data.flush();
+    }
+
+    /**
+     * Writes the evaluation table file to a temporary file next to it and
+     * moves it into place, so that a JVM opening it never maps half a file
+     * @param file path of the file
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                build(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Builds the evaluation table file
+     * @param args optional args[0] path of the file to write, defaultFile()
+     * if missing
+     */
+    public static void main(String[] args) {
+        if (args.length > 1) {
+            System.out.println("Usage: java -cp bin EvaluationTables [file]");
+            System.exit(1);
+        }
+        Path file = args.length == 1 ? Paths.get(args[0]) : defaultFile();
+        try {
+            write(file);
+        }
+        catch (IOException e) {
+            System.out.println("Unable to write " + file + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
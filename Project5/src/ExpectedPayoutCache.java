@@ -0,0 +1,482 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the expected payouts worked out by HoldSolver so that asking
+ * again for the same hand and hold costs a table probe instead of a
+ * solve. Each cache is bound to one Variant, whose deck and paytable every
+ * entry is solved under. Any number of threads can use one cache.
+ *
+ * Entries are keyed by the hand with its suits renamed as SuitCanonicalizer
+ * does, so every hand in one strategy class shares them, and by which of
+ * its cards are held, which fixes the discarded cards too. The joker has
+ * no suit and keeps its index. A key is the colex rank of the canonical
+ * hand among all five card sets of a 53 card deck times KEYS_PER_HAND plus
+ * the canonical hold mask, or BEST_HOLD for the entry holding the best
+ * hold. The value is the exact total payout of the draws, so payouts come
+ * back exactly as HoldSolver gives them.
+ *
+ * Each entry is one long, so it is read and replaced atomically: the
+ * referenced bit, the key plus one in the next 31 bits (0 marks an empty
+ * slot), and the value in the low 32 bits. The longs are kept off the
+ * heap in a direct buffer, where the garbage collector never scans them,
+ * and are grouped in buckets of one cache line. The first long of a
+ * bucket is its CLOCK hand. A hit sets the entry's referenced bit, and
+ * inserting into a full bucket sweeps from the hand, clearing referenced
+ * bits, until it finds an entry that has not been used since the last
+ * sweep and replaces it.
+ *
+ * @author Cole Sanders
+ */
+public class ExpectedPayoutCache implements DrawStrategy {
+
+    /** Number of longs in a bucket, one cache line */
+    private static final int BUCKET_LONGS = 8;
+
+    /** Number of entries in a bucket, after its CLOCK hand */
+    public static final int BUCKET_ENTRIES = BUCKET_LONGS - 1;
+
+    /** Largest number of buckets, filling a 1 GB buffer */
+    private static final int MAX_BUCKETS = 1 << 24;
+
+    /** Largest number of entries a cache can hold */
+    public static final long MAX_CAPACITY = (long) MAX_BUCKETS * BUCKET_ENTRIES;
+
+    /** Key offset of the entry holding the best hold of a hand */
+    private static final int BEST_HOLD = HoldSolver.HOLD_MASKS;
+
+    /** Number of keys of one canonical hand */
+    private static final int KEYS_PER_HAND = BEST_HOLD + 1;
+
+    /** Position of the key in an entry */
+    private static final int KEY_SHIFT = Integer.SIZE;
+
+    /** Bit of an entry set when it has been used since the last sweep */
+    private static final long REFERENCED = Long.MIN_VALUE;
+
+    /** Mask of the value in an entry */
+    private static final long VALUE_MASK = 0xFFFFFFFFL;
+
+    /** Number of bits of each card's canonical position */
+    private static final int POSITION_BITS = 3;
+
+    /** Mask of one canonical position */
+    private static final int POSITION_MASK = (1 << POSITION_BITS) - 1;
+
+    /** Multiplier hashing a key to its bucket */
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /** Atomic access to the longs of the buffer */
+    private static final VarHandle LONGS =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /** Variant whose deck and paytable the entries are solved under */
+    private final Variant variant;
+
+    /** Bits of the cards in the variant's deck */
+    private final long deck;
+
+    /** Entries and CLOCK hands, off the heap */
+    private final ByteBuffer table;
+
+    /** Number of bits in a bucket index */
+    private final int bucketBits;
+
+    /** Number of lookups answered from the cache */
+    private final LongAdder hits = new LongAdder();
+
+    /** Number of lookups that had to solve the hand */
+    private final LongAdder misses = new LongAdder();
+
+    /** Number of entries replaced to make room */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor allocating an empty cache for the classic game
+     * @param capacity least number of entries to hold, rounded up so the
+     * number of buckets is a power of two
+     * @throws IllegalArgumentException when capacity is not from 1 to
+     * MAX_CAPACITY
+     */
+    public ExpectedPayoutCache(long capacity) {
+        this(Variant.CLASSIC, capacity);
+    }
+
+    /**
+     * Constructor allocating an empty cache for a variant
+     * @param variant variant whose deck and paytable hands are solved under
+     * @param capacity least number of entries to hold, rounded up so the
+     * number of buckets is a power of two
+     * @throws IllegalArgumentException when variant is null
+     * @throws IllegalArgumentException when capacity is not from 1 to
+     * MAX_CAPACITY
+     */
+    public ExpectedPayoutCache(Variant variant, long capacity) {
+        if (variant == null) {
+            throw new IllegalArgumentException("Null variant");
+        }
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Invalid capacity");
+        }
+        this.variant = variant;
+        deck = (1L << variant.getDeckSize()) - 1;
+        long buckets = (capacity + BUCKET_ENTRIES - 1) / BUCKET_ENTRIES;
+        bucketBits = Long.SIZE - Long.numberOfLeadingZeros(buckets - 1);
+        int bytes = (BUCKET_LONGS * Long.BYTES) << bucketBits;
+        table = ByteBuffer.allocateDirect(bytes + Long.BYTES).alignedSlice(Long.BYTES);
+    }
+
+    /**
+     * Gets the variant the entries are solved under
+     * @return variant of the cache
+     */
+    public Variant getVariant() {
+        return variant;
+    }
+
+    /**
+     * Gets the number of entries the cache can hold
+     * @return capacity in entries
+     */
+    public long getCapacity() {
+        return (long) BUCKET_ENTRIES << bucketBits;
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache
+     * @return number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups that had to solve the hand
+     * @return number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of entries replaced to make room
+     * @return number of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Gets the share of lookups answered from the cache
+     * @return hits over lookups, or 0 before any lookups
+     */
+    public double getHitRate() {
+        long found = getHits();
+        long lookups = found + getMisses();
+        return lookups == 0 ? 0 : (double) found / lookups;
+    }
+
+    /**
+     * Gets the expected payout of one hold mask for a hand, solving the
+     * hand and caching every hold mask of it on a miss
+     * @param hand dealt hand
+     * @param holdMask mask with bit i set when card i is kept
+     * @return expected payout after drawing, exactly as HoldSolver gives it
+     * @throws IllegalArgumentException when the mask is not between 0 and 31
+     * @throws IllegalArgumentException when the hand holds the same card twice
+     * @throws IllegalArgumentException when a card is not in the variant's deck
+     */
+    public double expectedPayout(Hand hand, int holdMask) {
+        if (holdMask < 0 || holdMask >= HoldSolver.HOLD_MASKS) {
+            throw new IllegalArgumentException("Invalid hold mask");
+        }
+        int[] order = suitOrder(hand);
+        long canonical = canonicalCards(hand, order);
+        int positions = canonicalPositions(hand, order, canonical);
+        long base = handKey(canonical);
+        long total = find(base + mapHold(holdMask, positions));
+        if (total >= 0) {
+            hits.increment();
+        }
+        else {
+            misses.increment();
+            total = solve(hand, positions, base)[holdMask];
+        }
+        return (double) total / HoldSolver.draws(holdMask, variant);
+    }
+
+    /**
+     * Gets the expected payout of every hold mask for a hand
+     * @param hand dealt hand
+     * @return expected payout of each hold mask, indexed by the mask
+     * @throws IllegalArgumentException when the hand holds the same card twice
+     * @throws IllegalArgumentException when a card is not in the variant's deck
+     */
+    public double[] expectedPayouts(Hand hand) {
+        double[] payouts = new double[HoldSolver.HOLD_MASKS];
+        for (int mask = 0; mask < HoldSolver.HOLD_MASKS; ++mask) {
+            payouts[mask] = expectedPayout(hand, mask);
+        }
+        return payouts;
+    }
+
+    /**
+     * Gets the hold mask with the highest expected payout for a hand.
+     * Holds that tie may be chosen differently from HoldSolver, but always
+     * with the same expected payout.
+     * @param hand dealt hand
+     * @return best hold mask
+     * @throws IllegalArgumentException when the hand holds the same card twice
+     * @throws IllegalArgumentException when a card is not in the variant's deck
+     */
+    public int bestHold(Hand hand) {
+        int[] order = suitOrder(hand);
+        long canonical = canonicalCards(hand, order);
+        int positions = canonicalPositions(hand, order, canonical);
+        long base = handKey(canonical);
+        long best = find(base + BEST_HOLD);
+        if (best >= 0) {
+            hits.increment();
+        }
+        else {
+            misses.increment();
+            best = bestCanonicalHold(solve(hand, positions, base), positions);
+        }
+        return unmapHold((int) best, positions);
+    }
+
+    /**
+     * Chooses the cards to hold, as bestHold() does
+     * @param hand dealt hand
+     * @return best hold mask
+     */
+    public int chooseHold(Hand hand) {
+        return bestHold(hand);
+    }
+
+    /**
+     * Works out which canonical suit each suit of a hand becomes
+     * @param hand dealt hand
+     * @return canonical position of each suit, indexed by suit position
+     * @throws IllegalArgumentException when the hand holds the same card twice
+     * @throws IllegalArgumentException when a card is not in the variant's deck
+     */
+    private int[] suitOrder(Hand hand) {
+        long cards = hand.getKey();
+        if (cards < 0) {
+            throw new IllegalArgumentException("Duplicate card");
+        }
+        if ((cards & ~deck) != 0) {
+            throw new IllegalArgumentException("Card not in deck");
+        }
+        return SuitCanonicalizer.suitOrder(cards & CardSet.FULL_DECK);
+    }
+
+    /**
+     * Renames the suits of a hand's cards
+     * @param hand dealt hand
+     * @param order canonical position of each suit
+     * @return bits of the canonical set of cards
+     */
+    private static long canonicalCards(Hand hand, int[] order) {
+        long canonical = 0;
+        for (int i = 0; i < Hand.CARDS_IN_HAND; ++i) {
+            canonical |= CardSet.bit(canonicalIndex(hand.getCard(i), order));
+        }
+        return canonical;
+    }
+
+    /**
+     * Renames the suit of a card, leaving the joker as it is
+     * @param card card of the hand
+     * @param order canonical position of each suit
+     * @return index of the card with its suit renamed
+     */
+    private static int canonicalIndex(Card card, int[] order) {
+        if (card.isJoker()) {
+            return card.getIndex();
+        }
+        return SuitCanonicalizer.canonicalIndex(card.getIndex(), order);
+    }
+
+    /**
+     * Works out where each card of a hand goes among the cards of its
+     * canonical form, in index order
+     * @param hand dealt hand
+     * @param order canonical position of each suit
+     * @param canonical bits of the canonical set of cards
+     * @return position of card i in bits 3i to 3i + 2
+     */
+    private static int canonicalPositions(Hand hand, int[] order, long canonical) {
+        int positions = 0;
+        for (int i = 0; i < Hand.CARDS_IN_HAND; ++i) {
+            int index = canonicalIndex(hand.getCard(i), order);
+            int position = Long.bitCount(canonical & (CardSet.bit(index) - 1));
+            positions |= position << (i * POSITION_BITS);
+        }
+        return positions;
+    }
+
+    /**
+     * Works out the key of the first entry of a hand, from the colex rank
+     * of its canonical form among all five card sets
+     * @param canonical bits of the canonical set of cards
+     * @return key of the hand's entry with hold mask 0
+     */
+    private static long handKey(long canonical) {
+        long rank = 0;
+        int size = 1;
+        for (long rest = canonical; rest != 0; rest &= rest - 1) {
+            rank += HoldSolver.choose(Long.numberOfTrailingZeros(rest), size);
+            ++size;
+        }
+        return rank * KEYS_PER_HAND;
+    }
+
+    /**
+     * Turns a hold mask over the cards of a hand into one over the cards
+     * of its canonical form
+     * @param holdMask mask with bit i set when card i is kept
+     * @param positions canonical positions of the cards
+     * @return canonical hold mask
+     */
+    private static int mapHold(int holdMask, int positions) {
+        int canonicalHold = 0;
+        for (int i = 0; i < Hand.CARDS_IN_HAND; ++i) {
+            if ((holdMask & (1 << i)) != 0) {
+                canonicalHold |= 1 << ((positions >>> (i * POSITION_BITS)) & POSITION_MASK);
+            }
+        }
+        return canonicalHold;
+    }
+
+    /**
+     * Turns a canonical hold mask back into one over the cards of a hand
+     * @param canonicalHold canonical hold mask
+     * @param positions canonical positions of the cards
+     * @return hold mask with bit i set when card i is kept
+     */
+    private static int unmapHold(int canonicalHold, int positions) {
+        int holdMask = 0;
+        for (int i = 0; i < Hand.CARDS_IN_HAND; ++i) {
+            if ((canonicalHold & (1 << ((positions >>> (i * POSITION_BITS)) & POSITION_MASK)))
+                != 0) {
+                holdMask |= 1 << i;
+            }
+        }
+        return holdMask;
+    }
+
+    /**
+     * Solves a hand and caches the total payout of every hold mask and the
+     * best hold
+     * @param hand dealt hand
+     * @param positions canonical positions of the cards
+     * @param base key of the hand's first entry
+     * @return total payout of each hold mask of the hand
+     */
+    private long[] solve(Hand hand, int positions, long base) {
+        long[] totals = HoldSolver.holdTotals(hand, variant);
+        for (int mask = 0; mask < HoldSolver.HOLD_MASKS; ++mask) {
+            insert(base + mapHold(mask, positions), totals[mask]);
+        }
+        insert(base + BEST_HOLD, bestCanonicalHold(totals, positions));
+        return totals;
+    }
+
+    /**
+     * Finds the best hold of a hand over the cards of its canonical form,
+     * so that every hand of the class agrees on it
+     * @param totals total payout of each hold mask of the hand
+     * @param positions canonical positions of the cards
+     * @return best canonical hold mask
+     */
+    private int bestCanonicalHold(long[] totals, int positions) {
+        double[] canonical = new double[HoldSolver.HOLD_MASKS];
+        for (int mask = 0; mask < HoldSolver.HOLD_MASKS; ++mask) {
+            canonical[mapHold(mask, positions)] =
+                (double) totals[mask] / HoldSolver.draws(mask, variant);
+        }
+        return HoldSolver.bestHold(canonical);
+    }
+
+    /**
+     * Looks up a key and marks its entry as used
+     * @param key key of the entry
+     * @return value of the entry, or -1 if it is not cached
+     */
+    private long find(long key) {
+        int bucket = bucketOffset(key);
+        long tag = (key + 1) << KEY_SHIFT;
+        for (int i = 1; i < BUCKET_LONGS; ++i) {
+            int offset = bucket + i * Long.BYTES;
+            long entry = (long) LONGS.getVolatile(table, offset);
+            if ((entry & ~REFERENCED & ~VALUE_MASK) == tag) {
+                if (entry >= 0) {
+                    LONGS.compareAndSet(table, offset, entry, entry | REFERENCED);
+                }
+                return entry & VALUE_MASK;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Stores a value under a key, in an empty slot of its bucket if there
+     * is one and otherwise in place of the first entry the CLOCK hand
+     * finds unused since its last sweep
+     * @param key key of the entry
+     * @param value value to store; one over 2^32 - 1, which only a paytable
+     * with huge payouts can reach, is left uncached
+     */
+    private void insert(long key, long value) {
+        if (value > VALUE_MASK) {
+            return;
+        }
+        int bucket = bucketOffset(key);
+        long tag = (key + 1) << KEY_SHIFT;
+        long entry = tag | value;
+        for (int i = 1; i < BUCKET_LONGS; ++i) {
+            int offset = bucket + i * Long.BYTES;
+            long current = (long) LONGS.getVolatile(table, offset);
+            if ((current & ~REFERENCED & ~VALUE_MASK) == tag) {
+                return;
+            }
+            if (current == 0 && LONGS.compareAndSet(table, offset, 0L, entry)) {
+                return;
+            }
+        }
+        int hand = (int) (long) LONGS.getVolatile(table, bucket);
+        for (int step = 0; step < 2 * BUCKET_ENTRIES + 1; ++step) {
+            int offset = bucket + (1 + hand) * Long.BYTES;
+            hand = (hand + 1) % BUCKET_ENTRIES;
+            long current = (long) LONGS.getVolatile(table, offset);
+            if (current < 0) {
+                LONGS.compareAndSet(table, offset, current, current & ~REFERENCED);
+            }
+            else if (LONGS.compareAndSet(table, offset, current, entry)) {
+                if (current != 0) {
+                    evictions.increment();
+                }
+                break;
+            }
+        }
+        LONGS.setVolatile(table, bucket, (long) hand);
+    }
+
+    /**
+     * Finds the bucket of a key
+     * @param key key of an entry
+     * @return byte offset of the bucket in the table
+     */
+    private int bucketOffset(long key) {
+        if (bucketBits == 0) {
+            return 0;
+        }
+        int bucket = (int) ((key * HASH_MULTIPLIER) >>> (Long.SIZE - bucketBits));
+        return bucket * BUCKET_LONGS * Long.BYTES;
+    }
+}
@@ -0,0 +1,145 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events for the steps of a game, so a recording
+ * shows deals, draws, scores and shuffles next to GC and JIT activity.
+ * Every event is off unless a recording turns it on, for example with
+ * the settings in jfr/poker.jfc:
+ *
+ * <pre>
+ * java -XX:StartFlightRecording=settings=default,settings=jfr/poker.jfc,filename=poker.jfr ...
+ * </pre>
+ *
+ * While an event is off, begin(), end() and shouldCommit() do nothing and
+ * the JIT removes the event object, so none of its fields are filled in.
+ *
+ * @author Cole Sanders
+ */
+public final class GameEvents {
+
+    /** Category the events are listed under */
+    public static final String CATEGORY = "Poker";
+
+    /** Settings file that turns the events on */
+    public static final String SETTINGS = "jfr/poker.jfc";
+
+    /**
+     * Constructor that is never used, since the class only holds the events
+     */
+    private GameEvents() {
+    }
+
+    /**
+     * A new hand dealt by VideoPoker.newGame()
+     */
+    @Name("poker.Deal")
+    @Label("Deal")
+    @Category(CATEGORY)
+    @Description("New hand dealt")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class Deal extends Event {
+
+        /** Session the game belongs to */
+        @Label("Session Id")
+        long sessionId;
+
+        /** Cards dealt */
+        @Label("Hand")
+        String hand;
+
+        /** Points spent starting the game */
+        @Label("Cost")
+        int cost;
+
+        /** Points left after paying */
+        @Label("Points")
+        int points;
+    }
+
+    /**
+     * A card replaced by VideoPoker.replaceCard()
+     */
+    @Name("poker.Draw")
+    @Label("Draw")
+    @Category(CATEGORY)
+    @Description("Card replaced")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class Draw extends Event {
+
+        /** Session the game belongs to */
+        @Label("Session Id")
+        long sessionId;
+
+        /** Index of the card in the hand */
+        @Label("Index")
+        int index;
+
+        /** Card drawn */
+        @Label("Card")
+        String card;
+    }
+
+    /**
+     * A hand scored by VideoPoker.scoreHand()
+     */
+    @Name("poker.Score")
+    @Label("Score")
+    @Category(CATEGORY)
+    @Description("Hand scored")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class Score extends Event {
+
+        /** Session the game belongs to */
+        @Label("Session Id")
+        long sessionId;
+
+        /** Final hand */
+        @Label("Hand")
+        String hand;
+
+        /** Category the hand was scored as */
+        @Label("Category")
+        String category;
+
+        /** Points paid for the hand */
+        @Label("Payout")
+        int payout;
+
+        /** Points after the payout */
+        @Label("Points")
+        int points;
+    }
+
+    /**
+     * A deck shuffled by Deck.shuffle()
+     */
+    @Name("poker.Shuffle")
+    @Label("Shuffle")
+    @Category(CATEGORY)
+    @Description("Deck shuffled")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class Shuffle extends Event {
+
+        /** Number of cards in the deck */
+        @Label("Cards")
+        int cards;
+
+        /** Whether the cards are drawn at random as they are dealt */
+        @Label("Lazy")
+        boolean lazy;
+
+        /** Game number of a counter deck, or -1 */
+        @Label("Game")
+        long game;
+    }
+}
@@ -0,0 +1,462 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of game events kept in memory-mapped segment files,
+ * so that GameServer sessions survive a crash.
+ *
+ * Appending a record only copies 32 bytes into the mapped segment, which
+ * the operating system keeps even if the process dies. A background
+ * thread forces dirty segments to disk every flush interval, so many
+ * records share one fsync and a machine crash loses at most one interval
+ * of events. Call sync() where a hard durability point is needed.
+ *
+ * Segments are named journal-NNNNNNNN.log and start with a 32 byte header
+ * of a magic number, the format version and the sequence number of the
+ * segment's first record. Records are numbered one after another across
+ * segments. Each record holds the session id (long), the hand's CardSet
+ * bits (long), the seed (int), the points (int), the event type (byte),
+ * the card index (byte), the low 16 bits of its sequence number (short)
+ * and a CRC32C of the other 28 bytes.
+ *
+ * Reading stops at the first gap: a record whose checksum does not match,
+ * which is where a crash cut off the last write, a record out of sequence,
+ * or a segment that does not carry on from the one before. Opening the
+ * journal truncates it there, zeroing the rest of that segment and
+ * deleting the segments after it, so that records written before the
+ * crash can never be read after the ones appended from then on.
+ *
+ * @author Cole Sanders
+ */
+public class GameJournal implements AutoCloseable {
+
+    /** Number identifying a journal segment */
+    public static final int MAGIC = 0x504b4a4c;
+
+    /** Version of the file format */
+    public static final int VERSION = 2;
+
+    /** Number of bytes in a record, and in the segment header */
+    public static final int RECORD_BYTES = 32;
+
+    /** Default number of records in a segment */
+    public static final int DEFAULT_SEGMENT_RECORDS = 32 * 1024;
+
+    /** Default number of milliseconds between forced writes */
+    public static final long DEFAULT_FLUSH_MILLIS = 50;
+
+    /** Number of bytes covered by a record's checksum */
+    private static final int CHECKED_BYTES = RECORD_BYTES - Integer.BYTES;
+
+    /** Byte position of the first sequence number in the segment header */
+    private static final int FIRST_SEQUENCE = 2 * Integer.BYTES;
+
+    /** Byte position of the event type in a record */
+    private static final int TYPE = 2 * Long.BYTES + 2 * Integer.BYTES;
+
+    /** Byte position of the sequence number in a record */
+    private static final int SEQUENCE = TYPE + 2;
+
+    /** Prefix of segment file names */
+    private static final String PREFIX = "journal-";
+
+    /** Suffix of segment file names */
+    private static final String SUFFIX = ".log";
+
+    /** Directory holding the segments */
+    private final Path directory;
+
+    /** Number of bytes in a new segment; a reopened one keeps its file size */
+    private final int segmentBytes;
+
+    /** Record being built before it is copied into the segment */
+    private final ByteBuffer scratch = ByteBuffer.allocate(RECORD_BYTES);
+
+    /** Checksum of the record being built */
+    private final CRC32C crc = new CRC32C();
+
+    /** Runs the periodic forced writes */
+    private final ScheduledExecutorService flusher;
+
+    /** Segment being appended to */
+    private MappedByteBuffer segment;
+
+    /** Number of the segment being appended to */
+    private int segmentNumber;
+
+    /** Byte position of the next record in the segment */
+    private int position;
+
+    /** Sequence number of the next record */
+    private long sequence;
+
+    /** Sequence number up to which records are known to be on disk */
+    private long forced;
+
+    /** Highest session id found in the journal when it was opened */
+    private long lastSessionId;
+
+    /** Whether the journal has been closed */
+    private boolean closed;
+
+    /**
+     * Constructor opening a journal with the default segment size and
+     * flush interval
+     * @param directory directory holding the segments, created if missing
+     * @throws IOException if the journal cannot be opened
+     */
+    public GameJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_RECORDS, DEFAULT_FLUSH_MILLIS);
+    }
+
+    /**
+     * Constructor opening a journal, truncating it at the first gap and
+     * continuing from there
+     * @param directory directory holding the segments, created if missing
+     * @param segmentRecords number of records in a new segment
+     * @param flushMillis milliseconds between forced writes
+     * @throws IOException if the journal cannot be opened
+     * @throws IllegalArgumentException when segmentRecords or flushMillis is
+     * less than one
+     */
+    public GameJournal(Path directory, int segmentRecords, long flushMillis)
+            throws IOException {
+        if (segmentRecords < 1) {
+            throw new IllegalArgumentException("Invalid segment size");
+        }
+        if (flushMillis < 1) {
+            throw new IllegalArgumentException("Invalid flush interval");
+        }
+        this.directory = directory;
+        this.segmentBytes = (segmentRecords + 1) * RECORD_BYTES;
+        Files.createDirectories(directory);
+        List<Path> segments = segments(directory);
+        if (segments.isEmpty()) {
+            roll(0);
+        }
+        else {
+            End end = scan(segments, record ->
+                           lastSessionId = Math.max(lastSessionId, record.getSessionId()));
+            for (int i = segments.size() - 1; i > end.segment; --i) {
+                Files.delete(segments.get(i));
+            }
+            Path last = segments.get(end.segment);
+            segmentNumber = number(last);
+            segment = map(last, FileChannel.MapMode.READ_WRITE);
+            position = end.position;
+            sequence = end.sequence;
+            for (int i = position; i < segment.capacity(); i += Long.BYTES) {
+                segment.putLong(i, 0);
+            }
+            segment.force();
+        }
+        forced = sequence;
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis,
+                                       TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets the highest session id in the journal when it was opened
+     * @return highest session id, or zero for an empty journal
+     */
+    public long getLastSessionId() {
+        return lastSessionId;
+    }
+
+    /**
+     * Appends an event to the journal
+     * @param sessionId number identifying the session
+     * @param seed seed of the session's deck
+     * @param type kind of event from JournalRecord
+     * @param cardIndex index of the replaced card, or NO_CARD
+     * @param points points of the session after the event
+     * @param cards CardSet bits of the hand after the event
+     * @throws IllegalStateException if the journal is closed or a new
+     * segment cannot be created
+     */
+    public synchronized void append(long sessionId, int seed, byte type, int cardIndex,
+                                    int points, long cards) {
+        if (closed) {
+            throw new IllegalStateException("Journal closed");
+        }
+        if (position + RECORD_BYTES > segment.capacity()) {
+            try {
+                segment.force();
+                forced = sequence;
+                roll(segmentNumber + 1);
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("Unable to create segment", e);
+            }
+        }
+        scratch.clear();
+        scratch.putLong(sessionId).putLong(cards).putInt(seed).putInt(points)
+               .put(type).put((byte) cardIndex).putShort((short) sequence);
+        crc.reset();
+        crc.update(scratch.array(), 0, CHECKED_BYTES);
+        scratch.putInt((int) crc.getValue());
+        segment.put(position, scratch.array());
+        position += RECORD_BYTES;
+        ++sequence;
+    }
+
+    /**
+     * Forces every appended record to disk before returning
+     */
+    public void sync() {
+        flush();
+    }
+
+    /**
+     * Forces the current segment to disk if records were appended since
+     * the last forced write. The count of forced records only moves on
+     * once the force has finished, so a sync() that runs while the flusher
+     * is forcing does its own force instead of returning early.
+     */
+    private void flush() {
+        MappedByteBuffer current;
+        long target;
+        synchronized (this) {
+            if (forced >= sequence || closed) {
+                return;
+            }
+            target = sequence;
+            current = segment;
+        }
+        current.force();
+        synchronized (this) {
+            forced = Math.max(forced, target);
+        }
+    }
+
+    /**
+     * Rebuilds the sessions that were open when the journal was last
+     * written, replaying each one's events against a freshly seeded game.
+     * The recovered sessions keep appending to this journal.
+     * @return open sessions by id, in the order they were opened
+     * @throws IOException if the segments cannot be read or an event does
+     * not match the replayed game
+     */
+    public Map<Long, GameSession> recover() throws IOException {
+        Map<Long, GameSession> sessions = new LinkedHashMap<>();
+        try {
+            read(directory, record -> {
+                if (record.getType() == JournalRecord.OPEN) {
+                    sessions.put(record.getSessionId(), new GameSession(
+                            record.getSessionId(), record.getSeed(), this, false));
+                }
+                else if (record.getType() == JournalRecord.CLOSE) {
+                    sessions.remove(record.getSessionId());
+                }
+                else {
+                    GameSession session = sessions.get(record.getSessionId());
+                    if (session == null) {
+                        throw new IllegalStateException("Unknown session");
+                    }
+                    session.replay(record);
+                }
+            });
+        }
+        catch (IllegalArgumentException | IllegalStateException e) {
+            throw new IOException("Corrupt journal: " + e.getMessage(), e);
+        }
+        return sessions;
+    }
+
+    /**
+     * Reads the records of a journal in the order they were written, up to
+     * the first gap
+     * @param directory directory holding the segments
+     * @param action called with each record
+     * @return number of records read
+     * @throws IOException if the segments cannot be read
+     */
+    public static long read(Path directory, Consumer<JournalRecord> action)
+            throws IOException {
+        List<Path> segments = segments(directory);
+        return segments.isEmpty() ? 0 : scan(segments, action).records;
+    }
+
+    /**
+     * Passes the records of a journal to an action up to the first gap
+     * @param segments segment files in order, at least one
+     * @param action called with each record
+     * @return where the records stop
+     * @throws IOException if a segment cannot be read or the header of the
+     * first one is invalid
+     */
+    private static End scan(List<Path> segments, Consumer<JournalRecord> action)
+            throws IOException {
+        End end = new End();
+        for (int i = 0; i < segments.size(); ++i) {
+            MappedByteBuffer buffer = map(segments.get(i), FileChannel.MapMode.READ_ONLY);
+            boolean valid = buffer.limit() >= RECORD_BYTES && buffer.getInt(0) == MAGIC
+                            && buffer.getInt(Integer.BYTES) == VERSION;
+            if (i == 0) {
+                if (!valid) {
+                    throw new IOException("Invalid journal segment");
+                }
+                end.sequence = buffer.getLong(FIRST_SEQUENCE);
+            }
+            else if (!valid || buffer.getLong(FIRST_SEQUENCE) != end.sequence) {
+                break;
+            }
+            end.segment = i;
+            end.position = scan(buffer, end.sequence, action);
+            long records = end.position / RECORD_BYTES - 1;
+            end.sequence += records;
+            end.records += records;
+        }
+        return end;
+    }
+
+    /**
+     * Passes the records of a segment to an action up to the first one
+     * that is torn or out of sequence
+     * @param buffer mapped segment
+     * @param first sequence number of the segment's first record
+     * @param action called with each record
+     * @return byte position after the last valid record
+     */
+    private static int scan(ByteBuffer buffer, long first, Consumer<JournalRecord> action) {
+        CRC32C check = new CRC32C();
+        int position = RECORD_BYTES;
+        long expected = first;
+        while (position + RECORD_BYTES <= buffer.limit()) {
+            check.reset();
+            check.update(buffer.slice(position, CHECKED_BYTES));
+            byte type = buffer.get(position + TYPE);
+            if ((int) check.getValue() != buffer.getInt(position + CHECKED_BYTES)
+                || type < JournalRecord.OPEN || type > JournalRecord.CLOSE
+                || buffer.getShort(position + SEQUENCE) != (short) expected) {
+                break;
+            }
+            action.accept(new JournalRecord(buffer.getLong(position),
+                    buffer.getInt(position + 2 * Long.BYTES), type,
+                    buffer.get(position + TYPE + 1),
+                    buffer.getInt(position + 2 * Long.BYTES + Integer.BYTES),
+                    buffer.getLong(position + Long.BYTES)));
+            position += RECORD_BYTES;
+            ++expected;
+        }
+        return position;
+    }
+
+    /**
+     * Creates and maps a new segment
+     * @param number number of the segment
+     * @throws IOException if the segment cannot be created
+     */
+    private void roll(int number) throws IOException {
+        Path file = directory.resolve(String.format("%s%08d%s", PREFIX, number, SUFFIX));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        segment.putInt(0, MAGIC);
+        segment.putInt(Integer.BYTES, VERSION);
+        segment.putLong(FIRST_SEQUENCE, sequence);
+        segment.force();
+        segmentNumber = number;
+        position = RECORD_BYTES;
+    }
+
+    /**
+     * Maps a whole segment file
+     * @param file segment file
+     * @param mode READ_ONLY or READ_WRITE
+     * @return mapped contents
+     * @throws IOException if the file cannot be mapped
+     */
+    private static MappedByteBuffer map(Path file, FileChannel.MapMode mode)
+            throws IOException {
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+            ? new StandardOpenOption[] {StandardOpenOption.READ}
+            : new StandardOpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE};
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            return channel.map(mode, 0, channel.size());
+        }
+    }
+
+    /**
+     * Lists the segments of a journal in order
+     * @param directory directory holding the segments
+     * @return segment files sorted by number
+     * @throws IOException if the directory cannot be listed
+     */
+    private static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                                                                     PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                segments.add(file);
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Gets the number of a segment from its file name
+     * @param file segment file
+     * @return segment number
+     */
+    private static int number(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(PREFIX.length(),
+                                               name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Forces the remaining records to disk and stops appending
+     */
+    public void close() {
+        flusher.shutdownNow();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            segment.force();
+        }
+    }
+
+    /**
+     * Where the records of a journal stop
+     */
+    private static final class End {
+
+        /** Position in the list of segments of the segment holding the gap */
+        int segment;
+
+        /** Byte position in that segment after the last valid record */
+        int position;
+
+        /** Sequence number of the next record */
+        long sequence;
+
+        /** Number of records before the gap */
+        long records;
+    }
+}
@@ -0,0 +1,279 @@
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counts the games played by any number of VideoPoker instances that
+ * share it: deals, draws and scores, points in and out, hands of each
+ * category, and how long dealing, drawing and scoring take. Counters are
+ * LongAdders and times go in LatencyHistograms, so recording costs a few
+ * nanoseconds, creates no objects, and can be done by many threads at
+ * once. The totals can be published over JMX with register() and written
+ * out periodically with scheduleDump().
+ *
+ * @author Cole Sanders
+ */
+public class GameMetrics implements GameMetricsMXBean {
+
+    /** Name the metrics are registered under when none is given */
+    public static final String DEFAULT_NAME = "Poker:type=GameMetrics";
+
+    /** Every category, indexed by ordinal */
+    private static final PayCategory[] CATEGORIES = PayCategory.values();
+
+    /** Number of hands dealt */
+    private final LongAdder deals = new LongAdder();
+
+    /** Number of cards replaced */
+    private final LongAdder draws = new LongAdder();
+
+    /** Number of hands scored */
+    private final LongAdder scores = new LongAdder();
+
+    /** Points spent starting games */
+    private final LongAdder pointsWagered = new LongAdder();
+
+    /** Points paid out for scored hands */
+    private final LongAdder pointsPaid = new LongAdder();
+
+    /** Number of hands scored as each category, indexed by ordinal */
+    private final LongAdder[] categories = new LongAdder[CATEGORIES.length];
+
+    /** Times taken to deal a hand */
+    private final LatencyHistogram dealLatency = new LatencyHistogram();
+
+    /** Times taken to replace a card */
+    private final LatencyHistogram drawLatency = new LatencyHistogram();
+
+    /** Times taken to score a hand */
+    private final LatencyHistogram scoreLatency = new LatencyHistogram();
+
+    /**
+     * Constructor initializing every counter at zero
+     */
+    public GameMetrics() {
+        for (int i = 0; i < categories.length; ++i) {
+            categories[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a hand being dealt
+     * @param nanos time taken in nanoseconds
+     * @param cost points spent starting the game
+     */
+    public void recordDeal(long nanos, int cost) {
+        deals.increment();
+        pointsWagered.add(cost);
+        dealLatency.record(nanos);
+    }
+
+    /**
+     * Records a card being replaced
+     * @param nanos time taken in nanoseconds
+     */
+    public void recordDraw(long nanos) {
+        draws.increment();
+        drawLatency.record(nanos);
+    }
+
+    /**
+     * Records a hand being scored
+     * @param nanos time taken in nanoseconds
+     * @param category category the hand was scored as
+     * @param payout points paid for the hand
+     */
+    public void recordScore(long nanos, PayCategory category, int payout) {
+        scores.increment();
+        categories[category.ordinal()].increment();
+        pointsPaid.add(payout);
+        scoreLatency.record(nanos);
+    }
+
+    /**
+     * Gets the number of hands dealt
+     * @return number of deals
+     */
+    public long getDeals() {
+        return deals.sum();
+    }
+
+    /**
+     * Gets the number of cards replaced
+     * @return number of draws
+     */
+    public long getDraws() {
+        return draws.sum();
+    }
+
+    /**
+     * Gets the number of hands scored
+     * @return number of scores
+     */
+    public long getScores() {
+        return scores.sum();
+    }
+
+    /**
+     * Gets the points spent starting games
+     * @return points wagered
+     */
+    public long getPointsWagered() {
+        return pointsWagered.sum();
+    }
+
+    /**
+     * Gets the points paid out for scored hands
+     * @return points paid
+     */
+    public long getPointsPaid() {
+        return pointsPaid.sum();
+    }
+
+    /**
+     * Gets the points paid out per point wagered
+     * @return return to player, or 0 before any points are wagered
+     */
+    public double getReturnToPlayer() {
+        long wagered = getPointsWagered();
+        return wagered == 0 ? 0 : (double) getPointsPaid() / wagered;
+    }
+
+    /**
+     * Gets the number of hands scored as a category
+     * @param category category of hand
+     * @return number of hands
+     */
+    public long getCategoryCount(PayCategory category) {
+        return categories[category.ordinal()].sum();
+    }
+
+    /**
+     * Gets the number of hands scored as each category
+     * @return counts by category name, in paytable order
+     */
+    public Map<String, Long> getCategoryCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (PayCategory category : CATEGORIES) {
+            counts.put(category.name(), getCategoryCount(category));
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the times taken to deal a hand
+     * @return snapshot of the deal times
+     */
+    public LatencyHistogram.Snapshot getDealLatency() {
+        return dealLatency.snapshot();
+    }
+
+    /**
+     * Gets the times taken to replace a card
+     * @return snapshot of the draw times
+     */
+    public LatencyHistogram.Snapshot getDrawLatency() {
+        return drawLatency.snapshot();
+    }
+
+    /**
+     * Gets the times taken to score a hand
+     * @return snapshot of the score times
+     */
+    public LatencyHistogram.Snapshot getScoreLatency() {
+        return scoreLatency.snapshot();
+    }
+
+    /**
+     * Sets every counter and histogram back to zero
+     */
+    public void reset() {
+        deals.reset();
+        draws.reset();
+        scores.reset();
+        pointsWagered.reset();
+        pointsPaid.reset();
+        for (LongAdder category : categories) {
+            category.reset();
+        }
+        dealLatency.reset();
+        drawLatency.reset();
+        scoreLatency.reset();
+    }
+
+    /**
+     * Publishes the metrics on the platform MBean server under DEFAULT_NAME
+     * @return name the metrics were registered under
+     * @throws JMException if the metrics cannot be registered, such as when
+     * the name is taken
+     */
+    public ObjectName register() throws JMException {
+        return register(DEFAULT_NAME);
+    }
+
+    /**
+     * Publishes the metrics on the platform MBean server
+     * @param name object name to register under
+     * @return name the metrics were registered under
+     * @throws JMException if the name is not valid or is taken
+     */
+    public ObjectName register(String name) throws JMException {
+        return ManagementFactory.getPlatformMBeanServer()
+                                .registerMBean(this, new ObjectName(name)).getObjectName();
+    }
+
+    /**
+     * Removes metrics from the platform MBean server
+     * @param name name the metrics were registered under
+     * @throws JMException if nothing is registered under the name
+     */
+    public static void unregister(ObjectName name) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+    }
+
+    /**
+     * Writes out the metrics periodically
+     * @param executor executor the dump runs on
+     * @param periodMillis milliseconds between dumps
+     * @param out receives the text of each dump
+     * @return future that stops the dumps when cancelled
+     * @throws IllegalArgumentException when periodMillis is not positive
+     */
+    public ScheduledFuture<?> scheduleDump(ScheduledExecutorService executor, long periodMillis,
+                                           Consumer<String> out) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Invalid period");
+        }
+        return executor.scheduleAtFixedRate(() -> out.accept(toString()), periodMillis,
+                                            periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets the totals, times and category counts as lines of text
+     * @return snapshot of the metrics
+     */
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("deals=%d draws=%d scores=%d wagered=%d paid=%d rtp=%.4f%n",
+                                     getDeals(), getDraws(), getScores(), getPointsWagered(),
+                                     getPointsPaid(), getReturnToPlayer()));
+        builder.append("deal  ").append(getDealLatency()).append(System.lineSeparator());
+        builder.append("draw  ").append(getDrawLatency()).append(System.lineSeparator());
+        builder.append("score ").append(getScoreLatency()).append(System.lineSeparator());
+        for (PayCategory category : CATEGORIES) {
+            long count = getCategoryCount(category);
+            if (count > 0) {
+                builder.append(String.format("%-24s %d%n", category, count));
+            }
+        }
+        return builder.toString();
+    }
+}
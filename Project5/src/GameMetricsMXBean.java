@@ -0,0 +1,75 @@
+import java.util.Map;
+
+/**
+ * Management interface GameMetrics is published through on the platform
+ * MBean server, where tools such as JConsole can read it
+ *
+ * @author Cole Sanders
+ */
+public interface GameMetricsMXBean {
+
+    /**
+     * Gets the number of hands dealt
+     * @return number of deals
+     */
+    long getDeals();
+
+    /**
+     * Gets the number of cards replaced
+     * @return number of draws
+     */
+    long getDraws();
+
+    /**
+     * Gets the number of hands scored
+     * @return number of scores
+     */
+    long getScores();
+
+    /**
+     * Gets the points spent starting games
+     * @return points wagered
+     */
+    long getPointsWagered();
+
+    /**
+     * Gets the points paid out for scored hands
+     * @return points paid
+     */
+    long getPointsPaid();
+
+    /**
+     * Gets the points paid out per point wagered
+     * @return return to player, or 0 before any points are wagered
+     */
+    double getReturnToPlayer();
+
+    /**
+     * Gets the number of hands scored as each category
+     * @return counts by category name, in paytable order
+     */
+    Map<String, Long> getCategoryCounts();
+
+    /**
+     * Gets the times taken to deal a hand
+     * @return snapshot of the deal times
+     */
+    LatencyHistogram.Snapshot getDealLatency();
+
+    /**
+     * Gets the times taken to replace a card
+     * @return snapshot of the draw times
+     */
+    LatencyHistogram.Snapshot getDrawLatency();
+
+    /**
+     * Gets the times taken to score a hand
+     * @return snapshot of the score times
+     */
+    LatencyHistogram.Snapshot getScoreLatency();
+
+    /**
+     * Sets every counter and histogram back to zero
+     */
+    void reset();
+}
@@ -0,0 +1,395 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.management.JMException;
+
+/**
+ * Hosts many VideoPoker sessions without the GUI. Clients connect over a
+ * local socket and send one request per line, getting one response line
+ * back for each:
+ *
+ * <pre>
+ * OPEN [seed]         OK id
+ * NEW id              OK points hand
+ * REPLACE id index    OK hand
+ * SCORE id            OK points category
+ * POINTS id           OK points
+ * CLOSE id            OK
+ * QUIT                (closes the connection)
+ * </pre>
+ *
+ * Failed requests get "ERROR message". Each connection is served by its
+ * own thread, a virtual thread when the JVM supports them. Sessions are
+ * not tied to a connection and are closed after sitting idle. A server
+ * given a GameJournal records every session's events in it and reopens
+ * the sessions that were open when it last stopped.
+ *
+ * @author Cole Sanders
+ */
+public class GameServer implements AutoCloseable {
+
+    /** Default number of milliseconds a session can sit idle */
+    public static final long DEFAULT_IDLE_MILLIS = 10 * 60 * 1000;
+
+    /** Milliseconds between the metrics dumps main() prints */
+    public static final long METRICS_DUMP_MILLIS = 60 * 1000;
+
+    /** Number of pending connections the socket queues */
+    private static final int BACKLOG = 1024;
+
+    /** Sessions by id */
+    private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+
+    /** Source of session ids */
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    /** Socket accepting connections */
+    private final ServerSocket serverSocket;
+
+    /** Runs one task per connection */
+    private final ExecutorService connections;
+
+    /** Runs the idle session sweep */
+    private final ScheduledExecutorService sweeper;
+
+    /** Milliseconds a session can sit idle before it is closed */
+    private final long idleMillis;
+
+    /** Journal the sessions' events are appended to, or null */
+    private final GameJournal journal;
+
+    /** Metrics every session's game is recorded in */
+    private final GameMetrics metrics = new GameMetrics();
+
+    /**
+     * Constructor opening the server socket on the loopback address and
+     * starting to accept connections
+     * @param port port to listen on, or 0 for any free port
+     * @param idleMillis milliseconds a session can sit idle
+     * @throws IOException if the socket cannot be opened
+     */
+    public GameServer(int port, long idleMillis) throws IOException {
+        this(port, idleMillis, null);
+    }
+
+    /**
+     * Constructor recovering the open sessions from a journal, then opening
+     * the server socket on the loopback address and starting to accept
+     * connections
+     * @param port port to listen on, or 0 for any free port
+     * @param idleMillis milliseconds a session can sit idle
+     * @param journal journal the sessions' events are appended to, or null
+     * @throws IOException if the journal cannot be recovered or the socket
+     * cannot be opened
+     */
+    public GameServer(int port, long idleMillis, GameJournal journal) throws IOException {
+        this.idleMillis = idleMillis;
+        this.journal = journal;
+        if (journal != null) {
+            sessions.putAll(journal.recover());
+            nextId.set(journal.getLastSessionId() + 1);
+        }
+        for (GameSession session : sessions.values()) {
+            session.setMetrics(metrics);
+        }
+        serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        connections = newThreadPerTaskExecutor();
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, idleMillis / 2);
+        sweeper.scheduleAtFixedRate(this::evictIdleSessions, period, period,
+                                    TimeUnit.MILLISECONDS);
+        Thread acceptor = new Thread(this::acceptConnections, "game-server-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Creates an executor that starts a new thread for each task, using
+     * virtual threads when the JVM has them and platform threads otherwise
+     * @return executor with a thread per task
+     */
+    public static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        }
+        catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Gets the port the server is listening on
+     * @return local port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Gets the number of open sessions
+     * @return number of sessions
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Gets the metrics every session's game is recorded in. Games replayed
+     * from the journal on startup are not counted.
+     * @return metrics of the server
+     */
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Writes out the metrics periodically on the server's sweeper thread
+     * until the server is closed
+     * @param periodMillis milliseconds between dumps
+     * @param out receives the text of each dump
+     * @return future that stops the dumps when cancelled
+     * @throws IllegalArgumentException when periodMillis is not positive
+     */
+    public ScheduledFuture<?> dumpMetrics(long periodMillis, Consumer<String> out) {
+        return metrics.scheduleDump(sweeper, periodMillis, out);
+    }
+
+    /**
+     * Closes every session that has been idle for too long
+     */
+    public void evictIdleSessions() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        Iterator<GameSession> it = sessions.values().iterator();
+        while (it.hasNext()) {
+            GameSession session = it.next();
+            if (session.getLastAccess() - cutoff < 0) {
+                it.remove();
+                session.close();
+            }
+        }
+    }
+
+    /**
+     * Handles one request line
+     * @param line request from a client
+     * @return response line
+     */
+    public String handle(String line) {
+        String[] words = line.trim().split("\\s+");
+        try {
+            switch (words[0]) {
+                case "OPEN":
+                    return "OK " + open(words).getId();
+                case "NEW":
+                    return "OK " + session(words, 2).newGame();
+                case "REPLACE":
+                    return "OK " + session(words, 3).replaceCard(parse(words[2]));
+                case "SCORE":
+                    return "OK " + session(words, 2).scoreHand();
+                case "POINTS":
+                    return "OK " + session(words, 2).getPoints();
+                case "CLOSE":
+                    GameSession session = session(words, 2);
+                    if (sessions.remove(session.getId(), session)) {
+                        session.close();
+                    }
+                    return "OK";
+                default:
+                    return "ERROR Unknown request";
+            }
+        }
+        catch (IllegalArgumentException | IllegalStateException e) {
+            return "ERROR " + e.getMessage();
+        }
+    }
+
+    /**
+     * Opens a session, with a random seed unless one is given
+     * @param words words of the request
+     * @return the new session
+     */
+    private GameSession open(String[] words) {
+        if (words.length > 2) {
+            throw new IllegalArgumentException("Invalid request");
+        }
+        int seed;
+        if (words.length == 2) {
+            seed = parse(words[1]);
+        }
+        else {
+            do {
+                seed = ThreadLocalRandom.current().nextInt();
+            } while (seed == VideoPoker.RANDOM_GAME);
+        }
+        if (seed == VideoPoker.RANDOM_GAME) {
+            throw new IllegalArgumentException("Invalid seed");
+        }
+        long id = nextId.getAndIncrement();
+        return addSession(journal == null ? new GameSession(id, seed)
+                                          : new GameSession(id, seed, journal));
+    }
+
+    /**
+     * Adds a session to the server
+     * @param session session to add
+     * @return the session
+     */
+    private GameSession addSession(GameSession session) {
+        session.setMetrics(metrics);
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    /**
+     * Finds the session named by a request
+     * @param words words of the request
+     * @param length number of words the request must have
+     * @return the session
+     * @throws IllegalArgumentException if the request is malformed or the
+     * session does not exist
+     */
+    private GameSession session(String[] words, int length) {
+        if (words.length != length) {
+            throw new IllegalArgumentException("Invalid request");
+        }
+        GameSession session;
+        try {
+            session = sessions.get(Long.parseLong(words[1]));
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number");
+        }
+        if (session == null) {
+            throw new IllegalArgumentException("Unknown session");
+        }
+        session.touch();
+        return session;
+    }
+
+    /**
+     * Parses a number in a request
+     * @param word word holding the number
+     * @return the number
+     * @throws IllegalArgumentException if the word is not a number
+     */
+    private static int parse(String word) {
+        try {
+            return Integer.parseInt(word);
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number");
+        }
+    }
+
+    /**
+     * Accepts connections until the server is closed
+     */
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> serve(socket));
+            }
+            catch (IOException e) {
+                // the socket was closed or the connection failed
+            }
+        }
+    }
+
+    /**
+     * Answers the requests of one connection until it is closed
+     * @param socket connection to a client
+     */
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(
+                     socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true,
+                                               StandardCharsets.UTF_8)) {
+            socket.setTcpNoDelay(true);
+            String line;
+            while ((line = in.readLine()) != null && !line.trim().equals("QUIT")) {
+                out.println(handle(line));
+            }
+        }
+        catch (SocketException e) {
+            // the client went away
+        }
+        catch (IOException e) {
+            System.err.println("Connection failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops accepting connections and drops every session. The journal is
+     * left open and the sessions stay open in it, so a server started on
+     * the same journal picks them up again.
+     * @throws IOException if the socket cannot be closed
+     */
+    public void close() throws IOException {
+        serverSocket.close();
+        sweeper.shutdownNow();
+        connections.shutdownNow();
+        sessions.clear();
+    }
+
+    /**
+     * Runs the server until the process is stopped
+     * @param args args[0] port to listen on, optional args[1] seconds a
+     * session can sit idle, optional args[2] directory of the journal
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 3) {
+            System.out.println("Usage: java -cp bin GameServer port [idleSeconds [journal]]");
+            System.exit(1);
+        }
+        try {
+            int port = Integer.parseInt(args[0]);
+            long idle = args.length >= 2 ? TimeUnit.SECONDS.toMillis(Long.parseLong(args[1]))
+                                         : DEFAULT_IDLE_MILLIS;
+            GameJournal journal = args.length == 3 ? new GameJournal(Paths.get(args[2])) : null;
+            if (journal != null) {
+                Runtime.getRuntime().addShutdownHook(new Thread(journal::close));
+            }
+            GameServer server = new GameServer(port, idle, journal);
+            server.getMetrics().register();
+            server.dumpMetrics(METRICS_DUMP_MILLIS, System.out::print);
+            System.out.println("Listening on port " + server.getPort());
+            Thread.currentThread().join();
+        }
+        catch (NumberFormatException e) {
+            System.out.println("port and idleSeconds must be integers");
+        }
+        catch (IOException | JMException e) {
+            System.out.println("Unable to start server: " + e.getMessage());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
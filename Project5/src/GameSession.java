@@ -0,0 +1,283 @@
+/**
+ * One player's VideoPoker game hosted by GameServer. Each session owns its
+ * own game and deck, and every method is synchronized so that requests
+ * for one session are applied one at a time even when they arrive on
+ * several connections. When the session has a GameJournal, every change
+ * is appended to it so the session can be rebuilt after a crash.
+ *
+ * @author Cole Sanders
+ */
+public class GameSession {
+
+    /** Number identifying the session */
+    private final long id;
+
+    /** Seed the session's deck is shuffled with */
+    private final int seed;
+
+    /** Game being played */
+    private final VideoPoker game;
+
+    /** Journal the session's events are appended to, or null */
+    private final GameJournal journal;
+
+    /** Whether a hand has been dealt and not yet scored */
+    private boolean dealt;
+
+    /** Cards of the current hand that have been replaced, one bit per index */
+    private int replaced;
+
+    /** Whether the session has been closed */
+    private boolean closed;
+
+    /** Time of the last request in nanoseconds */
+    private volatile long lastAccess;
+
+    /**
+     * Constructor initializing a session with a seeded game
+     * @param id number identifying the session
+     * @param seed seed the deck is shuffled with, other than RANDOM_GAME
+     */
+    public GameSession(long id, int seed) {
+        this(id, seed, null, false);
+    }
+
+    /**
+     * Constructor initializing a session with a seeded game whose events
+     * are appended to a journal
+     * @param id number identifying the session
+     * @param seed seed the deck is shuffled with, other than RANDOM_GAME
+     * @param journal journal the session's events are appended to
+     * @throws IllegalArgumentException when journal is null
+     */
+    public GameSession(long id, int seed, GameJournal journal) {
+        this(id, seed, journal, true);
+        if (journal == null) {
+            throw new IllegalArgumentException("Null journal");
+        }
+    }
+
+    /**
+     * Constructor initializing a session, recording that it was opened
+     * unless it is being recovered from the journal
+     * @param id number identifying the session
+     * @param seed seed the deck is shuffled with, other than RANDOM_GAME
+     * @param journal journal the session's events are appended to, or null
+     * @param record whether to append the opening to the journal
+     */
+    GameSession(long id, int seed, GameJournal journal, boolean record) {
+        this.id = id;
+        this.seed = seed;
+        this.game = new VideoPoker(seed);
+        game.setSessionId(id);
+        this.journal = journal;
+        touch();
+        if (record && journal != null) {
+            journal.append(id, seed, JournalRecord.OPEN, JournalRecord.NO_CARD,
+                           game.getPoints(), 0);
+        }
+    }
+
+    /**
+     * Gets the number identifying the session
+     * @return session id
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the seed the deck is shuffled with
+     * @return seed of the session
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the player's points
+     * @return number of points
+     */
+    public synchronized int getPoints() {
+        return game.getPoints();
+    }
+
+    /**
+     * Gets the time of the last request
+     * @return time in nanoseconds from System.nanoTime()
+     */
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    /**
+     * Records that the session was just used
+     */
+    public void touch() {
+        lastAccess = System.nanoTime();
+    }
+
+    /**
+     * Sets the metrics the session's game is recorded in
+     * @param metrics metrics to record in, or null to stop recording
+     */
+    public synchronized void setMetrics(GameMetrics metrics) {
+        game.setMetrics(metrics);
+    }
+
+    /**
+     * Deals a new hand. The response is built before the lock is released,
+     * so its points and cards are always from the same moment.
+     * @return points after paying for the game and the new hand, separated
+     * by a space
+     * @throws IllegalStateException if the session has been closed
+     * @throws IllegalStateException if the player does not have enough points
+     */
+    public synchronized String newGame() {
+        checkOpen();
+        if (game.getPoints() < VideoPoker.POINTS_FOR_NEW_GAME) {
+            throw new IllegalStateException("Not enough points");
+        }
+        deal();
+        record(JournalRecord.NEW_GAME, JournalRecord.NO_CARD);
+        return game.getPoints() + " " + game.getHand();
+    }
+
+    /**
+     * Replaces a card of the current hand
+     * @param index index of the card in the hand
+     * @return the hand after the card is replaced, as text
+     * @throws IllegalStateException if the session has been closed
+     * @throws IllegalStateException if no hand has been dealt
+     * @throws IllegalStateException if the card was already replaced
+     * @throws IllegalArgumentException if the index is not from zero to four
+     */
+    public synchronized String replaceCard(int index) {
+        checkOpen();
+        if (!dealt) {
+            throw new IllegalStateException("No hand");
+        }
+        if (index < 0 || index >= VideoPoker.CARDS_IN_HAND) {
+            throw new IllegalArgumentException("Invalid index");
+        }
+        if ((replaced & (1 << index)) != 0) {
+            throw new IllegalStateException("Card already replaced");
+        }
+        replace(index);
+        record(JournalRecord.REPLACE, index);
+        return game.getHand().toString();
+    }
+
+    /**
+     * Scores the current hand and awards its points
+     * @return points after the award and category of the hand, separated
+     * by a space
+     * @throws IllegalStateException if the session has been closed
+     * @throws IllegalStateException if no hand has been dealt
+     */
+    public synchronized String scoreHand() {
+        checkOpen();
+        if (!dealt) {
+            throw new IllegalStateException("No hand");
+        }
+        HandRank rank = game.getHandRank();
+        score();
+        record(JournalRecord.SCORE, JournalRecord.NO_CARD);
+        return game.getPoints() + " " + rank;
+    }
+
+    /**
+     * Closes the session so that it takes no more moves
+     */
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            record(JournalRecord.CLOSE, JournalRecord.NO_CARD);
+        }
+    }
+
+    /**
+     * Checks that the session is still open
+     * @throws IllegalStateException if the session has been closed
+     */
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Session closed");
+        }
+    }
+
+    /**
+     * Applies an event read back from the journal without appending it
+     * again, checking that the game ends up with the recorded points and
+     * cards
+     * @param record NEW_GAME, REPLACE or SCORE event of this session
+     * @throws IllegalStateException if the event cannot be applied or does
+     * not match the game
+     */
+    synchronized void replay(JournalRecord record) {
+        switch (record.getType()) {
+            case JournalRecord.NEW_GAME:
+                deal();
+                break;
+            case JournalRecord.REPLACE:
+                if (!dealt || record.getCardIndex() < 0
+                    || record.getCardIndex() >= VideoPoker.CARDS_IN_HAND
+                    || (replaced & (1 << record.getCardIndex())) != 0) {
+                    throw new IllegalStateException("Invalid replace");
+                }
+                replace(record.getCardIndex());
+                break;
+            case JournalRecord.SCORE:
+                if (!dealt) {
+                    throw new IllegalStateException("No hand");
+                }
+                score();
+                break;
+            default:
+                throw new IllegalStateException("Invalid event");
+        }
+        if (game.getPoints() != record.getPoints()
+            || CardSet.of(game.getHand()).getBits() != record.getCards()) {
+            throw new IllegalStateException("Journal does not match game");
+        }
+    }
+
+    /**
+     * Deals a new hand
+     */
+    private void deal() {
+        game.newGame();
+        dealt = true;
+        replaced = 0;
+    }
+
+    /**
+     * Replaces a card of the current hand
+     * @param index index of the card in the hand
+     */
+    private void replace(int index) {
+        game.replaceCard(index);
+        replaced |= 1 << index;
+    }
+
+    /**
+     * Scores the current hand
+     */
+    private void score() {
+        game.scoreHand();
+        dealt = false;
+    }
+
+    /**
+     * Appends an event to the journal, if the session has one
+     * @param type kind of event
+     * @param cardIndex index of the replaced card, or NO_CARD
+     */
+    private void record(byte type, int cardIndex) {
+        if (journal != null) {
+            Hand hand = game.getHand();
+            journal.append(id, seed, type, cardIndex, game.getPoints(),
+                           hand == null ? 0 : CardSet.of(hand).getBits());
+        }
+    }
+}
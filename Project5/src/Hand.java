@@ -35,11 +35,24 @@ public class Hand {
     /** Number of matches for three of a kind */
     public static final int THREE_OF_A_KIND = 3;
     
+    /** Bit set in the key of a hand that holds the same card more than once */
+    public static final long DUPLICATE_KEY = Long.MIN_VALUE;
+    
+    /** Number of bits of each card index in the key of a hand with a repeated card */
+    private static final int INDEX_BITS = 6;
+    
     /** Contains cards in hand */
     private Card[] hand;
     
+    /** Category of the hand, or null until classify() is called */
+    private HandRank rank;
+    
+    /** Key of the cards in the hand, kept up to date by replace() */
+    private long key;
+    
     /**
-     * Constructor initalizing a hand with five cards
+     * Constructor initalizing a hand with a copy of five cards, so later
+     * changes to the array cannot leave the key stale
      * @param hand an array of five playing cards
      * @throws IllegalArgumentException when hand is null
      * @throws IllegalArgumentException when hand does not contain five elements
@@ -56,7 +69,8 @@ public class Hand {
                                   hand[FOURTH_CARD] == null || hand[FIFTH_CARD] == null) {
             throw new IllegalArgumentException("Null element");
         }
-        this.hand = hand;
+        this.hand = hand.clone();
+        key = computeKey();
     }
     
     /**
@@ -86,7 +100,66 @@ public class Hand {
         if (card == null) {
             throw new IllegalArgumentException("Null card");
         }
+        long oldBit = CardSet.bit(hand[index].getIndex());
+        long newBit = CardSet.bit(card.getIndex());
         hand[index] = card;
+        rank = null;
+        if (key >= 0 && ((key & newBit) == 0 || newBit == oldBit)) {
+            key = (key ^ oldBit) | newBit;
+        }
+        else {
+            key = computeKey();
+        }
+    }
+    
+    /**
+     * Gets a key that is the same for two hands exactly when they hold the
+     * same cards, in any order. For five different cards it is the bits of
+     * the CardSet of the hand. A hand that holds a card more than once has
+     * its sorted card indexes packed six bits each with DUPLICATE_KEY set,
+     * so its key is negative and never equals a CardSet.
+     * @return key of the hand
+     */
+    public long getKey() {
+        return key;
+    }
+    
+    /**
+     * Gets a key that is the same for two hands exactly when they hold the
+     * same cards after renaming suits, as SuitCanonicalizer does. The key
+     * of a hand that holds a card more than once is not renamed.
+     * @return key of the hand with its suits in canonical order
+     */
+    public long getCanonicalKey() {
+        if (key < 0) {
+            return key;
+        }
+        long joker = key & ~CardSet.FULL_DECK;
+        return SuitCanonicalizer.canonicalize(key & CardSet.FULL_DECK) | joker;
+    }
+    
+    /**
+     * Works out the key of the cards in the hand
+     * @return key of the hand
+     */
+    private long computeKey() {
+        long bits = 0;
+        for (Card card : hand) {
+            bits |= CardSet.bit(card.getIndex());
+        }
+        if (Long.bitCount(bits) == CARDS_IN_HAND) {
+            return bits;
+        }
+        int[] indexes = new int[CARDS_IN_HAND];
+        for (int i = 0; i < CARDS_IN_HAND; ++i) {
+            indexes[i] = hand[i].getIndex();
+        }
+        Arrays.sort(indexes);
+        long packed = DUPLICATE_KEY;
+        for (int i = 0; i < CARDS_IN_HAND; ++i) {
+            packed |= (long) indexes[i] << (i * INDEX_BITS);
+        }
+        return packed;
     }
     
     /**
@@ -105,26 +178,27 @@ public class Hand {
     }
     
     /**
-     * Compares two hands of cards
+     * Compares two hands of cards by their keys, without changing the
+     * order of either hand
      * @param o object of comparison hand
-     * @return true if hands are the same false if not
+     * @return true if hands hold the same cards in any order, false if not
      */ 
     public boolean equals(Object o) {
         if (o instanceof Hand) {
-            Hand other = (Hand)o;
-            Arrays.sort(other.hand);
-            Arrays.sort(hand);
-            if (Arrays.equals(hand, other.hand)) {
-                return true;
-            }
-            else {
-                return false;
-            }
+            return key == ((Hand) o).key;
         }
         else {
             return false;
         }
     }
+    
+    /**
+     * Gets a hash code consistent with equals
+     * @return hash of the key
+     */
+    public int hashCode() {
+        return Long.hashCode(key);
+    }
 
     /**
      * Counts the number of cards with each value in the hand
@@ -148,20 +222,33 @@ public class Hand {
         return sortedHand;
     }
     
+    /**
+     * Classifies the hand in a single pass over its cards. The result is
+     * cached until a card is replaced, and the predicates below are all
+     * answered from it. HandRank has no wild cards, so a hand holding the
+     * joker is scored by a Variant instead.
+     * @return category of the hand
+     * @throws IllegalStateException when the hand holds the joker
+     */
+    public HandRank classify() {
+        if (rank == null) {
+            for (Card card : hand) {
+                if (card.isJoker()) {
+                    throw new IllegalStateException("Joker in hand");
+                }
+            }
+            rank = HandEvaluator.evaluate(this);
+        }
+        return rank;
+    }
+    
     /**
      * Checks if the hand is a flush
      * @return true if it is a flush, false if not
      */
     public boolean isFlush() {
-        if (hand[FIRST_CARD].getSuit() == hand[SECOND_CARD].getSuit() && 
-            hand[FIRST_CARD].getSuit() == hand[THIRD_CARD].getSuit() && 
-            hand[FIRST_CARD].getSuit() == hand[FOURTH_CARD].getSuit()
-            && hand[FIRST_CARD].getSuit() == hand[FIFTH_CARD].getSuit()) {
-            return true;
-        }
-        else {
-            return false;
-        }
+        HandRank r = classify();
+        return r == HandRank.FLUSH || r == HandRank.STRAIGHT_FLUSH || r == HandRank.ROYAL_FLUSH;
     }
     
     /**
@@ -169,16 +256,9 @@ public class Hand {
      * @return true if it is a straight, false if not
      */
     public boolean isStraight() {
-        Card[] testHand = getSortedHand();
-        if (testHand[FIRST_CARD].getValue() + 1 == testHand[SECOND_CARD].getValue() &&
-            testHand[SECOND_CARD].getValue() + 1 == testHand[THIRD_CARD].getValue() &&
-            testHand[THIRD_CARD].getValue() + 1 == testHand[FOURTH_CARD].getValue()
-            && testHand[FOURTH_CARD].getValue() + 1 == testHand[FIFTH_CARD].getValue()) {
-            return true;
-        }
-        else {
-            return false;
-        }
+        HandRank r = classify();
+        return r == HandRank.STRAIGHT || r == HandRank.STRAIGHT_FLUSH 
+               || r == HandRank.ROYAL_FLUSH;
     }
     
     /**
@@ -186,12 +266,8 @@ public class Hand {
      * @return true if it is a striaght flush, false if not
      */
     public boolean isStraightFlush() {
-        if (isFlush() && isStraight()) {
-            return true;
-        }
-        else {
-            return false;
-        }
+        HandRank r = classify();
+        return r == HandRank.STRAIGHT_FLUSH || r == HandRank.ROYAL_FLUSH;
     }
     
     /**
@@ -199,12 +275,7 @@ public class Hand {
      * @return true if it is a royal flush, false if not
      */
     public boolean isRoyalFlush() {
-        if (isStraightFlush() && getSortedHand()[FIRST_CARD].getValue() == TEN) {
-            return true;
-        }
-        else {
-            return false;
-        }
+        return classify() == HandRank.ROYAL_FLUSH;
     }
     
     /**
@@ -212,13 +283,7 @@ public class Hand {
      * @return true if it has four of a kind, false if not
      */
     public boolean hasFourOfAKind() {
-        int[] counts = getCounts();
-        for (int i = 0; i < counts.length; ++i) {
-            if (counts[i] == FOUR_OF_A_KIND) {
-                return true;
-            }
-        }
-        return false;
+        return classify() == HandRank.FOUR_OF_A_KIND;
     }
     
     /**
@@ -226,13 +291,8 @@ public class Hand {
      * @return true if it has three of a kind, false if not
      */
     public boolean hasThreeOfAKind() {
-        int[] counts = getCounts();
-        for (int i = 0; i < counts.length; ++i) {
-            if (counts[i] == THREE_OF_A_KIND) {
-                return true;
-            }
-        }
-        return false;
+        HandRank r = classify();
+        return r == HandRank.THREE_OF_A_KIND || r == HandRank.FULL_HOUSE;
     }
     
     /**
@@ -240,19 +300,7 @@ public class Hand {
      * @return true if it has two pairs, false if not
      */
     public boolean hasTwoPairs() {
-        int[] counts = getCounts();
-        int pairs = 0;
-        for (int i = 0; i < counts.length; ++i) {
-            if (counts[i] == 2) {
-                ++pairs;
-            }
-        }
-        if (pairs == 2) {
-            return true;
-        }
-        else {
-            return false;
-        }
+        return classify() == HandRank.TWO_PAIRS;
     }
     
     /**
@@ -260,13 +308,8 @@ public class Hand {
      * @return true if it has one pair, false if not
      */
     public boolean hasOnePair() {
-        int[] counts = getCounts();
-        for (int i = 0; i < counts.length; ++i) {
-            if (counts[i] == 2) {
-                return true;
-            }
-        }
-        return false;
+        HandRank r = classify();
+        return r == HandRank.ONE_PAIR || r == HandRank.TWO_PAIRS || r == HandRank.FULL_HOUSE;
     }
     
     /**
@@ -274,18 +317,6 @@ public class Hand {
      * @return true if it is a full house, false if not
      */
     public boolean isFullHouse() {
-        if (!isStraight()) {
-            if (hasThreeOfAKind() && hasOnePair()) {
-                return true;
-            }
-            else {
-                return false;
-            }
-        }
-        else {
-            return false;
-        }
+        return classify() == HandRank.FULL_HOUSE;
     }
-    
-    
 }
\ No newline at end of file
@@ -0,0 +1,190 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Deals every possible five card hand from a new deck exactly once and
+ * classifies it, giving the exact odds of each category and the expected
+ * payout of the VideoPoker pay constants. The hands are split by their
+ * first two cards into tasks run on a fork/join pool.
+ *
+ * @author Cole Sanders
+ */
+public class HandEnumerator {
+
+    /** Total number of different five card hands */
+    public static final long TOTAL_HANDS = 2598960;
+
+    /** Largest number of first-two-card pairs handled by a task without splitting */
+    private static final int PAIRS_PER_TASK = 16;
+
+    /** Number of pairs of first two cards that leave room for three more */
+    private static final int PAIRS = (Deck.CARDS_IN_DECK - 3) * (Deck.CARDS_IN_DECK - 2) / 2;
+
+    /** Value key of each card in the order it is dealt from a new deck */
+    private final int[] keys = new int[Deck.CARDS_IN_DECK];
+
+    /** Suit of each card in the order it is dealt from a new deck */
+    private final char[] suits = new char[Deck.CARDS_IN_DECK];
+
+    /** Position of the first card of each pair of first two cards */
+    private final int[] firstCards = new int[PAIRS];
+
+    /** Position of the second card of each pair of first two cards */
+    private final int[] secondCards = new int[PAIRS];
+
+    /**
+     * Constructor dealing out a new deck and listing the pairs of first
+     * two cards that the work is split by
+     */
+    public HandEnumerator() {
+        Deck deck = new Deck(VideoPoker.RANDOM_GAME);
+        for (int i = 0; i < Deck.CARDS_IN_DECK; ++i) {
+            Card card = deck.nextCard();
+            keys[i] = HandEvaluator.getKey(card.getValue());
+            suits[i] = card.getSuit();
+        }
+        int pair = 0;
+        for (int a = 0; a < Deck.CARDS_IN_DECK - Hand.FOURTH_CARD; ++a) {
+            for (int b = a + 1; b < Deck.CARDS_IN_DECK - Hand.THIRD_CARD; ++b) {
+                firstCards[pair] = a;
+                secondCards[pair] = b;
+                ++pair;
+            }
+        }
+    }
+
+    /**
+     * Counts the hands of each category using the common fork/join pool
+     * @return number of hands of each category, indexed by HandRank ordinal
+     */
+    public long[] countHands() {
+        return countHands(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Counts the hands of each category
+     * @param pool pool to run the enumeration on
+     * @return number of hands of each category, indexed by HandRank ordinal
+     */
+    public long[] countHands(ForkJoinPool pool) {
+        return pool.invoke(new CountTask(0, PAIRS));
+    }
+
+    /**
+     * Gets the probability of being dealt a category of hand
+     * @param counts number of hands of each category from countHands()
+     * @param rank category of hand
+     * @return probability of the category
+     */
+    public static double getProbability(long[] counts, HandRank rank) {
+        return (double) counts[rank.ordinal()] / TOTAL_HANDS;
+    }
+
+    /**
+     * Gets the expected points paid for a dealt hand, not counting the
+     * points spent to start the game
+     * @param counts number of hands of each category from countHands()
+     * @return expected payout of a hand
+     */
+    public static double getExpectedPayout(long[] counts) {
+        long total = 0;
+        for (HandRank rank : HandRank.values()) {
+            total += counts[rank.ordinal()] * VideoPoker.getPayout(rank);
+        }
+        return (double) total / TOTAL_HANDS;
+    }
+
+    /**
+     * Counts the hands whose first two cards are one of a range of pairs
+     * @param from index of the first pair
+     * @param to index one past the last pair
+     * @return number of hands of each category
+     */
+    private long[] count(int from, int to) {
+        long[] counts = new long[HandRank.values().length];
+        for (int pair = from; pair < to; ++pair) {
+            int a = firstCards[pair];
+            int b = secondCards[pair];
+            int sumB = keys[a] + keys[b];
+            boolean flushB = suits[a] == suits[b];
+            for (int c = b + 1; c < Deck.CARDS_IN_DECK - 2; ++c) {
+                int sumC = sumB + keys[c];
+                boolean flushC = flushB && suits[c] == suits[a];
+                for (int d = c + 1; d < Deck.CARDS_IN_DECK - 1; ++d) {
+                    int sumD = sumC + keys[d];
+                    boolean flushD = flushC && suits[d] == suits[a];
+                    for (int e = d + 1; e < Deck.CARDS_IN_DECK; ++e) {
+                        boolean flush = flushD && suits[e] == suits[a];
+                        counts[HandEvaluator.evaluate(sumD + keys[e], flush).ordinal()]++;
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Task counting the hands for a range of first-two-card pairs, split in
+     * half until the range is small
+     */
+    private class CountTask extends RecursiveTask<long[]> {
+
+        /** Serialization version */
+        private static final long serialVersionUID = 1L;
+
+        /** Index of the first pair */
+        private final int from;
+
+        /** Index one past the last pair */
+        private final int to;
+
+        /**
+         * Constructor initializing the range of pairs
+         * @param from index of the first pair
+         * @param to index one past the last pair
+         */
+        CountTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Counts the hands in the range, splitting it if it is large
+         * @return number of hands of each category
+         */
+        protected long[] compute() {
+            if (to - from <= PAIRS_PER_TASK) {
+                return count(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            CountTask left = new CountTask(from, middle);
+            left.fork();
+            long[] counts = new CountTask(middle, to).compute();
+            long[] leftCounts = left.join();
+            for (int i = 0; i < counts.length; ++i) {
+                counts[i] += leftCounts[i];
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * Prints the number, probability and payout of each category of hand
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        long start = System.nanoTime();
+        long[] counts = new HandEnumerator().countHands();
+        long elapsed = System.nanoTime() - start;
+        HandRank[] ranks = HandRank.values();
+        for (int i = ranks.length - 1; i >= 0; --i) {
+            System.out.printf("%-16s %8d %10.6f%% %4d%n", ranks[i], counts[i],
+                              100 * getProbability(counts, ranks[i]),
+                              VideoPoker.getPayout(ranks[i]));
+        }
+        double payout = getExpectedPayout(counts);
+        System.out.printf("Expected payout: %.6f (net %.6f per game)%n", payout,
+                          payout - VideoPoker.POINTS_FOR_NEW_GAME);
+        System.out.printf("Enumerated %d hands in %.1f ms%n", TOTAL_HANDS, elapsed / 1e6);
+    }
+}
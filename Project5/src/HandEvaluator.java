@@ -0,0 +1,250 @@
+/**
+ * Classifies five card hands with a single table lookup instead of
+ * walking the chain of Hand predicates.
+ *
+ * Every card value is given a key chosen so that the sum of the keys
+ * of any five values is unique to that combination of values. The sum,
+ * together with whether all five cards share a suit, is a perfect hash
+ * of everything the category of a hand depends on, so the category of
+ * each possible combination is computed once and stored in a table.
+ *
+ * The table is the one EvaluationTables maps from the file named by the
+ * poker.tables system property, or tables.bin in the working directory,
+ * so JVMs on a host share one copy of it in the page cache. If the file
+ * is missing or invalid, the table is built on the heap the first time a
+ * hand is classified.
+ *
+ * @author Cole Sanders
+ */
+public class HandEvaluator {
+
+    /**
+     * Keys for the card values two through ace. The sum of any five of
+     * them, using each at most four times, is different for every
+     * combination of values.
+     */
+    private static final int[] KEYS = {0, 1, 5, 22, 94, 312, 992, 2422, 5624, 12522, 19998,
+                                       43258, 79415};
+
+    /** Largest number of cards in a hand that can share a value */
+    private static final int MAX_SAME_VALUE = 4;
+
+    /** Largest possible sum of the value keys of a hand */
+    public static final int MAX_KEY_SUM = MAX_SAME_VALUE * KEYS[KEYS.length - 1]
+                                          + KEYS[KEYS.length - 2];
+
+    /** Offset into the category table used for hands where all cards share a suit */
+    private static final int FLUSH_OFFSET = MAX_KEY_SUM + 1;
+
+    /** Key of each card value, indexed by the value itself */
+    private static final int[] VALUE_KEYS = new int[Card.HIGHEST_VALUE + 1];
+
+    static {
+        for (int value = Card.LOWEST_VALUE; value <= Card.HIGHEST_VALUE; ++value) {
+            VALUE_KEYS[value] = KEYS[value - Card.LOWEST_VALUE];
+        }
+    }
+
+    /**
+     * Holder of the category table, opened the first time a hand is
+     * classified rather than when the keys are first needed, since
+     * EvaluationTables itself depends on MAX_KEY_SUM
+     */
+    private static final class Tables {
+
+        /** Hand categories indexed by key sum plus flush offset */
+        static final EvaluationTables TABLES =
+            EvaluationTables.open(EvaluationTables.defaultFile());
+    }
+
+    /**
+     * Gets the category table hands are classified by
+     * @return tables mapped from the shared file, or built on the heap
+     */
+    public static EvaluationTables getTables() {
+        return Tables.TABLES;
+    }
+
+    /**
+     * Gets the key of a card value
+     * @param value card value from two to fourteen
+     * @return key of the value
+     */
+    public static int getKey(int value) {
+        return VALUE_KEYS[value];
+    }
+
+    /**
+     * Classifies a hand
+     * @param hand hand to classify
+     * @return category of the hand
+     * @throws IllegalArgumentException when all five cards have one value,
+     * which only a hand holding a card twice can
+     */
+    public static HandRank evaluate(Hand hand) {
+        Card first = hand.getCard(Hand.FIRST_CARD);
+        char suit = first.getSuit();
+        boolean flush = true;
+        boolean oneValue = true;
+        int sum = VALUE_KEYS[first.getValue()];
+        for (int i = Hand.SECOND_CARD; i < Hand.CARDS_IN_HAND; ++i) {
+            Card card = hand.getCard(i);
+            sum += VALUE_KEYS[card.getValue()];
+            flush &= card.getSuit() == suit;
+            oneValue &= card.getValue() == first.getValue();
+        }
+        if (oneValue) {
+            throw new IllegalArgumentException("Five cards of one value");
+        }
+        return evaluate(sum, flush);
+    }
+
+    /**
+     * Classifies a hand from the sum of the keys of its values
+     * @param keySum sum of the value keys of the five cards
+     * @param flush true if all five cards share a suit
+     * @return category of the hand
+     * @throws IllegalArgumentException when keySum is not from 0 to
+     * MAX_KEY_SUM
+     */
+    public static HandRank evaluate(int keySum, boolean flush) {
+        return Tables.TABLES.evaluate(keySum, flush);
+    }
+
+    /**
+     * Classifies a set of five cards using bit operations on its suits
+     * and values instead of the table
+     * @param cards bits of a CardSet holding five cards
+     * @return category of the hand
+     */
+    public static HandRank evaluate(long cards) {
+        boolean flush = CardSet.isFlush(cards);
+        if (CardSet.isStraight(cards)) {
+            if (!flush) {
+                return HandRank.STRAIGHT;
+            }
+            return CardSet.lowestValue(cards) == Hand.TEN ? HandRank.ROYAL_FLUSH
+                                                           : HandRank.STRAIGHT_FLUSH;
+        }
+        if (CardSet.valuesWithCount(cards, Hand.FOUR_OF_A_KIND) != 0) {
+            return HandRank.FOUR_OF_A_KIND;
+        }
+        boolean three = CardSet.valuesWithCount(cards, Hand.THREE_OF_A_KIND) != 0;
+        int pairs = Integer.bitCount(CardSet.valuesWithCount(cards, 2));
+        if (three && pairs > 0) {
+            return HandRank.FULL_HOUSE;
+        }
+        else if (flush) {
+            return HandRank.FLUSH;
+        }
+        else if (three) {
+            return HandRank.THREE_OF_A_KIND;
+        }
+        else if (pairs == 2) {
+            return HandRank.TWO_PAIRS;
+        }
+        else if (pairs == 1) {
+            return HandRank.ONE_PAIR;
+        }
+        else {
+            return HandRank.NO_PAIR;
+        }
+    }
+
+    /**
+     * Works out the category of every combination of values, for the heap
+     * table and for writing the table file
+     * @return HandRank ordinals indexed by key sum, plus MAX_KEY_SUM + 1
+     * for hands where all cards share a suit
+     */
+    static byte[] buildCategories() {
+        byte[] categories = new byte[2 * FLUSH_OFFSET];
+        fillTable(Card.LOWEST_VALUE, Hand.CARDS_IN_HAND, 0, new int[Card.HIGHEST_VALUE + 1],
+                  categories);
+        return categories;
+    }
+
+    /**
+     * Fills the category table for every combination of values that can
+     * make up the rest of a hand
+     * @param lowest lowest value that can still be added to the hand
+     * @param remaining number of cards still to be added
+     * @param sum key sum of the values added so far
+     * @param counts number of cards of each value added so far
+     * @param categories table being filled
+     */
+    private static void fillTable(int lowest, int remaining, int sum, int[] counts,
+                                  byte[] categories) {
+        if (remaining == 0) {
+            categories[sum] = (byte) categorize(counts, false).ordinal();
+            categories[sum + FLUSH_OFFSET] = (byte) categorize(counts, true).ordinal();
+            return;
+        }
+        for (int value = lowest; value <= Card.HIGHEST_VALUE; ++value) {
+            if (counts[value] < MAX_SAME_VALUE) {
+                counts[value]++;
+                fillTable(value, remaining - 1, sum + VALUE_KEYS[value], counts, categories);
+                counts[value]--;
+            }
+        }
+    }
+
+    /**
+     * Works out the category of a hand from the number of cards of each
+     * value, following the same ladder that VideoPoker has always scored by
+     * @param counts number of cards of each value from 2 to 14
+     * @param flush true if all cards share a suit
+     * @return category of the hand
+     */
+    private static HandRank categorize(int[] counts, boolean flush) {
+        int pairs = 0;
+        boolean three = false;
+        boolean four = false;
+        int lowest = 0;
+        for (int value = Card.HIGHEST_VALUE; value >= Card.LOWEST_VALUE; --value) {
+            if (counts[value] == 2) {
+                ++pairs;
+            }
+            else if (counts[value] == Hand.THREE_OF_A_KIND) {
+                three = true;
+            }
+            else if (counts[value] == Hand.FOUR_OF_A_KIND) {
+                four = true;
+            }
+            if (counts[value] > 0) {
+                lowest = value;
+            }
+        }
+        boolean straight = lowest + Hand.FIFTH_CARD <= Card.HIGHEST_VALUE;
+        for (int i = 0; straight && i < Hand.CARDS_IN_HAND; ++i) {
+            straight = counts[lowest + i] == 1;
+        }
+        if (straight && flush) {
+            return lowest == Hand.TEN ? HandRank.ROYAL_FLUSH : HandRank.STRAIGHT_FLUSH;
+        }
+        else if (four) {
+            return HandRank.FOUR_OF_A_KIND;
+        }
+        else if (three && pairs > 0) {
+            return HandRank.FULL_HOUSE;
+        }
+        else if (flush) {
+            return HandRank.FLUSH;
+        }
+        else if (straight) {
+            return HandRank.STRAIGHT;
+        }
+        else if (three) {
+            return HandRank.THREE_OF_A_KIND;
+        }
+        else if (pairs == 2) {
+            return HandRank.TWO_PAIRS;
+        }
+        else if (pairs == 1) {
+            return HandRank.ONE_PAIR;
+        }
+        else {
+            return HandRank.NO_PAIR;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * The categories a five card poker hand can be scored as, ordered
+ * from weakest to strongest
+ * @author Cole Sanders
+ */
+public enum HandRank {
+
+    /** No pair or better */
+    NO_PAIR("No Pair"),
+
+    /** Two cards of the same value */
+    ONE_PAIR("One Pair"),
+
+    /** Two different pairs */
+    TWO_PAIRS("Two Pairs"),
+
+    /** Three cards of the same value */
+    THREE_OF_A_KIND("Three of a Kind"),
+
+    /** Five cards with consecutive values */
+    STRAIGHT("Straight"),
+
+    /** Five cards of the same suit */
+    FLUSH("Flush"),
+
+    /** Three of a kind and a pair */
+    FULL_HOUSE("Full House"),
+
+    /** Four cards of the same value */
+    FOUR_OF_A_KIND("Four of a Kind"),
+
+    /** A straight with all cards of the same suit */
+    STRAIGHT_FLUSH("Straight Flush"),
+
+    /** A straight flush from ten to ace */
+    ROYAL_FLUSH("Royal Flush");
+
+    /** Name of the category shown to the player */
+    private final String name;
+
+    /**
+     * Constructor initializing the display name of a category
+     * @param name name of the category shown to the player
+     */
+    HandRank(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the name of the category shown to the player
+     * @return name of the category, such as "Full House"
+     */
+    public String toString() {
+        return name;
+    }
+}
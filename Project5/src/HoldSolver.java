@@ -0,0 +1,285 @@
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Works out the exact expected payout of each of the 32 ways to choose
+ * which cards of a dealt hand to hold, averaged over every possible draw
+ * from the cards not in the hand: 47 cards, or 48 for a variant whose
+ * deck holds the joker.
+ *
+ * Instead of dealing out the draws, the solver uses a table of partial
+ * hand totals: for every set of up to four cards, the sum of the payouts
+ * of all five card hands that contain it. The total payout of the final
+ * hands that keep exactly the held cards and none of the discarded ones
+ * then follows by inclusion-exclusion over the subsets of the dealt hand,
+ * which takes a few hundred additions per hand.
+ *
+ * The payouts are those of a Variant, so wild cards count as whatever
+ * helps most, as they do when the variant scores a hand. The totals of a
+ * variant are worked out the first time one of its hands is solved, which
+ * deals every hand of its deck once, and are kept while the variant is in
+ * use. The methods without a variant solve for Variant.CLASSIC.
+ *
+ * @author Cole Sanders
+ */
+public class HoldSolver {
+
+    /** Number of different ways to choose which cards to hold */
+    public static final int HOLD_MASKS = 1 << Hand.CARDS_IN_HAND;
+
+    /** Hold mask that keeps every card */
+    public static final int HOLD_ALL = HOLD_MASKS - 1;
+
+    /** Number of cards not in the dealt hand that draws come from */
+    public static final int UNSEEN_CARDS = Deck.CARDS_IN_DECK - Hand.CARDS_IN_HAND;
+
+    /** Binomial coefficients, indexed by n from 0 to 53 and k from 0 to 5 */
+    private static final long[][] CHOOSE =
+        new long[Deck.CARDS_WITH_JOKER + 1][Hand.CARDS_IN_HAND + 1];
+
+    /**
+     * Sums of the payouts of every hand containing a set of cards, for each
+     * variant solved so far, indexed by the size of the set and then by its
+     * colex rank
+     */
+    private static final Map<Variant, long[][]> TOTALS =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    static {
+        for (int n = 0; n <= Deck.CARDS_WITH_JOKER; ++n) {
+            CHOOSE[n][0] = 1;
+            for (int k = 1; k <= Hand.CARDS_IN_HAND && k <= n; ++k) {
+                CHOOSE[n][k] = CHOOSE[n - 1][k - 1] + CHOOSE[n - 1][k];
+            }
+        }
+    }
+
+    /**
+     * Gets the expected payout of every hold mask for a hand. Bit i of a
+     * hold mask is set when the card at index i of the hand is kept.
+     * @param hand dealt hand
+     * @return expected payout of each hold mask, indexed by the mask
+     * @throws IllegalArgumentException when the hand holds the same card twice
+     * @throws IllegalArgumentException when the hand holds the joker
+     */
+    public static double[] expectedPayouts(Hand hand) {
+        return expectedPayouts(hand, Variant.CLASSIC);
+    }
+
+    /**
+     * Gets the expected payout of every hold mask for a hand under the
+     * paytable of a variant
+     * @param hand dealt hand
+     * @param variant rules and paytable the final hands are scored by
+     * @return expected payout of each hold mask, indexed by the mask
+     * @throws IllegalArgumentException when the hand holds the same card twice
+     * @throws IllegalArgumentException when the hand holds a card that is
+     * not in the variant's deck
+     */
+    public static double[] expectedPayouts(Hand hand, Variant variant) {
+        long[] totals = holdTotals(hand, variant);
+        double[] payouts = new double[HOLD_MASKS];
+        for (int mask = 0; mask < HOLD_MASKS; ++mask) {
+            payouts[mask] = (double) totals[mask] / draws(mask, variant);
+        }
+        return payouts;
+    }
+
+    /**
+     * Gets the expected payout of one hold mask for a hand
+     * @param hand dealt hand
+     * @param holdMask mask with bit i set when card i is kept
+     * @return expected payout after drawing
+     * @throws IllegalArgumentException when the mask is not between 0 and 31
+     */
+    public static double expectedPayout(Hand hand, int holdMask) {
+        return expectedPayout(hand, holdMask, Variant.CLASSIC);
+    }
+
+    /**
+     * Gets the expected payout of one hold mask for a hand under the
+     * paytable of a variant
+     * @param hand dealt hand
+     * @param holdMask mask with bit i set when card i is kept
+     * @param variant rules and paytable the final hands are scored by
+     * @return expected payout after drawing
+     * @throws IllegalArgumentException when the mask is not between 0 and 31
+     */
+    public static double expectedPayout(Hand hand, int holdMask, Variant variant) {
+        if (holdMask < 0 || holdMask >= HOLD_MASKS) {
+            throw new IllegalArgumentException("Invalid hold mask");
+        }
+        return expectedPayouts(hand, variant)[holdMask];
+    }
+
+    /**
+     * Gets the hold mask with the highest expected payout for a hand.
+     * Ties go to the mask that keeps more cards.
+     * @param hand dealt hand
+     * @return best hold mask
+     */
+    public static int bestHold(Hand hand) {
+        return bestHold(hand, Variant.CLASSIC);
+    }
+
+    /**
+     * Gets the hold mask with the highest expected payout for a hand under
+     * the paytable of a variant
+     * @param hand dealt hand
+     * @param variant rules and paytable the final hands are scored by
+     * @return best hold mask
+     */
+    public static int bestHold(Hand hand, Variant variant) {
+        return bestHold(expectedPayouts(hand, variant));
+    }
+
+    /**
+     * Gets the hold mask with the highest expected payout
+     * @param payouts expected payout of each hold mask
+     * @return best hold mask
+     */
+    public static int bestHold(double[] payouts) {
+        int best = HOLD_ALL;
+        for (int mask = HOLD_ALL - 1; mask >= 0; --mask) {
+            if (payouts[mask] > payouts[best]) {
+                best = mask;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the number of different draws a hold mask leads to
+     * @param holdMask mask with bit i set when card i is kept
+     * @param variant variant whose deck the cards are drawn from
+     * @return number of ways to draw the discarded cards
+     */
+    public static long draws(int holdMask, Variant variant) {
+        int unseen = variant.getDeckSize() - Hand.CARDS_IN_HAND;
+        return CHOOSE[unseen][Hand.CARDS_IN_HAND - Integer.bitCount(holdMask)];
+    }
+
+    /**
+     * Gets the number of ways to choose k items from n
+     * @param n number of items, from 0 to 53
+     * @param k number chosen, from 0 to 5
+     * @return n choose k
+     */
+    public static long choose(int n, int k) {
+        return CHOOSE[n][k];
+    }
+
+    /**
+     * Sums the payouts of the final hands reachable with each hold mask
+     * @param hand dealt hand
+     * @param variant rules and paytable the final hands are scored by
+     * @return total payout of the draws for each mask, indexed by the mask
+     * @throws IllegalArgumentException when the hand holds the same card twice
+     * @throws IllegalArgumentException when the hand holds a card that is
+     * not in the variant's deck
+     */
+    static long[] holdTotals(Hand hand, Variant variant) {
+        int[] indexes = new int[Hand.CARDS_IN_HAND];
+        long seen = 0;
+        for (int i = 0; i < Hand.CARDS_IN_HAND; ++i) {
+            indexes[i] = hand.getCard(i).getIndex();
+            if ((seen & CardSet.bit(indexes[i])) != 0) {
+                throw new IllegalArgumentException("Duplicate card");
+            }
+            if (indexes[i] >= variant.getDeckSize()) {
+                throw new IllegalArgumentException("Card not in deck");
+            }
+            seen |= CardSet.bit(indexes[i]);
+        }
+        long[][] subsetTotals = TOTALS.computeIfAbsent(variant, HoldSolver::fillTotals);
+        // order of positions in the hand by card index, for colex ranks
+        int[] order = new int[Hand.CARDS_IN_HAND];
+        for (int i = 0; i < Hand.CARDS_IN_HAND; ++i) {
+            int j = i;
+            while (j > 0 && indexes[order[j - 1]] > indexes[i]) {
+                order[j] = order[j - 1];
+                --j;
+            }
+            order[j] = i;
+        }
+        long[] totals = new long[HOLD_MASKS];
+        for (int mask = 0; mask < HOLD_ALL; ++mask) {
+            int size = 0;
+            int rank = 0;
+            for (int i = 0; i < Hand.CARDS_IN_HAND; ++i) {
+                if ((mask & (1 << order[i])) != 0) {
+                    ++size;
+                    rank += CHOOSE[indexes[order[i]]][size];
+                }
+            }
+            totals[mask] = subsetTotals[size][rank];
+        }
+        totals[HOLD_ALL] = variant.getPayout(seen);
+        // turn "hands containing the held cards" into "hands containing the
+        // held cards and none of the discarded ones"
+        for (int bit = 1; bit < HOLD_MASKS; bit <<= 1) {
+            for (int mask = 0; mask < HOLD_MASKS; ++mask) {
+                if ((mask & bit) == 0) {
+                    totals[mask] -= totals[mask | bit];
+                }
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Deals every five card hand of a variant's deck and adds its payout
+     * to the total of each of its subsets of up to four cards
+     * @param variant rules and paytable the hands are scored by
+     * @return totals indexed by the size of the subset and its colex rank
+     */
+    private static long[][] fillTotals(Variant variant) {
+        int deck = variant.getDeckSize();
+        long[][] totals = new long[Hand.CARDS_IN_HAND][];
+        for (int k = 0; k < Hand.CARDS_IN_HAND; ++k) {
+            totals[k] = new long[(int) CHOOSE[deck][k]];
+        }
+        int[] c = new int[Hand.CARDS_IN_HAND];
+        for (c[0] = 0; c[0] < deck; ++c[0]) {
+            long one = CardSet.bit(c[0]);
+            for (c[1] = c[0] + 1; c[1] < deck; ++c[1]) {
+                long two = one | CardSet.bit(c[1]);
+                for (c[2] = c[1] + 1; c[2] < deck; ++c[2]) {
+                    long three = two | CardSet.bit(c[2]);
+                    for (c[3] = c[2] + 1; c[3] < deck; ++c[3]) {
+                        long four = three | CardSet.bit(c[3]);
+                        for (c[4] = c[3] + 1; c[4] < deck; ++c[4]) {
+                            int payout = variant.getPayout(four | CardSet.bit(c[4]));
+                            if (payout != 0) {
+                                addToSubsets(totals, c, payout);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Adds a payout to the totals of every subset of up to four cards of
+     * a hand
+     * @param totals totals indexed by the size of the subset and its colex rank
+     * @param c card indexes of the hand in increasing order
+     * @param payout payout of the hand
+     */
+    private static void addToSubsets(long[][] totals, int[] c, int payout) {
+        for (int mask = 0; mask < HOLD_ALL; ++mask) {
+            int size = 0;
+            int rank = 0;
+            for (int i = 0; i < Hand.CARDS_IN_HAND; ++i) {
+                if ((mask & (1 << i)) != 0) {
+                    ++size;
+                    rank += CHOOSE[c[i]][size];
+                }
+            }
+            totals[size][rank] += payout;
+        }
+    }
+}
@@ -0,0 +1,405 @@
+/**
+ * Finds the strength of the best five card hand that can be made from
+ * seven cards, as in Texas Hold'em, without trying the 21 ways of
+ * choosing five of them.
+ *
+ * If five or more of the cards share a suit, nothing but a flush or
+ * straight flush can be the best hand, and its strength is looked up by
+ * the 13 bits of that suit's values. Otherwise only the number of cards
+ * of each value matters. Every value is given a key chosen so that the
+ * sum of the keys of any seven values is unique, and the sums are mapped
+ * to a compact table by a perfect hash: a multiplicative hash picks one
+ * of 2^14 buckets, and each bucket has a displacement, found when the
+ * class is loaded, that is XORed into a second hash so that no two
+ * bucket members share a slot.
+ *
+ * Strengths compare like hands: a higher strength beats a lower one and
+ * equal strengths tie. The category's HandRank ordinal is stored above
+ * CATEGORY_SHIFT and the values that break ties between hands of that
+ * category below it, four bits each from the most significant. Unlike
+ * the five card game, an ace can also play low in A-2-3-4-5.
+ *
+ * @author Cole Sanders
+ */
+public class HoldemEvaluator {
+
+    /** Number of cards evaluated */
+    public static final int CARDS = 7;
+
+    /** Position of the category in a strength */
+    public static final int CATEGORY_SHIFT = 20;
+
+    /**
+     * Keys for the card values two through ace. The sum of any seven of
+     * them, using each at most four times, is different for every
+     * combination of values.
+     */
+    private static final int[] KEYS = {0, 1, 5, 22, 98, 453, 2031, 8698, 22854, 83661, 262349,
+                                       636345, 1479181};
+
+    /** Largest number of cards that can share a value */
+    private static final int MAX_SAME_VALUE = 4;
+
+    /** Number of cards in the best hand */
+    private static final int BEST_CARDS = 5;
+
+    /** Bits of the values in a straight, shifted to its lowest value */
+    private static final int STRAIGHT = 0x1F;
+
+    /** Bits of the values in A-2-3-4-5 */
+    private static final int WHEEL = 0x100F;
+
+    /** Value bit of the five, the highest card of A-2-3-4-5 */
+    private static final int FIVE = 3;
+
+    /** Value bit of the ace */
+    private static final int ACE = Card.VALUES_IN_SUIT - 1;
+
+    /** Number of bits of each tie-breaking value in a strength */
+    private static final int VALUE_BITS = 4;
+
+    /** Mask of the value bits of one suit */
+    private static final int SUIT_MASK = (1 << Card.VALUES_IN_SUIT) - 1;
+
+    /** Number of combinations of seven values with at most four of each */
+    private static final int VALUE_PATTERNS = 49205;
+
+    /** Number of bits in a slot of the strength table */
+    private static final int SLOT_BITS = 16;
+
+    /** Number of bits in a bucket of the perfect hash */
+    private static final int BUCKET_BITS = 14;
+
+    /** Multiplier hashing a key sum to its bucket */
+    private static final int BUCKET_MULTIPLIER = 0x9E3779B1;
+
+    /** Multiplier hashing a key sum to its slot before displacement */
+    private static final int SLOT_MULTIPLIER = 0x85EBCA77;
+
+    /** Sum of the keys of the values in each 13 bit set of values */
+    private static final int[] KEY_SUMS = new int[1 << Card.VALUES_IN_SUIT];
+
+    /** Strength of each set of flush values with five to seven bits */
+    private static final int[] FLUSHES = new int[1 << Card.VALUES_IN_SUIT];
+
+    /** Strengths of the hands without a flush, indexed by hashed key sum */
+    private static final int[] STRENGTHS = new int[1 << SLOT_BITS];
+
+    /** Displacement of each bucket of the perfect hash */
+    private static final char[] DISPLACEMENTS = new char[1 << BUCKET_BITS];
+
+    /** Categories indexed by ordinal */
+    private static final HandRank[] RANKS = HandRank.values();
+
+    static {
+        for (int values = 0; values < KEY_SUMS.length; ++values) {
+            for (int value = 0; value < Card.VALUES_IN_SUIT; ++value) {
+                if ((values & (1 << value)) != 0) {
+                    KEY_SUMS[values] += KEYS[value];
+                }
+            }
+            if (Integer.bitCount(values) >= BEST_CARDS && Integer.bitCount(values) <= CARDS) {
+                FLUSHES[values] = flushStrength(values);
+            }
+        }
+        int[] keys = new int[VALUE_PATTERNS];
+        int[] strengths = new int[VALUE_PATTERNS];
+        fillPatterns(0, CARDS, 0, new int[Card.VALUES_IN_SUIT], keys, strengths, 0);
+        buildHash(keys, strengths);
+    }
+
+    /**
+     * Finds the strength of the best hand in seven cards
+     * @param cards bits of a CardSet holding seven cards
+     * @return strength of the best five card hand
+     * @throws IllegalArgumentException when cards is not seven cards
+     */
+    public static int evaluate(long cards) {
+        if (Long.bitCount(cards) != CARDS || (cards & ~CardSet.FULL_DECK) != 0) {
+            throw new IllegalArgumentException("Not seven cards");
+        }
+        int clubs = (int) cards & SUIT_MASK;
+        int diamonds = (int) (cards >>> Card.VALUES_IN_SUIT) & SUIT_MASK;
+        int hearts = (int) (cards >>> 2 * Card.VALUES_IN_SUIT) & SUIT_MASK;
+        int spades = (int) (cards >>> 3 * Card.VALUES_IN_SUIT) & SUIT_MASK;
+        if (Integer.bitCount(clubs) >= BEST_CARDS) {
+            return FLUSHES[clubs];
+        }
+        else if (Integer.bitCount(diamonds) >= BEST_CARDS) {
+            return FLUSHES[diamonds];
+        }
+        else if (Integer.bitCount(hearts) >= BEST_CARDS) {
+            return FLUSHES[hearts];
+        }
+        else if (Integer.bitCount(spades) >= BEST_CARDS) {
+            return FLUSHES[spades];
+        }
+        int key = KEY_SUMS[clubs] + KEY_SUMS[diamonds] + KEY_SUMS[hearts] + KEY_SUMS[spades];
+        return STRENGTHS[slot(key, DISPLACEMENTS[bucket(key)])];
+    }
+
+    /**
+     * Finds the strength of the best hand in seven cards
+     * @param cards seven different cards
+     * @return strength of the best five card hand
+     * @throws IllegalArgumentException when a card is null or repeated, or
+     * there are not seven cards
+     */
+    public static int evaluate(Card... cards) {
+        return evaluate(CardSet.of(cards).getBits());
+    }
+
+    /**
+     * Gets the category of the best hand with a strength
+     * @param strength strength from evaluate()
+     * @return category of the hand
+     */
+    public static HandRank getRank(int strength) {
+        return RANKS[strength >>> CATEGORY_SHIFT];
+    }
+
+    /**
+     * Hashes a key sum to its bucket
+     * @param key sum of the value keys of seven cards
+     * @return bucket of the perfect hash
+     */
+    private static int bucket(int key) {
+        return (key * BUCKET_MULTIPLIER) >>> (Integer.SIZE - BUCKET_BITS);
+    }
+
+    /**
+     * Hashes a key sum to its slot in the strength table
+     * @param key sum of the value keys of seven cards
+     * @param displacement displacement of the key's bucket
+     * @return slot of the key
+     */
+    private static int slot(int key, int displacement) {
+        return ((key * SLOT_MULTIPLIER) >>> (Integer.SIZE - SLOT_BITS)) ^ displacement;
+    }
+
+    /**
+     * Lists every combination of values that can make up the rest of
+     * seven cards, with its key sum and strength
+     * @param lowest lowest value bit that can still be added
+     * @param remaining number of cards still to be added
+     * @param sum key sum of the values added so far
+     * @param counts number of cards of each value bit added so far
+     * @param keys key sums found so far
+     * @param strengths strengths found so far
+     * @param found number of combinations found so far
+     * @return number of combinations found including these
+     */
+    private static int fillPatterns(int lowest, int remaining, int sum, int[] counts,
+                                    int[] keys, int[] strengths, int found) {
+        if (remaining == 0) {
+            keys[found] = sum;
+            strengths[found] = strength(counts);
+            return found + 1;
+        }
+        for (int value = lowest; value < Card.VALUES_IN_SUIT; ++value) {
+            if (counts[value] < MAX_SAME_VALUE) {
+                counts[value]++;
+                found = fillPatterns(value, remaining - 1, sum + KEYS[value], counts, keys,
+                                     strengths, found);
+                counts[value]--;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Finds a displacement for every bucket so that all key sums land in
+     * different slots, placing the largest buckets first
+     * @param keys key sum of every combination of values
+     * @param strengths strength of every combination of values
+     * @throws IllegalStateException if a bucket cannot be placed
+     */
+    private static void buildHash(int[] keys, int[] strengths) {
+        int buckets = DISPLACEMENTS.length;
+        int[] start = new int[buckets + 1];
+        for (int key : keys) {
+            start[bucket(key) + 1]++;
+        }
+        int largest = 0;
+        for (int i = 0; i < buckets; ++i) {
+            largest = Math.max(largest, start[i + 1]);
+            start[i + 1] += start[i];
+        }
+        int[] members = new int[keys.length];
+        int[] next = start.clone();
+        for (int i = 0; i < keys.length; ++i) {
+            members[next[bucket(keys[i])]++] = i;
+        }
+        boolean[] used = new boolean[STRENGTHS.length];
+        for (int size = largest; size > 0; --size) {
+            for (int bucket = 0; bucket < buckets; ++bucket) {
+                if (start[bucket + 1] - start[bucket] == size) {
+                    int displacement = 0;
+                    while (!fits(keys, members, start[bucket], start[bucket + 1], displacement,
+                                 used)) {
+                        if (++displacement == STRENGTHS.length) {
+                            throw new IllegalStateException("Unable to build hash");
+                        }
+                    }
+                    DISPLACEMENTS[bucket] = (char) displacement;
+                    for (int i = start[bucket]; i < start[bucket + 1]; ++i) {
+                        int slot = slot(keys[members[i]], displacement);
+                        used[slot] = true;
+                        STRENGTHS[slot] = strengths[members[i]];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether the members of a bucket all land in free slots
+     * @param keys key sum of every combination of values
+     * @param members combinations sorted by bucket
+     * @param from position of the bucket's first member
+     * @param to position after the bucket's last member
+     * @param displacement displacement being tried
+     * @param used slots already taken
+     * @return true if every member lands in a different free slot
+     */
+    private static boolean fits(int[] keys, int[] members, int from, int to, int displacement,
+                                boolean[] used) {
+        for (int i = from; i < to; ++i) {
+            int slot = slot(keys[members[i]], displacement);
+            if (used[slot]) {
+                return false;
+            }
+            for (int j = from; j < i; ++j) {
+                if (slot(keys[members[j]], displacement) == slot) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Works out the strength of seven cards without a flush from the
+     * number of cards of each value
+     * @param counts number of cards of each value bit
+     * @return strength of the best five card hand
+     */
+    private static int strength(int[] counts) {
+        int values = 0;
+        int quads = -1;
+        int trips = -1;
+        int secondTrips = -1;
+        int pair = -1;
+        int secondPair = -1;
+        for (int value = Card.VALUES_IN_SUIT - 1; value >= 0; --value) {
+            if (counts[value] > 0) {
+                values |= 1 << value;
+            }
+            if (counts[value] == MAX_SAME_VALUE) {
+                quads = value;
+            }
+            else if (counts[value] == 3) {
+                if (trips < 0) {
+                    trips = value;
+                }
+                else {
+                    secondTrips = value;
+                }
+            }
+            else if (counts[value] == 2) {
+                if (pair < 0) {
+                    pair = value;
+                }
+                else if (secondPair < 0) {
+                    secondPair = value;
+                }
+            }
+        }
+        int straight = straightHigh(values);
+        if (quads >= 0) {
+            return strength(HandRank.FOUR_OF_A_KIND, values, quads);
+        }
+        else if (trips >= 0 && (secondTrips >= 0 || pair >= 0)) {
+            return strength(HandRank.FULL_HOUSE, 0, trips, Math.max(secondTrips, pair));
+        }
+        else if (straight >= 0) {
+            return strength(HandRank.STRAIGHT, 0, straight);
+        }
+        else if (trips >= 0) {
+            return strength(HandRank.THREE_OF_A_KIND, values, trips);
+        }
+        else if (secondPair >= 0) {
+            return strength(HandRank.TWO_PAIRS, values, pair, secondPair);
+        }
+        else if (pair >= 0) {
+            return strength(HandRank.ONE_PAIR, values, pair);
+        }
+        else {
+            return strength(HandRank.NO_PAIR, values);
+        }
+    }
+
+    /**
+     * Works out the strength of a flush from the values of its suit
+     * @param values bits of the five to seven values of the suit
+     * @return strength of the best five card hand
+     */
+    private static int flushStrength(int values) {
+        int straight = straightHigh(values);
+        if (straight == ACE) {
+            return strength(HandRank.ROYAL_FLUSH, 0, straight);
+        }
+        else if (straight >= 0) {
+            return strength(HandRank.STRAIGHT_FLUSH, 0, straight);
+        }
+        else {
+            return strength(HandRank.FLUSH, values);
+        }
+    }
+
+    /**
+     * Finds the highest straight in a set of values
+     * @param values bits of the values
+     * @return value bit of the straight's highest card, or -1 if none
+     */
+    private static int straightHigh(int values) {
+        for (int high = ACE; high >= FIVE + 1; --high) {
+            if (((values >>> (high - BEST_CARDS + 1)) & STRAIGHT) == STRAIGHT) {
+                return high;
+            }
+        }
+        return (values & WHEEL) == WHEEL ? FIVE : -1;
+    }
+
+    /**
+     * Packs a category, the values that make it and the highest other
+     * values needed to fill five cards into a strength
+     * @param rank category of the hand
+     * @param kickers bits of the values that can fill out the hand, or
+     * zero if the made values already decide every tie
+     * @param made value bits of the quads, trips or pairs, or of the high
+     * card of a straight
+     * @return strength of the hand
+     */
+    private static int strength(HandRank rank, int kickers, int... made) {
+        int strength = rank.ordinal() << CATEGORY_SHIFT;
+        int shift = CATEGORY_SHIFT;
+        int cards = 0;
+        for (int value : made) {
+            shift -= VALUE_BITS;
+            strength |= value << shift;
+            kickers &= ~(1 << value);
+            cards += rank == HandRank.FOUR_OF_A_KIND ? MAX_SAME_VALUE
+                     : rank == HandRank.THREE_OF_A_KIND ? 3 : 2;
+        }
+        if (kickers != 0) {
+            for (; cards < BEST_CARDS; ++cards) {
+                int value = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(kickers);
+                shift -= VALUE_BITS;
+                strength |= value << shift;
+                kickers &= ~(1 << value);
+            }
+        }
+        return strength;
+    }
+}
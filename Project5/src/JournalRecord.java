@@ -0,0 +1,163 @@
+/**
+ * One event read back from a GameJournal: a session being opened or
+ * closed, a hand being dealt, a card being replaced or a hand being
+ * scored, along with the points and cards the session had afterwards.
+ *
+ * @author Cole Sanders
+ */
+public final class JournalRecord {
+
+    /** Event of a session being opened */
+    public static final byte OPEN = 1;
+
+    /** Event of a new hand being dealt */
+    public static final byte NEW_GAME = 2;
+
+    /** Event of a card of the hand being replaced */
+    public static final byte REPLACE = 3;
+
+    /** Event of the hand being scored */
+    public static final byte SCORE = 4;
+
+    /** Event of a session being closed */
+    public static final byte CLOSE = 5;
+
+    /** Card index of events that do not name a card */
+    public static final int NO_CARD = -1;
+
+    /** Names of the events, indexed by type */
+    private static final String[] TYPE_NAMES = {null, "OPEN", "NEW", "REPLACE", "SCORE", "CLOSE"};
+
+    /** Number identifying the session */
+    private final long sessionId;
+
+    /** Seed of the session's deck */
+    private final int seed;
+
+    /** Kind of event */
+    private final byte type;
+
+    /** Index of the replaced card, or NO_CARD */
+    private final int cardIndex;
+
+    /** Points of the session after the event */
+    private final int points;
+
+    /** CardSet bits of the hand after the event */
+    private final long cards;
+
+    /**
+     * Constructor initializing every field of the record
+     * @param sessionId number identifying the session
+     * @param seed seed of the session's deck
+     * @param type kind of event
+     * @param cardIndex index of the replaced card, or NO_CARD
+     * @param points points of the session after the event
+     * @param cards CardSet bits of the hand after the event
+     * @throws IllegalArgumentException when type is not an event
+     */
+    public JournalRecord(long sessionId, int seed, byte type, int cardIndex, int points,
+                         long cards) {
+        if (type < OPEN || type > CLOSE) {
+            throw new IllegalArgumentException("Invalid event");
+        }
+        this.sessionId = sessionId;
+        this.seed = seed;
+        this.type = type;
+        this.cardIndex = cardIndex;
+        this.points = points;
+        this.cards = cards;
+    }
+
+    /**
+     * Gets the number identifying the session
+     * @return session id
+     */
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Gets the seed of the session's deck
+     * @return seed
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the kind of event
+     * @return OPEN, NEW_GAME, REPLACE, SCORE or CLOSE
+     */
+    public byte getType() {
+        return type;
+    }
+
+    /**
+     * Gets the name of the kind of event
+     * @return OPEN, NEW, REPLACE, SCORE or CLOSE, as in the GameServer
+     * requests
+     */
+    public String getTypeName() {
+        return TYPE_NAMES[type];
+    }
+
+    /**
+     * Gets the index of the replaced card
+     * @return index in the hand, or NO_CARD
+     */
+    public int getCardIndex() {
+        return cardIndex;
+    }
+
+    /**
+     * Gets the points of the session after the event
+     * @return number of points
+     */
+    public int getPoints() {
+        return points;
+    }
+
+    /**
+     * Gets the cards of the hand after the event
+     * @return CardSet bits of the hand, or zero before the first deal
+     */
+    public long getCards() {
+        return cards;
+    }
+
+    /**
+     * Compares two records
+     * @param o object of comparison record
+     * @return true if every field is the same false if not
+     */
+    public boolean equals(Object o) {
+        if (o instanceof JournalRecord) {
+            JournalRecord other = (JournalRecord) o;
+            return sessionId == other.sessionId && seed == other.seed && type == other.type
+                   && cardIndex == other.cardIndex && points == other.points
+                   && cards == other.cards;
+        }
+        else {
+            return false;
+        }
+    }
+
+    /**
+     * Gets a hash code consistent with equals
+     * @return hash of the fields
+     */
+    public int hashCode() {
+        return Long.hashCode(sessionId * 31 + cards) * 31 + (type * 31 + cardIndex) * 31
+               + points;
+    }
+
+    /**
+     * Describes the record
+     * @return session, event and state after the event
+     */
+    public String toString() {
+        return "session " + sessionId + " seed " + seed + " event " + getTypeName() + " card "
+               + cardIndex + " points " + points + " cards " + new CardSet(cards);
+    }
+}
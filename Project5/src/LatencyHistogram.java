@@ -0,0 +1,233 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how long an operation takes, in nanoseconds, in buckets whose
+ * width grows with the value like an HDR histogram: values below
+ * SUB_BUCKETS each have their own bucket, and every power of two above
+ * that is split into SUB_BUCKETS equal buckets, so a value is known to
+ * within about 3% whatever its size. Every bucket is a LongAdder, so
+ * threads recording at once do not fight over one counter, and
+ * recording a value never creates an object.
+ *
+ * @author Cole Sanders
+ */
+public class LatencyHistogram {
+
+    /** Number of bits of a value kept exactly in its bucket */
+    private static final int SUB_BITS = 5;
+
+    /** Number of buckets each power of two is split into */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /** Number of buckets, enough for any non-negative long */
+    private static final int BUCKETS = (Long.SIZE - SUB_BITS) * SUB_BUCKETS;
+
+    /** Number of values recorded in each bucket */
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+
+    /** Sum of the values recorded */
+    private final LongAdder total = new LongAdder();
+
+    /** Largest value recorded */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructor initializing an empty histogram
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; ++i) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one value
+     * @param nanos time taken in nanoseconds, counted as 0 if negative
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts[bucket(nanos)].increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Empties the histogram. Values recorded while it is being emptied may
+     * be kept or dropped.
+     */
+    public void reset() {
+        for (LongAdder count : counts) {
+            count.reset();
+        }
+        total.reset();
+        max.reset();
+    }
+
+    /**
+     * Copies the counts so far. Values recorded while the copy is being
+     * made may be left out of some totals.
+     * @return snapshot of the histogram
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; ++i) {
+            copy[i] = counts[i].sum();
+        }
+        return new Snapshot(copy, total.sum(), max.get());
+    }
+
+    /**
+     * Finds the bucket of a value
+     * @param value non-negative value
+     * @return index of the bucket
+     */
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - SUB_BITS - Long.numberOfLeadingZeros(value);
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Finds the largest value that falls in a bucket
+     * @param bucket index of the bucket
+     * @return largest value of the bucket
+     */
+    static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Counts of a LatencyHistogram at one moment. Its getters are the
+     * attributes shown by JMX.
+     */
+    public static class Snapshot {
+
+        /** Number of values in each bucket */
+        private final long[] counts;
+
+        /** Number of values */
+        private final long count;
+
+        /** Sum of the values */
+        private final long total;
+
+        /** Largest value */
+        private final long max;
+
+        /**
+         * Constructor initializing the counts
+         * @param counts number of values in each bucket
+         * @param total sum of the values
+         * @param max largest value
+         */
+        Snapshot(long[] counts, long total, long max) {
+            this.counts = counts;
+            this.total = total;
+            this.max = max;
+            long sum = 0;
+            for (long bucketCount : counts) {
+                sum += bucketCount;
+            }
+            count = sum;
+        }
+
+        /**
+         * Gets the number of values
+         * @return number of values
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Gets the mean value
+         * @return mean in nanoseconds, or 0 if there are no values
+         */
+        public double getMeanNanos() {
+            return count == 0 ? 0 : (double) total / count;
+        }
+
+        /**
+         * Gets the largest value
+         * @return largest value in nanoseconds
+         */
+        public long getMaxNanos() {
+            return max;
+        }
+
+        /**
+         * Gets the median
+         * @return median in nanoseconds
+         */
+        public long getP50Nanos() {
+            return getValueAtPercentile(50);
+        }
+
+        /**
+         * Gets the 90th percentile
+         * @return 90th percentile in nanoseconds
+         */
+        public long getP90Nanos() {
+            return getValueAtPercentile(90);
+        }
+
+        /**
+         * Gets the 99th percentile
+         * @return 99th percentile in nanoseconds
+         */
+        public long getP99Nanos() {
+            return getValueAtPercentile(99);
+        }
+
+        /**
+         * Gets the 99.9th percentile
+         * @return 99.9th percentile in nanoseconds
+         */
+        public long getP999Nanos() {
+            return getValueAtPercentile(99.9);
+        }
+
+        /**
+         * Finds the value that a percentage of the values are at or below,
+         * as the largest value of its bucket but no more than the maximum
+         * @param percentile percentage from 0 to 100
+         * @return value in nanoseconds, or 0 if there are no values
+         * @throws IllegalArgumentException when percentile is out of bounds
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (!(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("Invalid percentile");
+            }
+            long needed = Math.max(1, (long) Math.ceil(count * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < counts.length; ++i) {
+                seen += counts[i];
+                if (seen >= needed) {
+                    return Math.min(highestValue(i), max);
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Gets the main figures as a string
+         * @return count, mean, percentiles and maximum
+         */
+        public String toString() {
+            return String.format("count=%d mean=%.0fns p50=%dns p90=%dns p99=%dns "
+                                 + "p99.9=%dns max=%dns", count, getMeanNanos(),
+                                 getP50Nanos(), getP90Nanos(), getP99Nanos(), getP999Nanos(),
+                                 max);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * The categories a Variant can pay for, ordered from weakest to
+ * strongest. A variant scores a hand as the strongest category it can
+ * make, with wild cards standing in for whatever helps most.
+ * @author Cole Sanders
+ */
+public enum PayCategory {
+
+    /** No pair or better */
+    NO_PAIR("No Pair"),
+
+    /** A pair of lower value than the variant's minimum paying pair */
+    LOW_PAIR("Low Pair"),
+
+    /** A pair of at least the variant's minimum paying pair */
+    ONE_PAIR("One Pair"),
+
+    /** Two different pairs */
+    TWO_PAIRS("Two Pairs"),
+
+    /** Three cards of the same value */
+    THREE_OF_A_KIND("Three of a Kind"),
+
+    /** Five cards with consecutive values */
+    STRAIGHT("Straight"),
+
+    /** Five cards of the same suit */
+    FLUSH("Flush"),
+
+    /** Three of a kind and a pair */
+    FULL_HOUSE("Full House"),
+
+    /** Four cards of the same value */
+    FOUR_OF_A_KIND("Four of a Kind"),
+
+    /** A straight with all cards of the same suit */
+    STRAIGHT_FLUSH("Straight Flush"),
+
+    /** Five cards of the same value, made with wild cards */
+    FIVE_OF_A_KIND("Five of a Kind"),
+
+    /** A royal flush made with wild cards */
+    WILD_ROYAL_FLUSH("Wild Royal Flush"),
+
+    /** All four deuces in Deuces Wild */
+    FOUR_DEUCES("Four Deuces"),
+
+    /** A straight flush from ten to ace without wild cards */
+    ROYAL_FLUSH("Royal Flush");
+
+    /** Name of the category shown to the player */
+    private final String name;
+
+    /**
+     * Constructor initializing the display name of a category
+     * @param name name of the category shown to the player
+     */
+    PayCategory(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the name of the category shown to the player
+     * @return name of the category, such as "Full House"
+     */
+    public String toString() {
+        return name;
+    }
+}
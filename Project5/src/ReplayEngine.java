@@ -0,0 +1,356 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Audits a GameJournal by replaying every recorded session against a
+ * freshly seeded game and checking that each deal, replacement and score
+ * leaves the same cards and points the journal recorded.
+ *
+ * Sessions are independent, so each thread replays one partition of the
+ * sessions, picked by a hash of the session id. The journal is streamed
+ * segment by segment and its records are handed to their partition's
+ * thread in batches through a bounded queue, keeping each session's
+ * records in journal order, so the heap holds a few batches per thread
+ * rather than the whole journal. The report is the same no matter how many
+ * threads share the work.
+ *
+ * @author Cole Sanders
+ */
+public class ReplayEngine {
+
+    /** Number of records handed to a partition's thread at a time */
+    private static final int BATCH_RECORDS = 1024;
+
+    /** Number of batches a partition's queue holds before the reader waits */
+    private static final int QUEUED_BATCHES = 8;
+
+    /** Milliseconds the reader waits on a full queue before checking its thread */
+    private static final long WAIT_MILLIS = 100;
+
+    /** Batch that tells a partition's thread the journal has ended */
+    private static final Batch END = new Batch();
+
+    /** Source of the records in the order they were written */
+    private final Source source;
+
+    /**
+     * Constructor streaming the records of a journal each time it is run
+     * @param directory directory holding the journal segments
+     * @throws IllegalArgumentException when directory is null
+     */
+    public ReplayEngine(Path directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Null directory");
+        }
+        source = action -> GameJournal.read(directory, action);
+    }
+
+    /**
+     * Constructor initializing the records to audit
+     * @param records records in the order they were written
+     * @throws IllegalArgumentException when records is null
+     */
+    public ReplayEngine(List<JournalRecord> records) {
+        if (records == null) {
+            throw new IllegalArgumentException("Null records");
+        }
+        source = records::forEach;
+    }
+
+    /**
+     * Replays every session spread over a number of threads, one partition
+     * of the sessions each, while this thread reads the journal
+     * @param threads number of threads to use
+     * @return totals and mismatches over the journal
+     * @throws IOException if the journal cannot be read
+     * @throws IllegalArgumentException when threads is less than one
+     */
+    public AuditReport run(int threads) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid thread count");
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<BlockingQueue<Batch>> queues = new ArrayList<>();
+            List<Future<AuditReport>> results = new ArrayList<>();
+            for (int i = 0; i < threads; ++i) {
+                BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUED_BATCHES);
+                queues.add(queue);
+                results.add(pool.submit(() -> replay(queue)));
+            }
+            Distributor distributor = new Distributor(queues, results);
+            source.read(distributor);
+            distributor.finish();
+            AuditReport report = new AuditReport();
+            for (Future<AuditReport> result : results) {
+                report.add(result.get());
+            }
+            return report;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("Replay failed", e.getCause());
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Picks the partition of a record's session
+     * @param record record of the session
+     * @param partitions number of partitions
+     * @return partition number
+     */
+    private static int partition(JournalRecord record, int partitions) {
+        return (int) Long.remainderUnsigned(
+                SessionSimulator.sessionSeed(0, record.getSessionId()), partitions);
+    }
+
+    /**
+     * Replays the records of one partition on the current thread. Once a
+     * session has a mismatch the rest of its records are skipped, since
+     * its game no longer follows the journal.
+     * @param queue batches of the partition's records in journal order,
+     * ending with END
+     * @return totals and mismatches of the partition
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private static AuditReport replay(BlockingQueue<Batch> queue) throws InterruptedException {
+        AuditReport report = new AuditReport();
+        Map<Long, GameSession> open = new HashMap<>();
+        Set<Long> failed = new HashSet<>();
+        for (Batch batch = queue.take(); batch != END; batch = queue.take()) {
+            for (int i = 0; i < batch.size; ++i) {
+                replay(report, batch.positions[i], batch.records[i], open, failed);
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Replays one record of a partition
+     * @param report report of the partition
+     * @param position position of the record in the journal
+     * @param record record to replay
+     * @param open sessions being replayed
+     * @param failed sessions whose records are skipped
+     */
+    private static void replay(AuditReport report, long position, JournalRecord record,
+                               Map<Long, GameSession> open, Set<Long> failed) {
+        Long id = record.getSessionId();
+        report.recordEvent();
+        if (record.getType() == JournalRecord.OPEN) {
+            report.recordSession();
+            failed.remove(id);
+            open.put(id, new GameSession(id, record.getSeed(), null, false));
+            if (record.getPoints() != VideoPoker.STARTING_POINTS) {
+                fail(report, position, record, "Wrong starting points", open, failed);
+            }
+        }
+        else if (record.getType() == JournalRecord.CLOSE) {
+            open.remove(id);
+            failed.remove(id);
+        }
+        else if (!failed.contains(id)) {
+            GameSession session = open.get(id);
+            if (session == null) {
+                fail(report, position, record, "Unknown session", open, failed);
+                return;
+            }
+            try {
+                session.replay(record);
+                if (record.getType() == JournalRecord.NEW_GAME) {
+                    report.recordGame();
+                }
+            }
+            catch (IllegalArgumentException | IllegalStateException e) {
+                fail(report, position, record, e.getMessage(), open, failed);
+            }
+        }
+    }
+
+    /**
+     * Records a mismatch and stops replaying its session
+     * @param report report of the partition
+     * @param position position of the record in the journal
+     * @param record record that does not match
+     * @param reason why it does not match
+     * @param open sessions being replayed
+     * @param failed sessions whose records are skipped
+     */
+    private static void fail(AuditReport report, long position, JournalRecord record,
+                             String reason, Map<Long, GameSession> open, Set<Long> failed) {
+        report.recordMismatch(position, record, reason);
+        open.remove(record.getSessionId());
+        failed.add(record.getSessionId());
+    }
+
+    /**
+     * Audits a journal and prints the report
+     * @param args args[0] directory of the journal, optional args[1] number
+     * of threads
+     */
+    public static void main(String[] args) {
+        if (args.length != 1 && args.length != 2) {
+            System.out.println("Usage: java -cp bin ReplayEngine journal [threads]");
+            System.exit(1);
+        }
+        try {
+            int threads = args.length == 2 ? Integer.parseInt(args[1])
+                                           : Runtime.getRuntime().availableProcessors();
+            ReplayEngine engine = new ReplayEngine(Paths.get(args[0]));
+            long start = System.nanoTime();
+            AuditReport report = engine.run(threads);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.print(report);
+            System.out.printf("Replayed in %.2f s (%.0f games/s)%n", seconds,
+                              report.getGames() / seconds);
+            if (report.getMismatches() > 0) {
+                System.exit(2);
+            }
+        }
+        catch (NumberFormatException e) {
+            System.out.println("threads must be an integer");
+        }
+        catch (IOException e) {
+            System.out.println("Unable to read " + args[0] + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads records in the order they were written
+     */
+    private interface Source {
+
+        /**
+         * Passes every record to an action in the order they were written
+         * @param action action to take on each record
+         * @throws IOException if the records cannot be read
+         */
+        void read(Consumer<JournalRecord> action) throws IOException;
+    }
+
+    /**
+     * Records handed to a partition's thread together
+     */
+    private static final class Batch {
+
+        /** Records in journal order */
+        final JournalRecord[] records = new JournalRecord[BATCH_RECORDS];
+
+        /** Positions of the records in the journal */
+        final long[] positions = new long[BATCH_RECORDS];
+
+        /** Number of records in the batch */
+        int size;
+    }
+
+    /**
+     * Numbers the records as they are read and fills a batch for each
+     * partition, handing a batch to its partition's queue once it is full
+     */
+    private static final class Distributor implements Consumer<JournalRecord> {
+
+        /** Queue of each partition */
+        private final List<BlockingQueue<Batch>> queues;
+
+        /** Result of each partition's thread */
+        private final List<Future<AuditReport>> results;
+
+        /** Batch being filled for each partition */
+        private final Batch[] filling;
+
+        /** Position in the journal of the next record */
+        private long position;
+
+        /**
+         * Constructor initializing the partitions
+         * @param queues queue of each partition
+         * @param results result of each partition's thread
+         */
+        Distributor(List<BlockingQueue<Batch>> queues, List<Future<AuditReport>> results) {
+            this.queues = queues;
+            this.results = results;
+            filling = new Batch[queues.size()];
+            for (int i = 0; i < filling.length; ++i) {
+                filling[i] = new Batch();
+            }
+        }
+
+        /**
+         * Adds a record to its partition's batch
+         * @param record record read from the journal
+         */
+        @Override
+        public void accept(JournalRecord record) {
+            int partition = partition(record, filling.length);
+            Batch batch = filling[partition];
+            batch.records[batch.size] = record;
+            batch.positions[batch.size] = position++;
+            if (++batch.size == BATCH_RECORDS) {
+                hand(partition, batch);
+                filling[partition] = new Batch();
+            }
+        }
+
+        /**
+         * Hands over the partly filled batches and tells every partition's
+         * thread the journal has ended
+         */
+        void finish() {
+            for (int i = 0; i < filling.length; ++i) {
+                if (filling[i].size > 0) {
+                    hand(i, filling[i]);
+                }
+                hand(i, END);
+            }
+        }
+
+        /**
+         * Puts a batch on a partition's queue, waiting while the queue is
+         * full unless the partition's thread has stopped
+         * @param partition partition of the batch
+         * @param batch batch to hand over
+         * @throws IllegalStateException if the thread failed or this thread
+         * is interrupted
+         */
+        private void hand(int partition, Batch batch) {
+            try {
+                while (!queues.get(partition).offer(batch, WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    Future<AuditReport> result = results.get(partition);
+                    if (result.isDone()) {
+                        result.get();
+                        throw new IllegalStateException("Replay stopped");
+                    }
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted", e);
+            }
+            catch (ExecutionException e) {
+                throw new IllegalStateException("Replay failed", e.getCause());
+            }
+        }
+    }
+}
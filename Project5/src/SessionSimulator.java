@@ -0,0 +1,167 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays complete VideoPoker sessions without the GUI, many at a time.
+ * A session starts with STARTING_POINTS and plays until it cannot afford
+ * a new game or reaches a game limit.
+ *
+ * Every session shuffles with its own generator, seeded from the master
+ * seed and the session number, so the results for a master seed are the
+ * same no matter how many threads share the work.
+ *
+ * @author Cole Sanders
+ */
+public class SessionSimulator {
+
+    /** Odd constant used to spread session numbers across seeds */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /** Number of chunks of sessions handed to each thread */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /** Strategy used to choose which cards to hold */
+    private final DrawStrategy strategy;
+
+    /** Most games a session can play */
+    private final int maxGames;
+
+    /**
+     * Constructor initializing the strategy and game limit
+     * @param strategy strategy used to choose which cards to hold
+     * @param maxGames most games a session can play
+     * @throws IllegalArgumentException when strategy is null
+     * @throws IllegalArgumentException when maxGames is less than one
+     */
+    public SessionSimulator(DrawStrategy strategy, int maxGames) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("Null strategy");
+        }
+        if (maxGames < 1) {
+            throw new IllegalArgumentException("Invalid game limit");
+        }
+        this.strategy = strategy;
+        this.maxGames = maxGames;
+    }
+
+    /**
+     * Plays a number of sessions spread over a number of threads
+     * @param masterSeed seed the session generators are derived from
+     * @param sessions number of sessions to play
+     * @param threads number of threads to use
+     * @return totals over all sessions
+     * @throws IllegalArgumentException when threads is less than one
+     */
+    public SimulationReport run(long masterSeed, long sessions, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid thread count");
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            long chunks = Math.min(sessions, (long) threads * CHUNKS_PER_THREAD);
+            List<Future<SimulationReport>> results = new ArrayList<>();
+            for (long chunk = 0; chunk < chunks; ++chunk) {
+                long from = sessions * chunk / chunks;
+                long to = sessions * (chunk + 1) / chunks;
+                results.add(pool.submit(() -> play(masterSeed, from, to)));
+            }
+            SimulationReport report = new SimulationReport(maxGames);
+            for (Future<SimulationReport> result : results) {
+                report.add(result.get());
+            }
+            return report;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("Session failed", e.getCause());
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays a range of sessions on the current thread
+     * @param masterSeed seed the session generators are derived from
+     * @param from number of the first session
+     * @param to number one past the last session
+     * @return totals over the sessions
+     */
+    public SimulationReport play(long masterSeed, long from, long to) {
+        SimulationReport report = new SimulationReport(maxGames);
+        for (long session = from; session < to; ++session) {
+            playSession(new SplittableRandom(sessionSeed(masterSeed, session)), report);
+        }
+        return report;
+    }
+
+    /**
+     * Works out the seed of a session's generator
+     * @param masterSeed seed of the whole simulation
+     * @param session number of the session
+     * @return seed of the session
+     */
+    public static long sessionSeed(long masterSeed, long session) {
+        long z = masterSeed + (session + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Plays one session until it goes bust or reaches the game limit
+     * @param rng generator used to shuffle the session's deck
+     * @param report report the games are added to
+     */
+    private void playSession(SplittableRandom rng, SimulationReport report) {
+        VideoPoker game = new VideoPoker(new Deck(rng, true));
+        int games = 0;
+        while (games < maxGames && game.getPoints() >= VideoPoker.POINTS_FOR_NEW_GAME) {
+            game.newGame();
+            int hold = strategy.chooseHold(game.getHand());
+            for (int i = 0; i < VideoPoker.CARDS_IN_HAND; ++i) {
+                if ((hold & (1 << i)) == 0) {
+                    game.replaceCard(i);
+                }
+            }
+            report.recordGame(game.getHandRank());
+            game.scoreHand();
+            ++games;
+        }
+        report.recordSession(games, game.getPoints() < VideoPoker.POINTS_FOR_NEW_GAME);
+    }
+
+    /**
+     * Plays sessions with the optimal strategy and prints the report
+     * @param args args[0] master seed, args[1] number of sessions,
+     * args[2] most games per session, optional args[3] number of threads
+     */
+    public static void main(String[] args) {
+        if (args.length != 3 && args.length != 4) {
+            System.out.println("Usage: java -cp bin SessionSimulator seed sessions games "
+                               + "[threads]");
+            System.exit(1);
+        }
+        try {
+            long seed = Long.parseLong(args[0]);
+            long sessions = Long.parseLong(args[1]);
+            int games = Integer.parseInt(args[2]);
+            int threads = args.length == 4 ? Integer.parseInt(args[3])
+                                           : Runtime.getRuntime().availableProcessors();
+            SimulationReport report = new SessionSimulator(DrawStrategy.OPTIMAL, games)
+                                      .run(seed, sessions, threads);
+            System.out.print(report);
+        }
+        catch (NumberFormatException e) {
+            System.out.println("seed, sessions, games and threads must be integers");
+        }
+    }
+}
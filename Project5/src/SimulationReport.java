@@ -0,0 +1,187 @@
+/**
+ * Totals gathered by SessionSimulator over a number of sessions
+ * @author Cole Sanders
+ */
+public class SimulationReport {
+
+    /** Number of sessions played */
+    private long sessions;
+
+    /** Number of games played */
+    private long games;
+
+    /** Points spent starting games */
+    private long pointsWagered;
+
+    /** Points paid out for scored hands */
+    private long pointsPaid;
+
+    /** Number of final hands of each category, indexed by HandRank ordinal */
+    private final long[] hits = new long[HandRank.values().length];
+
+    /** Number of sessions that went bust after each number of games */
+    private final long[] bustTimes;
+
+    /** Number of sessions that reached the game limit without going bust */
+    private long survivors;
+
+    /**
+     * Constructor initializing an empty report
+     * @param maxGames most games a session can play
+     */
+    public SimulationReport(int maxGames) {
+        bustTimes = new long[maxGames + 1];
+    }
+
+    /**
+     * Records a finished game
+     * @param rank category of the final hand
+     */
+    void recordGame(HandRank rank) {
+        ++games;
+        pointsWagered += VideoPoker.POINTS_FOR_NEW_GAME;
+        pointsPaid += VideoPoker.getPayout(rank);
+        hits[rank.ordinal()]++;
+    }
+
+    /**
+     * Records a finished session
+     * @param gamesPlayed number of games the session played
+     * @param bust true if the session ran out of points
+     */
+    void recordSession(int gamesPlayed, boolean bust) {
+        ++sessions;
+        if (bust) {
+            bustTimes[gamesPlayed]++;
+        }
+        else {
+            ++survivors;
+        }
+    }
+
+    /**
+     * Adds the totals of another report to this one
+     * @param other report to add
+     */
+    void add(SimulationReport other) {
+        sessions += other.sessions;
+        games += other.games;
+        pointsWagered += other.pointsWagered;
+        pointsPaid += other.pointsPaid;
+        survivors += other.survivors;
+        for (int i = 0; i < hits.length; ++i) {
+            hits[i] += other.hits[i];
+        }
+        for (int i = 0; i < bustTimes.length; ++i) {
+            bustTimes[i] += other.bustTimes[i];
+        }
+    }
+
+    /**
+     * Gets the number of sessions played
+     * @return number of sessions
+     */
+    public long getSessions() {
+        return sessions;
+    }
+
+    /**
+     * Gets the number of games played over all sessions
+     * @return number of games
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Gets the points paid out for every point spent on games
+     * @return return to player, or 0 if no games were played
+     */
+    public double getReturnToPlayer() {
+        return pointsWagered == 0 ? 0 : (double) pointsPaid / pointsWagered;
+    }
+
+    /**
+     * Gets the fraction of games that ended in a category of hand
+     * @param rank category of hand
+     * @return hit frequency of the category
+     */
+    public double getHitFrequency(HandRank rank) {
+        return games == 0 ? 0 : (double) hits[rank.ordinal()] / games;
+    }
+
+    /**
+     * Gets the number of games that ended in a category of hand
+     * @param rank category of hand
+     * @return number of hits
+     */
+    public long getHits(HandRank rank) {
+        return hits[rank.ordinal()];
+    }
+
+    /**
+     * Gets the number of sessions that went bust after a number of games
+     * @param gamesPlayed number of games played before going bust
+     * @return number of sessions
+     */
+    public long getBustCount(int gamesPlayed) {
+        return bustTimes[gamesPlayed];
+    }
+
+    /**
+     * Gets the number of sessions that reached the game limit
+     * @return number of sessions that did not go bust
+     */
+    public long getSurvivors() {
+        return survivors;
+    }
+
+    /**
+     * Compares two reports
+     * @param o object of comparison report
+     * @return true if the reports have the same totals, false if not
+     */
+    public boolean equals(Object o) {
+        if (o instanceof SimulationReport) {
+            SimulationReport other = (SimulationReport) o;
+            return sessions == other.sessions && games == other.games
+                   && pointsWagered == other.pointsWagered && pointsPaid == other.pointsPaid
+                   && survivors == other.survivors
+                   && java.util.Arrays.equals(hits, other.hits)
+                   && java.util.Arrays.equals(bustTimes, other.bustTimes);
+        }
+        else {
+            return false;
+        }
+    }
+
+    /**
+     * Gets a hash code consistent with equals
+     * @return hash code of the report
+     */
+    public int hashCode() {
+        return Long.hashCode(games) * 31 + Long.hashCode(pointsPaid);
+    }
+
+    /**
+     * Summarizes the report
+     * @return string with the return to player and hit frequencies
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(String.format("Sessions: %d, games: %d, return to player: %.6f%n", sessions,
+                               games, getReturnToPlayer()));
+        HandRank[] ranks = HandRank.values();
+        for (int i = ranks.length - 1; i >= 0; --i) {
+            s.append(String.format("%-16s %10.6f%%%n", ranks[i], 100 * getHitFrequency(ranks[i])));
+        }
+        long bust = sessions - survivors;
+        long totalGames = 0;
+        for (int i = 0; i < bustTimes.length; ++i) {
+            totalGames += i * bustTimes[i];
+        }
+        s.append(String.format("Bust: %d sessions, mean %.2f games; survived: %d%n", bust,
+                               bust == 0 ? 0.0 : (double) totalGames / bust, survivors));
+        return s.toString();
+    }
+}
@@ -0,0 +1,223 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The best hold and its expected payout for every class of dealt hand,
+ * read from a file built ahead of time by main(). The file is memory
+ * mapped, so looking up a hand costs one canonicalization and a binary
+ * search of the mapped records without loading the table onto the heap.
+ *
+ * The file starts with a header of three ints: a magic number, the format
+ * version and the number of records. Each record is a long holding the
+ * canonical hand bits in its low 52 bits and the hold mask above them,
+ * followed by the expected payout as a float. Records are sorted by hand
+ * bits. Hold masks refer to the cards of the canonical hand in increasing
+ * index order.
+ *
+ * @author Cole Sanders
+ */
+public class StrategyTable {
+
+    /** Number identifying a strategy table file */
+    public static final int MAGIC = 0x504b5354;
+
+    /** Version of the file format */
+    public static final int VERSION = 1;
+
+    /** Number of bytes in the file header */
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+
+    /** Number of bytes in a record */
+    private static final int RECORD_BYTES = Long.BYTES + Float.BYTES;
+
+    /** Position of the hold mask in the long of a record */
+    private static final int HOLD_SHIFT = Deck.CARDS_IN_DECK;
+
+    /** Mapped contents of the file */
+    private final MappedByteBuffer buffer;
+
+    /** Number of records in the file */
+    private final int records;
+
+    /**
+     * Constructor initializing a table from a mapped file
+     * @param buffer mapped contents of the file
+     * @param records number of records in the file
+     */
+    private StrategyTable(MappedByteBuffer buffer, int records) {
+        this.buffer = buffer;
+        this.records = records;
+    }
+
+    /**
+     * Maps a strategy table file into memory
+     * @param file path of the file
+     * @return table backed by the file
+     * @throws IOException if the file cannot be read or is not a strategy table
+     */
+    public static StrategyTable load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Invalid strategy file");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int records = buffer.getInt(2 * Integer.BYTES);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION
+                || size != HEADER_BYTES + (long) records * RECORD_BYTES) {
+                throw new IOException("Invalid strategy file");
+            }
+            return new StrategyTable(buffer, records);
+        }
+    }
+
+    /**
+     * Gets the number of hand classes in the table
+     * @return number of records
+     */
+    public int size() {
+        return records;
+    }
+
+    /**
+     * Gets the hold mask with the highest expected payout for a hand
+     * @param hand dealt hand
+     * @return hold mask with bit i set when card i should be kept
+     * @throws IllegalArgumentException when the hand holds the same card twice
+     */
+    public int getBestHold(Hand hand) {
+        long cards = CardSet.of(hand).getBits();
+        int[] order = SuitCanonicalizer.suitOrder(cards);
+        int[] indexes = new int[Hand.CARDS_IN_HAND];
+        long canonical = 0;
+        for (int i = 0; i < Hand.CARDS_IN_HAND; ++i) {
+            indexes[i] = SuitCanonicalizer.canonicalIndex(hand.getCard(i).getIndex(), order);
+            canonical |= CardSet.bit(indexes[i]);
+        }
+        int canonicalHold = (int) (buffer.getLong(find(canonical)) >>> HOLD_SHIFT);
+        int hold = 0;
+        for (int i = 0; i < Hand.CARDS_IN_HAND; ++i) {
+            // position of the card among the canonical cards in index order
+            int position = Long.bitCount(canonical & (CardSet.bit(indexes[i]) - 1));
+            if ((canonicalHold & (1 << position)) != 0) {
+                hold |= 1 << i;
+            }
+        }
+        return hold;
+    }
+
+    /**
+     * Gets the expected payout of a hand when the best cards are held
+     * @param hand dealt hand
+     * @return expected payout after drawing
+     * @throws IllegalArgumentException when the hand holds the same card twice
+     */
+    public double getExpectedPayout(Hand hand) {
+        return buffer.getFloat(find(SuitCanonicalizer.canonicalize(hand)) + Long.BYTES);
+    }
+
+    /**
+     * Finds the record of a canonical hand
+     * @param canonical bits of the canonical hand
+     * @return byte position of the record in the file
+     * @throws IllegalStateException if the hand is not in the table
+     */
+    private int find(long canonical) {
+        int low = 0;
+        int high = records - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int position = HEADER_BYTES + middle * RECORD_BYTES;
+            long key = buffer.getLong(position) & CardSet.FULL_DECK;
+            if (key < canonical) {
+                low = middle + 1;
+            }
+            else if (key > canonical) {
+                high = middle - 1;
+            }
+            else {
+                return position;
+            }
+        }
+        throw new IllegalStateException("Hand not in table");
+    }
+
+    /**
+     * Solves every class of hand and writes the table to a stream
+     * @param out stream to write the table to
+     * @throws IOException if the table cannot be written
+     */
+    public static void build(OutputStream out) throws IOException {
+        long[] keys = new long[SuitCanonicalizer.HAND_CLASSES];
+        float[] payouts = new float[SuitCanonicalizer.HAND_CLASSES];
+        int count = 0;
+        int[] c = new int[Hand.CARDS_IN_HAND];
+        for (c[0] = 0; c[0] < Deck.CARDS_IN_DECK; ++c[0]) {
+            for (c[1] = c[0] + 1; c[1] < Deck.CARDS_IN_DECK; ++c[1]) {
+                for (c[2] = c[1] + 1; c[2] < Deck.CARDS_IN_DECK; ++c[2]) {
+                    for (c[3] = c[2] + 1; c[3] < Deck.CARDS_IN_DECK; ++c[3]) {
+                        for (c[4] = c[3] + 1; c[4] < Deck.CARDS_IN_DECK; ++c[4]) {
+                            long cards = 0;
+                            for (int index : c) {
+                                cards |= CardSet.bit(index);
+                            }
+                            if (SuitCanonicalizer.isCanonical(cards)) {
+                                // cards come out in index order, so hold
+                                // masks already refer to canonical positions
+                                double[] evs = HoldSolver.expectedPayouts(
+                                        new CardSet(cards).toHand());
+                                int hold = HoldSolver.bestHold(evs);
+                                keys[count] = cards;
+                                payouts[count] = (float) evs[hold];
+                                keys[count] |= (long) hold << HOLD_SHIFT;
+                                ++count;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        Integer[] sorted = new Integer[count];
+        for (int i = 0; i < count; ++i) {
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, (a, b) -> Long.compare(keys[a] & CardSet.FULL_DECK,
+                                                   keys[b] & CardSet.FULL_DECK));
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(count);
+        for (int i : sorted) {
+            data.writeLong(keys[i]);
+            data.writeFloat(payouts[i]);
+        }
+        data.flush();
+    }
+
+    /**
+     * Builds the strategy table file
+     * @param args args[0] path of the file to write
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.out.println("Usage: java -cp bin StrategyTable file");
+            System.exit(1);
+        }
+        try (OutputStream out = Files.newOutputStream(Paths.get(args[0]))) {
+            build(out);
+        }
+        catch (IOException e) {
+            System.out.println("Unable to write " + args[0] + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
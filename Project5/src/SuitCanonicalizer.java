@@ -0,0 +1,88 @@
+/**
+ * Maps hands that only differ by a renaming of suits onto one canonical
+ * hand. Swapping every heart for a spade and every spade for a heart does
+ * not change how a hand plays, so the 2,598,960 hands fall into 134,459
+ * classes that share the same strategy.
+ *
+ * The canonical form sorts the four suits by the values held in each,
+ * largest set of value bits first, and renumbers them in that order.
+ * Suits that hold the same values are interchangeable, so ties do not
+ * matter.
+ *
+ * @author Cole Sanders
+ */
+public class SuitCanonicalizer {
+
+    /** Number of classes of five card hands under renaming of suits */
+    public static final int HAND_CLASSES = 134459;
+
+    /**
+     * Gets the canonical form of a set of cards
+     * @param cards bits of a CardSet
+     * @return bits of the canonical set of cards
+     */
+    public static long canonicalize(long cards) {
+        int[] order = suitOrder(cards);
+        long canonical = 0;
+        for (int suit = 0; suit < CardSet.SUITS; ++suit) {
+            canonical |= (long) CardSet.valuesInSuit(cards, suit)
+                         << (order[suit] * Card.VALUES_IN_SUIT);
+        }
+        return canonical;
+    }
+
+    /**
+     * Gets the canonical form of a hand
+     * @param hand hand of cards
+     * @return bits of the canonical set of cards
+     * @throws IllegalArgumentException when the hand holds the same card twice
+     */
+    public static long canonicalize(Hand hand) {
+        if (hand.getKey() < 0) {
+            throw new IllegalArgumentException("Duplicate card");
+        }
+        return canonicalize(hand.getKey());
+    }
+
+    /**
+     * Checks if a set of cards is already in canonical form
+     * @param cards bits of a CardSet
+     * @return true if the set is canonical, false if not
+     */
+    public static boolean isCanonical(long cards) {
+        return canonicalize(cards) == cards;
+    }
+
+    /**
+     * Works out which canonical suit each suit of a set of cards becomes
+     * @param cards bits of a CardSet
+     * @return canonical position of each suit, indexed by suit position
+     */
+    public static int[] suitOrder(long cards) {
+        int[] values = new int[CardSet.SUITS];
+        for (int suit = 0; suit < CardSet.SUITS; ++suit) {
+            values[suit] = CardSet.valuesInSuit(cards, suit);
+        }
+        int[] order = new int[CardSet.SUITS];
+        for (int suit = 0; suit < CardSet.SUITS; ++suit) {
+            for (int other = 0; other < CardSet.SUITS; ++other) {
+                if (values[other] > values[suit]
+                    || (values[other] == values[suit] && other < suit)) {
+                    ++order[suit];
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Gets the index a card has once its suit is renamed
+     * @param index index of the card
+     * @param order canonical position of each suit from suitOrder()
+     * @return index of the card in the canonical set
+     */
+    public static int canonicalIndex(int index, int[] order) {
+        return order[index / Card.VALUES_IN_SUIT] * Card.VALUES_IN_SUIT
+               + index % Card.VALUES_IN_SUIT;
+    }
+}
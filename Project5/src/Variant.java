@@ -0,0 +1,577 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * The rules and paytable of a video poker game, such as Jacks or Better,
+ * Deuces Wild or Joker Poker, loaded from a properties file like those in
+ * the variants folder:
+ *
+ * <pre>
+ * name=Deuces Wild
+ * cost=10
+ * wild=deuces
+ * minimumPair=2
+ * aceLow=true
+ * pay.ROYAL_FLUSH=8000
+ * pay.FOUR_DEUCES=2000
+ * label.FOUR_DEUCES=Four Deuces
+ * </pre>
+ *
+ * The keys after "pay." and "label." are PayCategory names, and
+ * categories that are not listed pay nothing. wild is none, deuces or
+ * joker, where joker adds a 53rd card to the deck. A pair pays as
+ * ONE_PAIR when its value is at least minimumPair and as LOW_PAIR
+ * otherwise. aceLow allows A-2-3-4-5 as a straight.
+ *
+ * As in HandEvaluator, the category of every combination of values is
+ * worked out once, when the variant is made, into a table indexed by the
+ * sum of the value keys of the cards that are not wild. The table has a
+ * region for each combination of whether those cards share a suit and
+ * whether the joker is in the hand. In Deuces Wild the deuces' key is
+ * zero, so the sum still tells how many deuces the hand holds. Scoring a
+ * hand is then a table lookup and an array read for any variant.
+ *
+ * @author Cole Sanders
+ */
+public final class Variant {
+
+    /** Which cards are wild */
+    public enum Wild {
+
+        /** No wild cards */
+        NONE,
+
+        /** The four deuces are wild */
+        DEUCES,
+
+        /** The joker of a 53 card deck is wild */
+        JOKER
+    }
+
+    /** The original game, paying the VideoPoker constants by HandRank */
+    public static final Variant CLASSIC;
+
+    /** Folder the variant files are kept in */
+    public static final String DIRECTORY = "variants";
+
+    /** Size of each region of the category table */
+    private static final int REGION = HandEvaluator.MAX_KEY_SUM + 1;
+
+    /** Region offset of hands whose cards that are not wild share a suit */
+    private static final int FLUSH_REGION = 1;
+
+    /** Region offset of hands holding the joker */
+    private static final int JOKER_REGION = 2;
+
+    /** Number of deuces in a deck */
+    private static final int DEUCES = 4;
+
+    /** Value an ace counts as at the bottom of A-2-3-4-5 */
+    private static final int LOW_ACE = 1;
+
+    /** Largest difference between the highest and lowest values of a straight */
+    private static final int STRAIGHT_SPAN = Hand.CARDS_IN_HAND - 1;
+
+    /** Bit of the joker */
+    private static final long JOKER_BIT = CardSet.bit(Card.JOKER_INDEX);
+
+    /** Prefix of the keys giving payouts */
+    private static final String PAY = "pay.";
+
+    /** Prefix of the keys giving category names */
+    private static final String LABEL = "label.";
+
+    /** Value key of each card, indexed by card index */
+    private static final int[] INDEX_KEYS = new int[Deck.CARDS_IN_DECK];
+
+    /** Categories indexed by ordinal */
+    private static final PayCategory[] CATEGORIES = PayCategory.values();
+
+    static {
+        for (int i = 0; i < Deck.CARDS_IN_DECK; ++i) {
+            INDEX_KEYS[i] = HandEvaluator.getKey(Card.fromIndex(i).getValue());
+        }
+        int[] payouts = new int[CATEGORIES.length];
+        for (HandRank rank : HandRank.values()) {
+            payouts[PayCategory.valueOf(rank.name()).ordinal()] = VideoPoker.getPayout(rank);
+        }
+        CLASSIC = new Variant("Classic", VideoPoker.POINTS_FOR_NEW_GAME, Wild.NONE,
+                              Card.LOWEST_VALUE, false, payouts, defaultLabels());
+    }
+
+    /** Name of the variant */
+    private final String name;
+
+    /** Points it costs to start a game */
+    private final int cost;
+
+    /** Which cards are wild */
+    private final Wild wild;
+
+    /** Lowest value of a pair that pays as ONE_PAIR */
+    private final int minimumPair;
+
+    /** Whether A-2-3-4-5 is a straight */
+    private final boolean aceLow;
+
+    /** Points paid for each category, indexed by PayCategory ordinal */
+    private final int[] payouts;
+
+    /** Name shown for each category, indexed by PayCategory ordinal */
+    private final String[] labels;
+
+    /** Bits of the wild cards */
+    private final long wildMask;
+
+    /** Bits of every card in the variant's deck */
+    private final long deckMask;
+
+    /** Category ordinal of each hand, indexed by key sum plus region offset */
+    private final byte[] table;
+
+    /**
+     * Constructor initializing the rules and paytable and working out the
+     * category table
+     * @param name name of the variant
+     * @param cost points it costs to start a game
+     * @param wild which cards are wild
+     * @param minimumPair lowest value of a pair that pays as ONE_PAIR
+     * @param aceLow whether A-2-3-4-5 is a straight
+     * @param payouts points paid for each category
+     * @param labels name shown for each category
+     */
+    private Variant(String name, int cost, Wild wild, int minimumPair, boolean aceLow,
+                    int[] payouts, String[] labels) {
+        this.name = name;
+        this.cost = cost;
+        this.wild = wild;
+        this.minimumPair = minimumPair;
+        this.aceLow = aceLow;
+        this.payouts = payouts;
+        this.labels = labels;
+        wildMask = wild == Wild.DEUCES ? CardSet.valueMask(Card.LOWEST_VALUE)
+                                       : wild == Wild.JOKER ? JOKER_BIT : 0;
+        deckMask = wild == Wild.JOKER ? CardSet.FULL_DECK | JOKER_BIT : CardSet.FULL_DECK;
+        table = new byte[(wild == Wild.JOKER ? 2 * JOKER_REGION : JOKER_REGION) * REGION];
+        int[] counts = new int[Card.HIGHEST_VALUE + 1];
+        fillTable(Card.LOWEST_VALUE, Hand.CARDS_IN_HAND, 0, counts, 0);
+        if (wild == Wild.JOKER) {
+            fillTable(Card.LOWEST_VALUE, Hand.CARDS_IN_HAND - 1, 0, counts, JOKER_REGION);
+        }
+    }
+
+    /**
+     * Loads a variant from a properties file
+     * @param file file to read
+     * @return the variant
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException when a setting is missing or invalid
+     */
+    public static Variant load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        return of(properties);
+    }
+
+    /**
+     * Makes a variant from its settings
+     * @param properties settings as described in the class comment
+     * @return the variant
+     * @throws IllegalArgumentException when properties is null
+     * @throws IllegalArgumentException when a setting is missing or invalid
+     */
+    public static Variant of(Properties properties) {
+        if (properties == null) {
+            throw new IllegalArgumentException("Null properties");
+        }
+        String name = properties.getProperty("name");
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Missing name");
+        }
+        int cost = parseInt(properties, "cost", VideoPoker.POINTS_FOR_NEW_GAME);
+        if (cost < 1) {
+            throw new IllegalArgumentException("Invalid cost");
+        }
+        Wild wild;
+        try {
+            wild = Wild.valueOf(properties.getProperty("wild", "none").trim().toUpperCase());
+        }
+        catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid wild cards: "
+                                               + properties.getProperty("wild"));
+        }
+        int minimumPair = parseInt(properties, "minimumPair", Card.LOWEST_VALUE);
+        if (minimumPair < Card.LOWEST_VALUE || minimumPair > Card.HIGHEST_VALUE) {
+            throw new IllegalArgumentException("Invalid minimum pair");
+        }
+        String aceLow = properties.getProperty("aceLow", "true").trim();
+        if (!aceLow.equals("true") && !aceLow.equals("false")) {
+            throw new IllegalArgumentException("Invalid ace low: " + aceLow);
+        }
+        int[] payouts = new int[CATEGORIES.length];
+        String[] labels = defaultLabels();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(PAY)) {
+                int pay = parseInt(properties, key, 0);
+                if (pay < 0) {
+                    throw new IllegalArgumentException("Invalid pay: " + key);
+                }
+                payouts[category(key.substring(PAY.length())).ordinal()] = pay;
+            }
+            else if (key.startsWith(LABEL)) {
+                labels[category(key.substring(LABEL.length())).ordinal()] =
+                        properties.getProperty(key).trim();
+            }
+            else if (!key.equals("name") && !key.equals("cost") && !key.equals("wild")
+                     && !key.equals("minimumPair") && !key.equals("aceLow")) {
+                throw new IllegalArgumentException("Unknown setting: " + key);
+            }
+        }
+        return new Variant(name.trim(), cost, wild, minimumPair, Boolean.parseBoolean(aceLow),
+                           payouts, labels);
+    }
+
+    /**
+     * Reads a whole number setting
+     * @param properties settings
+     * @param key name of the setting
+     * @param defaultValue value when the setting is missing
+     * @return value of the setting
+     * @throws IllegalArgumentException when the setting is not a number
+     */
+    private static int parseInt(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + key + ": " + value);
+        }
+    }
+
+    /**
+     * Looks up a category by name
+     * @param name name of a PayCategory constant
+     * @return the category
+     * @throws IllegalArgumentException when there is no such category
+     */
+    private static PayCategory category(String name) {
+        try {
+            return PayCategory.valueOf(name);
+        }
+        catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown category: " + name);
+        }
+    }
+
+    /**
+     * Lists the display name of every category
+     * @return names indexed by PayCategory ordinal
+     */
+    private static String[] defaultLabels() {
+        String[] labels = new String[CATEGORIES.length];
+        for (PayCategory category : CATEGORIES) {
+            labels[category.ordinal()] = category.toString();
+        }
+        return labels;
+    }
+
+    /**
+     * Gets the name of the variant
+     * @return name, such as "Jacks or Better"
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the points it costs to start a game
+     * @return cost of a game
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Gets which cards are wild
+     * @return wild cards of the variant
+     */
+    public Wild getWild() {
+        return wild;
+    }
+
+    /**
+     * Gets the number of cards in the variant's deck
+     * @return Deck.CARDS_WITH_JOKER for joker variants, otherwise
+     * Deck.CARDS_IN_DECK
+     */
+    public int getDeckSize() {
+        return wild == Wild.JOKER ? Deck.CARDS_WITH_JOKER : Deck.CARDS_IN_DECK;
+    }
+
+    /**
+     * Gets the points paid for a category
+     * @param category category of hand
+     * @return points paid
+     */
+    public int getPayout(PayCategory category) {
+        return payouts[category.ordinal()];
+    }
+
+    /**
+     * Gets the name shown for a category
+     * @param category category of hand
+     * @return name of the category in this variant, such as "Jacks or Better"
+     */
+    public String getLabel(PayCategory category) {
+        return labels[category.ordinal()];
+    }
+
+    /**
+     * Classifies a hand
+     * @param hand hand to classify
+     * @return category of the hand
+     * @throws IllegalArgumentException when the hand holds a card twice or
+     * a card not in the variant's deck
+     */
+    public PayCategory evaluate(Hand hand) {
+        return CATEGORIES[table[index(bits(hand))]];
+    }
+
+    /**
+     * Classifies a set of five cards
+     * @param cards bits of the cards, with bit Card.JOKER_INDEX for the joker
+     * @return category of the hand
+     * @throws IllegalArgumentException when cards is not five cards of the
+     * variant's deck
+     */
+    public PayCategory evaluate(long cards) {
+        return CATEGORIES[table[index(cards)]];
+    }
+
+    /**
+     * Gets the points paid for a set of five cards
+     * @param cards bits of the cards, with bit Card.JOKER_INDEX for the joker
+     * @return points paid
+     * @throws IllegalArgumentException when cards is not five cards of the
+     * variant's deck
+     */
+    public int getPayout(long cards) {
+        return payouts[table[index(cards)]];
+    }
+
+    /**
+     * Gets the bits of the cards in a hand
+     * @param hand hand of cards
+     * @return bits of the cards, with bit Card.JOKER_INDEX for the joker
+     */
+    private static long bits(Hand hand) {
+        long bits = 0;
+        for (int i = 0; i < Hand.CARDS_IN_HAND; ++i) {
+            bits |= CardSet.bit(hand.getCard(i).getIndex());
+        }
+        return bits;
+    }
+
+    /**
+     * Works out the position of a hand in the category table
+     * @param cards bits of five cards
+     * @return index into the table
+     * @throws IllegalArgumentException when cards is not five cards of the
+     * variant's deck
+     */
+    private int index(long cards) {
+        if ((cards & ~deckMask) != 0 || Long.bitCount(cards) != Hand.CARDS_IN_HAND) {
+            throw new IllegalArgumentException("Not five cards");
+        }
+        int sum = 0;
+        for (long rest = cards & CardSet.FULL_DECK; rest != 0; rest &= rest - 1) {
+            sum += INDEX_KEYS[Long.numberOfTrailingZeros(rest)];
+        }
+        int region = (cards & JOKER_BIT) != 0 ? JOKER_REGION : 0;
+        if (CardSet.isFlush(cards & ~wildMask)) {
+            region += FLUSH_REGION;
+        }
+        return region * REGION + sum;
+    }
+
+    /**
+     * Fills the category table for every combination of values that can
+     * make up the rest of the cards that are not jokers
+     * @param lowest lowest value that can still be added
+     * @param remaining number of cards still to be added
+     * @param sum key sum of the values added so far
+     * @param counts number of cards of each value added so far
+     * @param region region of the table, JOKER_REGION if the hand holds
+     * the joker
+     */
+    private void fillTable(int lowest, int remaining, int sum, int[] counts, int region) {
+        if (remaining == 0) {
+            int jokers = region == JOKER_REGION ? 1 : 0;
+            table[region * REGION + sum] = (byte) categorize(counts, jokers, false).ordinal();
+            table[(region + FLUSH_REGION) * REGION + sum] =
+                    (byte) categorize(counts, jokers, true).ordinal();
+            return;
+        }
+        for (int value = lowest; value <= Card.HIGHEST_VALUE; ++value) {
+            if (counts[value] < CardSet.SUITS) {
+                counts[value]++;
+                fillTable(value, remaining - 1, sum + HandEvaluator.getKey(value), counts,
+                          region);
+                counts[value]--;
+            }
+        }
+    }
+
+    /**
+     * Works out the strongest category a hand can make
+     * @param counts number of cards of each value from 2 to 14, not
+     * counting the joker
+     * @param jokers 1 if the hand holds the joker, otherwise 0
+     * @param flush true if the cards that are not wild share a suit
+     * @return category of the hand
+     */
+    private PayCategory categorize(int[] counts, int jokers, boolean flush) {
+        int wilds = jokers;
+        if (wild == Wild.DEUCES) {
+            wilds = counts[Card.LOWEST_VALUE];
+        }
+        int most = 0;
+        int pairs = 0;
+        boolean three = false;
+        int pairValue = 0;
+        int highest = 0;
+        int lowest = Card.HIGHEST_VALUE + 1;
+        for (int value = Card.LOWEST_VALUE; value <= Card.HIGHEST_VALUE; ++value) {
+            int count = wild == Wild.DEUCES && value == Card.LOWEST_VALUE ? 0 : counts[value];
+            if (count > 0) {
+                most = Math.max(most, count);
+                highest = value;
+                lowest = Math.min(lowest, value);
+            }
+            if (count == 2) {
+                ++pairs;
+                pairValue = value;
+            }
+            else if (count == Hand.THREE_OF_A_KIND) {
+                three = true;
+            }
+        }
+        boolean distinct = most == 1;
+        boolean straight = distinct && (highest - lowest <= STRAIGHT_SPAN
+                                        || aceLow && highest == Card.HIGHEST_VALUE
+                                           && secondHighest(counts) - LOW_ACE <= STRAIGHT_SPAN);
+        boolean royal = distinct && lowest >= Hand.TEN;
+        if (wilds == 0 && flush && royal) {
+            return PayCategory.ROYAL_FLUSH;
+        }
+        if (wild == Wild.DEUCES && wilds == DEUCES) {
+            return PayCategory.FOUR_DEUCES;
+        }
+        if (wilds > 0 && flush && royal) {
+            return PayCategory.WILD_ROYAL_FLUSH;
+        }
+        if (wilds > 0 && most + wilds >= Hand.CARDS_IN_HAND) {
+            return PayCategory.FIVE_OF_A_KIND;
+        }
+        if (flush && straight) {
+            return PayCategory.STRAIGHT_FLUSH;
+        }
+        if (most + wilds >= Hand.FOUR_OF_A_KIND) {
+            return PayCategory.FOUR_OF_A_KIND;
+        }
+        if (wilds == 0 ? three && pairs == 1 : wilds == 1 && pairs == 2) {
+            return PayCategory.FULL_HOUSE;
+        }
+        if (flush) {
+            return PayCategory.FLUSH;
+        }
+        if (straight) {
+            return PayCategory.STRAIGHT;
+        }
+        if (most + wilds >= Hand.THREE_OF_A_KIND) {
+            return PayCategory.THREE_OF_A_KIND;
+        }
+        if (pairs == 2) {
+            return PayCategory.TWO_PAIRS;
+        }
+        if (most + wilds >= 2) {
+            int value = wilds > 0 ? highest : pairValue;
+            return value >= minimumPair ? PayCategory.ONE_PAIR : PayCategory.LOW_PAIR;
+        }
+        return PayCategory.NO_PAIR;
+    }
+
+    /**
+     * Gets the highest value below the ace among the cards that are not
+     * wild, for checking A-2-3-4-5
+     * @param counts number of cards of each value from 2 to 14
+     * @return highest value below the ace, or LOW_ACE if there is none
+     */
+    private int secondHighest(int[] counts) {
+        for (int value = Card.HIGHEST_VALUE - 1; value >= Card.LOWEST_VALUE; --value) {
+            boolean isWild = wild == Wild.DEUCES && value == Card.LOWEST_VALUE;
+            if (counts[value] > 0 && !isWild) {
+                return value;
+            }
+        }
+        return LOW_ACE;
+    }
+
+    /**
+     * Gets the name of the variant
+     * @return name of the variant
+     */
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Deals every hand from a variant's deck and prints how often each
+     * category comes up and what it pays
+     * @param args args[0] variant file, such as variants/deuces-wild.properties
+     * @throws IOException if the file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("Usage: java -cp bin Variant variants/jacks-or-better.properties");
+            System.exit(1);
+        }
+        Variant variant = load(Path.of(args[0]));
+        int deck = variant.getDeckSize();
+        long[] counts = new long[CATEGORIES.length];
+        long hands = 0;
+        long start = System.nanoTime();
+        for (int a = 0; a < deck; ++a) {
+            for (int b = a + 1; b < deck; ++b) {
+                for (int c = b + 1; c < deck; ++c) {
+                    for (int d = c + 1; d < deck; ++d) {
+                        long bits = CardSet.bit(a) | CardSet.bit(b) | CardSet.bit(c)
+                                    | CardSet.bit(d);
+                        for (int e = d + 1; e < deck; ++e) {
+                            counts[variant.evaluate(bits | CardSet.bit(e)).ordinal()]++;
+                            ++hands;
+                        }
+                    }
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%s, %d points a game%n", variant, variant.getCost());
+        for (int i = CATEGORIES.length - 1; i >= 0; --i) {
+            if (counts[i] > 0 || variant.payouts[i] > 0) {
+                System.out.printf("%-18s %8d %10.6f%% %6d%n", variant.labels[i], counts[i],
+                                  100.0 * counts[i] / hands, variant.payouts[i]);
+            }
+        }
+        System.out.printf("Classified %d hands in %.1f ms%n", hands, elapsed / 1e6);
+    }
+}
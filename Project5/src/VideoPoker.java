@@ -54,6 +54,18 @@ public class VideoPoker {
     /** Contains players points */
     private int points;
     
+    /** Rules and paytable the game is scored by */
+    private final Variant variant;
+    
+    /** Metrics the game's deals, draws and scores are recorded in, or null */
+    private GameMetrics metrics;
+    
+    /** Session the game belongs to, given in its flight recorder events */
+    private long sessionId;
+    
+    /** Cache of expected payouts consulted for the best hold, or null */
+    private ExpectedPayoutCache payoutCache;
+    
     /**
      * Constructor initalizing a deck with cards and player points
      * at 100
@@ -62,6 +74,41 @@ public class VideoPoker {
     public VideoPoker(int seed) {
         deck = new Deck(seed);
         points = STARTING_POINTS;
+        variant = Variant.CLASSIC;
+    }
+    
+    /**
+     * Constructor initalizing player points at 100 and playing
+     * with a given deck
+     * @param deck deck the game is dealt from
+     * @throws IllegalArgumentException when deck is null
+     */
+    public VideoPoker(Deck deck) {
+        this(deck, Variant.CLASSIC);
+    }
+    
+    /**
+     * Constructor initalizing player points at 100 and playing a variant
+     * with a given deck, which must hold the joker if the variant uses it
+     * @param deck deck the game is dealt from
+     * @param variant rules and paytable the game is scored by
+     * @throws IllegalArgumentException when deck is null
+     * @throws IllegalArgumentException when variant is null
+     * @throws IllegalArgumentException when the deck is not the variant's size
+     */
+    public VideoPoker(Deck deck, Variant variant) {
+        if (deck == null) {
+            throw new IllegalArgumentException("Null deck");
+        }
+        if (variant == null) {
+            throw new IllegalArgumentException("Null variant");
+        }
+        if (deck.size() != variant.getDeckSize()) {
+            throw new IllegalArgumentException("Deck does not match variant");
+        }
+        this.deck = deck;
+        this.variant = variant;
+        points = STARTING_POINTS;
     }
     
     /**
@@ -90,19 +137,126 @@ public class VideoPoker {
         return hand.getCard(index);
     }
     
+    /**
+     * Gets the current hand
+     * @return the player's hand, or null before the first game
+     */
+    public Hand getHand() {
+        return hand;
+    }
+    
+    /**
+     * Gets the rules and paytable the game is scored by
+     * @return variant of the game
+     */
+    public Variant getVariant() {
+        return variant;
+    }
+    
+    /**
+     * Gets the metrics the game is recorded in
+     * @return metrics, or null if the game is not recorded
+     */
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Sets the metrics the game's deals, draws and scores are recorded in,
+     * which may be shared with other games
+     * @param metrics metrics to record in, or null to stop recording
+     */
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    /**
+     * Gets the session the game belongs to
+     * @return session id, or 0 if none was set
+     */
+    public long getSessionId() {
+        return sessionId;
+    }
+    
+    /**
+     * Sets the session the game belongs to, which is given in its flight
+     * recorder events
+     * @param sessionId session id
+     */
+    public void setSessionId(long sessionId) {
+        this.sessionId = sessionId;
+    }
+    
+    /**
+     * Gets the cache the best hold is looked up in
+     * @return cache, or null if the best hold is always solved
+     */
+    public ExpectedPayoutCache getPayoutCache() {
+        return payoutCache;
+    }
+    
+    /**
+     * Sets the cache the best hold is looked up in, which may be shared
+     * with other games of the same variant
+     * @param payoutCache cache to look up in, or null to always solve
+     * @throws IllegalArgumentException when the cache is for another variant
+     */
+    public void setPayoutCache(ExpectedPayoutCache payoutCache) {
+        if (payoutCache != null && payoutCache.getVariant() != variant) {
+            throw new IllegalArgumentException("Cache is for another variant");
+        }
+        this.payoutCache = payoutCache;
+    }
+    
+    /**
+     * Gets the category of the current hand, which only has a meaning for
+     * variants without wild cards; use getPayCategory() for the others
+     * @return category the hand would be scored as
+     * @throws IllegalStateException when the variant has wild cards
+     */
+    public HandRank getHandRank() {
+        if (variant.getWild() != Variant.Wild.NONE) {
+            throw new IllegalStateException("Variant has wild cards");
+        }
+        return hand.classify();
+    }
+    
+    /**
+     * Gets the category of the current hand under the game's variant
+     * @return category the hand is scored as
+     */
+    public PayCategory getPayCategory() {
+        return variant.evaluate(hand);
+    }
+    
     /**
      * Sets up a new game by shuffling the deck,
-     * subtracting player points by ten, and 
+     * subtracting the cost of a game from the player points, and 
      * filling the hand with new cards
      */  
     public void newGame() {
-        points -= POINTS_FOR_NEW_GAME;
+        GameEvents.Deal event = new GameEvents.Deal();
+        event.begin();
+        GameMetrics recorder = metrics;
+        long start = recorder == null ? 0 : System.nanoTime();
+        points -= variant.getCost();
         deck.shuffle();
         Card[] cardsInHand = new Card[CARDS_IN_HAND];
         for (int i = 0; i < CARDS_IN_HAND; ++i) {
             cardsInHand[i] = deck.nextCard();
         }
         hand = new Hand(cardsInHand);
+        if (recorder != null) {
+            recorder.recordDeal(System.nanoTime() - start, variant.getCost());
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.sessionId = sessionId;
+            event.hand = hand.toString();
+            event.cost = variant.getCost();
+            event.points = points;
+            event.commit();
+        }
     }
     
     /**
@@ -110,7 +264,31 @@ public class VideoPoker {
      * @param index of the card in the hand
      */  
     public void replaceCard(int index) {
+        GameEvents.Draw event = new GameEvents.Draw();
+        event.begin();
+        GameMetrics recorder = metrics;
+        long start = recorder == null ? 0 : System.nanoTime();
         hand.replace(index, deck.nextCard());
+        if (recorder != null) {
+            recorder.recordDraw(System.nanoTime() - start);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.sessionId = sessionId;
+            event.index = index;
+            event.card = hand.getCard(index).toString();
+            event.commit();
+        }
+    }
+    
+    /**
+     * Finds which cards of the current hand to hold for the highest
+     * expected payout after drawing, under the game's variant
+     * @return hold mask with bit i set when card i should be kept
+     */
+    public int getBestHold() {
+        ExpectedPayoutCache cache = payoutCache;
+        return cache == null ? HoldSolver.bestHold(hand, variant) : cache.bestHold(hand);
     }
     
     /**
@@ -120,46 +298,55 @@ public class VideoPoker {
      * @return string containing hand's results
      */  
     public String scoreHand() {
-        String s = "";
-        if (hand.isRoyalFlush()){
-            s = "Royal Flush";
-            points += ROYAL_FLUSH;
-        }
-        else if (hand.isStraightFlush()) {
-            s = "Straight Flush";
-            points += STRAIGHT_FLUSH;
-        }
-        else if (hand.hasFourOfAKind()) {
-            s = "Four of a Kind";
-            points += FOUR_OF_A_KIND;
+        GameEvents.Score event = new GameEvents.Score();
+        event.begin();
+        GameMetrics recorder = metrics;
+        long start = recorder == null ? 0 : System.nanoTime();
+        PayCategory category = variant.evaluate(hand);
+        int payout = variant.getPayout(category);
+        points += payout;
+        if (recorder != null) {
+            recorder.recordScore(System.nanoTime() - start, category, payout);
         }
-        else if (hand.isFullHouse()) {
-            s = "Full House";
-            points += FULL_HOUSE;
+        event.end();
+        if (event.shouldCommit()) {
+            event.sessionId = sessionId;
+            event.hand = hand.toString();
+            event.category = category.name();
+            event.payout = payout;
+            event.points = points;
+            event.commit();
         }
-        else if (hand.isFlush()) {
-            s = "Flush";
-            points += FLUSH;
-        }
-        else if (hand.isStraight()) {
-            s = "Straight";
-            points += STRAIGHT;
-        }
-        else if (hand.hasThreeOfAKind()) {
-            s = "Three of a Kind";
-            points += THREE_OF_A_KIND;
-        }
-        else if (hand.hasTwoPairs()) {
-            s = "Two Pairs";
-            points += TWO_PAIRS;
-        }
-        else if (hand.hasOnePair()) {
-            s = "One Pair";
-            points += ONE_PAIR;
-        }
-        else {
-            s = "No Pair";
+        return variant.getLabel(category);
+    }
+    
+    /**
+     * Gets the points awarded for a category of hand
+     * @param rank category of hand
+     * @return points awarded for the category
+     */
+    public static int getPayout(HandRank rank) {
+        switch (rank) {
+            case ROYAL_FLUSH:
+                return ROYAL_FLUSH;
+            case STRAIGHT_FLUSH:
+                return STRAIGHT_FLUSH;
+            case FOUR_OF_A_KIND:
+                return FOUR_OF_A_KIND;
+            case FULL_HOUSE:
+                return FULL_HOUSE;
+            case FLUSH:
+                return FLUSH;
+            case STRAIGHT:
+                return STRAIGHT;
+            case THREE_OF_A_KIND:
+                return THREE_OF_A_KIND;
+            case TWO_PAIRS:
+                return TWO_PAIRS;
+            case ONE_PAIR:
+                return ONE_PAIR;
+            default:
+                return 0;
         }
-        return s;
     }
 }
\ No newline at end of file
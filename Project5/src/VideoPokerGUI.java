@@ -1,6 +1,8 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 /**
  * Video Poker Game Graphical User Interface
@@ -28,6 +30,9 @@ public class VideoPokerGUI extends JFrame implements ActionListener {
     /** Width of text */
     public static final int TEXT_WIDTH = 10;
 
+    /** Directory holding the card images */
+    public static final String CARD_DIRECTORY = "cards";
+
     /** Displays number of points */
     private JLabel lblPoints;
     
@@ -37,8 +42,8 @@ public class VideoPokerGUI extends JFrame implements ActionListener {
     /** Cards to be displayed */
     private JLabel[] cards;
     
-    /** Icons (images) for cards */
-    private ImageIcon[] icons;
+    /** Icons (images) for every card, loaded once at startup */
+    private CardImages images;
     
     /** Replace buttons for cards */
     private JButton[] btnCards;
@@ -64,6 +69,13 @@ public class VideoPokerGUI extends JFrame implements ActionListener {
 
         pm = new VideoPoker(seed);
 
+        try {
+            images = CardImages.load(Paths.get(CARD_DIRECTORY));
+        } catch (IOException e) {
+            System.out.println("Unable to load card images: " + e.getMessage());
+            System.exit(1);
+        }
+
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setSize(WIDTH, HEIGHT);
         setLocation(X, Y);
@@ -87,14 +99,12 @@ public class VideoPokerGUI extends JFrame implements ActionListener {
         JPanel pnlCards = new JPanel();
         pnlCards.setLayout(new GridLayout(2,VideoPoker.CARDS_IN_HAND));
         cards = new JLabel[VideoPoker.CARDS_IN_HAND];
-        icons = new ImageIcon[VideoPoker.CARDS_IN_HAND];
         btnCards = new JButton[VideoPoker.CARDS_IN_HAND];
 
         for(int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
 
-            icons[i] = new ImageIcon("cards/h" + (i + 10) + ".gif");
             cards[i] = new JLabel();
-            cards[i].setIcon(icons[i]);
+            cards[i].setIcon(images.getIcon(Card.of(i + 10, Card.HEARTS)));
             JPanel panel = new JPanel();
             panel.add(cards[i]);
             pnlCards.add(panel);
@@ -148,8 +158,7 @@ public class VideoPokerGUI extends JFrame implements ActionListener {
             btnScoreHand.setEnabled(true);
 
             for(int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
-                icons[i] = new ImageIcon(pm.getCardFileName(i));
-                cards[i].setIcon(icons[i]);
+                cards[i].setIcon(images.getIcon(pm.getCard(i)));
                 btnCards[i].setEnabled(true);
             }
 
@@ -164,8 +173,7 @@ public class VideoPokerGUI extends JFrame implements ActionListener {
             btnScoreHand.setEnabled(false);
 
             for(int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
-                icons[i] = new ImageIcon(pm.getCardFileName(i));
-                cards[i].setIcon(icons[i]);
+                cards[i].setIcon(images.getIcon(pm.getCard(i)));
             }
             txtScore.setText(pm.scoreHand());
             lblPoints.setText("Points: " + pm.getPoints());
@@ -0,0 +1,117 @@
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests BatchScorer class
+ * @author Cole Sanders
+ */
+public class BatchScorerTest {
+
+    /** number of hands scored */
+    private static final int HANDS = 2000;
+
+    /**
+     * Tests that both batch paths agree with scoring one hand at a time
+     */
+    @Test
+    public void testScore() {
+        Deck deck = new Deck(new java.util.SplittableRandom(9));
+        Hand[] hands = new Hand[HANDS];
+        long[] bits = new long[HANDS];
+        for (int i = 0; i < HANDS; i++) {
+            deck.shuffle();
+            Card[] cards = new Card[Hand.CARDS_IN_HAND];
+            for (int j = 0; j < cards.length; j++) {
+                cards[j] = deck.nextCard();
+            }
+            hands[i] = new Hand(cards);
+            bits[i] = CardSet.of(hands[i]).getBits();
+        }
+        byte[] ranks = new byte[HANDS];
+        int[] payouts = new int[HANDS];
+        byte[] bitRanks = new byte[HANDS];
+        int[] bitPayouts = new int[HANDS];
+        long total = BatchScorer.score(BatchScorer.pack(hands), HANDS, ranks, payouts);
+        long bitTotal = BatchScorer.score(bits, HANDS, bitRanks, bitPayouts);
+        long expected = 0;
+        for (int i = 0; i < HANDS; i++) {
+            HandRank rank = hands[i].classify();
+            assertEquals(rank.ordinal(), ranks[i], "Rank of " + hands[i]);
+            assertEquals(VideoPoker.getPayout(rank), payouts[i], "Payout of " + hands[i]);
+            expected += payouts[i];
+        }
+        assertEquals(expected, total, "Total payout");
+        assertArrayEquals(ranks, bitRanks, "Ranks from bits");
+        assertArrayEquals(payouts, bitPayouts, "Payouts from bits");
+        assertEquals(total, bitTotal, "Total payout from bits");
+    }
+
+    /**
+     * Tests that the Vector API kernel scores every hand of a range the
+     * same as the scalar loop, including the hands after its last whole
+     * vector. Skipped unless VectorBatchKernel is compiled and the JVM has
+     * the jdk.incubator.vector module.
+     */
+    @Test
+    public void testVectorKernel() {
+        BatchScorer.Kernel vector = BatchScorer.getVectorKernel();
+        assumeTrue(vector != null, "Vector API kernel not loaded");
+        assertTrue(BatchScorer.isVectorized(), "Vectorized");
+        java.util.SplittableRandom rng = new java.util.SplittableRandom(4);
+        Hand[] hands = new Hand[HANDS + 3];
+        for (int i = 0; i < hands.length; i++) {
+            // every seventh hand is one suit, so the flush lanes are covered
+            int suit = i % 7 == 0 ? rng.nextInt(CardSet.SUITS) : -1;
+            long cards = 0;
+            while (Long.bitCount(cards) < Hand.CARDS_IN_HAND) {
+                cards |= CardSet.bit(suit < 0 ? rng.nextInt(Deck.CARDS_IN_DECK)
+                                              : suit * Card.VALUES_IN_SUIT
+                                                + rng.nextInt(Card.VALUES_IN_SUIT));
+            }
+            hands[i] = new CardSet(cards).toHand();
+        }
+        int[][] columns = BatchScorer.pack(hands);
+        for (int from : new int[] {0, 1, 5}) {
+            byte[] ranks = new byte[hands.length];
+            int[] payouts = new int[hands.length];
+            byte[] vectorRanks = new byte[hands.length];
+            int[] vectorPayouts = new int[hands.length];
+            assertEquals(BatchScorer.SCALAR.score(columns, from, hands.length, ranks, payouts),
+                         vector.score(columns, from, hands.length, vectorRanks, vectorPayouts),
+                         "Total payout from " + from);
+            assertArrayEquals(ranks, vectorRanks, "Ranks from " + from);
+            assertArrayEquals(payouts, vectorPayouts, "Payouts from " + from);
+        }
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> BatchScorer.score(new int[4][10], 10, new byte[10], new int[10]), 
+            "score() four columns");
+        assertEquals("Invalid column count", exception.getMessage(), 
+                     "score() four columns message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> BatchScorer.score(new long[10], 10, new byte[5], new int[10]), 
+            "score() short output");
+        assertEquals("Invalid count", exception.getMessage(), "score() short output message");
+
+        long[] hands = {CardSet.valueMask(Card.HIGHEST_VALUE) | CardSet.bit(0),
+                        CardSet.valueMask(Card.HIGHEST_VALUE)};
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> BatchScorer.score(hands, 2, new byte[2], new int[2]), "score() four cards");
+        assertEquals("Invalid hand", exception.getMessage(), "score() four cards message");
+
+        hands[1] = CardSet.bit(Card.JOKER_INDEX) | CardSet.bit(1) | CardSet.bit(2)
+                   | CardSet.bit(3) | CardSet.bit(4);
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> BatchScorer.score(hands, 2, new byte[2], new int[2]), "score() joker");
+        assertEquals("Invalid hand", exception.getMessage(), "score() joker message");
+    }
+}
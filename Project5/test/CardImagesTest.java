@@ -0,0 +1,84 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.swing.ImageIcon;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests CardImages class
+ * @author Cole Sanders
+ */
+public class CardImagesTest {
+
+    /**
+     * Tests that the images load from the bundled archive and from the
+     * individual files alike
+     * @param directory directory the individual files are copied to
+     * @throws IOException if the images cannot be loaded
+     */
+    @Test
+    public void testLoad(@TempDir Path directory) throws IOException {
+        Path cards = Paths.get(VideoPokerGUI.CARD_DIRECTORY);
+        for (int i = 0; i < Deck.CARDS_IN_DECK; i++) {
+            String name = Card.fromIndex(i) + ".gif";
+            Files.copy(cards.resolve(name), directory.resolve(name));
+        }
+        Files.copy(cards.resolve("blank.gif"), directory.resolve("blank.gif"));
+
+        CardImages archived = CardImages.load(cards);
+        CardImages loose = CardImages.load(directory);
+        for (int i = 0; i < Deck.CARDS_IN_DECK; i++) {
+            Card card = Card.fromIndex(i);
+            ImageIcon icon = archived.getIcon(card);
+            assertEquals(card.toString(), icon.getDescription(), "Face of " + card);
+            assertTrue(icon.getIconWidth() > 0 && icon.getIconHeight() > 0, "Size of " + card);
+            assertSame(icon, archived.getIcon(new Card(card.getValue(), card.getSuit())),
+                       "Same icon for equal cards");
+            assertEquals(icon.getIconWidth(), loose.getIcon(card).getIconWidth(),
+                         "Same width from files");
+        }
+        assertEquals("blank", archived.getBlank().getDescription(), "Blank card");
+
+        ImageIcon joker = archived.getIcon(Card.JOKER);
+        assertEquals("joker", joker.getDescription(), "Drawn joker");
+        assertEquals(archived.getBlank().getIconWidth(), joker.getIconWidth(), "Joker width");
+        assertEquals(archived.getBlank().getIconHeight(), joker.getIconHeight(), "Joker height");
+        assertSame(joker, archived.getIcon(Card.JOKER), "Same joker icon");
+
+        Files.copy(cards.resolve("s14.gif"), directory.resolve("joker.gif"));
+        CardImages withJoker = CardImages.load(directory);
+        BufferedImage ace = (BufferedImage) withJoker.getIcon(new Card(14,'s')).getImage();
+        BufferedImage face = (BufferedImage) withJoker.getIcon(Card.JOKER).getImage();
+        assertEquals("joker", withJoker.getIcon(Card.JOKER).getDescription(), "Joker file");
+        for (int x = 0; x < ace.getWidth(); x++) {
+            for (int y = 0; y < ace.getHeight(); y++) {
+                assertEquals(ace.getRGB(x, y), face.getRGB(x, y), "Joker read from its file");
+            }
+        }
+    }
+
+    /**
+     * Tests exceptions
+     * @param directory empty directory
+     * @throws IOException if the images cannot be loaded
+     */
+    @Test
+    public void testExceptions(@TempDir Path directory) throws IOException {
+        Exception exception = assertThrows(IOException.class,
+            () -> CardImages.load(directory), "Missing images");
+        assertEquals("Missing card image: c2.gif", exception.getMessage(),
+                     "Missing images message");
+
+        CardImages images = CardImages.load(Paths.get(VideoPokerGUI.CARD_DIRECTORY));
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> images.getIcon(null), "Null card");
+        assertEquals("Null card", exception.getMessage(), "Null card message");
+    }
+}
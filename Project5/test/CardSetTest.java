@@ -0,0 +1,146 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests CardSet class
+ * @author Cole Sanders
+ */
+public class CardSetTest {
+
+    /** hand for testing */
+    private Hand hand;
+
+    /** set holding the cards of the hand */
+    private CardSet set;
+
+    /**
+     * Creates hand and set for testing
+     */
+    @BeforeEach
+    public void setUp() {
+        Card[] cards = {new Card(2,'c'), new Card(3,'d'), new Card(4,'s'), new Card(5,'h'), 
+                        new Card(6,'c')};
+        hand = new Hand(cards);
+        set = CardSet.of(hand);
+    }
+
+    /**
+     * Tests converting to and from cards, hands and decks
+     */
+    @Test
+    public void testConversions() {
+        assertEquals(5, set.size(), "size of hand set");
+        assertEquals("[c2, c6, d3, h5, s4]", set.toString(), "toString in index order");
+        assertEquals(hand, set.toHand(), "toHand gives back the hand");
+        assertEquals(set, CardSet.of(set.toCards()), "of toCards gives back the set");
+        assertEquals(CardSet.FULL_DECK, CardSet.of(new Deck(1)).getBits(), "new deck");
+        Deck deck = new Deck(1);
+        deck.nextCard();
+        assertFalse(CardSet.of(deck).contains(new Card(2, 'c')), "dealt card not in deck");
+        assertEquals(51, CardSet.of(deck).size(), "deck after dealing one card");
+    }
+
+    /**
+     * Tests the set operations
+     */
+    @Test
+    public void testSetOperations() {
+        CardSet other = CardSet.of(new Card(2,'c'), new Card(14,'s'));
+        assertTrue(set.contains(new Card(4,'s')), "contains card in set");
+        assertFalse(set.contains(new Card(14,'s')), "does not contain card not in set");
+        assertEquals(6, set.union(other).size(), "union");
+        assertEquals(CardSet.of(new Card(2,'c')), set.intersect(other), "intersect");
+        assertEquals(4, set.minus(other).size(), "minus");
+        assertTrue(set.union(other).containsAll(set), "union contains set");
+        assertFalse(set.containsAll(other), "set does not contain other");
+        assertEquals(CardSet.of(new Card(2,'c'), new Card(6,'c')), set.ofSuit('c'), "ofSuit");
+        assertEquals(CardSet.of(new Card(4,'s')), set.ofValue(4), "ofValue");
+        assertEquals(set.hashCode(), CardSet.of(hand).hashCode(), "hashCode");
+    }
+
+    /**
+     * Tests the per-suit and per-value masks
+     */
+    @Test
+    public void testMasks() {
+        assertEquals(13, Long.bitCount(CardSet.suitMask('h')), "cards in suit");
+        assertEquals(4, Long.bitCount(CardSet.valueMask(14)), "cards with value");
+        assertEquals(0b11111, CardSet.values(set.getBits()), "values two to six");
+        assertEquals(0b10001, CardSet.valuesInSuit(set.getBits(), 0), "clubs two and six");
+        long pairs = CardSet.of(new Card(3,'c'), new Card(9,'s'), new Card(5,'d'), 
+                                new Card(5,'s'), new Card(3,'s')).getBits();
+        assertEquals(0b1010, CardSet.valuesWithCount(pairs, 2), "pairs of threes and fives");
+        assertEquals(0b10000000, CardSet.valuesWithCount(pairs, 1), "single nine");
+        assertEquals(0, CardSet.valuesWithCount(pairs, 3), "no three of a kind");
+    }
+
+    /**
+     * Tests flush and straight detection
+     */
+    @Test
+    public void testFlushAndStraight() {
+        assertTrue(CardSet.isStraight(set.getBits()), "straight");
+        assertFalse(CardSet.isFlush(set.getBits()), "not flush");
+        long flush = CardSet.of(new Card(2,'c'), new Card(3,'c'), new Card(10,'c'), 
+                                new Card(12,'c'), new Card(6,'c')).getBits();
+        assertTrue(CardSet.isFlush(flush), "flush");
+        assertFalse(CardSet.isStraight(flush), "not straight");
+        long wheel = CardSet.of(new Card(14,'c'), new Card(2,'s'), new Card(3,'d'), 
+                                new Card(4,'s'), new Card(5,'s')).getBits();
+        assertFalse(CardSet.isStraight(wheel), "ace counts high only");
+    }
+
+    /**
+     * Tests that classifying with bit operations agrees with the table
+     * for every hand in the deck
+     */
+    @Test
+    public void testEvaluateAllHands() {
+        for (int a = 0; a < Deck.CARDS_IN_DECK; a++) {
+            for (int b = a + 1; b < Deck.CARDS_IN_DECK; b++) {
+                for (int c = b + 1; c < Deck.CARDS_IN_DECK; c++) {
+                    for (int d = c + 1; d < Deck.CARDS_IN_DECK; d++) {
+                        for (int e = d + 1; e < Deck.CARDS_IN_DECK; e++) {
+                            int sum = key(a) + key(b) + key(c) + key(d) + key(e);
+                            boolean flush = a / 13 == e / 13;
+                            long bits = CardSet.bit(a) | CardSet.bit(b) | CardSet.bit(c) 
+                                        | CardSet.bit(d) | CardSet.bit(e);
+                            if (HandEvaluator.evaluate(sum, flush) != HandEvaluator.evaluate(bits)) {
+                                fail("Mismatch for " + new CardSet(bits));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> CardSet.of(new Card(2,'c'), new Card(2,'c')), "of() duplicate card");
+        assertEquals("Duplicate card", exception.getMessage(), "of() duplicate card message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new CardSet(1L << 52), "Constructor invalid bits");
+        assertEquals("Invalid bits", exception.getMessage(), "Constructor invalid bits message");
+
+        exception = assertThrows(IllegalStateException.class,
+            () -> CardSet.EMPTY.toHand(), "toHand() empty set");
+        assertEquals("Not a hand", exception.getMessage(), "toHand() empty set message");
+    }
+
+    /**
+     * Gets the value key of the card with an index
+     * @param index index of the card
+     * @return key of the card's value
+     */
+    private int key(int index) {
+        return HandEvaluator.getKey(Card.LOWEST_VALUE + index % Card.VALUES_IN_SUIT);
+    }
+}
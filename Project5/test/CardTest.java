@@ -133,6 +133,61 @@ public class CardTest {
         assertEquals(-4, fiveOfDiamonds.compareTo(fiveOfHearts), "compare Diamonds 5 to Hearts 5");
     }
 
+    /**
+     * Tests getIndex() and fromIndex()
+     */
+    @Test
+    public void testIndex() {
+        assertEquals(26, twoOfHearts.getIndex(), "twoOfHearts index");
+        assertEquals(44, sevenOfSpades.getIndex(), "sevenOfSpades index");
+        assertEquals(twoOfHearts, Card.fromIndex(26), "card at index 26");
+        for (int i = 0; i < 52; i++) {
+            assertEquals(i, Card.fromIndex(i).getIndex(), "index " + i);
+        }
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> Card.fromIndex(52), "fromIndex() index 52");
+        assertEquals("Invalid index", exception.getMessage(), "fromIndex() index 52 message");
+    }
+
+    /**
+     * Tests that Card.of() returns the shared instances and that cards
+     * work as hash keys
+     */
+    @Test
+    public void testOf() {
+        assertSame(Card.of(2, 'h'), Card.of(2, 'h'), "same instance");
+        assertSame(Card.fromIndex(44), Card.of(7, 's'), "fromIndex() shares instances");
+        assertEquals(twoOfHearts, Card.of(2, 'h'), "equal to constructed card");
+        assertEquals(twoOfHearts.hashCode(), Card.of(2, 'h').hashCode(), "equal hash codes");
+        java.util.Set<Card> set = new java.util.HashSet<>();
+        for (int i = 0; i < 52; i++) {
+            set.add(Card.fromIndex(i));
+            set.add(new Card(Card.fromIndex(i).getValue(), Card.fromIndex(i).getSuit()));
+        }
+        assertEquals(52, set.size(), "52 distinct cards");
+        assertTrue(set.contains(sevenOfSpades), "set contains constructed card");
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> Card.of(15, 'h'), "of() value 15");
+        assertEquals("Invalid value", exception.getMessage(), "of() value 15 message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> Card.of(2, 'x'), "of() suit x");
+        assertEquals("Invalid suit", exception.getMessage(), "of() suit x message");
+    }
+
+    /**
+     * Tests the joker
+     */
+    @Test
+    public void testJoker() {
+        assertTrue(Card.JOKER.isJoker(), "joker");
+        assertFalse(twoOfHearts.isJoker(), "two of hearts");
+        assertEquals(Card.JOKER_INDEX, Card.JOKER.getIndex(), "index after the suited cards");
+        assertEquals(Card.JOKER_SUIT, Card.JOKER.getSuit(), "suit");
+        assertEquals("joker", Card.JOKER.toString(), "toString");
+        assertTrue(Card.JOKER.compareTo(twoOfHearts) < 0, "sorts below the twos");
+        assertNotEquals(Card.JOKER, Card.fromIndex(51), "not the ace of spades");
+    }
+
     /**
      * Tests exceptions
      */
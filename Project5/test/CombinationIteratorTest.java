@@ -0,0 +1,152 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests CombinationIterator class
+ * @author Cole Sanders
+ */
+public class CombinationIteratorTest {
+
+    /** Scattered cards used by several tests */
+    private static final long CARDS = 0x000F_00F0_0F00_F0F0L;
+
+    /**
+     * Tests that every combination is visited once in rank order
+     */
+    @Test
+    public void testIterate() {
+        for (int k = 0; k <= 4; ++k) {
+            CombinationIterator iterator = new CombinationIterator(CARDS, k);
+            Set<Long> seen = new HashSet<Long>();
+            long rank = 0;
+            while (iterator.hasNext()) {
+                assertEquals(rank, iterator.getRank(), "rank before next");
+                long combination = iterator.nextLong();
+                assertEquals(k, Long.bitCount(combination), "size");
+                assertEquals(0, combination & ~CARDS, "available cards only");
+                assertTrue(seen.add(combination), "no repeats");
+                assertEquals(rank, iterator.rank(combination), "rank");
+                assertEquals(combination, iterator.unrank(rank), "unrank");
+                ++rank;
+            }
+            assertEquals(CombinationIterator.count(Long.bitCount(CARDS), k), rank, "count");
+            assertEquals(0, iterator.remaining(), "none left");
+        }
+        assertEquals(2598960, new CombinationIterator(CardSet.FULL_DECK, 5).remaining(),
+                     "five card hands");
+    }
+
+    /**
+     * Tests iterating the undealt cards of a deck
+     */
+    @Test
+    public void testUndealt() {
+        Deck deck = new Deck(VideoPoker.RANDOM_GAME);
+        long dealt = 0;
+        for (int i = 0; i < 5; ++i) {
+            dealt |= CardSet.bit(deck.nextCard().getIndex());
+        }
+        CombinationIterator iterator = CombinationIterator.ofUndealt(deck, 2);
+        assertEquals(CombinationIterator.count(47, 2), iterator.remaining(), "pairs of 47");
+        while (iterator.hasNext()) {
+            assertEquals(0, iterator.nextLong() & dealt, "no dealt cards");
+        }
+    }
+
+    /**
+     * Tests splitting and seeking
+     */
+    @Test
+    public void testSplit() {
+        CombinationIterator whole = new CombinationIterator(CARDS, 3);
+        whole.nextLong();
+        CombinationIterator[] parts = whole.split(7);
+        assertEquals(1, parts[0].getFrom(), "starts at the current rank");
+        assertEquals(whole.getTo(), parts[parts.length - 1].getTo(), "ends with the range");
+        long size = whole.remaining();
+        for (int i = 0; i < parts.length; ++i) {
+            long part = parts[i].remaining();
+            assertTrue(part == size / parts.length || part == size / parts.length + 1,
+                       "balanced");
+            if (i > 0) {
+                assertEquals(parts[i - 1].getTo(), parts[i].getFrom(), "consecutive");
+            }
+            while (parts[i].hasNext()) {
+                assertEquals(whole.nextLong(), parts[i].nextLong(), "same combinations");
+            }
+        }
+        assertFalse(whole.hasNext(), "all covered");
+
+        CombinationIterator small = new CombinationIterator(CARDS, 2, 0, 3);
+        assertEquals(3, small.split(5)[4].getFrom(), "empty parts at the end");
+        assertEquals(0, small.split(5)[4].remaining(), "empty part");
+
+        CombinationIterator resumed = new CombinationIterator(CARDS, 3);
+        resumed.seek(100);
+        assertEquals(resumed.unrank(100), resumed.nextLong(), "seek");
+        assertEquals(101, resumed.getRank(), "rank after seek");
+    }
+
+    /**
+     * Tests binomial counts at the edges of the table
+     */
+    @Test
+    public void testCount() {
+        assertEquals(1, CombinationIterator.count(0, 0), "empty");
+        assertEquals(0, CombinationIterator.count(5, 6), "too many");
+        assertEquals(0, CombinationIterator.count(5, -1), "negative");
+        assertEquals(1712304, CombinationIterator.count(48, 5), "boards");
+        assertEquals(1832624140942590534L, CombinationIterator.count(64, 32), "largest");
+
+        CombinationIterator top = new CombinationIterator(Long.MAX_VALUE, 62);
+        assertEquals(Long.MAX_VALUE >>> 1, top.nextLong(), "first of 63");
+        top.seek(top.getTo() - 1);
+        assertEquals(Long.MAX_VALUE - 1, top.nextLong(), "last of 63");
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> new CombinationIterator(-1, 1), "Top bit");
+        assertEquals("Invalid cards", exception.getMessage(), "Top bit message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new CombinationIterator(0xF, 5), "Too many");
+        assertEquals("Invalid combination size", exception.getMessage(), "Too many message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new CombinationIterator(0xF, 2, 3, 7), "Past the end");
+        assertEquals("Invalid range", exception.getMessage(), "Past the end message");
+
+        CombinationIterator iterator = new CombinationIterator(0xF, 2, 1, 3);
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> iterator.seek(0), "Before the range");
+        assertEquals("Invalid rank", exception.getMessage(), "Before the range message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> iterator.unrank(6), "Rank too large");
+        assertEquals("Invalid rank", exception.getMessage(), "Rank too large message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> iterator.rank(0x10 | 0x1), "Unavailable card");
+        assertEquals("Invalid combination", exception.getMessage(), "Unavailable card message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> iterator.split(0), "No parts");
+        assertEquals("Invalid part count", exception.getMessage(), "No parts message");
+
+        iterator.nextLong();
+        iterator.nextLong();
+        exception = assertThrows(NoSuchElementException.class,
+            () -> iterator.nextLong(), "Exhausted");
+        assertEquals("No more combinations", exception.getMessage(), "Exhausted message");
+    }
+}
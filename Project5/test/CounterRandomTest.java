@@ -0,0 +1,71 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests CounterRandom class
+ * @author Cole Sanders
+ */
+public class CounterRandomTest {
+
+    /**
+     * Tests the Philox4x32-10 known answers published with Random123
+     */
+    @Test
+    public void testKnownAnswers() {
+        int[] output = new int[4];
+        CounterRandom.philox(0, 0, 0, output);
+        assertArrayEquals(new int[] {0x6627e8d5, 0xe169c58d, 0xbc57ac4c, 0x9b00dbd8}, output,
+                          "Zero counter and key");
+        CounterRandom.philox(-1L, -1L, -1L, output);
+        assertArrayEquals(new int[] {0x408f276d, 0x41c83b0e, 0xa20bc7c6, 0x6d5451fd}, output,
+                          "All ones");
+        CounterRandom.philox(0x85a308d3243f6a88L, 0x0370734413198a2eL, 0x299f31d0a4093822L,
+                             output);
+        assertArrayEquals(new int[] {0xd16cfe09, 0x94fdcceb, 0x5001e420, 0x24126ea1}, output,
+                          "Digits of pi");
+    }
+
+    /**
+     * Tests that a game's stream can be regenerated without the games
+     * before it
+     */
+    @Test
+    public void testSetGame() {
+        CounterRandom rng = new CounterRandom(42);
+        long[][] streams = new long[4][10];
+        for (int game = 0; game < streams.length; game++) {
+            rng.setGame(game);
+            for (int i = 0; i < streams[game].length; i++) {
+                streams[game][i] = rng.nextLong();
+            }
+        }
+        CounterRandom other = new CounterRandom(42);
+        other.setGame(3);
+        assertEquals(3, other.getGame(), "Game");
+        for (int i = 0; i < streams[3].length; i++) {
+            assertEquals(streams[3][i], other.nextLong(), "Number " + i + " of game 3");
+        }
+        assertNotEquals(streams[0][0], streams[1][0], "Games have different streams");
+        assertNotEquals(streams[0][0], new CounterRandom(43).nextLong(), "Different seed");
+        assertEquals(42, rng.getSeed(), "Seed");
+    }
+
+    /**
+     * Tests that bounded ints are in range and roughly uniform
+     */
+    @Test
+    public void testBounded() {
+        CounterRandom rng = new CounterRandom(7);
+        int[] counts = new int[52];
+        for (int i = 0; i < 52000; i++) {
+            counts[rng.nextInt(52)]++;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            assertTrue(counts[i] > 850 && counts[i] < 1150, "Count of " + i);
+        }
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> rng.nextInt(0), "Zero bound");
+        assertEquals("Invalid bound", exception.getMessage(), "Zero bound message");
+    }
+}
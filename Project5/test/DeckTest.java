@@ -73,6 +73,112 @@ public class DeckTest {
         assertNotSame(deckString, deck.toString(), "deck should change when shuffled");
     }
 
+    /**
+     * Tests that a seeded deck deals the same cards CardsFromDeck has always
+     * printed, and keeps doing so when reused for another game
+     */
+    @Test
+    public void testShuffleSeeded() {
+        deck.shuffle();
+        String first = "";
+        for (int i = 0; i < 10; i++) {
+            first += deck.nextCard() + " ";
+        }
+        assertEquals("s7 h2 d5 h8 h4 h5 d13 h9 d14 s3 ", first, "first ten cards with seed 1");
+        Deck other = new Deck(1);
+        other.shuffle();
+        other.shuffle();
+        deck.shuffle();
+        assertEquals(other, deck, "second shuffle matches a fresh deck shuffled twice");
+    }
+
+    /**
+     * Tests that a lazy deck deals every card exactly once and is
+     * reproducible for a given generator seed
+     */
+    @Test
+    public void testLazyShuffle() {
+        Deck lazy = new Deck(new java.util.SplittableRandom(3), true);
+        Deck same = new Deck(new java.util.SplittableRandom(3), true);
+        lazy.shuffle();
+        same.shuffle();
+        long dealt = 0;
+        for (int i = 0; i < 52; i++) {
+            Card card = lazy.nextCard();
+            assertEquals(card, same.nextCard(), "same card for same seed");
+            dealt |= 1L << card.getIndex();
+        }
+        assertEquals(52, Long.bitCount(dealt), "every card dealt once");
+        lazy.shuffle();
+        String order = "";
+        for (int i = 0; i < 5; i++) {
+            order += lazy.nextCard();
+        }
+        assertNotEquals(order, "c2c3c4c5c6", "second game is shuffled");
+    }
+
+    /**
+     * Shuffles a deck and lists the first ten cards dealt
+     * @param deck deck to deal from
+     * @return the cards dealt
+     */
+    private static String deal(Deck deck) {
+        deck.shuffle();
+        String dealt = "";
+        for (int i = 0; i < 10; i++) {
+            dealt += deck.nextCard();
+        }
+        return dealt;
+    }
+
+    /**
+     * Tests that a counter-based deck deals every game from a new deck and
+     * can jump straight to any game
+     */
+    @Test
+    public void testCounterDeck() {
+        for (boolean lazy : new boolean[] {false, true}) {
+            Deck sequential = new Deck(new CounterRandom(9), lazy);
+            String[] games = new String[6];
+            for (int game = 0; game < games.length; game++) {
+                games[game] = deal(sequential);
+            }
+            assertNotEquals(games[0], games[1], "games differ");
+            assertEquals(games.length, sequential.getGame(), "next game");
+
+            Deck seeking = new Deck(new CounterRandom(9), lazy);
+            for (int game = games.length - 1; game >= 0; game--) {
+                seeking.seekGame(game);
+                assertEquals(games[game], deal(seeking), "game " + game);
+            }
+        }
+        assertNotEquals(deal(new Deck(new CounterRandom(9))), 
+                        deal(new Deck(new CounterRandom(10))), "different seed");
+    }
+
+    /**
+     * Tests that a deck with the joker deals it once along with the other
+     * 52 cards
+     */
+    @Test
+    public void testJokerDeck() {
+        for (boolean lazy : new boolean[] {false, true}) {
+            Deck joker = new Deck(new java.util.SplittableRandom(4), lazy, true);
+            assertEquals(Deck.CARDS_WITH_JOKER, joker.size(), "53 cards");
+            joker.shuffle();
+            assertEquals((1L << Deck.CARDS_WITH_JOKER) - 1, joker.getRemainingBits(),
+                         "every card and the joker remain");
+            java.util.Set<Card> dealt = new java.util.HashSet<>();
+            for (int i = 0; i < Deck.CARDS_WITH_JOKER; i++) {
+                dealt.add(joker.nextCard());
+            }
+            assertTrue(dealt.contains(Card.JOKER), "joker dealt");
+            assertEquals(Deck.CARDS_WITH_JOKER, dealt.size(), "no card dealt twice");
+            assertThrows(IllegalStateException.class, () -> joker.nextCard(), "no 54th card");
+        }
+        assertEquals(Deck.CARDS_IN_DECK, deck.size(), "52 cards");
+    }
+
     /**
      * Tests the deck equals() method for different scenarios
      */
@@ -102,5 +208,21 @@ public class DeckTest {
             () -> deck.nextCard(), "nextCard() no more cards");
         assertEquals("No more cards", exception.getMessage(),
                 "nextCard() no more cards message");
+
+        // Testing constructor with null generator
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new Deck(null, true), "Constructor null generator");
+        assertEquals("Null generator", exception.getMessage(),
+                "Constructor null generator message");
+
+        // Testing seekGame() on decks without a counter-based generator
+        exception = assertThrows(IllegalStateException.class,
+            () -> deck.seekGame(1), "seekGame() seeded deck");
+        assertEquals("Not a counter deck", exception.getMessage(),
+                "seekGame() seeded deck message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new Deck(new CounterRandom(1)).seekGame(-1), "seekGame() negative game");
+        assertEquals("Invalid game", exception.getMessage(),
+                "seekGame() negative game message");
     }
 }
\ No newline at end of file
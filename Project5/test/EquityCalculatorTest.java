@@ -0,0 +1,184 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests EquityCalculator and EquityResult classes
+ * @author Cole Sanders
+ */
+public class EquityCalculatorTest {
+
+    /**
+     * Tests enumerating a flop against a direct count of every turn and river
+     */
+    @Test
+    public void testEnumerate() {
+        long[] hands = {EquityCalculator.parseCards("h14,s14"),
+                        EquityCalculator.parseCards("d9,d10"),
+                        EquityCalculator.parseCards("c5,c6")};
+        long board = EquityCalculator.parseCards("d11,d8,c7");
+        EquityResult result = new EquityCalculator().enumerate(hands, board);
+
+        long dead = board | hands[0] | hands[1] | hands[2];
+        EquityResult expected = new EquityResult(hands.length, true);
+        int[] strengths = new int[hands.length];
+        for (int turn = 0; turn < Deck.CARDS_IN_DECK; ++turn) {
+            for (int river = turn + 1; river < Deck.CARDS_IN_DECK; ++river) {
+                long cards = board | CardSet.bit(turn) | CardSet.bit(river);
+                if ((dead & (CardSet.bit(turn) | CardSet.bit(river))) == 0) {
+                    for (int p = 0; p < hands.length; ++p) {
+                        strengths[p] = HoldemEvaluator.evaluate(hands[p] | cards);
+                    }
+                    expected.recordBoard(strengths);
+                }
+            }
+        }
+        assertEquals(expected, result, "every turn and river");
+        assertEquals(CombinationIterator.count(43, 2), result.getTrials(), "boards");
+        assertTrue(result.isExhaustive(), "exhaustive");
+        assertEquals(0, result.getMargin(0), "exact");
+        long shares = 0;
+        for (int p = 0; p < hands.length; ++p) {
+            shares += result.getShares(p);
+        }
+        assertEquals(result.getTrials() * EquityResult.SHARE_UNIT, shares, "whole pots");
+    }
+
+    /**
+     * Tests well known preflop and river equities
+     */
+    @Test
+    public void testKnownEquities() {
+        EquityCalculator calculator = new EquityCalculator();
+        long[] hands = {EquityCalculator.parseCards("c14,d14"),
+                        EquityCalculator.parseCards("h13,s13")};
+        assertTrue(calculator.isEnumerable(hands, 0), "preflop fits the default limit");
+        EquityResult result = calculator.calculate(hands, 0, 1);
+        assertEquals(CombinationIterator.count(48, 5), result.getTrials(), "every board");
+        assertEquals(0.8106, result.getWinProbability(0), 0.0001, "aces over kings");
+        assertEquals(0.0038, result.getTieProbability(0), 0.0001, "aces and kings tie");
+        assertEquals(1.0, result.getEquity(0) + result.getEquity(1), 1e-12, "one pot");
+
+        long board = EquityCalculator.parseCards("h2,d3,c4,s5,h6");
+        result = calculator.calculate(hands, board, 1);
+        assertEquals(1, result.getTrials(), "complete board");
+        assertEquals(1, result.getTies(0), "both play the board");
+        assertEquals(0.5, result.getEquity(1), "split pot");
+
+        hands = new long[] {EquityCalculator.parseCards("c14,d14"),
+                            EquityCalculator.parseCards("c13,d13"),
+                            EquityCalculator.parseCards("c12,d12")};
+        board = EquityCalculator.parseCards("h14,h13,h12,h11,h10");
+        result = calculator.calculate(hands, board, 1);
+        assertEquals(EquityResult.SHARE_UNIT / 3, result.getShares(2), "three way split");
+    }
+
+    /**
+     * Tests that sampling is reproducible and agrees with enumeration
+     */
+    @Test
+    public void testSample() {
+        long[] hands = {EquityCalculator.parseCards("s14,s13"),
+                        EquityCalculator.parseCards("h10,d10"),
+                        EquityCalculator.parseCards("c7,c8")};
+        EquityResult exact = new EquityCalculator().enumerate(hands, 0);
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool triple = new ForkJoinPool(3);
+        try {
+            EquityCalculator sampler = new EquityCalculator(single, 0);
+            assertFalse(sampler.isEnumerable(hands, 0), "over the limit");
+            EquityResult sampled = sampler.calculate(hands, 0, 42);
+            assertFalse(sampled.isExhaustive(), "sampled");
+            for (int p = 0; p < hands.length; ++p) {
+                assertTrue(sampled.getMargin(p) <= EquityCalculator.DEFAULT_MARGIN, "margin");
+                assertEquals(exact.getEquity(p), sampled.getEquity(p), 2 * sampled.getMargin(p),
+                             "close to exact");
+            }
+            assertEquals(0, sampled.getTrials() % (EquityCalculator.BATCH_TRIALS
+                                                   * EquityCalculator.ROUND_BATCHES),
+                         "stops between rounds");
+            assertEquals(sampled, new EquityCalculator(triple, 0).calculate(hands, 0, 42),
+                         "same result on three threads");
+            assertNotEquals(sampled, sampler.calculate(hands, 0, 43), "other seed");
+
+            EquityResult fixed = sampler.sample(hands, 0, 42, 0, 10000);
+            assertEquals(10000, fixed.getTrials(), "trial limit");
+        }
+        finally {
+            single.shutdown();
+            triple.shutdown();
+        }
+    }
+
+    /**
+     * Tests sampling the hole cards of unknown players
+     */
+    @Test
+    public void testUnknownHands() {
+        EquityCalculator calculator = new EquityCalculator();
+        long[] hands = {EquityCalculator.parseCards("c14,d14"), 0};
+        assertFalse(calculator.isEnumerable(hands, 0), "unknown player");
+        EquityResult result = calculator.calculate(hands, 0, 7);
+        assertEquals(0.852, result.getEquity(0), 0.004, "aces against a random hand");
+
+        long[] nine = new long[9];
+        nine[0] = EquityCalculator.parseCards("c14,d14");
+        result = calculator.sample(nine, 0, 7, 0.005, EquityCalculator.DEFAULT_MAX_TRIALS);
+        assertEquals(0.35, result.getEquity(0), 0.01, "aces against eight random hands");
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        EquityCalculator calculator = new EquityCalculator();
+        long aces = EquityCalculator.parseCards("c14,d14");
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.calculate(null, 0, 1), "Null hands");
+        assertEquals("Null hands", exception.getMessage(), "Null hands message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.calculate(new long[] {aces}, 0, 1), "One player");
+        assertEquals("Invalid player count", exception.getMessage(), "One player message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.calculate(new long[11], 0, 1), "Eleven players");
+        assertEquals("Invalid player count", exception.getMessage(), "Eleven players message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.calculate(new long[] {aces, CardSet.bit(5)}, 0, 1), "One card");
+        assertEquals("Invalid hole cards", exception.getMessage(), "One card message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.calculate(new long[] {aces, 0}, 0x3F, 1), "Six board cards");
+        assertEquals("Invalid board", exception.getMessage(), "Six board cards message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.calculate(new long[] {aces, 0}, aces, 1), "Shared card");
+        assertEquals("Duplicate card", exception.getMessage(), "Shared card message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.enumerate(new long[] {aces, 0}, 0), "Enumerate unknown");
+        assertEquals("Unknown hole cards", exception.getMessage(), "Enumerate unknown message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.sample(new long[] {aces, 0}, 0, 1, -1, 1), "Negative margin");
+        assertEquals("Invalid margin", exception.getMessage(), "Negative margin message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.sample(new long[] {aces, 0}, 0, 1, 0, 0), "No trials");
+        assertEquals("Invalid trial limit", exception.getMessage(), "No trials message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new EquityCalculator(null, 0), "Null pool");
+        assertEquals("Null pool", exception.getMessage(), "Null pool message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new EquityCalculator(ForkJoinPool.commonPool(), -1), "Negative limit");
+        assertEquals("Invalid board limit", exception.getMessage(), "Negative limit message");
+    }
+}
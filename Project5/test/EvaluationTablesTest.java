@@ -0,0 +1,177 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests EvaluationTables class
+ * @author Cole Sanders
+ */
+public class EvaluationTablesTest {
+
+    /** Directory the table files are written to */
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that a mapped file classifies every key sum like HandEvaluator
+     * @throws IOException if the file cannot be written or read
+     */
+    @Test
+    public void testMapped() throws IOException {
+        Path file = directory.resolve("tables.bin");
+        EvaluationTables.write(file);
+        EvaluationTables tables = EvaluationTables.load(file);
+        assertTrue(tables.isMapped(), "mapped");
+        for (int sum = 0; sum <= HandEvaluator.MAX_KEY_SUM; ++sum) {
+            assertEquals(HandEvaluator.evaluate(sum, false), tables.evaluate(sum, false), "plain");
+            assertEquals(HandEvaluator.evaluate(sum, true), tables.evaluate(sum, true), "flush");
+        }
+        Deck deck = new Deck(3);
+        for (int i = 0; i < 1000; ++i) {
+            deck.shuffle();
+            Card[] cards = new Card[Hand.CARDS_IN_HAND];
+            for (int j = 0; j < cards.length; ++j) {
+                cards[j] = deck.nextCard();
+            }
+            Hand hand = new Hand(cards);
+            assertEquals(hand.classify(), tables.evaluate(hand), "hand");
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count(), "no temporary file left");
+        }
+    }
+
+    /**
+     * Tests that HandEvaluator classifies by the shared file when it is
+     * valid, and otherwise by tables built on the heap
+     */
+    @Test
+    public void testHandEvaluator() {
+        EvaluationTables tables = HandEvaluator.getTables();
+        boolean valid;
+        try {
+            EvaluationTables.load(EvaluationTables.defaultFile());
+            valid = true;
+        }
+        catch (IOException e) {
+            valid = false;
+        }
+        assertEquals(valid, tables.isMapped(), "mapped when the file is valid");
+        EvaluationTables heap = EvaluationTables.onHeap();
+        assertFalse(heap.isMapped(), "heap");
+        for (int sum = 0; sum <= HandEvaluator.MAX_KEY_SUM; ++sum) {
+            assertEquals(heap.evaluate(sum, false), HandEvaluator.evaluate(sum, false), "plain");
+            assertEquals(heap.evaluate(sum, true), HandEvaluator.evaluate(sum, true), "flush");
+        }
+    }
+
+    /**
+     * Tests that files which cannot be used are rejected by load() and
+     * replaced by the heap tables in open()
+     * @throws IOException if the files cannot be written
+     */
+    @Test
+    public void testInvalidFiles() throws IOException {
+        Path missing = directory.resolve("missing.bin");
+        assertThrows(IOException.class, () -> EvaluationTables.load(missing), "missing");
+        EvaluationTables fallback = EvaluationTables.open(missing);
+        assertFalse(fallback.isMapped(), "fallback on the heap");
+        assertEquals(HandRank.ROYAL_FLUSH, fallback.evaluate(royalFlushSum(), true),
+                     "fallback classifies");
+
+        Path file = directory.resolve("tables.bin");
+        EvaluationTables.write(file);
+        byte[] good = Files.readAllBytes(file);
+
+        byte[] corrupt = good.clone();
+        corrupt[corrupt.length / 2] ^= 1;
+        assertInvalid(file, corrupt, "Corrupt evaluation table file");
+
+        byte[] version = good.clone();
+        ByteBuffer.wrap(version).putInt(Integer.BYTES, EvaluationTables.VERSION + 1);
+        assertInvalid(file, version, "Invalid evaluation table file");
+
+        byte[] fingerprint = good.clone();
+        ByteBuffer.wrap(fingerprint).putInt(3 * Integer.BYTES, EvaluationTables.fingerprint() + 1);
+        assertInvalid(file, fingerprint, "Invalid evaluation table file");
+
+        byte[] outdated = good.clone();
+        int header = good.length - 2 * (HandEvaluator.MAX_KEY_SUM + 1);
+        int fullHouse = header + keySum(Hand.TEN, Hand.TEN, Hand.TEN, Card.HIGHEST_VALUE,
+                                            Card.HIGHEST_VALUE);
+        outdated[fullHouse] = (byte) HandRank.TWO_PAIRS.ordinal();
+        CRC32 crc = new CRC32();
+        crc.update(outdated, header, outdated.length - header);
+        ByteBuffer.wrap(outdated).putInt(header - Integer.BYTES, (int) crc.getValue());
+        assertInvalid(file, outdated, "Outdated evaluation table file");
+
+        byte[] magic = good.clone();
+        magic[0] = 0;
+        assertInvalid(file, magic, "Invalid evaluation table file");
+
+        byte[] truncated = new byte[good.length - 1];
+        System.arraycopy(good, 0, truncated, 0, truncated.length);
+        assertInvalid(file, truncated, "Invalid evaluation table file");
+    }
+
+    /**
+     * Tests that the stamped checksum matches the table HandEvaluator
+     * builds, so that changing the categorize rules forces it to be updated
+     */
+    @Test
+    public void testCategoriesCrc() {
+        CRC32 crc = new CRC32();
+        crc.update(HandEvaluator.buildCategories());
+        assertEquals(EvaluationTables.CATEGORIES_CRC, (int) crc.getValue(),
+                     "CATEGORIES_CRC stamped from buildCategories()");
+    }
+
+    /**
+     * Writes a file and checks that it is rejected
+     * @param file path of the file
+     * @param contents bytes of the file
+     * @param message expected message of the exception
+     * @throws IOException if the file cannot be written
+     */
+    private static void assertInvalid(Path file, byte[] contents, String message)
+            throws IOException {
+        Files.write(file, contents);
+        Exception exception = assertThrows(IOException.class,
+            () -> EvaluationTables.load(file), message);
+        assertEquals(message, exception.getMessage(), message + " message");
+        assertFalse(EvaluationTables.open(file).isMapped(), message + " fallback");
+    }
+
+    /**
+     * Works out the key sum of ten through ace
+     * @return key sum of a royal flush
+     */
+    private static int royalFlushSum() {
+        int sum = 0;
+        for (int value = Hand.TEN; value <= Card.HIGHEST_VALUE; ++value) {
+            sum += HandEvaluator.getKey(value);
+        }
+        return sum;
+    }
+
+    /**
+     * Works out the key sum of some values
+     * @param values values of the cards
+     * @return sum of their keys
+     */
+    private static int keySum(int... values) {
+        int sum = 0;
+        for (int value : values) {
+            sum += HandEvaluator.getKey(value);
+        }
+        return sum;
+    }
+}
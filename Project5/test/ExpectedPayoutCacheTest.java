@@ -0,0 +1,253 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests ExpectedPayoutCache class
+ * @author Cole Sanders
+ */
+public class ExpectedPayoutCacheTest {
+
+    /**
+     * Tests that cached payouts and holds match HoldSolver, and that a hand
+     * with its suits renamed hits the entries of the first
+     */
+    @Test
+    public void testMatchesHoldSolver() {
+        ExpectedPayoutCache cache = new ExpectedPayoutCache(1 << 16);
+        Deck deck = new Deck(5);
+        for (int i = 0; i < 200; ++i) {
+            Hand hand = deal(deck);
+            double[] expected = HoldSolver.expectedPayouts(hand);
+            int best = cache.bestHold(hand);
+            assertEquals(expected[HoldSolver.bestHold(hand)], expected[best], "best hold");
+            assertArrayEquals(expected, cache.expectedPayouts(hand), "payouts");
+            assertEquals(best, cache.bestHold(hand), "same hold on a hit");
+        }
+
+        Hand pair = new Hand(new Card[] {new Card(11,'c'), new Card(11,'d'), new Card(4,'s'),
+                                         new Card(8,'h'), new Card(13,'c')});
+        Hand renamed = new Hand(new Card[] {new Card(11,'h'), new Card(11,'s'), new Card(4,'c'),
+                                            new Card(8,'d'), new Card(13,'h')});
+        assertEquals(0b00011, cache.bestHold(pair), "keep the jacks");
+        long misses = cache.getMisses();
+        assertEquals(0b00011, cache.bestHold(renamed), "renamed suits");
+        assertEquals(HoldSolver.expectedPayout(pair, 0b00110),
+                     cache.expectedPayout(renamed, 0b00110), "renamed payout");
+        assertEquals(misses, cache.getMisses(), "renamed suits hit");
+    }
+
+    /**
+     * Tests that caches bound to the variants in the variants folder match
+     * HoldSolver under their own paytables, including hands with the joker
+     * @throws IOException if a variant cannot be read
+     */
+    @Test
+    public void testVariants() throws IOException {
+        Variant deucesWild = Variant.load(Paths.get(Variant.DIRECTORY, "deuces-wild.properties"));
+        Variant jokerPoker = Variant.load(Paths.get(Variant.DIRECTORY, "joker-poker.properties"));
+        ExpectedPayoutCache deuces = new ExpectedPayoutCache(deucesWild, 1 << 12);
+        ExpectedPayoutCache joker = new ExpectedPayoutCache(jokerPoker, 1 << 12);
+        assertSame(deucesWild, deuces.getVariant(), "variant");
+        assertSame(Variant.CLASSIC, new ExpectedPayoutCache(100).getVariant(), "classic");
+
+        Hand pairOfDeuces = new Hand(new Card[] {new Card(2,'c'), new Card(2,'d'), new Card(10,'s'),
+                                                 new Card(11,'s'), new Card(6,'h')});
+        assertArrayEquals(HoldSolver.expectedPayouts(pairOfDeuces, deucesWild),
+                          deuces.expectedPayouts(pairOfDeuces), "deuces wild payouts");
+        assertEquals(HoldSolver.bestHold(pairOfDeuces, deucesWild) & 0b00011,
+                     deuces.bestHold(pairOfDeuces) & 0b00011, "keep the deuces");
+
+        Hand withJoker = new Hand(new Card[] {new Card(10,'s'), Card.JOKER, new Card(3,'c'),
+                                              new Card(8,'h'), new Card(5,'d')});
+        Hand renamed = new Hand(new Card[] {new Card(10,'h'), Card.JOKER, new Card(3,'d'),
+                                            new Card(8,'c'), new Card(5,'s')});
+        double[] expected = HoldSolver.expectedPayouts(withJoker, jokerPoker);
+        assertArrayEquals(expected, joker.expectedPayouts(withJoker), "joker payouts");
+        int best = joker.bestHold(withJoker);
+        assertEquals(0b00010, best & 0b00010, "keep the joker");
+        assertEquals(expected[HoldSolver.bestHold(withJoker, jokerPoker)], expected[best],
+                     "joker best hold");
+        long misses = joker.getMisses();
+        assertEquals(best, joker.bestHold(renamed), "renamed suits with the joker");
+        assertEquals(misses, joker.getMisses(), "renamed suits with the joker hit");
+
+        Hand pair = new Hand(new Card[] {new Card(11,'c'), new Card(11,'d'), new Card(4,'s'),
+                                         new Card(8,'h'), new Card(13,'c')});
+        assertArrayEquals(HoldSolver.expectedPayouts(pair, jokerPoker),
+                          joker.expectedPayouts(pair), "joker poker without the joker");
+
+        VideoPoker game = new VideoPoker(new Deck(new SplittableRandom(3), false, true),
+                                         jokerPoker);
+        game.setPayoutCache(joker);
+        game.newGame();
+        double[] payouts = HoldSolver.expectedPayouts(game.getHand(), jokerPoker);
+        assertEquals(payouts[HoldSolver.bestHold(game.getHand(), jokerPoker)],
+                     payouts[game.getBestHold()], "game best hold");
+    }
+
+    /**
+     * Tests the hit and miss counts
+     */
+    @Test
+    public void testStatistics() {
+        ExpectedPayoutCache cache = new ExpectedPayoutCache(1000);
+        assertEquals(0, cache.getHitRate(), "no lookups");
+        Hand hand = new Hand(new Card[] {new Card(14,'d'), new Card(11,'d'), new Card(12,'d'),
+                                         new Card(13,'d'), new Card(3,'c')});
+        assertEquals(0b01111, cache.bestHold(hand), "draw to the royal flush");
+        assertEquals(0, cache.getHits(), "first lookup");
+        assertEquals(1, cache.getMisses(), "solved");
+        cache.bestHold(hand);
+        cache.expectedPayout(hand, 0b01111);
+        cache.expectedPayout(hand, 0);
+        assertEquals(3, cache.getHits(), "hits");
+        assertEquals(1, cache.getMisses(), "no more misses");
+        assertEquals(0.75, cache.getHitRate(), "hit rate");
+        assertEquals(0, cache.getEvictions(), "nothing evicted");
+        assertTrue(cache.getCapacity() >= 1000, "capacity rounded up");
+    }
+
+    /**
+     * Tests that a small cache stays correct while it evicts
+     */
+    @Test
+    public void testEviction() {
+        ExpectedPayoutCache cache = new ExpectedPayoutCache(1);
+        assertEquals(ExpectedPayoutCache.BUCKET_ENTRIES, cache.getCapacity(), "one bucket");
+        Deck deck = new Deck(8);
+        Hand kept = deal(deck);
+        for (int i = 0; i < 50; ++i) {
+            Hand hand = deal(deck);
+            assertEquals(HoldSolver.expectedPayout(hand, i % HoldSolver.HOLD_MASKS),
+                         cache.expectedPayout(hand, i % HoldSolver.HOLD_MASKS), "payout");
+            double[] expected = HoldSolver.expectedPayouts(kept);
+            assertEquals(expected[HoldSolver.bestHold(kept)], expected[cache.bestHold(kept)],
+                         "best hold while evicting");
+        }
+        assertTrue(cache.getEvictions() > 0, "evicted");
+    }
+
+    /**
+     * Tests that threads sharing a cache all get the right payouts
+     * @throws Exception if a thread fails
+     */
+    @Test
+    public void testConcurrent() throws Exception {
+        ExpectedPayoutCache cache = new ExpectedPayoutCache(1 << 12);
+        List<Hand> hands = new ArrayList<>();
+        Deck deck = new Deck(13);
+        for (int i = 0; i < 100; ++i) {
+            hands.add(deal(deck));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; ++t) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; ++i) {
+                        Hand hand = hands.get((i * 7 + offset) % hands.size());
+                        int mask = (i + offset) % HoldSolver.HOLD_MASKS;
+                        assertEquals(HoldSolver.expectedPayout(hand, mask),
+                                     cache.expectedPayout(hand, mask), "payout");
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        assertEquals(4000, cache.getHits() + cache.getMisses(), "lookups");
+    }
+
+    /**
+     * Tests that a game looks up its best hold in the cache
+     */
+    @Test
+    public void testVideoPoker() {
+        ExpectedPayoutCache cache = new ExpectedPayoutCache(1 << 12);
+        VideoPoker game = new VideoPoker(3);
+        assertNull(game.getPayoutCache(), "off by default");
+        game.setPayoutCache(cache);
+        assertSame(cache, game.getPayoutCache(), "set");
+        game.newGame();
+        double[] expected = HoldSolver.expectedPayouts(game.getHand());
+        assertEquals(expected[HoldSolver.bestHold(game.getHand())], expected[game.getBestHold()],
+                     "best hold");
+        assertEquals(1, cache.getMisses(), "looked up");
+        game.setPayoutCache(null);
+        game.getBestHold();
+        assertEquals(1, cache.getMisses() + cache.getHits(), "stopped looking up");
+    }
+
+    /**
+     * Tests exceptions
+     * @throws IOException if a variant cannot be read
+     */
+    @Test
+    public void testExceptions() throws IOException {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> new ExpectedPayoutCache(0), "No capacity");
+        assertEquals("Invalid capacity", exception.getMessage(), "No capacity message");
+        assertThrows(IllegalArgumentException.class,
+            () -> new ExpectedPayoutCache(ExpectedPayoutCache.MAX_CAPACITY + 1), "Too large");
+
+        ExpectedPayoutCache cache = new ExpectedPayoutCache(100);
+        Hand hand = new Hand(new Card[] {new Card(2,'c'), new Card(2,'c'), new Card(9,'s'),
+                                         new Card(12,'h'), new Card(4,'c')});
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> cache.bestHold(hand), "Duplicate card");
+        assertEquals("Duplicate card", exception.getMessage(), "Duplicate card message");
+        Hand valid = new Hand(new Card[] {new Card(2,'c'), new Card(3,'c'), new Card(9,'s'),
+                                          new Card(12,'h'), new Card(4,'c')});
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> cache.expectedPayout(valid, HoldSolver.HOLD_MASKS), "Mask too large");
+        assertEquals("Invalid hold mask", exception.getMessage(), "Mask too large message");
+
+        Hand joker = new Hand(new Card[] {Card.JOKER, new Card(10,'s'), new Card(3,'c'),
+                                          new Card(8,'h'), new Card(5,'d')});
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> cache.bestHold(joker), "Joker in the classic game");
+        assertEquals("Card not in deck", exception.getMessage(),
+                     "Joker in the classic game message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new ExpectedPayoutCache(null, 100), "Null variant");
+        assertEquals("Null variant", exception.getMessage(), "Null variant message");
+
+        Variant jokerPoker = Variant.load(Paths.get(Variant.DIRECTORY, "joker-poker.properties"));
+        VideoPoker game = new VideoPoker(new Deck(new SplittableRandom(3), false, true),
+                                         jokerPoker);
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> game.setPayoutCache(cache), "Cache of another variant");
+        assertEquals("Cache is for another variant", exception.getMessage(),
+                     "Cache of another variant message");
+    }
+
+    /**
+     * Deals five cards from a freshly shuffled deck
+     * @param deck deck to deal from
+     * @return dealt hand
+     */
+    private static Hand deal(Deck deck) {
+        deck.shuffle();
+        Card[] cards = new Card[Hand.CARDS_IN_HAND];
+        for (int i = 0; i < cards.length; ++i) {
+            cards[i] = deck.nextCard();
+        }
+        return new Hand(cards);
+    }
+}
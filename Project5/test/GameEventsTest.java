@@ -0,0 +1,105 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests GameEvents class
+ * @author Cole Sanders
+ */
+public class GameEventsTest {
+
+    /**
+     * Tests that the events are registered by playing a game and are off
+     * unless turned on
+     */
+    @Test
+    public void testDisabledByDefault() {
+        VideoPoker game = new VideoPoker(1);
+        game.newGame();
+        game.replaceCard(0);
+        game.scoreHand();
+        int found = 0;
+        for (EventType type : FlightRecorder.getFlightRecorder().getEventTypes()) {
+            if (type.getName().startsWith("poker.")) {
+                assertFalse(type.isEnabled(), type.getName() + " off");
+                assertEquals(GameEvents.CATEGORY, type.getCategoryNames().get(0), "category");
+                ++found;
+            }
+        }
+        assertEquals(4, found, "registered events");
+    }
+
+    /**
+     * Tests recording a game with the settings file
+     * @throws Exception if the recording cannot be made or read
+     */
+    @Test
+    public void testRecording() throws Exception {
+        Configuration settings = Configuration.create(Paths.get(GameEvents.SETTINGS));
+        Path file = Files.createTempFile("poker", ".jfr");
+        try {
+            try (Recording recording = new Recording(settings)) {
+                recording.start();
+                VideoPoker game = new VideoPoker(7);
+                game.setSessionId(42);
+                game.newGame();
+                game.replaceCard(3);
+                game.scoreHand();
+                recording.stop();
+                recording.dump(file);
+            }
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            RecordedEvent deal = only(events, "poker.Deal");
+            assertEquals(42, deal.getLong("sessionId"), "deal session");
+            assertEquals(VideoPoker.POINTS_FOR_NEW_GAME, deal.getInt("cost"), "cost");
+            assertEquals(VideoPoker.STARTING_POINTS - VideoPoker.POINTS_FOR_NEW_GAME,
+                         deal.getInt("points"), "points after paying");
+            assertFalse(deal.getDuration().isNegative(), "duration");
+
+            RecordedEvent draw = only(events, "poker.Draw");
+            assertEquals(3, draw.getInt("index"), "index");
+
+            RecordedEvent score = only(events, "poker.Score");
+            String hand = score.getString("hand");
+            assertTrue(hand.contains(draw.getString("card")), "drawn card in the final hand");
+            assertNotNull(PayCategory.valueOf(score.getString("category")), "category");
+
+            RecordedEvent shuffle = only(events, "poker.Shuffle");
+            assertEquals(Deck.CARDS_IN_DECK, shuffle.getInt("cards"), "cards");
+            assertEquals(-1, shuffle.getLong("game"), "not a counter deck");
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Finds the one event of a type in a recording
+     * @param events events of the recording
+     * @param name name of the event type
+     * @return the event
+     */
+    private static RecordedEvent only(List<RecordedEvent> events, String name) {
+        RecordedEvent found = null;
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) {
+                assertNull(found, "one " + name);
+                found = event;
+            }
+        }
+        assertNotNull(found, name);
+        return found;
+    }
+}
@@ -0,0 +1,269 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests GameJournal class
+ * @author Cole Sanders
+ */
+public class GameJournalTest {
+
+    /** Directory the journals are written to */
+    @TempDir
+    public Path directory;
+
+    /**
+     * Tests that sessions are rebuilt from the journal and carry on where
+     * they left off
+     * @throws IOException if the journal cannot be used
+     */
+    @Test
+    public void testRecover() throws IOException {
+        try (GameJournal journal = new GameJournal(directory)) {
+            GameSession first = new GameSession(1, 7, journal);
+            first.newGame();
+            first.replaceCard(1);
+            first.replaceCard(3);
+            first.scoreHand();
+            first.newGame();
+            first.replaceCard(0);
+            GameSession second = new GameSession(2, 8, journal);
+            second.newGame();
+            second.close();
+        }
+
+        VideoPoker game = new VideoPoker(7);
+        game.newGame();
+        game.replaceCard(1);
+        game.replaceCard(3);
+        game.scoreHand();
+        game.newGame();
+        game.replaceCard(0);
+
+        try (GameJournal journal = new GameJournal(directory)) {
+            assertEquals(2, journal.getLastSessionId(), "Last session id");
+            Map<Long, GameSession> sessions = journal.recover();
+            assertEquals(1, sessions.size(), "Closed session not recovered");
+            GameSession session = sessions.get(1L);
+            assertEquals(game.getPoints(), session.getPoints(), "Points recovered");
+            game.replaceCard(2);
+            assertEquals(game.getHand().toString(), session.replaceCard(2), "Hand and deck recovered");
+            session.scoreHand();
+        }
+
+        game.scoreHand();
+        try (GameJournal journal = new GameJournal(directory)) {
+            assertEquals(game.getPoints(), journal.recover().get(1L).getPoints(),
+                         "Events after recovery are journaled");
+        }
+    }
+
+    /**
+     * Tests that a torn record at the end of the journal is dropped and
+     * overwritten by the next append
+     * @throws IOException if the journal cannot be used
+     */
+    @Test
+    public void testTornRecord() throws IOException {
+        try (GameJournal journal = new GameJournal(directory)) {
+            GameSession session = new GameSession(1, 3, journal);
+            session.newGame();
+            session.replaceCard(4);
+        }
+        Path segment = directory.resolve("journal-00000000.log");
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // flip a byte of the third record, the replacement
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xff}),
+                          3 * GameJournal.RECORD_BYTES + Long.BYTES);
+        }
+        assertEquals(2, GameJournal.read(directory, record -> { }), "Torn record dropped");
+
+        try (GameJournal journal = new GameJournal(directory)) {
+            GameSession session = journal.recover().get(1L);
+            session.replaceCard(0);
+        }
+        List<JournalRecord> records = new ArrayList<>();
+        GameJournal.read(directory, records::add);
+        assertEquals(3, records.size(), "Append replaced torn record");
+        assertEquals(JournalRecord.REPLACE, records.get(2).getType(), "Replace event");
+        assertEquals(0, records.get(2).getCardIndex(), "Replaced card");
+    }
+
+    /**
+     * Tests that records written before a crash that follow a torn one are
+     * never read after the records appended once the journal is reopened
+     * @throws IOException if the journal cannot be used
+     */
+    @Test
+    public void testStaleRecords() throws IOException {
+        try (GameJournal journal = new GameJournal(directory)) {
+            GameSession session = new GameSession(1, 3, journal);
+            session.newGame();
+            session.replaceCard(4);
+            session.replaceCard(2);
+            session.scoreHand();
+        }
+        tear(directory.resolve("journal-00000000.log"), 3);
+        assertEquals(2, GameJournal.read(directory, record -> { }), "Stops at the torn record");
+
+        try (GameJournal journal = new GameJournal(directory)) {
+            journal.recover().get(1L).replaceCard(0);
+        }
+        List<JournalRecord> records = new ArrayList<>();
+        GameJournal.read(directory, records::add);
+        assertEquals(3, records.size(), "Stale records dropped");
+        assertEquals(0, records.get(2).getCardIndex(), "Replaced card");
+        try (GameJournal journal = new GameJournal(directory)) {
+            GameSession session = journal.recover().get(1L);
+            assertNotNull(session, "Recovered after a second crash");
+            session.scoreHand();
+        }
+    }
+
+    /**
+     * Tests that the segments after a gap are dropped when the journal is
+     * reopened
+     * @throws IOException if the journal cannot be used
+     */
+    @Test
+    public void testSegmentGap() throws IOException {
+        try (GameJournal journal = new GameJournal(directory, 4, 1)) {
+            for (int i = 1; i <= 10; ++i) {
+                journal.append(i, i, JournalRecord.OPEN, JournalRecord.NO_CARD,
+                               VideoPoker.STARTING_POINTS, 0);
+            }
+        }
+        tear(directory.resolve("journal-00000001.log"), 2);
+        assertEquals(5, GameJournal.read(directory, record -> { }), "Stops at the gap");
+        try (GameJournal journal = new GameJournal(directory, 4, 1)) {
+            assertEquals(5, journal.getLastSessionId(), "Sessions before the gap");
+            journal.append(6, 6, JournalRecord.OPEN, JournalRecord.NO_CARD,
+                           VideoPoker.STARTING_POINTS, 0);
+        }
+        assertFalse(Files.exists(directory.resolve("journal-00000002.log")),
+                    "Segment after the gap deleted");
+        assertEquals(6, GameJournal.read(directory, record -> { }), "Appended after the gap");
+    }
+
+    /**
+     * Flips a byte of a record, as a write cut off by a crash would
+     * @param segment segment file
+     * @param record number of the record in the segment, from one
+     * @throws IOException if the file cannot be written
+     */
+    private static void tear(Path segment, int record) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xff}),
+                          record * GameJournal.RECORD_BYTES + Long.BYTES);
+        }
+    }
+
+    /**
+     * Tests that full segments roll over to new files
+     * @throws IOException if the journal cannot be used
+     */
+    @Test
+    public void testSegments() throws IOException {
+        try (GameJournal journal = new GameJournal(directory, 4, 1)) {
+            for (int i = 1; i <= 10; ++i) {
+                journal.append(i, i, JournalRecord.OPEN, JournalRecord.NO_CARD,
+                               VideoPoker.STARTING_POINTS, 0);
+            }
+            journal.sync();
+        }
+        assertTrue(Files.exists(directory.resolve("journal-00000002.log")), "Three segments");
+        List<JournalRecord> records = new ArrayList<>();
+        assertEquals(10, GameJournal.read(directory, records::add), "Records read");
+        for (int i = 0; i < records.size(); ++i) {
+            assertEquals(new JournalRecord(i + 1, i + 1, JournalRecord.OPEN,
+                                           JournalRecord.NO_CARD,
+                                           VideoPoker.STARTING_POINTS, 0),
+                         records.get(i), "Record " + i);
+        }
+        try (GameJournal journal = new GameJournal(directory, 4, 1)) {
+            assertEquals(10, journal.getLastSessionId(), "Last session id");
+            assertEquals(10, journal.recover().size(), "Sessions recovered");
+        }
+    }
+
+    /**
+     * Tests reopening a journal with a different segment size, which only
+     * applies to segments created after that
+     * @throws IOException if the journal cannot be used
+     */
+    @Test
+    public void testResize() throws IOException {
+        try (GameJournal journal = new GameJournal(directory, 2, 1)) {
+            journal.append(1, 1, JournalRecord.OPEN, JournalRecord.NO_CARD,
+                           VideoPoker.STARTING_POINTS, 0);
+        }
+        try (GameJournal journal = new GameJournal(directory, 8, 1)) {
+            for (int i = 2; i <= 12; ++i) {
+                journal.append(i, i, JournalRecord.OPEN, JournalRecord.NO_CARD,
+                               VideoPoker.STARTING_POINTS, 0);
+            }
+        }
+        assertEquals(2 * GameJournal.RECORD_BYTES + GameJournal.RECORD_BYTES,
+                     Files.size(directory.resolve("journal-00000000.log")), "Old size kept");
+        assertEquals(9 * GameJournal.RECORD_BYTES,
+                     Files.size(directory.resolve("journal-00000001.log")), "New size");
+        try (GameJournal journal = new GameJournal(directory, 1, 1)) {
+            journal.append(13, 13, JournalRecord.OPEN, JournalRecord.NO_CARD,
+                           VideoPoker.STARTING_POINTS, 0);
+        }
+        assertEquals(13, GameJournal.read(directory, record -> { }), "Records read");
+    }
+
+    /**
+     * Tests that a journal that does not match the game is rejected
+     * @throws IOException if the journal cannot be used
+     */
+    @Test
+    public void testMismatch() throws IOException {
+        try (GameJournal journal = new GameJournal(directory)) {
+            journal.append(1, 5, JournalRecord.OPEN, JournalRecord.NO_CARD,
+                           VideoPoker.STARTING_POINTS, 0);
+            journal.append(1, 5, JournalRecord.NEW_GAME, JournalRecord.NO_CARD,
+                           VideoPoker.STARTING_POINTS, 0);
+            Exception exception = assertThrows(IOException.class, () -> journal.recover(),
+                                               "Wrong points");
+            assertEquals("Corrupt journal: Journal does not match game", exception.getMessage(),
+                         "Wrong points message");
+        }
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> new GameJournal(directory, 0, 1), "Constructor no records");
+        assertEquals("Invalid segment size", exception.getMessage(),
+                     "Constructor no records message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new GameJournal(directory, 1, 0), "Constructor no flush interval");
+        assertEquals("Invalid flush interval", exception.getMessage(),
+                     "Constructor no flush interval message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new GameSession(1, 1, null), "Session null journal");
+        assertEquals("Null journal", exception.getMessage(), "Session null journal message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new JournalRecord(1, 1, (byte) 0, 0, 0, 0), "Record invalid event");
+        assertEquals("Invalid event", exception.getMessage(), "Record invalid event message");
+    }
+}
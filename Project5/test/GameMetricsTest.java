@@ -0,0 +1,197 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests GameMetrics and LatencyHistogram classes
+ * @author Cole Sanders
+ */
+public class GameMetricsTest {
+
+    /**
+     * Tests that bucket bounds are continuous and within the precision
+     */
+    @Test
+    public void testBuckets() {
+        long previous = -1;
+        for (int bucket = 0; LatencyHistogram.highestValue(bucket) != Long.MAX_VALUE; ++bucket) {
+            long highest = LatencyHistogram.highestValue(bucket);
+            assertEquals(bucket, LatencyHistogram.bucket(previous + 1), "lowest value");
+            assertEquals(bucket, LatencyHistogram.bucket(highest), "highest value");
+            assertTrue(highest - previous <= Math.max(1, highest / 32), "precision");
+            previous = highest;
+        }
+        assertEquals(0, LatencyHistogram.bucket(0), "zero");
+        assertEquals(LatencyHistogram.bucket(Long.MAX_VALUE),
+                     LatencyHistogram.bucket(previous + 1), "last bucket");
+    }
+
+    /**
+     * Tests percentiles of a known spread of values
+     */
+    @Test
+    public void testHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        LatencyHistogram.Snapshot empty = histogram.snapshot();
+        assertEquals(0, empty.getCount(), "empty count");
+        assertEquals(0, empty.getP99Nanos(), "empty percentile");
+        assertEquals(0, empty.getMeanNanos(), "empty mean");
+
+        for (long nanos = 1; nanos <= 10000; ++nanos) {
+            histogram.record(nanos * 100);
+        }
+        histogram.record(-5);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(10001, snapshot.getCount(), "count");
+        assertEquals(1000000, snapshot.getMaxNanos(), "max");
+        assertEquals(500000, snapshot.getMeanNanos(), 100, "mean");
+        assertEquals(500000, snapshot.getP50Nanos(), 500000 / 32, "median");
+        assertEquals(990000, snapshot.getP99Nanos(), 990000 / 32, "99th");
+        assertEquals(1000000, snapshot.getValueAtPercentile(100), "all");
+        assertEquals(0, snapshot.getValueAtPercentile(0), "negative counted as zero");
+        assertTrue(snapshot.toString().contains("count=10001"), "text");
+
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getCount(), "reset");
+        assertEquals(0, histogram.snapshot().getMaxNanos(), "reset max");
+
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> snapshot.getValueAtPercentile(101), "Over 100");
+        assertEquals("Invalid percentile", exception.getMessage(), "Over 100 message");
+    }
+
+    /**
+     * Tests that a game records its deals, draws and scores
+     */
+    @Test
+    public void testVideoPoker() {
+        GameMetrics metrics = new GameMetrics();
+        VideoPoker game = new VideoPoker(1);
+        VideoPoker other = new VideoPoker(2);
+        assertNull(game.getMetrics(), "off by default");
+        game.setMetrics(metrics);
+        other.setMetrics(metrics);
+        assertSame(metrics, game.getMetrics(), "set");
+        int paid = 0;
+        for (int i = 0; i < 100; ++i) {
+            VideoPoker player = i % 2 == 0 ? game : other;
+            int before = player.getPoints();
+            player.newGame();
+            player.replaceCard(0);
+            player.replaceCard(4);
+            player.scoreHand();
+            paid += player.getPoints() - before + VideoPoker.POINTS_FOR_NEW_GAME;
+        }
+        assertEquals(100, metrics.getDeals(), "deals");
+        assertEquals(200, metrics.getDraws(), "draws");
+        assertEquals(100, metrics.getScores(), "scores");
+        assertEquals(100 * VideoPoker.POINTS_FOR_NEW_GAME, metrics.getPointsWagered(), "wagered");
+        assertEquals(paid, metrics.getPointsPaid(), "paid");
+        assertEquals((double) paid / metrics.getPointsWagered(), metrics.getReturnToPlayer(),
+                     "return to player");
+        long hands = 0;
+        for (long count : metrics.getCategoryCounts().values()) {
+            hands += count;
+        }
+        assertEquals(100, hands, "categories");
+        assertEquals(100, metrics.getDealLatency().getCount(), "deal times");
+        assertEquals(200, metrics.getDrawLatency().getCount(), "draw times");
+        assertEquals(100, metrics.getScoreLatency().getCount(), "score times");
+
+        game.setMetrics(null);
+        game.newGame();
+        assertEquals(100, metrics.getDeals(), "stopped recording");
+
+        metrics.reset();
+        assertEquals(0, metrics.getScores(), "reset");
+        assertEquals(0, metrics.getReturnToPlayer(), "reset return");
+        assertEquals(0, metrics.getScoreLatency().getCount(), "reset times");
+    }
+
+    /**
+     * Tests reading the metrics over JMX
+     * @throws Exception if the MBean server fails
+     */
+    @Test
+    public void testRegister() throws Exception {
+        GameMetrics metrics = new GameMetrics();
+        metrics.recordDeal(1200, 10);
+        metrics.recordScore(300, PayCategory.FLUSH, 60);
+        ObjectName name = metrics.register("Poker:type=GameMetrics,name=test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(1L, server.getAttribute(name, "Deals"), "deals");
+            assertEquals(6.0, server.getAttribute(name, "ReturnToPlayer"), "return");
+            CompositeData deal = (CompositeData) server.getAttribute(name, "DealLatency");
+            assertEquals(1L, deal.get("count"), "deal count");
+            assertEquals(1200L, deal.get("maxNanos"), "deal max");
+            TabularData categories = (TabularData) server.getAttribute(name, "CategoryCounts");
+            assertEquals(1L, categories.get(new Object[] {"FLUSH"}).get("value"), "flushes");
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, server.getAttribute(name, "Scores"), "reset over JMX");
+        }
+        finally {
+            GameMetrics.unregister(name);
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name), "unregistered");
+    }
+
+    /**
+     * Tests the periodic dump
+     * @throws InterruptedException if interrupted while waiting for a dump
+     */
+    @Test
+    public void testDump() throws InterruptedException {
+        GameMetrics metrics = new GameMetrics();
+        metrics.recordDeal(100, 10);
+        metrics.recordScore(100, PayCategory.ONE_PAIR, 10);
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            LinkedBlockingQueue<String> dumps = new LinkedBlockingQueue<>();
+            metrics.scheduleDump(executor, 1, dumps::add);
+            String dump = dumps.poll(10, TimeUnit.SECONDS);
+            assertNotNull(dump, "dumped");
+            assertTrue(dump.startsWith("deals=1 draws=0 scores=1 wagered=10 paid=10"), "totals");
+            assertTrue(dump.contains(PayCategory.ONE_PAIR.toString()), "categories");
+
+            Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> metrics.scheduleDump(executor, 0, dumps::add), "No period");
+            assertEquals("Invalid period", exception.getMessage(), "No period message");
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that the server records its sessions' games
+     * @throws Exception if the server fails
+     */
+    @Test
+    public void testServer() throws Exception {
+        try (GameServer server = new GameServer(0, GameServer.DEFAULT_IDLE_MILLIS)) {
+            String id = server.handle("OPEN 5").substring(3);
+            server.handle("NEW " + id);
+            server.handle("REPLACE " + id + " 2");
+            server.handle("SCORE " + id);
+            GameMetrics metrics = server.getMetrics();
+            assertEquals(1, metrics.getDeals(), "deals");
+            assertEquals(1, metrics.getDraws(), "draws");
+            Map<String, Long> categories = metrics.getCategoryCounts();
+            assertEquals(1, categories.values().stream().mapToLong(Long::longValue).sum(),
+                         "one hand");
+        }
+    }
+}
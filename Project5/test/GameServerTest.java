@@ -0,0 +1,184 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests GameServer and GameSession classes
+ * @author Cole Sanders
+ */
+public class GameServerTest {
+
+    /**
+     * Tests that a seeded session deals the same hands as a seeded game
+     * @throws IOException if the server cannot start
+     */
+    @Test
+    public void testSeededSession() throws IOException {
+        try (GameServer server = new GameServer(0, GameServer.DEFAULT_IDLE_MILLIS)) {
+            String id = server.handle("OPEN 3").substring(3);
+            VideoPoker game = new VideoPoker(3);
+            game.newGame();
+            assertEquals("OK " + game.getPoints() + " " + game.getHand(), server.handle("NEW " + id), "New game");
+            game.replaceCard(2);
+            assertEquals("OK " + game.getHand(), server.handle("REPLACE " + id + " 2"),
+                         "Replace");
+            HandRank rank = game.getHandRank();
+            game.scoreHand();
+            assertEquals("OK " + game.getPoints() + " " + rank, server.handle("SCORE " + id),
+                         "Score");
+            assertEquals("OK " + game.getPoints(), server.handle("POINTS " + id), "Points");
+            assertEquals(1, server.getSessionCount(), "One session");
+            assertEquals("OK", server.handle("CLOSE " + id), "Close");
+            assertEquals(0, server.getSessionCount(), "No sessions");
+        }
+    }
+
+    /**
+     * Tests that threads dealing in one session each get the points and
+     * hand of the same game
+     * @throws Exception if the server cannot start or a thread fails
+     */
+    @Test
+    public void testSharedSession() throws Exception {
+        VideoPoker game = new VideoPoker(9);
+        Set<String> states = new HashSet<>();
+        while (game.getPoints() >= VideoPoker.POINTS_FOR_NEW_GAME) {
+            game.newGame();
+            states.add("OK " + game.getPoints() + " " + game.getHand());
+        }
+        try (GameServer server = new GameServer(0, GameServer.DEFAULT_IDLE_MILLIS)) {
+            String id = server.handle("OPEN 9").substring(3);
+            List<String> responses = Collections.synchronizedList(new ArrayList<>());
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; ++t) {
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < states.size(); ++i) {
+                        responses.add(server.handle("NEW " + id));
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            int dealt = 0;
+            for (String response : responses) {
+                if (response.startsWith("OK ")) {
+                    assertTrue(states.contains(response), "Points and hand of one game");
+                    ++dealt;
+                }
+            }
+            assertEquals(states.size(), dealt, "Every game dealt once");
+        }
+    }
+
+    /**
+     * Tests playing over a socket
+     * @throws IOException if the connection fails
+     */
+    @Test
+    public void testSocket() throws IOException {
+        try (GameServer server = new GameServer(0, GameServer.DEFAULT_IDLE_MILLIS);
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             BufferedReader in = new BufferedReader(new InputStreamReader(
+                     socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true,
+                                               StandardCharsets.UTF_8)) {
+            out.println("OPEN");
+            String id = in.readLine().substring(3);
+            out.println("NEW " + id);
+            assertTrue(in.readLine().startsWith("OK 90 "), "New game");
+            out.println("SCORE " + id);
+            assertTrue(in.readLine().startsWith("OK "), "Score");
+            out.println("QUIT");
+            assertNull(in.readLine(), "Connection closed");
+        }
+    }
+
+    /**
+     * Tests that idle sessions are closed
+     * @throws Exception if the server cannot start or the wait is interrupted
+     */
+    @Test
+    public void testEviction() throws Exception {
+        try (GameServer server = new GameServer(0, 60 * 1000)) {
+            server.handle("OPEN 1");
+            server.evictIdleSessions();
+            assertEquals(1, server.getSessionCount(), "Session not idle yet");
+        }
+        try (GameServer server = new GameServer(0, 1)) {
+            server.handle("OPEN 1");
+            Thread.sleep(5);
+            server.evictIdleSessions();
+            assertEquals(0, server.getSessionCount(), "Idle session closed");
+        }
+    }
+
+    /**
+     * Tests that a server restarted on its journal reopens its sessions
+     * @param directory directory of the journal
+     * @throws IOException if the server or journal cannot start
+     */
+    @Test
+    public void testJournal(@TempDir Path directory) throws IOException {
+        String id;
+        String hand;
+        try (GameJournal journal = new GameJournal(directory);
+             GameServer server = new GameServer(0, GameServer.DEFAULT_IDLE_MILLIS, journal)) {
+            id = server.handle("OPEN 11").substring(3);
+            server.handle("NEW " + id);
+            hand = server.handle("REPLACE " + id + " 1");
+            String closed = server.handle("OPEN 12").substring(3);
+            server.handle("CLOSE " + closed);
+        }
+        try (GameJournal journal = new GameJournal(directory);
+             GameServer server = new GameServer(0, GameServer.DEFAULT_IDLE_MILLIS, journal)) {
+            assertEquals(1, server.getSessionCount(), "Open session recovered");
+            assertEquals("OK 90", server.handle("POINTS " + id), "Points recovered");
+            assertEquals("ERROR Card already replaced", server.handle("REPLACE " + id + " 1"),
+                         "Replaced cards recovered");
+            assertEquals("OK 3", server.handle("OPEN"), "Ids not reused");
+            assertNotEquals(hand, server.handle("REPLACE " + id + " 2"), "Game continues");
+        }
+    }
+
+    /**
+     * Tests error responses
+     * @throws IOException if the server cannot start
+     */
+    @Test
+    public void testErrors() throws IOException {
+        try (GameServer server = new GameServer(0, GameServer.DEFAULT_IDLE_MILLIS)) {
+            assertEquals("ERROR Unknown request", server.handle("DEAL 1"), "Unknown request");
+            assertEquals("ERROR Unknown session", server.handle("NEW 99"), "Unknown session");
+            assertEquals("ERROR Invalid number", server.handle("NEW one"), "Invalid number");
+            assertEquals("ERROR Invalid request", server.handle("NEW"), "Missing id");
+            assertEquals("ERROR Invalid seed", server.handle("OPEN -1"), "Invalid seed");
+            String id = server.handle("OPEN 5").substring(3);
+            assertEquals("ERROR No hand", server.handle("SCORE " + id), "Score before deal");
+            assertEquals("ERROR No hand", server.handle("REPLACE " + id + " 0"),
+                         "Replace before deal");
+            server.handle("NEW " + id);
+            assertEquals("ERROR Invalid index", server.handle("REPLACE " + id + " 5"),
+                         "Invalid index");
+            server.handle("REPLACE " + id + " 0");
+            assertEquals("ERROR Card already replaced", server.handle("REPLACE " + id + " 0"),
+                         "Replace twice");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests HandEnumerator class
+ * @author Cole Sanders
+ */
+public class HandEnumeratorTest {
+
+    /**
+     * Tests that every hand is counted once in the right category
+     */
+    @Test
+    public void testCountHands() {
+        long[] counts = new HandEnumerator().countHands();
+        long[] expected = {1303560, 1098240, 123552, 54912, 9180, 5112, 3744, 624, 32, 4};
+        assertArrayEquals(expected, counts, "Hands of each category");
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        assertEquals(HandEnumerator.TOTAL_HANDS, total, "Total hands");
+    }
+
+    /**
+     * Tests that the result does not depend on the number of threads
+     */
+    @Test
+    public void testCountHandsSingleThread() {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            assertArrayEquals(new HandEnumerator().countHands(), 
+                              new HandEnumerator().countHands(pool), "One thread");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Tests the probability and expected payout
+     */
+    @Test
+    public void testStatistics() {
+        long[] counts = new HandEnumerator().countHands();
+        assertEquals(4.0 / 2598960, HandEnumerator.getProbability(counts, HandRank.ROYAL_FLUSH),
+                     1e-15, "Royal flush probability");
+        assertEquals(10313020.0 / 2598960, HandEnumerator.getExpectedPayout(counts), 1e-9,
+                     "Expected payout");
+    }
+}
@@ -0,0 +1,120 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests HandEvaluator class
+ * @author Cole Sanders
+ */
+public class HandEvaluatorTest {
+
+    /**
+     * Tests evaluate() with one hand of each category
+     */
+    @Test
+    public void testEvaluate() {
+        assertEquals(HandRank.ROYAL_FLUSH, evaluate(new Card(14,'d'), new Card(11,'d'), 
+                     new Card(12,'d'), new Card(13,'d'), new Card(10,'d')), "Royal flush");
+        assertEquals(HandRank.STRAIGHT_FLUSH, evaluate(new Card(2,'s'), new Card(5,'s'), 
+                     new Card(4,'s'), new Card(3,'s'), new Card(6,'s')), "Straight flush");
+        assertEquals(HandRank.FOUR_OF_A_KIND, evaluate(new Card(5,'c'), new Card(5,'s'), 
+                     new Card(5,'d'), new Card(5,'h'), new Card(4,'s')), "Four of a kind");
+        assertEquals(HandRank.FULL_HOUSE, evaluate(new Card(5,'c'), new Card(5,'s'), 
+                     new Card(5,'d'), new Card(4,'h'), new Card(4,'s')), "Full house");
+        assertEquals(HandRank.FLUSH, evaluate(new Card(2,'c'), new Card(3,'c'), 
+                     new Card(10,'c'), new Card(12,'c'), new Card(6,'c')), "Flush");
+        assertEquals(HandRank.STRAIGHT, evaluate(new Card(2,'c'), new Card(3,'d'), 
+                     new Card(4,'s'), new Card(5,'h'), new Card(6,'c')), "Straight");
+        assertEquals(HandRank.THREE_OF_A_KIND, evaluate(new Card(3,'c'), new Card(5,'s'), 
+                     new Card(5,'d'), new Card(5,'h'), new Card(4,'s')), "Three of a kind");
+        assertEquals(HandRank.TWO_PAIRS, evaluate(new Card(3,'c'), new Card(9,'s'), 
+                     new Card(5,'d'), new Card(5,'s'), new Card(3,'s')), "Two pairs");
+        assertEquals(HandRank.ONE_PAIR, evaluate(new Card(3,'c'), new Card(9,'s'), 
+                     new Card(7,'d'), new Card(5,'s'), new Card(3,'s')), "One pair");
+        assertEquals(HandRank.NO_PAIR, evaluate(new Card(14,'c'), new Card(2,'s'), 
+                     new Card(3,'d'), new Card(4,'s'), new Card(5,'s')), "Ace low is no straight");
+    }
+
+    /**
+     * Tests that evaluating every hand in the deck gives the expected
+     * number of hands in each category
+     */
+    @Test
+    public void testEvaluateAllHands() {
+        Card[] deck = new Card[Deck.CARDS_IN_DECK];
+        Deck d = new Deck(1);
+        for (int i = 0; i < Deck.CARDS_IN_DECK; i++) {
+            deck[i] = d.nextCard();
+        }
+        long[] counts = new long[HandRank.values().length];
+        Hand hand = new Hand(java.util.Arrays.copyOf(deck, Hand.CARDS_IN_HAND));
+        for (int a = 0; a < deck.length; a++) {
+            hand.replace(0, deck[a]);
+            for (int b = a + 1; b < deck.length; b++) {
+                hand.replace(1, deck[b]);
+                for (int c = b + 1; c < deck.length; c++) {
+                    hand.replace(2, deck[c]);
+                    for (int e = c + 1; e < deck.length; e++) {
+                        hand.replace(3, deck[e]);
+                        for (int f = e + 1; f < deck.length; f++) {
+                            hand.replace(4, deck[f]);
+                            counts[HandEvaluator.evaluate(hand).ordinal()]++;
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(4, counts[HandRank.ROYAL_FLUSH.ordinal()], "Royal flushes");
+        assertEquals(32, counts[HandRank.STRAIGHT_FLUSH.ordinal()], "Straight flushes");
+        assertEquals(624, counts[HandRank.FOUR_OF_A_KIND.ordinal()], "Four of a kinds");
+        assertEquals(3744, counts[HandRank.FULL_HOUSE.ordinal()], "Full houses");
+        assertEquals(5112, counts[HandRank.FLUSH.ordinal()], "Flushes");
+        assertEquals(9180, counts[HandRank.STRAIGHT.ordinal()], "Straights");
+        assertEquals(54912, counts[HandRank.THREE_OF_A_KIND.ordinal()], "Three of a kinds");
+        assertEquals(123552, counts[HandRank.TWO_PAIRS.ordinal()], "Two pairs");
+        assertEquals(1098240, counts[HandRank.ONE_PAIR.ordinal()], "One pairs");
+        assertEquals(1303560, counts[HandRank.NO_PAIR.ordinal()], "No pairs");
+    }
+
+    /**
+     * Tests that hands holding a card twice are classified only when the
+     * table covers them, and rejected when all five cards share a value
+     */
+    @Test
+    public void testExceptions() {
+        assertEquals(HandRank.FOUR_OF_A_KIND, evaluate(new Card(14,'h'), new Card(14,'h'),
+                     new Card(14,'s'), new Card(14,'d'), new Card(3,'c')), "Repeated ace");
+
+        Hand suited = new Hand(new Card[] {new Card(14,'h'), new Card(14,'h'), new Card(14,'h'),
+                                           new Card(14,'h'), new Card(14,'h')});
+        Exception exception = assertThrows(IllegalArgumentException.class, suited::classify,
+                                           "Five aces of one suit");
+        assertEquals("Five cards of one value", exception.getMessage(),
+                     "Five aces of one suit message");
+        Hand mixed = new Hand(new Card[] {new Card(14,'h'), new Card(14,'c'), new Card(14,'s'),
+                                          new Card(14,'d'), new Card(14,'h')});
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> HandEvaluator.evaluate(mixed), "Five aces of mixed suits");
+        assertEquals("Five cards of one value", exception.getMessage(),
+                     "Five aces of mixed suits message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> HandEvaluator.getTables().evaluate(mixed), "Five aces from the tables");
+        assertEquals("Five cards of one value", exception.getMessage(),
+                     "Five aces from the tables message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> HandEvaluator.evaluate(HandEvaluator.MAX_KEY_SUM + 1, true), "Key sum too large");
+        assertEquals("Invalid key sum", exception.getMessage(), "Key sum too large message");
+        assertThrows(IllegalArgumentException.class,
+            () -> HandEvaluator.evaluate(-1, false), "Negative key sum");
+    }
+
+    /**
+     * Builds a hand from five cards and evaluates it
+     * @param cards cards in the hand
+     * @return category of the hand
+     */
+    private HandRank evaluate(Card... cards) {
+        return HandEvaluator.evaluate(new Hand(cards));
+    }
+}
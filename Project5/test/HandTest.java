@@ -1,5 +1,8 @@
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -79,6 +82,61 @@ public class HandTest {
         assertFalse(hand.equals("Hand"), "hand compared to String");
     }
 
+    /**
+     * Tests that keys, equals and hashCode do not depend on card order and
+     * leave the hands unchanged
+     */
+    @Test
+    public void testKey() {
+        Card[] reversed = {new Card(6,'c'), new Card(5,'h'), new Card(4,'s'), new Card(3,'d'),
+                           new Card(2,'c')};
+        Hand reversedHand = new Hand(reversed);
+        assertEquals(CardSet.of(hand).getBits(), hand.getKey(), "key is the card bits");
+        assertEquals(hand, reversedHand, "same cards in another order");
+        assertEquals(hand.hashCode(), reversedHand.hashCode(), "same hash code");
+        assertEquals("[c6, h5, s4, d3, c2]", reversedHand.toString(), "order unchanged");
+        assertEquals("[c2, d3, s4, h5, c6]", hand.toString(), "own order unchanged");
+
+        Set<Hand> hands = new HashSet<>();
+        hands.add(hand);
+        assertTrue(hands.contains(reversedHand), "hash set lookup");
+
+        reversedHand.replace(0, new Card(7,'c'));
+        assertNotEquals(hand, reversedHand, "replace updates the key");
+        assertFalse(hands.contains(reversedHand), "replaced hand not found");
+        reversedHand.replace(0, new Card(6,'c'));
+        assertEquals(hand.getKey(), reversedHand.getKey(), "replaced back");
+
+        reversed[0] = new Card(7,'c');
+        assertEquals(hand, reversedHand, "changing the array does not change the hand");
+        assertEquals("c6", reversedHand.getCard(0).toString(), "card copied");
+
+        Card[] twice = {new Card(2,'c'), new Card(2,'c'), new Card(4,'s'), new Card(5,'h'),
+                        new Card(6,'c')};
+        Card[] twiceOther = {new Card(2,'c'), new Card(4,'s'), new Card(4,'s'), new Card(5,'h'),
+                             new Card(6,'c')};
+        Hand duplicate = new Hand(twice);
+        assertTrue(duplicate.getKey() < 0, "duplicate key is negative");
+        assertNotEquals(duplicate, new Hand(twiceOther), "same cards, other counts");
+        assertEquals(duplicate, new Hand(twice.clone()), "same duplicate hand");
+        assertEquals(duplicate.getKey(), duplicate.getCanonicalKey(), "duplicates not renamed");
+
+        Card[] otherSuits = {new Card(2,'d'), new Card(3,'c'), new Card(4,'h'), new Card(5,'s'),
+                             new Card(6,'d')};
+        Hand renamed = new Hand(otherSuits);
+        assertNotEquals(hand, renamed, "different suits");
+        assertEquals(hand.getCanonicalKey(), renamed.getCanonicalKey(), "same after renaming");
+        assertEquals(SuitCanonicalizer.canonicalize(hand), hand.getCanonicalKey(),
+                     "canonical key");
+
+        Card[] withJoker = {Card.JOKER, new Card(3,'d'), new Card(4,'s'), new Card(5,'h'),
+                            new Card(6,'c')};
+        Hand joker = new Hand(withJoker);
+        assertEquals(CardSet.bit(Card.JOKER_INDEX), joker.getCanonicalKey()
+                     & CardSet.bit(Card.JOKER_INDEX), "joker kept in canonical key");
+        assertEquals(Hand.CARDS_IN_HAND, Long.bitCount(joker.getCanonicalKey()), "five cards");
+    }
+
     /**
      * Tests the isFlush() method
      */
@@ -175,6 +233,40 @@ public class HandTest {
         assertFalse(hand.hasOnePair(), "Not one pair hand");
     }
 
+    /**
+     * Tests the classify() method and that replace() clears its cached result
+     */
+    @Test
+    public void testClassify() {
+        assertEquals(HandRank.STRAIGHT, hand.classify(), "Straight hand");
+        assertSame(hand.classify(), hand.classify(), "Cached result");
+        hand.replace(4, new Card(2,'h'));
+        assertEquals(HandRank.ONE_PAIR, hand.classify(), "Pair after replace");
+        assertTrue(hand.hasOnePair(), "Pair predicate after replace");
+        assertFalse(hand.isStraight(), "Straight predicate after replace");
+
+        Hand joker = new Hand(new Card[] {Card.JOKER, new Card(10,'s'), new Card(3,'c'),
+                                          new Card(8,'h'), new Card(5,'d')});
+        Exception exception = assertThrows(IllegalStateException.class, joker::classify,
+                                           "Joker");
+        assertEquals("Joker in hand", exception.getMessage(), "Joker message");
+    }
+
+    /**
+     * Tests that the predicates overlap the way scoreHand() expects
+     */
+    @Test
+    public void testPredicatesFullHouse() {
+        Card[] cards = {new Card(5,'c'), new Card(5,'s'), new Card(5,'d'), new Card(4,'h'), 
+                        new Card(4,'s')};
+        Hand fullHouse = new Hand(cards);
+        assertTrue(fullHouse.isFullHouse(), "Full house");
+        assertTrue(fullHouse.hasThreeOfAKind(), "Full house has three of a kind");
+        assertTrue(fullHouse.hasOnePair(), "Full house has one pair");
+        assertFalse(fullHouse.hasTwoPairs(), "Full house does not have two pairs");
+        assertFalse(fullHouse.isStraight(), "Full house is not a straight");
+    }
+
     /**
      * Tests exceptions
      */
@@ -0,0 +1,188 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests HoldSolver class
+ * @author Cole Sanders
+ */
+public class HoldSolverTest {
+
+    /**
+     * Tests the expected payouts against dealing out every draw for a hand
+     * with a pair of jacks
+     */
+    @Test
+    public void testExpectedPayoutsPair() {
+        Hand hand = new Hand(new Card[] {new Card(11,'c'), new Card(11,'d'), new Card(4,'s'), 
+                                         new Card(8,'h'), new Card(13,'c')});
+        double[] payouts = HoldSolver.expectedPayouts(hand);
+        for (int mask = 0; mask < HoldSolver.HOLD_MASKS; mask++) {
+            assertEquals(bruteForce(hand, mask), payouts[mask], 1e-9, "Hold mask " + mask);
+        }
+        assertEquals(VideoPoker.ONE_PAIR, payouts[HoldSolver.HOLD_ALL], 1e-9, "Hold all");
+    }
+
+    /**
+     * Tests the best hold for a few hands
+     */
+    @Test
+    public void testBestHold() {
+        Hand royal = new Hand(new Card[] {new Card(14,'d'), new Card(11,'d'), new Card(12,'d'), 
+                                          new Card(13,'d'), new Card(10,'d')});
+        assertEquals(HoldSolver.HOLD_ALL, HoldSolver.bestHold(royal), "Keep a royal flush");
+        Hand fourToRoyal = new Hand(new Card[] {new Card(14,'d'), new Card(11,'d'), 
+                                                new Card(12,'d'), new Card(13,'d'), 
+                                                new Card(3,'c')});
+        assertEquals(0b01111, HoldSolver.bestHold(fourToRoyal), "Draw to the royal flush");
+        Hand trips = new Hand(new Card[] {new Card(9,'c'), new Card(2,'h'), new Card(9,'d'), 
+                                          new Card(9,'s'), new Card(13,'c')});
+        assertEquals(0b01101, HoldSolver.bestHold(trips), "Keep three of a kind");
+    }
+
+    /**
+     * Tests discarding every card against dealing out all 1,533,939 draws
+     */
+    @Test
+    public void testDiscardAll() {
+        Hand hand = new Hand(new Card[] {new Card(2,'c'), new Card(7,'d'), new Card(9,'s'), 
+                                         new Card(12,'h'), new Card(4,'c')});
+        assertEquals(bruteForce(hand, 0), HoldSolver.expectedPayout(hand, 0), 1e-9, 
+                     "Discard all");
+    }
+
+    /**
+     * Tests the expected payouts of each variant in the variants folder
+     * against dealing out every draw
+     * @throws IOException if a variant cannot be read
+     */
+    @Test
+    public void testVariants() throws IOException {
+        Hand pair = new Hand(new Card[] {new Card(13,'c'), new Card(13,'d'), new Card(4,'s'),
+                                         new Card(8,'h'), new Card(12,'c')});
+        Hand deuces = new Hand(new Card[] {new Card(2,'c'), new Card(2,'d'), new Card(10,'s'),
+                                           new Card(11,'s'), new Card(6,'h')});
+        Hand joker = new Hand(new Card[] {Card.JOKER, new Card(10,'s'), new Card(3,'c'),
+                                          new Card(8,'h'), new Card(5,'d')});
+        assertVariant("jacks-or-better", pair);
+        assertVariant("deuces-wild", deuces);
+        assertVariant("joker-poker", joker);
+        assertVariant("joker-poker", pair);
+
+        Variant deucesWild = variant("deuces-wild");
+        assertEquals(0b00011, HoldSolver.bestHold(deuces, deucesWild) & 0b00011,
+                     "Keep the deuces");
+        assertNotEquals(HoldSolver.bestHold(deuces), HoldSolver.bestHold(deuces, deucesWild),
+                        "Deuces are not wild in the classic game");
+        assertEquals(1, HoldSolver.bestHold(joker, variant("joker-poker")) & 1, "Keep the joker");
+    }
+
+    /**
+     * Checks every hold mask of a hand under a variant against dealing out
+     * every draw
+     * @param name file name of the variant without the extension
+     * @param hand dealt hand
+     * @throws IOException if the variant cannot be read
+     */
+    private void assertVariant(String name, Hand hand) throws IOException {
+        Variant variant = variant(name);
+        double[] payouts = HoldSolver.expectedPayouts(hand, variant);
+        for (int mask = 0; mask < HoldSolver.HOLD_MASKS; mask++) {
+            assertEquals(bruteForce(hand, mask, variant), payouts[mask], 1e-9,
+                         name + " hold mask " + mask);
+        }
+        assertEquals(variant.getPayout(variant.evaluate(hand)), payouts[HoldSolver.HOLD_ALL],
+                     name + " hold all");
+    }
+
+    /**
+     * Loads one of the variants in the variants folder
+     * @param name file name without the extension
+     * @return the variant
+     * @throws IOException if the file cannot be read
+     */
+    private static Variant variant(String name) throws IOException {
+        return Variant.load(Paths.get(Variant.DIRECTORY, name + ".properties"));
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Hand hand = new Hand(new Card[] {new Card(2,'c'), new Card(2,'c'), new Card(9,'s'), 
+                                         new Card(12,'h'), new Card(4,'c')});
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> HoldSolver.bestHold(hand), "bestHold() duplicate card");
+        assertEquals("Duplicate card", exception.getMessage(), 
+                     "bestHold() duplicate card message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> HoldSolver.expectedPayout(hand, 32), "expectedPayout() invalid mask");
+        assertEquals("Invalid hold mask", exception.getMessage(), 
+                     "expectedPayout() invalid mask message");
+
+        Hand joker = new Hand(new Card[] {Card.JOKER, new Card(10,'s'), new Card(3,'c'),
+                                          new Card(8,'h'), new Card(5,'d')});
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> HoldSolver.bestHold(joker), "bestHold() joker in the classic game");
+        assertEquals("Card not in deck", exception.getMessage(),
+                     "bestHold() joker in the classic game message");
+    }
+
+    /**
+     * Works out the expected payout of a hold mask by dealing out every draw
+     * @param hand dealt hand
+     * @param mask hold mask
+     * @return expected payout
+     */
+    private double bruteForce(Hand hand, int mask) {
+        return bruteForce(hand, mask, Variant.CLASSIC);
+    }
+
+    /**
+     * Works out the expected payout of a hold mask under a variant by
+     * dealing out every draw from the variant's deck
+     * @param hand dealt hand
+     * @param mask hold mask
+     * @param variant rules and paytable the final hands are scored by
+     * @return expected payout
+     */
+    private double bruteForce(Hand hand, int mask, Variant variant) {
+        long held = 0;
+        for (int i = 0; i < Hand.CARDS_IN_HAND; i++) {
+            if ((mask & (1 << i)) != 0) {
+                held |= CardSet.bit(hand.getCard(i).getIndex());
+            }
+        }
+        long deck = (1L << variant.getDeckSize()) - 1;
+        long unseen = deck & ~hand.getKey();
+        long[] result = new long[2];
+        draw(held, unseen, Hand.CARDS_IN_HAND - Long.bitCount(held), variant, result);
+        return (double) result[0] / result[1];
+    }
+
+    /**
+     * Deals every draw of the remaining cards and adds up the payouts
+     * @param cards cards in the hand so far
+     * @param unseen cards that can still be drawn
+     * @param remaining number of cards still to draw
+     * @param variant rules and paytable the final hands are scored by
+     * @param result total payout and number of hands so far
+     */
+    private void draw(long cards, long unseen, int remaining, Variant variant, long[] result) {
+        if (remaining == 0) {
+            result[0] += variant.getPayout(cards);
+            result[1]++;
+            return;
+        }
+        while (unseen != 0) {
+            long bit = Long.lowestOneBit(unseen);
+            unseen &= ~bit;
+            draw(cards | bit, unseen, remaining - 1, variant, result);
+        }
+    }
+}
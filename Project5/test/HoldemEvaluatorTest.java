@@ -0,0 +1,220 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests HoldemEvaluator class
+ * @author Cole Sanders
+ */
+public class HoldemEvaluatorTest {
+
+    /** Number of seven card hands of each category, indexed by HandRank ordinal */
+    private static final long[] SEVEN_CARD_COUNTS = {23294460, 58627800, 31433400, 6461620,
+                                                     6180020, 4047644, 3473184, 224848,
+                                                     37260, 4324};
+
+    /**
+     * Parses cards written like "h14 s2"
+     * @param cards cards separated by spaces
+     * @return bits of the cards
+     */
+    private static long cards(String cards) {
+        long bits = 0;
+        for (String card : cards.split(" ")) {
+            bits |= CardSet.bit(Card.of(Integer.parseInt(card.substring(1)), card.charAt(0))
+                                    .getIndex());
+        }
+        return bits;
+    }
+
+    /**
+     * Tests the categories and tie breaks of particular hands
+     */
+    @Test
+    public void testHands() {
+        int royal = HoldemEvaluator.evaluate(cards("h10 h11 h12 h13 h14 c2 d2"));
+        assertEquals(HandRank.ROYAL_FLUSH, HoldemEvaluator.getRank(royal), "royal flush");
+        int steelWheel = HoldemEvaluator.evaluate(cards("s14 s2 s3 s4 s5 h5 d5"));
+        assertEquals(HandRank.STRAIGHT_FLUSH, HoldemEvaluator.getRank(steelWheel),
+                     "ace low straight flush beats trips");
+        int wheel = HoldemEvaluator.evaluate(cards("s14 d2 s3 h4 c5 h9 d11"));
+        assertEquals(HandRank.STRAIGHT, HoldemEvaluator.getRank(wheel), "ace low straight");
+        int sixHigh = HoldemEvaluator.evaluate(cards("s6 d2 s3 h4 c5 h14 d11"));
+        assertTrue(sixHigh > wheel, "six high straight beats ace low straight");
+        int flush = HoldemEvaluator.evaluate(cards("h2 h4 h6 h8 h10 s9 d7"));
+        assertEquals(HandRank.FLUSH, HoldemEvaluator.getRank(flush), "flush over straight");
+        int twoTrips = HoldemEvaluator.evaluate(cards("h9 s9 d9 c4 h4 s4 d14"));
+        assertEquals(HandRank.FULL_HOUSE, HoldemEvaluator.getRank(twoTrips),
+                     "full house from two trips");
+        assertEquals(twoTrips, HoldemEvaluator.evaluate(cards("h9 s9 d9 c4 h4 s2 d14")),
+                     "nines full of fours either way");
+        int threePairs = HoldemEvaluator.evaluate(cards("h9 s9 d8 c8 h4 s4 d3"));
+        assertEquals(HandRank.TWO_PAIRS, HoldemEvaluator.getRank(threePairs), "three pairs");
+        assertEquals(threePairs, HoldemEvaluator.evaluate(cards("h9 s9 d8 c8 h4 s2 d4")),
+                     "third pair plays as kicker");
+        assertTrue(HoldemEvaluator.evaluate(cards("h9 s9 d8 c8 h5 s2 d3")) > threePairs,
+                   "better kicker wins");
+        assertEquals(HoldemEvaluator.evaluate(cards("h14 s13 d9 c7 h5 s3 d2")),
+                     HoldemEvaluator.evaluate(cards("c14 d13 h9 s7 c5 h3 s2")),
+                     "same values tie");
+        assertEquals(HoldemEvaluator.evaluate(cards("h14 s13 d9 c7 h5 s3 d2")),
+                     HoldemEvaluator.evaluate(Card.of(2, 'd'), Card.of(14, 'h'), Card.of(13, 's'),
+                                              Card.of(9, 'd'), Card.of(7, 'c'), Card.of(5, 'h'),
+                                              Card.of(3, 's')),
+                     "cards and bits agree");
+    }
+
+    /**
+     * Tests the number of seven card hands of each category
+     */
+    @Test
+    public void testCategoryCounts() {
+        long[] counts = new long[HandRank.values().length];
+        for (int a = 6; a < 52; a++) {
+            long bitsA = 1L << a;
+            for (int b = 5; b < a; b++) {
+                long bitsB = bitsA | 1L << b;
+                for (int c = 4; c < b; c++) {
+                    long bitsC = bitsB | 1L << c;
+                    for (int d = 3; d < c; d++) {
+                        long bitsD = bitsC | 1L << d;
+                        for (int e = 2; e < d; e++) {
+                            long bitsE = bitsD | 1L << e;
+                            for (int f = 1; f < e; f++) {
+                                long bitsF = bitsE | 1L << f;
+                                for (int g = 0; g < f; g++) {
+                                    counts[HoldemEvaluator.evaluate(bitsF | 1L << g)
+                                           >>> HoldemEvaluator.CATEGORY_SHIFT]++;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        assertArrayEquals(SEVEN_CARD_COUNTS, counts, "counts of every category");
+    }
+
+    /**
+     * Tests random hands against the best of the 21 five card hands in
+     * them, scored by a simple reference
+     */
+    @Test
+    public void testBestOfTwentyOne() {
+        SplittableRandom rng = new SplittableRandom(17);
+        for (int hand = 0; hand < 20000; hand++) {
+            long bits = 0;
+            while (Long.bitCount(bits) < 7) {
+                bits |= 1L << rng.nextInt(52);
+            }
+            int[] cards = new int[7];
+            long rest = bits;
+            for (int i = 0; i < 7; i++) {
+                cards[i] = Long.numberOfTrailingZeros(rest);
+                rest &= rest - 1;
+            }
+            int best = 0;
+            for (int skip1 = 0; skip1 < 7; skip1++) {
+                for (int skip2 = skip1 + 1; skip2 < 7; skip2++) {
+                    int[] five = new int[5];
+                    int n = 0;
+                    for (int i = 0; i < 7; i++) {
+                        if (i != skip1 && i != skip2) {
+                            five[n++] = cards[i];
+                        }
+                    }
+                    best = Math.max(best, fiveCardStrength(five));
+                }
+            }
+            assertEquals(best, HoldemEvaluator.evaluate(bits), "hand " + new CardSet(bits));
+        }
+    }
+
+    /**
+     * Scores five cards by sorting their values by count and then value
+     * @param cards indexes of five cards
+     * @return strength in the format of HoldemEvaluator
+     */
+    private static int fiveCardStrength(int[] cards) {
+        int[] counts = new int[13];
+        boolean flush = true;
+        for (int card : cards) {
+            counts[card % 13]++;
+            flush &= card / 13 == cards[0] / 13;
+        }
+        Integer[] values = new Integer[5];
+        for (int i = 0; i < 5; i++) {
+            values[i] = cards[i] % 13;
+        }
+        Arrays.sort(values, (x, y) -> counts[x] != counts[y] ? counts[y] - counts[x] : y - x);
+        int high = values[0];
+        boolean straight = counts[values[0]] == 1 && values[0] - values[4] == 4;
+        if (counts[values[0]] == 1 && values[0] == 12 && values[1] == 3) {
+            straight = true;
+            high = 3;
+        }
+        HandRank rank;
+        if (straight && flush) {
+            rank = high == 12 ? HandRank.ROYAL_FLUSH : HandRank.STRAIGHT_FLUSH;
+        }
+        else if (counts[values[0]] == 4) {
+            rank = HandRank.FOUR_OF_A_KIND;
+        }
+        else if (counts[values[0]] == 3 && counts[values[3]] == 2) {
+            rank = HandRank.FULL_HOUSE;
+        }
+        else if (flush) {
+            rank = HandRank.FLUSH;
+        }
+        else if (straight) {
+            rank = HandRank.STRAIGHT;
+        }
+        else if (counts[values[0]] == 3) {
+            rank = HandRank.THREE_OF_A_KIND;
+        }
+        else if (counts[values[0]] == 2 && counts[values[2]] == 2) {
+            rank = HandRank.TWO_PAIRS;
+        }
+        else if (counts[values[0]] == 2) {
+            rank = HandRank.ONE_PAIR;
+        }
+        else {
+            rank = HandRank.NO_PAIR;
+        }
+        int strength = rank.ordinal() << 20;
+        if (straight) {
+            return strength | high << 16;
+        }
+        int shift = 20;
+        for (int i = 0; i < 5; i++) {
+            if (i == 0 || !values[i].equals(values[i - 1])) {
+                shift -= 4;
+                strength |= values[i] << shift;
+            }
+        }
+        return strength;
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> HoldemEvaluator.evaluate(cards("h2 h3 h4 h5 h6 h7")), "Six cards");
+        assertEquals("Not seven cards", exception.getMessage(), "Six cards message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> HoldemEvaluator.evaluate(1L << 52 | 0x3F), "Bit outside deck");
+        assertEquals("Not seven cards", exception.getMessage(), "Bit outside deck message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> HoldemEvaluator.evaluate(Card.of(2, 'h'), Card.of(2, 'h'), Card.of(3, 'h'),
+                                           Card.of(4, 'h'), Card.of(5, 'h'), Card.of(6, 'h'),
+                                           Card.of(7, 'h')), "Repeated card");
+        assertEquals("Duplicate card", exception.getMessage(), "Repeated card message");
+    }
+}
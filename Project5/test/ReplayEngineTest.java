@@ -0,0 +1,127 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests ReplayEngine and AuditReport classes
+ * @author Cole Sanders
+ */
+public class ReplayEngineTest {
+
+    /**
+     * Plays sessions and journals them
+     * @param journal journal to append to
+     * @param sessions number of sessions
+     */
+    private static void play(GameJournal journal, int sessions) {
+        for (int id = 1; id <= sessions; ++id) {
+            GameSession session = new GameSession(id, id * 7, journal);
+            for (int game = 0; game < 3; ++game) {
+                session.newGame();
+                session.replaceCard(game);
+                session.scoreHand();
+            }
+            if (id % 2 == 0) {
+                session.close();
+            }
+        }
+    }
+
+    /**
+     * Tests that a journal written by real sessions passes the audit
+     * @param directory directory of the journal
+     * @throws IOException if the journal cannot be used
+     */
+    @Test
+    public void testClean(@TempDir Path directory) throws IOException {
+        try (GameJournal journal = new GameJournal(directory)) {
+            play(journal, 20);
+        }
+        ReplayEngine engine = new ReplayEngine(directory);
+        AuditReport report = engine.run(1);
+        assertEquals(20, report.getSessions(), "Sessions");
+        assertEquals(60, report.getGames(), "Games");
+        assertEquals(20 + 60 * 3 + 10, report.getEvents(), "Events");
+        assertEquals(0, report.getMismatches(), "No mismatches");
+        assertEquals(report, engine.run(3), "Same report on three threads");
+    }
+
+    /**
+     * Tests a journal long enough that the reader fills every partition's
+     * queue and has to wait for its thread
+     * @param directory directory of the journal
+     * @throws IOException if the journal cannot be used
+     */
+    @Test
+    public void testStreaming(@TempDir Path directory) throws IOException {
+        try (GameJournal journal = new GameJournal(directory)) {
+            play(journal, 4000);
+        }
+        AuditReport report = new ReplayEngine(directory).run(2);
+        assertEquals(4000, report.getSessions(), "Sessions");
+        assertEquals(12000, report.getGames(), "Games");
+        assertEquals(4000 + 12000 * 3 + 2000, report.getEvents(), "Events");
+        assertEquals(0, report.getMismatches(), "No mismatches");
+        assertEquals(report, new ReplayEngine(directory).run(1), "Same report on one thread");
+    }
+
+    /**
+     * Tests that tampered records are flagged
+     * @throws IOException never, since the records are in memory
+     */
+    @Test
+    public void testMismatches() throws IOException {
+        List<JournalRecord> records = new ArrayList<>();
+        VideoPoker game = new VideoPoker(5);
+        records.add(new JournalRecord(1, 5, JournalRecord.OPEN, JournalRecord.NO_CARD,
+                                      VideoPoker.STARTING_POINTS, 0));
+        game.newGame();
+        long cards = CardSet.of(game.getHand()).getBits();
+        records.add(new JournalRecord(1, 5, JournalRecord.NEW_GAME, JournalRecord.NO_CARD,
+                                      game.getPoints(), cards));
+        // scored with more points than the hand pays
+        records.add(new JournalRecord(1, 5, JournalRecord.SCORE, JournalRecord.NO_CARD,
+                                      game.getPoints() + 1000, cards));
+        // skipped, since session 1 already failed
+        records.add(new JournalRecord(1, 5, JournalRecord.NEW_GAME, JournalRecord.NO_CARD,
+                                      0, 0));
+        records.add(new JournalRecord(2, 6, JournalRecord.REPLACE, 0, 0, 0));
+        records.add(new JournalRecord(3, 6, JournalRecord.OPEN, JournalRecord.NO_CARD, 5, 0));
+
+        AuditReport report = new ReplayEngine(records).run(2);
+        assertEquals(3, report.getMismatches(), "Mismatched sessions");
+        assertEquals(1, report.getGames(), "Games verified");
+        List<String> descriptions = report.getMismatchDescriptions();
+        assertEquals("record 2, session 1, event SCORE: Journal does not match game",
+                     descriptions.get(0), "Wrong payout");
+        assertEquals("record 4, session 2, event REPLACE: Unknown session",
+                     descriptions.get(1), "Unknown session");
+        assertEquals("record 5, session 3, event OPEN: Wrong starting points",
+                     descriptions.get(2), "Wrong starting points");
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> new ReplayEngine((List<JournalRecord>) null), "Constructor null records");
+        assertEquals("Null records", exception.getMessage(), "Constructor null records message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new ReplayEngine((Path) null), "Constructor null directory");
+        assertEquals("Null directory", exception.getMessage(),
+                     "Constructor null directory message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new ReplayEngine(new ArrayList<>()).run(0), "No threads");
+        assertEquals("Invalid thread count", exception.getMessage(), "No threads message");
+    }
+}
@@ -0,0 +1,60 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests SessionSimulator class
+ * @author Cole Sanders
+ */
+public class SessionSimulatorTest {
+
+    /**
+     * Tests that the results for a seed do not depend on the thread count
+     */
+    @Test
+    public void testDeterministic() {
+        SessionSimulator simulator = new SessionSimulator(DrawStrategy.OPTIMAL, 50);
+        SimulationReport one = simulator.run(42, 300, 1);
+        SimulationReport four = simulator.run(42, 300, 4);
+        assertEquals(one, four, "Same results on one and four threads");
+        assertNotEquals(one, simulator.run(43, 300, 4), "Different seed");
+    }
+
+    /**
+     * Tests that the totals in a report add up
+     */
+    @Test
+    public void testReport() {
+        SimulationReport report = new SessionSimulator(DrawStrategy.STAND_PAT, 20)
+                                  .run(1, 200, 2);
+        assertEquals(200, report.getSessions(), "Sessions");
+        long hits = 0;
+        for (HandRank rank : HandRank.values()) {
+            hits += report.getHits(rank);
+        }
+        assertEquals(report.getGames(), hits, "Every game has a category");
+        long sessions = report.getSurvivors();
+        for (int games = 0; games <= 20; games++) {
+            sessions += report.getBustCount(games);
+        }
+        assertEquals(200, sessions, "Every session busts or survives");
+        assertTrue(report.getReturnToPlayer() > 0.2 && report.getReturnToPlayer() < 0.6,
+                   "Standing pat returns about 40%");
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> new SessionSimulator(null, 10), "Constructor null strategy");
+        assertEquals("Null strategy", exception.getMessage(), 
+                     "Constructor null strategy message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new SessionSimulator(DrawStrategy.OPTIMAL, 0), "Constructor no games");
+        assertEquals("Invalid game limit", exception.getMessage(), 
+                     "Constructor no games message");
+    }
+}
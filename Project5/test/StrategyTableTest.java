@@ -0,0 +1,91 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests StrategyTable class
+ * @author Cole Sanders
+ */
+public class StrategyTableTest {
+
+    /** file the table is built into */
+    private static Path file;
+
+    /** table loaded from the file */
+    private static StrategyTable table;
+
+    /**
+     * Builds and loads the table once for all tests
+     * @throws IOException if the file cannot be written
+     */
+    @BeforeAll
+    public static void setUp() throws IOException {
+        file = Files.createTempFile("strategy", ".bin");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            StrategyTable.build(out);
+        }
+        table = StrategyTable.load(file);
+    }
+
+    /**
+     * Deletes the table file
+     * @throws IOException if the file cannot be deleted
+     */
+    @AfterAll
+    public static void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Tests that there is a record for every class of hand
+     */
+    @Test
+    public void testSize() {
+        assertEquals(SuitCanonicalizer.HAND_CLASSES, table.size(), "Records");
+    }
+
+    /**
+     * Tests the table against the solver for shuffled hands
+     */
+    @Test
+    public void testLookup() {
+        Deck deck = new Deck(7);
+        for (int game = 0; game < 500; game++) {
+            deck.shuffle();
+            Card[] cards = new Card[Hand.CARDS_IN_HAND];
+            for (int i = 0; i < cards.length; i++) {
+                cards[i] = deck.nextCard();
+            }
+            Hand hand = new Hand(cards);
+            double[] payouts = HoldSolver.expectedPayouts(hand);
+            double best = payouts[HoldSolver.bestHold(payouts)];
+            assertEquals(best, payouts[table.getBestHold(hand)], 1e-9, "Hold for " + hand);
+            assertEquals(best, table.getExpectedPayout(hand), 1e-5, "Payout for " + hand);
+        }
+    }
+
+    /**
+     * Tests exceptions
+     * @throws IOException if the test file cannot be written
+     */
+    @Test
+    public void testExceptions() throws IOException {
+        Path bad = Files.createTempFile("strategy", ".bin");
+        try {
+            Files.write(bad, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+            Exception exception = assertThrows(IOException.class,
+                () -> StrategyTable.load(bad), "load() invalid file");
+            assertEquals("Invalid strategy file", exception.getMessage(),
+                         "load() invalid file message");
+        } finally {
+            Files.delete(bad);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests SuitCanonicalizer class
+ * @author Cole Sanders
+ */
+public class SuitCanonicalizerTest {
+
+    /**
+     * Tests that hands differing only by suit names share a canonical form
+     */
+    @Test
+    public void testCanonicalize() {
+        Hand hearts = new Hand(new Card[] {new Card(11,'h'), new Card(11,'s'), new Card(4,'h'), 
+                                           new Card(8,'h'), new Card(13,'c')});
+        Hand diamonds = new Hand(new Card[] {new Card(11,'d'), new Card(11,'c'), 
+                                             new Card(4,'d'), new Card(8,'d'), 
+                                             new Card(13,'s')});
+        Hand different = new Hand(new Card[] {new Card(11,'d'), new Card(11,'c'), 
+                                              new Card(4,'d'), new Card(8,'d'), 
+                                              new Card(13,'d')});
+        long canonical = SuitCanonicalizer.canonicalize(hearts);
+        assertEquals(canonical, SuitCanonicalizer.canonicalize(diamonds), "Renamed suits");
+        assertNotEquals(canonical, SuitCanonicalizer.canonicalize(different), "Different hand");
+        assertTrue(SuitCanonicalizer.isCanonical(canonical), "Canonical form is canonical");
+        assertEquals(HandEvaluator.evaluate(CardSet.of(hearts).getBits()), 
+                     HandEvaluator.evaluate(canonical), "Same category");
+    }
+
+    /**
+     * Tests that the hands fall into the expected number of classes
+     */
+    @Test
+    public void testHandClasses() {
+        int classes = 0;
+        for (int a = 0; a < Deck.CARDS_IN_DECK; a++) {
+            for (int b = a + 1; b < Deck.CARDS_IN_DECK; b++) {
+                for (int c = b + 1; c < Deck.CARDS_IN_DECK; c++) {
+                    for (int d = c + 1; d < Deck.CARDS_IN_DECK; d++) {
+                        for (int e = d + 1; e < Deck.CARDS_IN_DECK; e++) {
+                            long bits = CardSet.bit(a) | CardSet.bit(b) | CardSet.bit(c) 
+                                        | CardSet.bit(d) | CardSet.bit(e);
+                            if (SuitCanonicalizer.isCanonical(bits)) {
+                                classes++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(SuitCanonicalizer.HAND_CLASSES, classes, "Hand classes");
+    }
+}
@@ -0,0 +1,435 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests Variant and PayCategory classes
+ * @author Cole Sanders
+ */
+public class VariantTest {
+
+    /** Bit of the joker */
+    private static final long JOKER = CardSet.bit(Card.JOKER_INDEX);
+
+    /**
+     * Loads one of the variants in the variants folder
+     * @param name file name without the extension
+     * @return the variant
+     * @throws IOException if the file cannot be read
+     */
+    private static Variant load(String name) throws IOException {
+        return Variant.load(Paths.get(Variant.DIRECTORY, name + ".properties"));
+    }
+
+    /**
+     * Parses cards written like "h14 s2 joker"
+     * @param cards cards separated by spaces
+     * @return bits of the cards
+     */
+    private static long cards(String cards) {
+        long bits = 0;
+        for (String card : cards.split(" ")) {
+            bits |= card.equals("joker") ? JOKER
+                    : CardSet.bit(Card.of(Integer.parseInt(card.substring(1)), card.charAt(0))
+                                      .getIndex());
+        }
+        return bits;
+    }
+
+    /**
+     * Counts the category of every hand dealt from a variant's deck
+     * @param variant variant to count
+     * @return number of hands of each category, indexed by PayCategory ordinal
+     */
+    private static long[] countHands(Variant variant) {
+        long[] counts = new long[PayCategory.values().length];
+        int deck = variant.getDeckSize();
+        for (int a = 0; a < deck; ++a) {
+            for (int b = a + 1; b < deck; ++b) {
+                for (int c = b + 1; c < deck; ++c) {
+                    for (int d = c + 1; d < deck; ++d) {
+                        long bits = 1L << a | 1L << b | 1L << c | 1L << d;
+                        for (int e = d + 1; e < deck; ++e) {
+                            counts[variant.evaluate(bits | 1L << e).ordinal()]++;
+                        }
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Tests that the classic variant scores every hand like HandEvaluator
+     * and the VideoPoker pay constants
+     */
+    @Test
+    public void testClassic() {
+        Variant classic = Variant.CLASSIC;
+        assertEquals(Deck.CARDS_IN_DECK, classic.getDeckSize(), "52 cards");
+        assertEquals(VideoPoker.POINTS_FOR_NEW_GAME, classic.getCost(), "cost");
+        for (int a = 0; a < Deck.CARDS_IN_DECK; ++a) {
+            for (int b = a + 1; b < Deck.CARDS_IN_DECK; ++b) {
+                for (int c = b + 1; c < Deck.CARDS_IN_DECK; ++c) {
+                    for (int d = c + 1; d < Deck.CARDS_IN_DECK; ++d) {
+                        for (int e = d + 1; e < Deck.CARDS_IN_DECK; ++e) {
+                            long bits = 1L << a | 1L << b | 1L << c | 1L << d | 1L << e;
+                            HandRank rank = HandEvaluator.evaluate(bits);
+                            PayCategory category = classic.evaluate(bits);
+                            if (!category.name().equals(rank.name())
+                                || classic.getPayout(bits) != VideoPoker.getPayout(rank)) {
+                                fail("hand " + new CardSet(bits) + " is " + category);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals("One Pair", classic.getLabel(PayCategory.ONE_PAIR), "label");
+    }
+
+    /**
+     * Tests the number of dealt hands of each category against the
+     * published counts
+     * @throws IOException if a variant cannot be read
+     */
+    @Test
+    public void testDealtCounts() throws IOException {
+        long[] counts = countHands(load("jacks-or-better"));
+        long[] expected = {1302540, 760320, 337920, 123552, 54912, 10200, 5108, 3744, 624, 36,
+                           0, 0, 0, 4};
+        assertArrayEquals(expected, counts, "Jacks or Better");
+
+        counts = countHands(load("deuces-wild"));
+        assertEquals(4, counts[PayCategory.ROYAL_FLUSH.ordinal()], "natural royals");
+        assertEquals(48, counts[PayCategory.FOUR_DEUCES.ordinal()], "four deuces");
+        assertEquals(0, counts[PayCategory.LOW_PAIR.ordinal()], "every pair pays alike");
+
+        counts = countHands(load("joker-poker"));
+        assertEquals(2869685, java.util.Arrays.stream(counts).sum(), "53 choose 5");
+        assertEquals(13, counts[PayCategory.FIVE_OF_A_KIND.ordinal()], "five of a kind");
+        assertEquals(20, counts[PayCategory.WILD_ROYAL_FLUSH.ordinal()], "wild royals");
+        assertEquals(4, counts[PayCategory.ROYAL_FLUSH.ordinal()], "natural royals");
+    }
+
+    /**
+     * Tests particular wild card hands
+     * @throws IOException if a variant cannot be read
+     */
+    @Test
+    public void testWildHands() throws IOException {
+        Variant deuces = load("deuces-wild");
+        assertEquals(PayCategory.FOUR_DEUCES, deuces.evaluate(cards("c2 d2 h2 s2 h14")),
+                     "four deuces beat a wild royal");
+        assertEquals(PayCategory.WILD_ROYAL_FLUSH, deuces.evaluate(cards("c2 h10 h11 h13 h14")),
+                     "wild royal");
+        assertEquals(PayCategory.ROYAL_FLUSH, deuces.evaluate(cards("h10 h11 h12 h13 h14")),
+                     "natural royal");
+        assertEquals(PayCategory.FIVE_OF_A_KIND, deuces.evaluate(cards("c2 d2 h9 s9 c9")),
+                     "five nines");
+        assertEquals(PayCategory.STRAIGHT_FLUSH, deuces.evaluate(cards("c2 s14 s3 s4 s5")),
+                     "wild steel wheel");
+        assertEquals(PayCategory.FULL_HOUSE, deuces.evaluate(cards("c2 s8 h8 s4 c4")),
+                     "wild full house");
+        assertEquals(PayCategory.THREE_OF_A_KIND, deuces.evaluate(cards("c2 s8 h8 s4 c5")),
+                     "a deuce makes three, not two pairs");
+        assertEquals(0, deuces.getPayout(cards("c3 s8 h8 s4 c4")), "two pairs pay nothing");
+        assertEquals("Natural Royal Flush", deuces.getLabel(PayCategory.ROYAL_FLUSH), "label");
+
+        Variant joker = load("joker-poker");
+        assertEquals(PayCategory.ONE_PAIR, joker.evaluate(cards("joker h13 s3 d7 c9")),
+                     "the joker pairs the king");
+        assertEquals(PayCategory.LOW_PAIR, joker.evaluate(cards("joker h12 s3 d7 c9")),
+                     "queens do not pay");
+        assertEquals(PayCategory.STRAIGHT, joker.evaluate(cards("joker h14 s2 d4 c5")),
+                     "wheel with the joker");
+        assertEquals(PayCategory.FIVE_OF_A_KIND, joker.evaluate(cards("joker h7 s7 d7 c7")),
+                     "five sevens");
+        assertEquals(PayCategory.TWO_PAIRS, joker.evaluate(cards("c2 h2 s7 d7 c9")),
+                     "deuces are not wild");
+        assertEquals("Kings or Better", joker.getLabel(PayCategory.ONE_PAIR), "label");
+    }
+
+    /**
+     * Tests random wild card hands against trying every card in place of
+     * each wild card
+     * @throws IOException if a variant cannot be read
+     */
+    @Test
+    public void testAgainstSubstitution() throws IOException {
+        SplittableRandom rng = new SplittableRandom(19);
+        Variant deuces = load("deuces-wild");
+        Variant joker = load("joker-poker");
+        for (int hand = 0; hand < 3000; ++hand) {
+            long bits = 0;
+            while (Long.bitCount(bits) < Hand.CARDS_IN_HAND) {
+                bits |= CardSet.bit(rng.nextInt(Deck.CARDS_IN_DECK));
+            }
+            assertEquals(bestSubstitute(bits, CardSet.valueMask(2), 2, true),
+                         deuces.evaluate(bits), "deuces " + new CardSet(bits));
+            long withJoker = bits & ~Long.highestOneBit(bits) | JOKER;
+            assertEquals(bestSubstitute(withJoker, JOKER, 13, false), joker.evaluate(withJoker),
+                         "joker " + new CardSet(bits & withJoker));
+            assertEquals(bestSubstitute(bits, JOKER, 13, false), joker.evaluate(bits),
+                         "no joker " + new CardSet(bits));
+        }
+    }
+
+    /**
+     * Finds the best category of a hand by trying every card for each
+     * wild card
+     * @param cards bits of five cards
+     * @param wildMask bits of the wild cards
+     * @param minimumPair lowest pair that pays as ONE_PAIR
+     * @param fourDeuces true if four wild cards score as FOUR_DEUCES
+     * @return best category
+     */
+    private static PayCategory bestSubstitute(long cards, long wildMask, int minimumPair,
+                                              boolean fourDeuces) {
+        long naturals = cards & ~wildMask;
+        int wilds = Long.bitCount(cards & wildMask);
+        if (fourDeuces && wilds == 4) {
+            return PayCategory.FOUR_DEUCES;
+        }
+        int[] hand = new int[Hand.CARDS_IN_HAND];
+        int n = 0;
+        for (long rest = naturals; rest != 0; rest &= rest - 1) {
+            hand[n++] = Long.numberOfTrailingZeros(rest);
+        }
+        return substitute(hand, n, wilds > 0, minimumPair);
+    }
+
+    /**
+     * Tries every card in the remaining places of a hand
+     * @param hand card indexes, filled up to position n
+     * @param n number of places filled
+     * @param wild true if any card was substituted
+     * @param minimumPair lowest pair that pays as ONE_PAIR
+     * @return best category
+     */
+    private static PayCategory substitute(int[] hand, int n, boolean wild, int minimumPair) {
+        if (n == Hand.CARDS_IN_HAND) {
+            return concrete(hand, wild, minimumPair);
+        }
+        PayCategory best = PayCategory.NO_PAIR;
+        for (int card = 0; card < Deck.CARDS_IN_DECK; ++card) {
+            hand[n] = card;
+            PayCategory category = substitute(hand, n + 1, wild, minimumPair);
+            if (category.compareTo(best) > 0) {
+                best = category;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Scores five cards, which may repeat, with an ace high or low
+     * @param hand card indexes
+     * @param wild true if any card was substituted
+     * @param minimumPair lowest pair that pays as ONE_PAIR
+     * @return category of the hand
+     */
+    private static PayCategory concrete(int[] hand, boolean wild, int minimumPair) {
+        int[] counts = new int[Card.HIGHEST_VALUE + 1];
+        boolean flush = true;
+        int values = 0;
+        for (int card : hand) {
+            int value = card % Card.VALUES_IN_SUIT + Card.LOWEST_VALUE;
+            counts[value]++;
+            values |= 1 << value;
+            flush &= card / Card.VALUES_IN_SUIT == hand[0] / Card.VALUES_IN_SUIT;
+        }
+        if ((values & 1 << 14) != 0) {
+            values |= 1 << 1;
+        }
+        boolean straight = false;
+        for (int low = 1; low <= 10; ++low) {
+            straight |= Integer.bitCount(values) >= 5 && (values >> low & 0x1F) == 0x1F;
+        }
+        int most = 0;
+        int pairs = 0;
+        int pairValue = 0;
+        boolean three = false;
+        for (int value = 2; value <= 14; ++value) {
+            most = Math.max(most, counts[value]);
+            if (counts[value] == 2) {
+                ++pairs;
+                pairValue = value;
+            }
+            three |= counts[value] == 3;
+        }
+        if (most == 5) {
+            return PayCategory.FIVE_OF_A_KIND;
+        }
+        if (straight && flush && (values & 0x7C00) == 0x7C00) {
+            return wild ? PayCategory.WILD_ROYAL_FLUSH : PayCategory.ROYAL_FLUSH;
+        }
+        if (straight && flush) {
+            return PayCategory.STRAIGHT_FLUSH;
+        }
+        if (most == 4) {
+            return PayCategory.FOUR_OF_A_KIND;
+        }
+        if (three && pairs == 1) {
+            return PayCategory.FULL_HOUSE;
+        }
+        if (flush) {
+            return PayCategory.FLUSH;
+        }
+        if (straight) {
+            return PayCategory.STRAIGHT;
+        }
+        if (three) {
+            return PayCategory.THREE_OF_A_KIND;
+        }
+        if (pairs == 2) {
+            return PayCategory.TWO_PAIRS;
+        }
+        if (pairs == 1) {
+            return pairValue >= minimumPair ? PayCategory.ONE_PAIR : PayCategory.LOW_PAIR;
+        }
+        return PayCategory.NO_PAIR;
+    }
+
+    /**
+     * Tests loading the settings of the variant files
+     * @throws IOException if a variant cannot be read
+     */
+    @Test
+    public void testLoad() throws IOException {
+        Variant jacks = load("jacks-or-better");
+        assertEquals("Jacks or Better", jacks.getName(), "name");
+        assertEquals("Jacks or Better", jacks.toString(), "toString");
+        assertEquals(Variant.Wild.NONE, jacks.getWild(), "no wild cards");
+        assertEquals(10, jacks.getPayout(PayCategory.ONE_PAIR), "even money for jacks");
+        assertEquals(0, jacks.getPayout(PayCategory.LOW_PAIR), "nothing for tens");
+        assertEquals(PayCategory.STRAIGHT, jacks.evaluate(cards("h14 s2 d3 c4 h5")), "wheel");
+
+        Variant joker = load("joker-poker");
+        assertEquals(Variant.Wild.JOKER, joker.getWild(), "joker");
+        assertEquals(Deck.CARDS_WITH_JOKER, joker.getDeckSize(), "53 cards");
+        assertEquals(Variant.Wild.DEUCES, load("deuces-wild").getWild(), "deuces");
+    }
+
+    /**
+     * Tests playing variants through VideoPoker
+     * @throws IOException if a variant cannot be read
+     */
+    @Test
+    public void testVideoPoker() throws IOException {
+        Variant joker = load("joker-poker");
+        VideoPoker game = new VideoPoker(new Deck(new SplittableRandom(3), false, true), joker);
+        assertSame(joker, game.getVariant(), "variant");
+        Exception exception;
+        boolean sawJoker = false;
+        for (int i = 0; i < 200; ++i) {
+            int points = game.getPoints();
+            game.newGame();
+            PayCategory category = game.getPayCategory();
+            for (int card = 0; card < Hand.CARDS_IN_HAND; ++card) {
+                sawJoker |= game.getCard(card).isJoker();
+            }
+            assertEquals(joker.getLabel(category), game.scoreHand(), "label");
+            assertEquals(points - joker.getCost() + joker.getPayout(category), game.getPoints(),
+                         "points");
+        }
+        assertTrue(sawJoker, "the joker is dealt");
+
+        VideoPoker wild = new VideoPoker(new Deck(new SplittableRandom(1), false, true), joker);
+        for (int i = 0; i < 20; ++i) {
+            wild.newGame();
+            double[] payouts = HoldSolver.expectedPayouts(wild.getHand(), joker);
+            assertEquals(payouts[HoldSolver.bestHold(payouts)], payouts[wild.getBestHold()],
+                         "best hold under the variant");
+        }
+        exception = assertThrows(IllegalStateException.class, wild::getHandRank, "Wild rank");
+        assertEquals("Variant has wild cards", exception.getMessage(), "Wild rank message");
+
+        VideoPoker classic = new VideoPoker(5);
+        classic.newGame();
+        assertEquals(classic.getHandRank().toString(), classic.scoreHand(), "classic labels");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new VideoPoker(new Deck(new SplittableRandom(3)), joker), "No joker");
+        assertEquals("Deck does not match variant", exception.getMessage(), "No joker message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new VideoPoker(new Deck(new SplittableRandom(3)), null), "Null variant");
+        assertEquals("Null variant", exception.getMessage(), "Null variant message");
+    }
+
+    /**
+     * Makes a variant from settings written like a properties file
+     * @param text settings
+     * @return the variant
+     * @throws IOException if the text cannot be read
+     */
+    private static Variant of(String text) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new StringReader(text));
+        return Variant.of(properties);
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> of("cost=10"), "No name");
+        assertEquals("Missing name", exception.getMessage(), "No name message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> of("name=x\ncost=0"), "Free games");
+        assertEquals("Invalid cost", exception.getMessage(), "Free games message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> of("name=x\nwild=jacks"), "Wild jacks");
+        assertEquals("Invalid wild cards: jacks", exception.getMessage(), "Wild jacks message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> of("name=x\nminimumPair=15"), "Pair of fifteens");
+        assertEquals("Invalid minimum pair", exception.getMessage(), "Pair of fifteens message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> of("name=x\npay.FLUSH=lots"), "Pay not a number");
+        assertEquals("Invalid pay.FLUSH: lots", exception.getMessage(),
+                     "Pay not a number message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> of("name=x\npay.FLUSH=-1"), "Negative pay");
+        assertEquals("Invalid pay: pay.FLUSH", exception.getMessage(), "Negative pay message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> of("name=x\npay.SIX_OF_A_KIND=1"), "Unknown category");
+        assertEquals("Unknown category: SIX_OF_A_KIND", exception.getMessage(),
+                     "Unknown category message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> of("name=x\ncolour=red"), "Unknown setting");
+        assertEquals("Unknown setting: colour", exception.getMessage(),
+                     "Unknown setting message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> Variant.CLASSIC.evaluate(cards("h2 h3 h4 h5")), "Four cards");
+        assertEquals("Not five cards", exception.getMessage(), "Four cards message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> Variant.CLASSIC.evaluate(cards("h2 h3 h4 h5 joker")), "Joker in classic");
+        assertEquals("Not five cards", exception.getMessage(), "Joker in classic message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> Variant.of(null), "Null properties");
+        assertEquals("Null properties", exception.getMessage(), "Null properties message");
+
+        assertThrows(java.nio.file.NoSuchFileException.class,
+            () -> Variant.load(Path.of(Variant.DIRECTORY, "missing.properties")), "No file");
+    }
+}
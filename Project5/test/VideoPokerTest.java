@@ -60,4 +60,25 @@ public class VideoPokerTest {
         assertEquals(90, vp.getPoints(), "Initial game");
     }
 
+    /**
+     * Test scoring the first hand dealt with seed of 1
+     */
+    @Test
+    public void testScoreHand() {
+        vp.newGame();
+        assertEquals("No Pair", vp.scoreHand(), "[s7, h2, d5, h8, h4]");
+        assertEquals(90, vp.getPoints(), "Points after no pair");
+    }
+
+    /**
+     * Test points awarded for each category
+     */
+    @Test
+    public void testGetPayout() {
+        assertEquals(100, VideoPoker.getPayout(HandRank.ROYAL_FLUSH), "Royal flush");
+        assertEquals(40, VideoPoker.getPayout(HandRank.FULL_HOUSE), "Full house");
+        assertEquals(7, VideoPoker.getPayout(HandRank.ONE_PAIR), "One pair");
+        assertEquals(0, VideoPoker.getPayout(HandRank.NO_PAIR), "No pair");
+    }
+
 }
\ No newline at end of file
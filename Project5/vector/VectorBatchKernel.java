@@ -0,0 +1,119 @@
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Scores columns of card indexes for BatchScorer with the Vector API. Each
+ * step loads one card column of a whole vector of hands at a time and
+ * splits the card indexes into suits and values with a multiply and
+ * shift. The value keys, whose sum stands for the value histogram, are
+ * looked up with a lane shuffle when the vector is wide enough to hold a
+ * key for every value, and gathered from BatchScorer's table otherwise.
+ * The suit bits are ORed together, where a single bit left means a flush.
+ * The categories of the lanes are then gathered from an int copy of the
+ * category table, since gathers only read arrays of the lane type, and
+ * their payouts from BatchScorer's paytable. The hands after the last
+ * whole vector go to the scalar loop.
+ *
+ * This class needs the jdk.incubator.vector module to compile and to run,
+ * so it is kept out of src and only loaded by BatchScorer when it is
+ * present:
+ * javac --add-modules jdk.incubator.vector -cp bin -d bin vector/*.java
+ *
+ * @author Cole Sanders
+ */
+public class VectorBatchKernel implements BatchScorer.Kernel {
+
+    /** Widest vector of ints the CPU handles well */
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    /** Multiplier that, with SUIT_SHIFT, divides a card index by 13 */
+    private static final int SUIT_MULTIPLIER = 79;
+
+    /** Shift that, with SUIT_MULTIPLIER, divides a card index by 13 */
+    private static final int SUIT_SHIFT = 10;
+
+    /** Whether a vector has a lane for the key of every value */
+    private static final boolean SHUFFLE_KEYS = SPECIES.length() >= Card.VALUES_IN_SUIT;
+
+    /** Key of each value from zero, when SHUFFLE_KEYS is true */
+    private static final IntVector KEYS = SHUFFLE_KEYS ? keys() : null;
+
+    /** Offset of the categories of hands where all cards share a suit */
+    private static final int FLUSH_OFFSET = HandEvaluator.MAX_KEY_SUM + 1;
+
+    /** HandRank ordinal of every key sum, widened to ints for gathering */
+    private static final int[] CATEGORIES = categories();
+
+    /** Species of bytes with as many lanes as SPECIES */
+    private static final VectorSpecies<Byte> BYTES = VectorSpecies.of(byte.class,
+        VectorShape.forBitSize(SPECIES.vectorBitSize() / Integer.BYTES));
+
+    /**
+     * Widens the category table of HandEvaluator to ints, since the Vector
+     * API only gathers lanes of the array's own type
+     * @return HandRank ordinals indexed by key sum, plus FLUSH_OFFSET for
+     * hands where all cards share a suit
+     */
+    private static int[] categories() {
+        byte[] categories = HandEvaluator.buildCategories();
+        int[] widened = new int[categories.length];
+        for (int i = 0; i < categories.length; ++i) {
+            widened[i] = categories[i];
+        }
+        return widened;
+    }
+
+    /**
+     * Builds a vector holding the key of each value from zero, for looking
+     * keys up with selectFrom()
+     * @return vector of keys
+     */
+    private static IntVector keys() {
+        int[] keys = new int[SPECIES.length()];
+        System.arraycopy(BatchScorer.KEYS, 0, keys, 0, Card.VALUES_IN_SUIT);
+        return IntVector.fromArray(SPECIES, keys, 0);
+    }
+
+    /**
+     * Scores hands from..to - 1
+     * @param columns card indexes, indexed by card position then hand
+     * @param from first hand to score
+     * @param to one past the last hand to score
+     * @param ranks receives the HandRank ordinal of each hand
+     * @param payouts receives the payout of each hand
+     * @return total payout of the hands
+     */
+    @Override
+    public long score(int[][] columns, int from, int to, byte[] ranks, int[] payouts) {
+        int[] lanes = new int[SPECIES.length()];
+        long total = 0;
+        int i = from;
+        for (int end = from + SPECIES.loopBound(to - from); i < end; i += SPECIES.length()) {
+            IntVector sum = IntVector.zero(SPECIES);
+            IntVector suits = IntVector.zero(SPECIES);
+            for (int[] column : columns) {
+                IntVector index = IntVector.fromArray(SPECIES, column, i);
+                IntVector suit = index.mul(SUIT_MULTIPLIER).lanewise(VectorOperators.LSHR,
+                                                                     SUIT_SHIFT);
+                IntVector value = index.sub(suit.mul(Card.VALUES_IN_SUIT));
+                sum = sum.add(SHUFFLE_KEYS ? value.selectFrom(KEYS)
+                              : IntVector.fromArray(SPECIES, BatchScorer.KEYS, 0, column, i));
+                suits = suits.or(IntVector.broadcast(SPECIES, 1)
+                                          .lanewise(VectorOperators.LSHL, suit));
+            }
+            VectorMask<Integer> flush = suits.and(suits.sub(1)).compare(VectorOperators.EQ, 0);
+            sum.lanewise(VectorOperators.ADD, FLUSH_OFFSET, flush).intoArray(lanes, 0);
+            IntVector rank = IntVector.fromArray(SPECIES, CATEGORIES, 0, lanes, 0);
+            ((ByteVector) rank.castShape(BYTES, 0)).intoArray(ranks, i);
+            rank.intoArray(lanes, 0);
+            IntVector payout = IntVector.fromArray(SPECIES, BatchScorer.PAYOUTS, 0, lanes, 0);
+            payout.intoArray(payouts, i);
+            total += payout.reduceLanes(VectorOperators.ADD);
+        }
+        return total + BatchScorer.SCALAR.score(columns, i, to, ranks, payouts);
+    }
+}